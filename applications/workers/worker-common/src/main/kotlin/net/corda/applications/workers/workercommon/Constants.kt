@@ -5,5 +5,6 @@ internal const val HTTP_SERVICE_UNAVAILABLE_CODE = 503
 internal const val HTTP_HEALTH_ROUTE = "/isHealthy"
 internal const val HTTP_METRICS_ROUTE = "/metrics"
 internal const val HTTP_STATUS_ROUTE = "/status"
+internal const val HTTP_STARTUP_ROUTE = "/status/startup"
 internal const val WORKER_SERVER_PORT = 7000
 internal const val NO_CACHE = "no-cache"
@@ -52,6 +52,37 @@ object Health {
             context
         }
         webServer.registerEndpoint(Endpoint(HTTPMethod.GET, HTTP_STATUS_ROUTE, statusRouteHandler))
+
+        val startupRouteHandler = WebHandler { context ->
+            context.result(objectMapper.writeValueAsString(startupTrace(lifecycleRegistry)))
+            context.header(Header.CACHE_CONTROL, NO_CACHE)
+            context
+        }
+        webServer.registerEndpoint(Endpoint(HTTPMethod.GET, HTTP_STARTUP_ROUTE, startupRouteHandler))
+    }
+
+    /**
+     * Describes what held up the lifecycle components going UP: the critical path through the components, the
+     * components each component follows, and when each component changed status.
+     */
+    private fun startupTrace(lifecycleRegistry: LifecycleRegistry): Map<String, Any> {
+        val criticalPath = lifecycleRegistry.criticalPath().map { step ->
+            mapOf(
+                "name" to step.name.toString(),
+                "status" to step.status.name,
+                "upSince" to step.upSince?.toString(),
+                "blockedForMs" to step.blockedFor.toMillis(),
+            )
+        }
+        val dependencies = lifecycleRegistry.dependencyGraph().entries.associate { (name, followed) ->
+            name.toString() to followed.map { it.toString() }
+        }
+        val transitions = lifecycleRegistry.statusTransitions().entries.associate { (name, history) ->
+            name.toString() to history.map {
+                mapOf("status" to it.status.name, "reason" to it.reason, "timestamp" to it.timestamp.toString())
+            }
+        }
+        return mapOf("criticalPath" to criticalPath, "dependencies" to dependencies, "transitions" to transitions)
     }
 
 
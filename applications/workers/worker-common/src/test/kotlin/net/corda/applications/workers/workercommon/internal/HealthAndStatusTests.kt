@@ -1,11 +1,13 @@
 package net.corda.applications.workers.workercommon.internal
 
 import net.corda.applications.workers.workercommon.HTTP_HEALTH_ROUTE
+import net.corda.applications.workers.workercommon.HTTP_STARTUP_ROUTE
 import net.corda.applications.workers.workercommon.HTTP_STATUS_ROUTE
 import net.corda.applications.workers.workercommon.Health
 import net.corda.lifecycle.LifecycleCoordinatorName
 import net.corda.lifecycle.LifecycleStatus
 import net.corda.lifecycle.registry.CoordinatorStatus
+import net.corda.lifecycle.registry.CriticalPathStep
 import net.corda.lifecycle.registry.LifecycleRegistry
 import net.corda.rest.ResponseCode
 import net.corda.web.api.Endpoint
@@ -21,6 +23,8 @@ import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
+import java.time.Duration
+import java.time.Instant
 
 class HealthAndStatusTests {
     private val lifecycleRegistry = mock<LifecycleRegistry>()
@@ -114,4 +118,26 @@ class HealthAndStatusTests {
 
         verify(context).status(ResponseCode.SERVICE_UNAVAILABLE)
     }
+
+    @Test
+    fun `startup returns the critical path of the lifecycle components`() {
+        val critical = LifecycleCoordinatorName("critical")
+        whenever(lifecycleRegistry.criticalPath()).doReturn(
+            listOf(CriticalPathStep(critical, LifecycleStatus.UP, Instant.ofEpochSecond(10), Duration.ofMillis(1500)))
+        )
+        whenever(lifecycleRegistry.dependencyGraph()).doReturn(mapOf(critical to emptySet()))
+        doNothing().whenever(webServer).registerEndpoint(endpointCaptor.capture())
+        Health.configure(webServer, lifecycleRegistry)
+
+        val handler = endpointCaptor.allValues.single { it.path == HTTP_STARTUP_ROUTE }.webHandler
+        val context = mock<WebContext>()
+        handler.handle(context)
+
+        val result = argumentCaptor<Any>()
+        verify(context).result(result.capture())
+        assertThat(result.firstValue as String)
+            .contains("\"name\":\"$critical\"")
+            .contains("\"upSince\":\"1970-01-01T00:00:10Z\"")
+            .contains("\"blockedForMs\":1500")
+    }
 }
@@ -0,0 +1,62 @@
+package net.corda.applications.workers.smoketest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.assertj.core.api.SoftAssertions
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.slf4j.LoggerFactory
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+
+/**
+ * Measures how long each worker took to start, along the critical path of its lifecycle components, once the cluster
+ * is ready. If the `workerStartupBudgetMs` system property is set, each worker must have started within that budget.
+ */
+@Order(3)
+class WorkerStartupTimeTest {
+    private companion object {
+        private val logger = LoggerFactory.getLogger(WorkerStartupTimeTest::class.java)
+        private val objectMapper = ObjectMapper()
+        private val workerUrls = mapOf(
+            "crypto-worker" to System.getProperty("cryptoWorkerUrl"),
+            "db-worker" to System.getProperty("dbWorkerUrl"),
+            "flow-worker" to System.getProperty("flowWorkerUrl"),
+            "flow-mapper-worker" to System.getProperty("flowMapperWorkerUrl"),
+            "verification-worker" to System.getProperty("verificationWorkerUrl"),
+            "persistence-worker" to System.getProperty("persistenceWorkerUrl"),
+            "token-selection-worker" to System.getProperty("tokenSelectionWorkerUrl"),
+            "rest-worker" to System.getProperty("restWorkerUrl"),
+            "uniqueness-worker" to System.getProperty("uniquenessWorkerUrl"),
+        )
+        private val startupBudgetMs = System.getProperty("workerStartupBudgetMs")?.toLongOrNull()
+    }
+
+    private val client = HttpClient.newBuilder().build()
+
+    @Test
+    fun `workers report how long their start up took`() {
+        val softly = SoftAssertions()
+        workerUrls.filterValues { !it.isNullOrBlank() }.forEach { (name, url) ->
+            val request = HttpRequest.newBuilder().uri(URI.create("${url}status/startup")).build()
+            val response = client.send(request, HttpResponse.BodyHandlers.ofString())
+            softly.assertThat(response.statusCode()).`as`("$name start up status code").isEqualTo(200)
+            if (response.statusCode() != 200) {
+                return@forEach
+            }
+
+            val criticalPath = objectMapper.readTree(response.body())["criticalPath"]
+            val startupMs = criticalPath.sumOf { it["blockedForMs"].asLong() }
+            logger.info(
+                "$name started in $startupMs ms, along: " +
+                    criticalPath.joinToString(" -> ") { "${it["name"].asText()} (${it["blockedForMs"].asLong()} ms)" }
+            )
+            softly.assertThat(criticalPath.lastOrNull()?.get("status")?.asText()).`as`("$name status").isEqualTo("UP")
+            if (startupBudgetMs != null) {
+                softly.assertThat(startupMs).`as`("$name start up time in ms").isLessThanOrEqualTo(startupBudgetMs)
+            }
+        }
+        softly.assertAll()
+    }
+}
@@ -27,7 +27,6 @@ internal class ChunkWriteToDbProcessorTest {
     private lateinit var publisher: StatusPublisher
 
     private val persistence = mock<DatabaseChunkPersistence>().apply {
-        whenever(checksumIsValid(any())).thenReturn(true)
         whenever(persistChunk(any())).thenReturn(AllChunksReceived.YES)
     }
 
@@ -17,8 +17,6 @@ import net.corda.chunking.datamodel.ChunkEntity
 import net.corda.chunking.datamodel.ChunkingEntities
 import net.corda.chunking.db.impl.AllChunksReceived
 import net.corda.chunking.db.impl.persistence.database.DatabaseChunkPersistence
-import net.corda.crypto.core.SecureHashImpl
-import net.corda.crypto.core.toAvro
 import net.corda.data.chunking.Chunk
 import net.corda.db.admin.impl.ClassloaderChangeLog
 import net.corda.db.admin.impl.LiquibaseSchemaMigratorImpl
@@ -281,30 +279,4 @@ internal class DatabaseChunkPersistenceTest {
             assertThat(it.first.data.limit()).isEqualTo(it.second.data?.size ?: 0)
         }
     }
-
-    @Test
-    fun `database chunk persistence chunk checksums match`() {
-        val someFile = randomFileName()
-        val chunks = createChunks(someFile)
-        assertThat(chunks.isEmpty()).isFalse
-        val requestId = chunks.first().requestId
-        // don't shuffle for this.
-
-        chunks.forEach { chunkPersistence.persistChunk(it) }
-
-        assertThat(chunkPersistence.checksumIsValid(requestId)).isTrue
-    }
-
-    @Test
-    fun `database chunk persistence returns false when broken checksums do not match`() {
-        val someFile = randomFileName()
-        val chunks = createChunks(someFile)
-        assertThat(chunks.isEmpty()).isFalse
-        val requestId = chunks.first().requestId
-
-        chunks.last().checksum = SecureHashImpl("rubbish", "1234567890".toByteArray()).toAvro()
-        chunks.forEach { chunkPersistence.persistChunk(it) }
-
-        assertThat(chunkPersistence.checksumIsValid(requestId)).isFalse
-    }
 }
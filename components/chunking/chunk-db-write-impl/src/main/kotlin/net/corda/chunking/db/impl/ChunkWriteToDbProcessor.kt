@@ -34,11 +34,8 @@ class ChunkWriteToDbProcessor(
 
             if (allChunksReceived == AllChunksReceived.NO) return
 
-            if (!persistence.checksumIsValid(request.requestId)) {
-                throw ValidationException("Checksum of CPI does not match", request.requestId)
-            }
-
             // We validate the CPI, persist it to the database, and publish CPI info.
+            // The checksum of the chunks is validated as they are assembled into the CPI.
             // Exceptions are used to communicate failure.
             // If we fail for any reason, we never send an OK message.
             val checksum = validator.validate(request.requestId)
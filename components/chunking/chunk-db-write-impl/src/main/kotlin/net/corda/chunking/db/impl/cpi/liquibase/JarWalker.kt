@@ -1,11 +1,9 @@
 package net.corda.chunking.db.impl.cpi.liquibase
 
-import java.io.ByteArrayInputStream
 import java.io.FilterInputStream
 import java.io.InputStream
 import java.util.jar.JarInputStream
 
-
 /**
  * Simple class to traverse a jar input stream, and call 'onEntry' for each entry.
  */
@@ -27,27 +25,22 @@ object JarWalker {
 
     @Suppress("NestedBlockDepth")
     private fun walk(depth: Int, inputStream: InputStream, onEntry: (String, InputStream) -> Unit) {
-        // We don't own the input stream, so we don't close it.
-        // Instead, read bytes into a buffer that we *do own*.
-        // As long as no-one loads a multi-Gb jar we're fine (this is the same
-        // jar loading code as the cpk/cpi loaders so that's doomed too).
-        val buffer = inputStream.readAllBytes()
-
         // We "own" the CPK format, the actual "jar" is at the top level.
+        // Whoever called us skips the rest of this archive when moving on to their next entry.
         if (depth > maxDepth) return
 
-        ByteArrayInputStream(buffer).use {
-            JarInputStream(it).use { jarInputStream ->
-                while (true) {
-                    val entry = jarInputStream.nextJarEntry ?: break
-
-                    // We *might* want to additionally filter on the jar here as well
-                    // to ensure it's a Cordapp one.
-                    if (entry.name.lowercase().endsWith(".jar") || entry.name.lowercase().endsWith(".cpk")) {
-                        walk(depth + 1, UncloseableInputStream(jarInputStream), onEntry)
-                    } else {
-                        onEntry(entry.name, UncloseableInputStream(jarInputStream))
-                    }
+        // We don't own the input stream, so we don't let it be closed. Nested archives are read as they stream past,
+        // rather than buffered in memory, so that walking a large CPK doesn't need to hold all of it.
+        JarInputStream(UncloseableInputStream(inputStream)).use { jarInputStream ->
+            while (true) {
+                val entry = jarInputStream.nextJarEntry ?: break
+
+                // We *might* want to additionally filter on the jar here as well
+                // to ensure it's a Cordapp one.
+                if (entry.name.lowercase().endsWith(".jar") || entry.name.lowercase().endsWith(".cpk")) {
+                    walk(depth + 1, jarInputStream, onEntry)
+                } else {
+                    onEntry(entry.name, UncloseableInputStream(jarInputStream))
                 }
             }
         }
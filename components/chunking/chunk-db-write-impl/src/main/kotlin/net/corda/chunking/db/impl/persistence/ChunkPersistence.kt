@@ -16,23 +16,9 @@ interface ChunkPersistence {
      */
     fun persistChunk(chunk: Chunk): AllChunksReceived
 
-    /**
-     * Validates that the chunks written match the complete file uploaded.
-     *
-     * Does the checksum of the chunks in the persistence layer for this [requestId]
-     * match the checksum for the [requestId] that has already been written to the
-     * persistence layer?
-     *
-     * Assumes that all chunks have been received for the given [requestId]
-     *
-     * @return returns true if the checksum of the chunks matches the checksum already written
-     * into the persistence layer
-     */
-    fun checksumIsValid(requestId: RequestId): Boolean
-
     /**
      * Gets chunks (if any) for a given [requestId] from the persistence layer
-     * and calls [onChunk] for each chunk that is returned.
+     * and calls [onChunk] for each chunk that is returned, in order of their part number.
      *
      * @param requestId the requestId of the chunks
      * @param onChunk lambda method to be called on each chunk
@@ -1,12 +1,10 @@
 package net.corda.chunking.db.impl.persistence.database
 
-import net.corda.chunking.Checksum
 import net.corda.chunking.RequestId
 import net.corda.chunking.datamodel.ChunkEntity
 import net.corda.chunking.datamodel.ChunkPropertyEntity
 import net.corda.chunking.db.impl.AllChunksReceived
 import net.corda.chunking.db.impl.persistence.ChunkPersistence
-import net.corda.crypto.core.bytes
 import net.corda.crypto.core.parseSecureHash
 import net.corda.crypto.core.toAvro
 import net.corda.crypto.core.toCorda
@@ -14,8 +12,6 @@ import net.corda.data.KeyValuePair
 import net.corda.data.KeyValuePairList
 import net.corda.data.chunking.Chunk
 import net.corda.orm.utils.transaction
-import net.corda.v5.base.exceptions.CordaRuntimeException
-import net.corda.v5.crypto.SecureHash
 import java.nio.ByteBuffer
 import java.time.Instant
 import javax.persistence.EntityManager
@@ -111,49 +107,11 @@ class DatabaseChunkPersistence(private val entityManagerFactory: EntityManagerFa
         return status
     }
 
-    /**
-     * Is the checksum for the given [requestId] valid?
-     *
-     * Assumes that all chunks have been received for the given [requestId]
-     */
-    override fun checksumIsValid(requestId: RequestId): Boolean {
-        var expectedChecksum: SecureHash? = null
-        var actualChecksum: ByteArray? = null
-
-        entityManagerFactory.createEntityManager().transaction { em ->
-            val streamingResults = em.createQuery(
-                "SELECT c FROM ${ChunkEntity::class.simpleName} c " +
-                        "WHERE c.requestId = :requestId " +
-                        "ORDER BY c.partNumber ASC",
-                ChunkEntity::class.java
-            )
-                .setParameter("requestId", requestId)
-                .resultStream
-
-            val messageDigest = Checksum.newMessageDigest()
-
-            streamingResults.use {
-                it.forEach { e ->
-                    if (e.data == null) { // zero chunk
-                        if (e.checksum == null) throw CordaRuntimeException("No checksum found in zero-sized chunk")
-                        expectedChecksum = parseSecureHash(e.checksum!!)
-                    } else { // non-zero chunk
-                        messageDigest.update(e.data!!)
-                    }
-                }
-            }
-
-            if (expectedChecksum == null) throw CordaRuntimeException("Expected checksum not set because no zero-sized chunk was found")
-
-            actualChecksum = messageDigest.digest()
-        }
-
-        return expectedChecksum!!.bytes.contentEquals(actualChecksum)
-    }
-
     /**
      * Gets chunks (if any) for a given [requestId] from database and calls [onChunk] for each chunk that is returned.
      *
+     * Chunks are returned in order, so that the binary they are assembled into can be hashed as it is written.
+     *
      * @param requestId the requestId of the chunks
      * @param onChunk lambda method to be called on each chunk
      */
@@ -164,7 +122,7 @@ class DatabaseChunkPersistence(private val entityManagerFactory: EntityManagerFa
                 """
                 SELECT c FROM $table c
                 WHERE c.requestId = :requestId
-                ORDER BY c.requestId ASC
+                ORDER BY c.partNumber ASC
                 """.trimIndent(),
                 ChunkEntity::class.java
             )
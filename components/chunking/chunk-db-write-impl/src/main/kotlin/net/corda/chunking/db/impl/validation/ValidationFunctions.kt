@@ -5,6 +5,7 @@ import java.nio.file.Path
 import javax.persistence.PersistenceException
 import net.corda.chunking.ChunkReaderFactory
 import net.corda.chunking.Constants.Companion.CHUNK_FILENAME_KEY
+import net.corda.chunking.Constants.Companion.SECURE_HASH_VALIDATION_ERROR
 import net.corda.chunking.RequestId
 import net.corda.chunking.db.impl.cpi.liquibase.LiquibaseScriptExtractor
 import net.corda.chunking.db.impl.persistence.ChunkPersistence
@@ -26,9 +27,11 @@ import org.slf4j.Logger
  * Assembles the CPI from chunks in the database, and returns the temporary path
  * that we've stored the recreated binary, plus any filename associated with it.
  *
+ * The chunks are read from the database once, and the checksum of the binary is validated as it is assembled.
+ *
  * Any values returned that are null can be considered a failure.
  *
- * @throws ValidationException
+ * @throws ValidationException if the chunks do not make up the complete binary, or its checksum does not match.
  */
 fun assembleFileFromChunks(
     cacheDir: Path,
@@ -52,7 +55,12 @@ fun assembleFileFromChunks(
     }
 
     // Now read chunks, and create CPI on local disk
-    chunkPersistence.forEachChunk(requestId, reader::read)
+    try {
+        chunkPersistence.forEachChunk(requestId, reader::read)
+    } catch (ex: IllegalArgumentException) {
+        if (ex.message != SECURE_HASH_VALIDATION_ERROR) throw ex
+        throw ValidationException("Checksum of CPI does not match", requestId, ex)
+    }
 
     return with(fileName) {
         if (this == null) {
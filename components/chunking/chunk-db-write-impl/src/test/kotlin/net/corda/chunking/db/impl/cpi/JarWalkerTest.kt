@@ -45,4 +45,28 @@ internal class JarWalkerTest {
         }
         assertThat(entryCount).isEqualTo(2)
     }
+
+    @Test
+    fun `nested jar entries are walked in place`() {
+        val cpk = InMemoryZipFile().also {
+            it.addEntry("META-INF/CPKDependencies.json", text.toByteArray())
+            it.addEntry("lib/contract.jar", nonEmptyJar().toByteArray())
+            it.addEntry("resources/words3.txt", text.toByteArray())
+        }
+        val paths = mutableListOf<String>()
+
+        cpk.inputStream().use {
+            JarWalker.walk(it) { path, inputStream ->
+                paths.add(path)
+                assertThat(inputStream.readAllBytes()).isEqualTo(text.toByteArray())
+            }
+        }
+
+        assertThat(paths).containsExactly(
+            "META-INF/CPKDependencies.json",
+            "resources/words1.txt",
+            "resources/words2.txt",
+            "resources/words3.txt"
+        )
+    }
 }
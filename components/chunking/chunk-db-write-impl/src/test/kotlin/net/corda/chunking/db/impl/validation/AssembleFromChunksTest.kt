@@ -5,6 +5,7 @@ import net.corda.chunking.ChunkReader
 import net.corda.chunking.ChunkReaderFactory
 import net.corda.chunking.ChunksCombined
 import net.corda.chunking.Constants.Companion.CHUNK_FILENAME_KEY
+import net.corda.chunking.Constants.Companion.SECURE_HASH_VALIDATION_ERROR
 import net.corda.chunking.RequestId
 import net.corda.chunking.db.impl.AllChunksReceived
 import net.corda.chunking.db.impl.persistence.ChunkPersistence
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.any
+import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 import java.nio.file.FileSystem
@@ -47,7 +49,6 @@ internal class AssembleFromChunksTest {
                 TODO("Not yet implemented")
             }
 
-            override fun checksumIsValid(requestId: RequestId): Boolean = true
             override fun forEachChunk(requestId: RequestId, onChunk: (chunk: Chunk) -> Unit) = onChunk(Chunk())
         }
         val requestId = UUID.randomUUID().toString()
@@ -80,7 +81,6 @@ internal class AssembleFromChunksTest {
                 TODO("Not yet implemented")
             }
 
-            override fun checksumIsValid(requestId: RequestId): Boolean = true
             override fun forEachChunk(requestId: RequestId, onChunk: (chunk: Chunk) -> Unit) = onChunk(Chunk())
         }
         val requestId = UUID.randomUUID().toString()
@@ -97,4 +97,25 @@ internal class AssembleFromChunksTest {
             assembleFileFromChunks(cacheDir, chunkPersistence, requestId, chunkReaderFactory)
         }
     }
+
+    @Test
+    fun `assemble fails if checksum does not match`() {
+        val cacheDir = fs.getPath("dest").also { Files.createDirectory(it) }
+        val chunkPersistence = mock<ChunkPersistence> {
+            on { forEachChunk(any(), any()) } doAnswer { it.getArgument<(Chunk) -> Unit>(1)(Chunk()) }
+        }
+        val requestId = UUID.randomUUID().toString()
+
+        val corruptChunkReader = object : ChunkReader {
+            override fun read(chunk: Chunk) = throw IllegalArgumentException(SECURE_HASH_VALIDATION_ERROR)
+            override fun onComplete(chunksCombinedCallback: ChunksCombined) {}
+        }
+
+        val chunkReaderFactory = mock<ChunkReaderFactory> { on { create(any()) }.doReturn(corruptChunkReader) }
+
+        val ex = assertThrows<ValidationException> {
+            assembleFileFromChunks(cacheDir, chunkPersistence, requestId, chunkReaderFactory)
+        }
+        assertThat(ex.requestId).isEqualTo(requestId)
+    }
 }
@@ -64,6 +64,8 @@ class DbConnectionManagerImpl (
     private val lifecycleCoordinator = lifecycleCoordinatorFactory.createCoordinator<DbConnectionManager>(eventHandler)
     private lateinit var lateInitialisedConfig: SmartConfig
     private var dbConnectionsRepository: DbConnectionsRepository? = null
+    // Connections looked up from the cluster DB share pools, so that virtual nodes on the same DB server share connections.
+    private val sharedPoolDataSourceFactory = SharedPoolDataSourceFactory(dataSourceFactory)
 
     override val clusterConfig: SmartConfig
         get() {
@@ -111,7 +113,7 @@ class DbConnectionManagerImpl (
         val clusterDataSource = dataSourceFactory.createFromConfig(config)
         val clusterEntityManagerFactory = createManagerFactory(CordaDb.CordaCluster.persistenceUnitName, clusterDataSource)
         val dbConnectionsRepository = dbConnectionRepositoryFactory.create(
-            clusterDataSource, dataSourceFactory, clusterEntityManagerFactory, config.factory)
+            clusterDataSource, sharedPoolDataSourceFactory, clusterEntityManagerFactory, config.factory)
         this.dbConnectionsRepository = dbConnectionsRepository
         if (dbConnectionOps is LateInitDbConnectionOps) {
             dbConnectionOps.delegate = DbConnectionOpsCachedImpl(
@@ -1,5 +1,9 @@
 package net.corda.db.connection.manager.impl
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.Ticker
+import net.corda.cache.caffeine.CacheFactoryImpl
 import net.corda.db.connection.manager.DBConfigurationException
 import net.corda.db.connection.manager.DbConnectionOps
 import net.corda.db.core.DbPrivilege
@@ -7,22 +11,51 @@ import net.corda.db.schema.CordaDb
 import net.corda.libs.configuration.SmartConfig
 import net.corda.orm.JpaEntitiesRegistry
 import net.corda.orm.JpaEntitiesSet
+import java.lang.ref.Cleaner
+import java.time.Duration
 import java.util.UUID
 import java.util.concurrent.ConcurrentHashMap
 import javax.persistence.EntityManager
 import javax.persistence.EntityManagerFactory
+import javax.persistence.SynchronizationType
 
+/**
+ * [DbConnectionOps] which caches the [EntityManagerFactory]s it creates.
+ *
+ * Those created by connection ID, i.e. one per virtual node database, are evicted once they have not been asked for
+ * in [connectionIdleTimeout], so that the connections of idle virtual nodes are released. Callers never close the
+ * factories they are given, so an evicted factory is only closed once neither the factories handed out for it nor the
+ * entity managers created from them are reachable any more.
+ */
 class DbConnectionOpsCachedImpl(
     private val delegate: DbConnectionOps,
-    private val entitiesRegistry: JpaEntitiesRegistry
+    private val entitiesRegistry: JpaEntitiesRegistry,
+    connectionIdleTimeout: Duration = CONNECTION_IDLE_TIMEOUT,
+    ticker: Ticker = Ticker.systemTicker(),
     ): DbConnectionOps by delegate {
 
+    private companion object {
+        /**
+         * How long an [EntityManagerFactory] by connection ID is cached without being asked for.
+         */
+        val CONNECTION_IDLE_TIMEOUT: Duration =
+            Duration.ofSeconds(java.lang.Long.getLong("net.corda.db.connection.cache.idle.timeout.seconds", 1800))
+
+        val cleaner: Cleaner = Cleaner.create()
+    }
+
     // We should try merging the below two caches into one to, like so, make sure each connection gets one EMF only,
     //  otherwise (i.e. if we get duplicate EMFs for same connection) we end up leaking memory with
     //  duplicate entity proxies loaded in the class loader as identified in CORE-15806.
     private val cache = ConcurrentHashMap<Pair<String,DbPrivilege>, EntityManagerFactory>()
 
-    private val cacheByConnectionId = ConcurrentHashMap<Pair<UUID,Boolean>, Pair<EntityManagerFactory,Int>>()
+    private val cacheByConnectionId: Cache<Pair<UUID,Boolean>, LeasedEntityManagerFactory> = CacheFactoryImpl().buildNonAsync(
+        "DB-Connections-By-Id",
+        Caffeine.newBuilder()
+            .expireAfterAccess(connectionIdleTimeout)
+            .ticker(ticker)
+            .removalListener { _, value, _ -> value?.evict() },
+    )
 
     private fun removeFromCache(name: String, privilege: DbPrivilege) {
         val entityManagerFactory = cache.remove(Pair(name,privilege))
@@ -78,15 +111,79 @@ class DbConnectionOpsCachedImpl(
         enablePool: Boolean,
     ): EntityManagerFactory {
         val entities = entitiesSet.classes.hashCode()
-        val emfP = cacheByConnectionId.computeIfAbsent(Pair(connectionId, enablePool)) {
-            Pair(delegate.createEntityManagerFactory(connectionId, entitiesSet, enablePool), entities)
+        while (true) {
+            val leased = cacheByConnectionId.get(Pair(connectionId, enablePool)) {
+                LeasedEntityManagerFactory(delegate.createEntityManagerFactory(connectionId, entitiesSet, enablePool), entities)
+            }
+            if(entities != leased.entities)
+                throw IllegalArgumentException("EntityManagerFactory with a different JpaEntitiesSet already exists.")
+            // A factory evicted and closed since it was looked up is no longer in the cache.
+            return leased.lease() ?: continue
         }
-        if(entities != emfP.second)
-            throw IllegalArgumentException("EntityManagerFactory with a different JpaEntitiesSet already exists.")
-        return object : EntityManagerFactory by emfP.first {
-            override fun close() {
-                // consumers of this function are not responsible for closing the EMF. Calling close becomes a no-op.
+    }
+
+    /**
+     * An [EntityManagerFactory] cached by connection ID, which is closed once it has been evicted and nothing leased
+     * from it is reachable.
+     */
+    private class LeasedEntityManagerFactory(
+        private val entityManagerFactory: EntityManagerFactory,
+        val entities: Int,
+    ) {
+        // Guarded by this.
+        private var leases = 0
+        private var evicted = false
+        private var closed = false
+
+        /**
+         * @return a factory which keeps this one open while it, or any entity manager created from it, is reachable,
+         * or `null` if this one has already been closed.
+         */
+        fun lease(): EntityManagerFactory? {
+            synchronized(this) {
+                if (closed) return null
+                leases++
+            }
+            return Lease(entityManagerFactory).also { cleaner.register(it) { release() } }
+        }
+
+        fun evict() = closeIfUnused { evicted = true }
+
+        private fun release() = closeIfUnused { leases-- }
+
+        private fun closeIfUnused(update: () -> Unit) {
+            val close = synchronized(this) {
+                update()
+                (evicted && leases == 0 && !closed).also { if (it) closed = true }
+            }
+            if (close) {
+                entityManagerFactory.close()
             }
         }
     }
-}
\ No newline at end of file
+
+    private class Lease(private val entityManagerFactory: EntityManagerFactory) : EntityManagerFactory by entityManagerFactory {
+        override fun close() {
+            // consumers of this function are not responsible for closing the EMF. Calling close becomes a no-op.
+        }
+
+        override fun createEntityManager(): EntityManager =
+            LeasedEntityManager(entityManagerFactory.createEntityManager(), this)
+
+        override fun createEntityManager(map: Map<*, *>?): EntityManager =
+            LeasedEntityManager(entityManagerFactory.createEntityManager(map), this)
+
+        override fun createEntityManager(synchronizationType: SynchronizationType?): EntityManager =
+            LeasedEntityManager(entityManagerFactory.createEntityManager(synchronizationType), this)
+
+        override fun createEntityManager(synchronizationType: SynchronizationType?, map: Map<*, *>?): EntityManager =
+            LeasedEntityManager(entityManagerFactory.createEntityManager(synchronizationType, map), this)
+    }
+
+    private class LeasedEntityManager(
+        entityManager: EntityManager,
+        // Keeps the lease reachable for as long as the entity manager is.
+        @Suppress("unused")
+        private val lease: EntityManagerFactory,
+    ) : EntityManager by entityManager
+}
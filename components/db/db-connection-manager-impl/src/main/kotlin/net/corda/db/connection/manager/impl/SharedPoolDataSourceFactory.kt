@@ -0,0 +1,169 @@
+package net.corda.db.connection.manager.impl
+
+import net.corda.db.core.CloseableDataSource
+import net.corda.db.core.DataSourceFactory
+import org.slf4j.LoggerFactory
+import java.sql.Connection
+import java.sql.SQLException
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicBoolean
+import javax.sql.DataSource
+
+/**
+ * [DataSourceFactory] which shares connection pools between the data sources it creates, rather than creating a new
+ * pool for each of them.
+ *
+ * Data sources connecting to the same database server, as the same user and with the same pool settings share a
+ * single pool created by the [delegate]. The schema named by a `currentSchema` parameter in the JDBC URL is not part
+ * of this, and is selected on each connection as it is checked out of the shared pool instead. This way, virtual
+ * node databases which are schemas of the same database server use a bounded number of physical connections,
+ * however many virtual nodes there are.
+ *
+ * Each data source created holds a lease on its pool, and the pool is closed once every data source using it has
+ * been closed. Data sources without a pool are not shared.
+ */
+class SharedPoolDataSourceFactory(
+    private val delegate: DataSourceFactory,
+) : DataSourceFactory {
+    private companion object {
+        private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+
+        private const val SCHEMA_PARAMETER = "currentSchema"
+
+        /**
+         * Split the schema out of the [jdbcUrl], if it names exactly one.
+         *
+         * @return the JDBC URL without the schema, and the schema or `null`.
+         */
+        fun splitSchema(jdbcUrl: String): Pair<String, String?> {
+            val query = jdbcUrl.indexOf('?')
+            if (query < 0) return jdbcUrl to null
+            val parameters = jdbcUrl.substring(query + 1).split('&')
+            val schemaParameter = parameters.singleOrNull { it.substringBefore('=').equals(SCHEMA_PARAMETER, ignoreCase = true) }
+                ?: return jdbcUrl to null
+            val schema = schemaParameter.substringAfter('=', "")
+            // Leave search paths of several (or encoded) schemas in the URL, as they can't be selected as one schema.
+            if (schema.isEmpty() || schema.contains(',') || schema.contains('%')) return jdbcUrl to null
+            val otherParameters = parameters.filter { it !== schemaParameter }
+            val url = jdbcUrl.substring(0, query) + if (otherParameters.isEmpty()) "" else otherParameters.joinToString("&", "?")
+            return url to schema
+        }
+    }
+
+    private data class PoolKey(
+        val driverClass: String,
+        val jdbcUrl: String,
+        val username: String,
+        val password: String,
+        val isAutoCommit: Boolean,
+        val isReadOnly: Boolean,
+        val maximumPoolSize: Int,
+        val minimumPoolSize: Int?,
+        val idleTimeout: Duration,
+        val maxLifetime: Duration,
+        val keepaliveTime: Duration,
+        val validationTimeout: Duration,
+        // Connections from a pool which selects schemas can't be handed to a data source relying on the default schema.
+        val selectsSchema: Boolean,
+    ) {
+        override fun toString() = "$username@$jdbcUrl"
+    }
+
+    private class SharedPool(val dataSource: CloseableDataSource) {
+        var leases = 0
+    }
+
+    // Guarded by itself.
+    private val pools = HashMap<PoolKey, SharedPool>()
+
+    /**
+     * The number of pools currently open.
+     */
+    val poolCount: Int
+        get() = synchronized(pools) { pools.size }
+
+    override fun create(
+        enablePool: Boolean,
+        driverClass: String,
+        jdbcUrl: String,
+        username: String,
+        password: String,
+        isAutoCommit: Boolean,
+        isReadOnly: Boolean,
+        maximumPoolSize: Int,
+        minimumPoolSize: Int?,
+        idleTimeout: Duration,
+        maxLifetime: Duration,
+        keepaliveTime: Duration,
+        validationTimeout: Duration,
+    ): CloseableDataSource {
+        if (!enablePool) {
+            return delegate.create(
+                enablePool, driverClass, jdbcUrl, username, password, isAutoCommit, isReadOnly,
+                maximumPoolSize, minimumPoolSize, idleTimeout, maxLifetime, keepaliveTime, validationTimeout
+            )
+        }
+        val (serverUrl, schema) = splitSchema(jdbcUrl)
+        val key = PoolKey(
+            driverClass, serverUrl, username, password, isAutoCommit, isReadOnly,
+            maximumPoolSize, minimumPoolSize, idleTimeout, maxLifetime, keepaliveTime, validationTimeout,
+            schema != null
+        )
+        val pool = synchronized(pools) {
+            pools.getOrPut(key) {
+                logger.info("Creating connection pool shared by data sources for $key")
+                SharedPool(
+                    delegate.create(
+                        true, driverClass, serverUrl, username, password, isAutoCommit, isReadOnly,
+                        maximumPoolSize, minimumPoolSize, idleTimeout, maxLifetime, keepaliveTime, validationTimeout
+                    )
+                )
+            }.also { it.leases++ }
+        }
+        return SharedPoolDataSource(key, pool, schema)
+    }
+
+    private fun release(key: PoolKey, pool: SharedPool) {
+        val unused = synchronized(pools) {
+            --pool.leases == 0 && pools.remove(key, pool)
+        }
+        if (unused) {
+            logger.info("Closing connection pool for $key as it is no longer used")
+            pool.dataSource.close()
+        }
+    }
+
+    /**
+     * A lease on a [SharedPool], which selects its [selectedSchema] on each connection it checks out.
+     */
+    private inner class SharedPoolDataSource(
+        private val key: PoolKey,
+        private val pool: SharedPool,
+        private val selectedSchema: String?,
+    ) : CloseableDataSource, DataSource by pool.dataSource {
+        private val closed = AtomicBoolean()
+
+        override fun getConnection(): Connection = selectSchema(pool.dataSource.connection)
+
+        override fun getConnection(username: String?, password: String?): Connection =
+            selectSchema(pool.dataSource.getConnection(username, password))
+
+        private fun selectSchema(connection: Connection): Connection {
+            if (selectedSchema != null) {
+                try {
+                    connection.schema = selectedSchema
+                } catch (e: SQLException) {
+                    connection.close()
+                    throw e
+                }
+            }
+            return connection
+        }
+
+        override fun close() {
+            if (closed.compareAndSet(false, true)) {
+                release(key, pool)
+            }
+        }
+    }
+}
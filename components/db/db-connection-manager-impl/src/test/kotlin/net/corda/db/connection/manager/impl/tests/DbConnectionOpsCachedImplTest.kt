@@ -3,20 +3,40 @@ package net.corda.db.connection.manager.impl.tests
 import net.corda.db.connection.manager.DbConnectionOps
 import net.corda.db.connection.manager.impl.DbConnectionOpsCachedImpl
 import net.corda.orm.JpaEntitiesSet
+import net.corda.test.util.eventually
+import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.any
+import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
 import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+import java.time.Duration
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 import javax.persistence.EntityManagerFactory
 
 class DbConnectionOpsCachedImplTest {
+    private val entities = object : JpaEntitiesSet {
+        override val persistenceUnitName = "foo"
+        override val classes: Set<Class<*>> = setOf(DbConnectionOpsCachedImplTest::class.java)
+    }
+
+    private var nanos = 0L
+
+    private fun advance(duration: Duration) {
+        nanos += duration.toNanos()
+    }
+
     @Test
     fun `when getOrCreateEntityManagerFactory reject if called with existing set`() {
-        val dco = DbConnectionOpsCachedImpl(mock(), mock())
+        val dbConnectionOps = mock<DbConnectionOps> {
+            on { createEntityManagerFactory(any(), any(), any()) } doReturn mock()
+        }
+        val dco = DbConnectionOpsCachedImpl(dbConnectionOps, mock())
         val id = UUID.randomUUID()
         val entities = object : JpaEntitiesSet {
             override val persistenceUnitName = "foo"
@@ -51,4 +71,48 @@ class DbConnectionOpsCachedImplTest {
 
         verify(emf, never()).close()
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `when EMF is idle but still in use do not close it`() {
+        val emf = mock<EntityManagerFactory>()
+        val dbConnectionOps = mock<DbConnectionOps> {
+            on { createEntityManagerFactory(any(), any(), any()) } doReturn (emf) doAnswer { mock() }
+        }
+        val dco = DbConnectionOpsCachedImpl(dbConnectionOps, mock(), Duration.ofMinutes(5)) { nanos }
+
+        val inUse = dco.getOrCreateEntityManagerFactory(UUID.randomUUID(), entities)
+        advance(Duration.ofMinutes(10))
+        dco.getOrCreateEntityManagerFactory(UUID.randomUUID(), entities)
+        System.gc()
+
+        verify(emf, never()).close()
+        inUse.close()
+    }
+
+    @Test
+    fun `when virtual nodes are added only the EMFs of those recently used stay open`() {
+        val open = ConcurrentHashMap.newKeySet<EntityManagerFactory>()
+        val dbConnectionOps = mock<DbConnectionOps> {
+            on { createEntityManagerFactory(any(), any(), any()) } doAnswer {
+                mock<EntityManagerFactory> {
+                    on { createEntityManager() } doReturn mock()
+                }.also { emf ->
+                    doAnswer { open.remove(emf) }.whenever(emf).close()
+                    open.add(emf)
+                }
+            }
+        }
+        val dco = DbConnectionOpsCachedImpl(dbConnectionOps, mock(), Duration.ofMinutes(5)) { nanos }
+
+        repeat(50) {
+            advance(Duration.ofMinutes(1))
+            dco.getOrCreateEntityManagerFactory(UUID.randomUUID(), entities).createEntityManager()
+        }
+
+        // Factories are closed once what was leased from them has been collected.
+        eventually {
+            System.gc()
+            assertThat(open).hasSizeLessThanOrEqualTo(6)
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.corda.db.connection.manager.impl.tests
+
+import net.corda.db.connection.manager.impl.SharedPoolDataSourceFactory
+import net.corda.db.core.CloseableDataSource
+import net.corda.db.core.DataSourceFactory
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
+import java.sql.Connection
+import java.time.Duration
+
+class SharedPoolDataSourceFactoryTest {
+    private companion object {
+        const val SERVER_URL = "jdbc:postgresql://vnode-db:5432/vnodes"
+        const val MAXIMUM_POOL_SIZE = 5
+    }
+
+    private class Pool(val jdbcUrl: String, val username: String, val maximumPoolSize: Int) {
+        val physicalConnection = mock<Connection>()
+        val dataSource = mock<CloseableDataSource> {
+            on { connection } doReturn physicalConnection
+        }
+    }
+
+    private val pools = mutableListOf<Pool>()
+
+    private val delegate = object : DataSourceFactory {
+        override fun create(
+            enablePool: Boolean,
+            driverClass: String,
+            jdbcUrl: String,
+            username: String,
+            password: String,
+            isAutoCommit: Boolean,
+            isReadOnly: Boolean,
+            maximumPoolSize: Int,
+            minimumPoolSize: Int?,
+            idleTimeout: Duration,
+            maxLifetime: Duration,
+            keepaliveTime: Duration,
+            validationTimeout: Duration
+        ): CloseableDataSource {
+            val pool = Pool(jdbcUrl, username, if (enablePool) maximumPoolSize else 1)
+            pools.add(pool)
+            return pool.dataSource
+        }
+    }
+
+    private val factory = SharedPoolDataSourceFactory(delegate)
+
+    private fun create(jdbcUrl: String, username: String = "vnodes", enablePool: Boolean = true) = factory.create(
+        enablePool = enablePool,
+        driverClass = "org.postgresql.Driver",
+        jdbcUrl = jdbcUrl,
+        username = username,
+        password = "password",
+        maximumPoolSize = MAXIMUM_POOL_SIZE,
+        minimumPoolSize = null,
+        idleTimeout = Duration.ofMinutes(2),
+        maxLifetime = Duration.ofMinutes(30),
+        keepaliveTime = Duration.ZERO,
+        validationTimeout = Duration.ofSeconds(5),
+    )
+
+    @Test
+    fun `virtual nodes on one server share a bounded number of connections`() {
+        val virtualNodes = 1000
+        val dataSources = (1..virtualNodes).map { create("$SERVER_URL?currentSchema=vnode_vault_$it&reWriteBatchedInserts=true") }
+
+        assertEquals(1, factory.poolCount)
+        assertEquals(1, pools.size)
+        assertEquals("$SERVER_URL?reWriteBatchedInserts=true", pools.single().jdbcUrl)
+        assertEquals(MAXIMUM_POOL_SIZE, pools.sumOf { it.maximumPoolSize })
+
+        dataSources.last().connection
+        verify(pools.single().physicalConnection).schema = "vnode_vault_$virtualNodes"
+    }
+
+    @Test
+    fun `data sources with different users or servers do not share a pool`() {
+        create("$SERVER_URL?currentSchema=vnode_vault_1")
+        create("$SERVER_URL?currentSchema=vnode_vault_2", username = "another")
+        create("jdbc:postgresql://another-db:5432/vnodes?currentSchema=vnode_vault_3")
+        create(SERVER_URL)
+
+        assertEquals(listOf("vnodes", "another", "vnodes", "vnodes"), pools.map { it.username })
+        assertEquals(4, factory.poolCount)
+    }
+
+    @Test
+    fun `data sources without a schema do not select one`() {
+        create(SERVER_URL).connection
+
+        verify(pools.single().physicalConnection, never()).schema = any()
+        assertEquals(SERVER_URL, pools.single().jdbcUrl)
+    }
+
+    @Test
+    fun `pool is closed once every data source using it is closed`() {
+        val first = create("$SERVER_URL?currentSchema=vnode_vault_1")
+        val second = create("$SERVER_URL?currentSchema=vnode_vault_2")
+
+        first.close()
+        first.close()
+        verify(pools.single().dataSource, never()).close()
+
+        second.close()
+        verify(pools.single().dataSource).close()
+        assertEquals(0, factory.poolCount)
+    }
+
+    @Test
+    fun `data sources without a pool are not shared`() {
+        create("$SERVER_URL?currentSchema=vnode_vault_1", enablePool = false)
+        create("$SERVER_URL?currentSchema=vnode_vault_2", enablePool = false)
+
+        assertEquals(2, pools.size)
+        assertEquals(0, factory.poolCount)
+    }
+}
@@ -1,6 +1,5 @@
 package net.corda.session.mapper.service.executor
 
-import net.corda.data.flow.event.mapper.ExecuteCleanup
 import net.corda.data.flow.state.mapper.FlowMapperStateType
 import net.corda.data.scheduler.ScheduledTaskTrigger
 import net.corda.libs.statemanager.api.IntervalFilter
@@ -16,7 +15,6 @@ import org.slf4j.LoggerFactory
 import java.time.Clock
 import java.time.Duration
 import java.time.Instant
-import java.util.UUID
 
 class ScheduledTaskProcessor(
     private val stateManager: StateManager,
@@ -28,46 +26,40 @@ class ScheduledTaskProcessor(
     private companion object {
         private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
         private const val ID_BATCH_SIZE = 200
-    }
 
-    override fun onNext(events: List<Record<String, ScheduledTaskTrigger>>): List<Record<*, *>> {
-        return if (events.any { it.value?.name == Schemas.ScheduledTask.SCHEDULED_TASK_NAME_MAPPER_CLEANUP }) {
-            process().map {
-                Record(Schemas.Flow.FLOW_MAPPER_CLEANUP_TOPIC, UUID.randomUUID().toString(), it)
-            }
-        } else {
-            listOf()
-        }
+        // Bounds how long a single trigger can take, so that the subscription keeps polling.
+        private const val MAX_BATCHES = 500
+
+        private val EXPIRED_STATUSES = listOf(
+            MetadataFilter(FLOW_MAPPER_STATUS, Operation.Equals, FlowMapperStateType.ERROR.toString()),
+            MetadataFilter(FLOW_MAPPER_STATUS, Operation.Equals, FlowMapperStateType.CLOSING.toString()),
+        )
     }
 
-    private fun process() : List<ExecuteCleanup> {
-        logger.debug { "Received a scheduled task trigger. Scheduling cleanup events for the flow mapper." }
-        val keys = getExpiredStateIds()
-        val batches = batchIds(keys)
-        return batches.map {
-            ExecuteCleanup(it)
+    override fun onNext(events: List<Record<String, ScheduledTaskTrigger>>): List<Record<*, *>> {
+        if (events.any { it.value?.name == Schemas.ScheduledTask.SCHEDULED_TASK_NAME_MAPPER_CLEANUP }) {
+            process()
         }
+        return listOf()
     }
 
-    private fun getExpiredStateIds() : List<String> {
+    /**
+     * Delete expired states in batches, in the state manager itself, so that their content is never read.
+     */
+    private fun process() {
+        logger.debug { "Received a scheduled task trigger. Deleting expired flow mapper states." }
         val windowExpiry = clock.instant() - Duration.ofMillis(cleanupWindow)
-        val states = stateManager.findUpdatedBetweenWithMetadataMatchingAny(
-            IntervalFilter(Instant.EPOCH, windowExpiry),
-            listOf(
-                MetadataFilter(FLOW_MAPPER_STATUS, Operation.Equals, FlowMapperStateType.ERROR.toString()),
-                MetadataFilter(FLOW_MAPPER_STATUS, Operation.Equals, FlowMapperStateType.CLOSING.toString()),
-            )
-        )
-
-        return states.map {
-            it.key
-        }.also {
-            logger.debug { "Found ${states.size} states eligible for cleanup" }
+        val interval = IntervalFilter(Instant.EPOCH, windowExpiry)
+        var deleted = 0
+        for (batch in 1..MAX_BATCHES) {
+            val keys = stateManager.deleteUpdatedBetweenWithMetadataMatchingAny(interval, EXPIRED_STATUSES, batchSize)
+            deleted += keys.size
+            if (keys.size < batchSize) break
+            if (batch == MAX_BATCHES) {
+                logger.info("Deleted $deleted expired flow mapper states, leaving the rest for the next scheduled cleanup")
+            }
         }
-    }
-
-    private fun batchIds(ids: List<String>) : List<List<String>> {
-        return ids.chunked(batchSize)
+        logger.debug { "Deleted $deleted states eligible for cleanup" }
     }
 
     override val keyClass = String::class.java
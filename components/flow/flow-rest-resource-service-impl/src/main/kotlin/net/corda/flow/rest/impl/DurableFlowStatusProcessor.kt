@@ -14,6 +14,8 @@ import net.corda.messaging.api.records.Record
 
 const val HOLDING_IDENTITY_METADATA_KEY = "holdingIdentity"
 const val FLOW_STATUS_METADATA_KEY = "flowStatus"
+const val FLOW_CLASS_NAME_METADATA_KEY = "flowClassName"
+const val FLOW_START_TIME_METADATA_KEY = "flowStartTime"
 
 /**
  * This class is responsible for processing batches of records associated with [FlowStatus] changes from the [flow.status] topic.
@@ -46,7 +48,7 @@ class DurableFlowStatusProcessor(
             val value = record.value ?: return@mapNotNull null
             val bytes = serializer.serialize(value) ?: return@mapNotNull null
 
-            val metadata = state?.metadata.withHoldingIdentityAndStatus(record.key.identity, value.flowStatus)
+            val metadata = state?.metadata.withStatusDetails(record.key.identity, value)
 
             state?.copy(value = bytes, metadata = metadata) ?: State(key, bytes, metadata = metadata)
         }.partition { it.key in existingKeys }
@@ -66,10 +68,16 @@ class DurableFlowStatusProcessor(
         return status != null && TERMINATED_STATES.contains(FlowStates.valueOf(status))
     }
 
-    private fun Metadata?.withHoldingIdentityAndStatus(holdingIdentity: HoldingIdentity, flowStatus: FlowStates): Metadata {
+    /**
+     * Stores the details flow statuses can be listed by as metadata, so that they can be filtered on without
+     * deserializing each flow status.
+     */
+    private fun Metadata?.withStatusDetails(holdingIdentity: HoldingIdentity, flowStatus: FlowStatus): Metadata {
         val metadata = this?.toMutableMap() ?: mutableMapOf()
         metadata[HOLDING_IDENTITY_METADATA_KEY] = holdingIdentity.toString()
-        metadata[FLOW_STATUS_METADATA_KEY] = flowStatus.name
+        metadata[FLOW_STATUS_METADATA_KEY] = flowStatus.flowStatus.name
+        flowStatus.flowClassName?.let { metadata[FLOW_CLASS_NAME_METADATA_KEY] = it }
+        flowStatus.createdTimestamp?.let { metadata[FLOW_START_TIME_METADATA_KEY] = it.toEpochMilli() }
         return Metadata(metadata)
     }
 
@@ -14,5 +14,8 @@ object FlowRestExceptionConstants {
     const val INVALID_ID = "Supplied clientRequestId %s is invalid, it must conform to the pattern %s."
     const val CPI_NOT_FOUND = "Failed to find a CPI for ID = %s."
     const val FLOW_STATUS_NOT_FOUND = "Failed to find the flow status for holdingId = %s and clientRequestId = %s."
+    const val NOT_STARTABLE =
+        "The flow that was requested (%s) is not in the list of startable flows for this holding identity."
+    const val DUPLICATE_IN_BATCH = "The clientRequestId %s is used by more than one of the flows requested to start."
 
 }
\ No newline at end of file
@@ -4,7 +4,9 @@ import net.corda.avro.serialization.CordaAvroSerializationFactory
 import net.corda.data.flow.FlowKey
 import net.corda.data.flow.output.FlowStatus
 import net.corda.data.identity.HoldingIdentity
+import net.corda.flow.rest.FlowStatusFilter
 import net.corda.flow.rest.FlowStatusLookupService
+import net.corda.flow.rest.FlowStatusPage
 import net.corda.flow.rest.impl.utils.hash
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.statemanager.api.MetadataFilter
@@ -107,6 +109,11 @@ class FlowStatusLookupServiceImpl @Activate constructor(
         durableFlowStatusProcessor?.onNext(listOf(Record(FLOW_STATUS_TOPIC, status.key, status)))
     }
 
+    override fun storeStatuses(statuses: Collection<FlowStatus>) {
+        if (statuses.isEmpty()) return
+        durableFlowStatusProcessor?.onNext(statuses.map { Record(FLOW_STATUS_TOPIC, it.key, it) })
+    }
+
     override fun getStatus(clientRequestId: String, holdingIdentity: HoldingIdentity): FlowStatus? {
         val flowKey = FlowKey(clientRequestId, holdingIdentity).hash()
 
@@ -120,6 +127,19 @@ class FlowStatusLookupServiceImpl @Activate constructor(
             }
     }
 
+    override fun getStatuses(clientRequestIds: Collection<String>, holdingIdentity: HoldingIdentity): Map<String, FlowStatus> {
+        if (clientRequestIds.isEmpty()) return emptyMap()
+        val clientRequestIdsByKey = clientRequestIds.associateBy { FlowKey(it, holdingIdentity).hash() }
+
+        return requireNotNull(stateManager) { "stateManager is null" }
+            .get(clientRequestIdsByKey.keys)
+            .mapNotNull { (key, state) ->
+                val clientRequestId = clientRequestIdsByKey[key] ?: return@mapNotNull null
+                deSerializer.deserialize(state.value)?.let { clientRequestId to it }
+            }
+            .toMap()
+    }
+
     override fun getStatusesPerIdentity(holdingIdentity: HoldingIdentity): List<FlowStatus> {
         val filter = MetadataFilter(HOLDING_IDENTITY_METADATA_KEY, Operation.Equals, holdingIdentity.toString())
 
@@ -128,4 +148,26 @@ class FlowStatusLookupServiceImpl @Activate constructor(
             .map { deSerializer.deserialize(it.value.value) }
             .filterNotNull()
     }
+
+    override fun getStatusesPerIdentity(
+        holdingIdentity: HoldingIdentity,
+        filter: FlowStatusFilter,
+        afterKey: String?,
+        limit: Int,
+    ): FlowStatusPage {
+        val filters = listOfNotNull(
+            MetadataFilter(HOLDING_IDENTITY_METADATA_KEY, Operation.Equals, holdingIdentity.toString()),
+            filter.status?.let { MetadataFilter(FLOW_STATUS_METADATA_KEY, Operation.Equals, it.name) },
+            filter.flowClassName?.let { MetadataFilter(FLOW_CLASS_NAME_METADATA_KEY, Operation.Equals, it) },
+            filter.startedAfter?.let { MetadataFilter(FLOW_START_TIME_METADATA_KEY, Operation.GreaterThan, it.toEpochMilli()) },
+        )
+
+        val states = requireNotNull(stateManager) { "stateManager is null" }
+            .findByMetadataMatchingAll(filters, afterKey, limit)
+
+        return FlowStatusPage(
+            statuses = states.mapNotNull { deSerializer.deserialize(it.value) },
+            nextPageKey = states.lastOrNull()?.key?.takeIf { states.size == limit },
+        )
+    }
 }
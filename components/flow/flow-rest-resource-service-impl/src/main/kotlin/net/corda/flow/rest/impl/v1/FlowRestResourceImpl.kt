@@ -6,6 +6,7 @@ import net.corda.data.flow.output.FlowStates
 import net.corda.data.flow.output.FlowStatus
 import net.corda.data.virtualnode.VirtualNodeInfo
 import net.corda.data.virtualnode.VirtualNodeOperationalState
+import net.corda.flow.rest.FlowStatusFilter
 import net.corda.flow.rest.FlowStatusLookupService
 import net.corda.flow.rest.factory.MessageFactory
 import net.corda.flow.rest.impl.FlowRestExceptionConstants
@@ -14,6 +15,9 @@ import net.corda.flow.rest.v1.types.request.StartFlowParameters
 import net.corda.flow.rest.v1.types.response.FlowResultResponse
 import net.corda.flow.rest.v1.types.response.FlowStatusResponse
 import net.corda.flow.rest.v1.types.response.FlowStatusResponses
+import net.corda.flow.rest.v1.types.response.PagedFlowStatusResponses
+import net.corda.flow.rest.v1.types.response.StartFlowResponse
+import net.corda.flow.rest.v1.types.response.StartFlowResponses
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.packaging.core.CpiIdentifier
 import net.corda.libs.platform.PlatformInfoProvider
@@ -53,6 +57,8 @@ import org.osgi.service.component.annotations.Component
 import org.osgi.service.component.annotations.Reference
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import java.time.Instant
+import java.time.format.DateTimeParseException
 
 @Suppress("LongParameterList", "TooManyFunctions")
 @Component(service = [FlowRestResource::class, PluggableRestResource::class])
@@ -75,6 +81,8 @@ class FlowRestResourceImpl @Activate constructor(
 
     private companion object {
         val log: Logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+        const val MAX_FLOW_STATUS_PAGE_SIZE = 1000
+        const val MAX_START_FLOW_BATCH_SIZE = 1000
     }
 
     override val isRunning: Boolean get() = publisher != null
@@ -113,26 +121,11 @@ class FlowRestResourceImpl @Activate constructor(
         return trace("API - Start Flow") {
             traceVirtualNodeId(holdingIdentityShortHash)
 
-            if (publisher == null) {
-                throw ServiceUnavailableException(FlowRestExceptionConstants.UNINITIALIZED_ERROR)
-            }
-            if (fatalErrorOccurred) {
-                // If Kafka has told us this publisher should not attempt a retry, most likely we have already been
-                // replaced by another worker and have been "fenced". In that case it would be unsafe to create another
-                // producer, because we'd attempt to replace our replacement. Most likely service orchestration has already
-                // replaced us - nothing else should lead to us being fenced - and therefore should be responsible for
-                // closing us down soon. There are other fatal error types, but none are recoverable by definition.
-                throw ServiceUnavailableException(FlowRestExceptionConstants.TEMPORARY_INTERNAL_FAILURE)
-            }
+            checkCanStartFlows()
 
             val vNode = getVirtualNode(holdingIdentityShortHash)
 
-            if (vNode.flowStartOperationalStatus == VirtualNodeOperationalState.INACTIVE) {
-                throw OperationNotAllowedException(
-                    FlowRestExceptionConstants.NOT_OPERATIONAL
-                        .format(holdingIdentityShortHash)
-                )
-            }
+            checkFlowStartOperational(vNode, holdingIdentityShortHash)
 
             val clientRequestId = startFlow.clientRequestId
 
@@ -150,8 +143,7 @@ class FlowRestResourceImpl @Activate constructor(
             val startableFlows = getStartableFlows(holdingIdentityShortHash, vNode)
             if (!startableFlows.contains(flowClassName)) {
                 val cpiMeta = cpiInfoReadService.get(CpiIdentifier.fromAvro(vNode.cpiIdentifier))
-                val msg =
-                    "The flow that was requested ($flowClassName) is not in the list of startable flows for this holding identity."
+                val msg = FlowRestExceptionConstants.NOT_STARTABLE.format(flowClassName)
                 val details = mapOf(
                     "CPI-name" to cpiMeta?.cpiId?.name.toString(),
                     "CPI-version" to cpiMeta?.cpiId?.version.toString(),
@@ -182,63 +174,203 @@ class FlowRestResourceImpl @Activate constructor(
                 )
             }
 
-            // TODO Platform properties to be populated correctly.
-            // This is a placeholder which indicates access to everything, see CORE-6076
-            val flowContextPlatformProperties = mapOf(
-                "corda.account" to "account-zero",
-                MDC_CLIENT_ID to clientRequestId
-            )
-            val startEvent =
-                messageFactory.createStartFlowEvent(
-                    clientRequestId,
-                    vNode,
-                    flowClassName,
-                    startFlow.requestBody.escapedJson,
-                    flowContextPlatformProperties
+            val (status, record) = createStartFlow(startFlow, vNode, holdingIdentityShortHash)
+
+            flowStatusLookupService.storeStatus(status)
+
+            publishStartFlowEvents(listOf(record)) {
+                "flowClass: $flowClassName, clientRequestId: $clientRequestId on vNode $holdingIdentityShortHash"
+            }
+
+            ResponseEntity.accepted(messageFactory.createFlowStatusResponse(status))
+        }
+    }
+
+    override fun startFlows(
+        holdingIdentityShortHash: String,
+        startFlows: List<StartFlowParameters>
+    ): ResponseEntity<StartFlowResponses> {
+        return trace("API - Start Flows") {
+            traceVirtualNodeId(holdingIdentityShortHash)
+
+            checkCanStartFlows()
+
+            if (startFlows.size !in 1..MAX_START_FLOW_BATCH_SIZE) {
+                throw BadRequestException(
+                    "Number of flows to start must be in the range [1..$MAX_START_FLOW_BATCH_SIZE], but was ${startFlows.size}"
                 )
-            val status = messageFactory.createStartFlowStatus(clientRequestId, vNode, flowClassName)
+            }
 
-            val records = listOf(
-                addTraceContextToRecord(
-                    Record(
-                        FLOW_MAPPER_START,
-                        getKeyForStartEvent(status.key, holdingIdentityShortHash), startEvent
-                    )
-                ),
-            )
+            val vNode = getVirtualNode(holdingIdentityShortHash)
 
-            flowStatusLookupService.storeStatus(status)
+            checkFlowStartOperational(vNode, holdingIdentityShortHash)
+
+            val startableFlows = getStartableFlows(holdingIdentityShortHash, vNode).toSet()
+            val principal = CURRENT_REST_CONTEXT.get().principal
+            val authorizedFlows = HashMap<String, Boolean>()
+            val clientRequestIds = HashSet<String>()
+
+            // Reject whatever can be rejected without looking anything up first, so that the statuses of the
+            // remaining flows can then be looked up all at once.
+            val rejectionReasons = startFlows.mapTo(mutableListOf()) { startFlow ->
+                getRejectionReason(startFlow, clientRequestIds, startableFlows, principal) { flowClassName ->
+                    authorizedFlows.getOrPut(flowClassName) {
+                        permissionValidationService.permissionValidator.authorizeUser(
+                            principal,
+                            "$START_FLOW_PREFIX$PREFIX_SEPARATOR$flowClassName"
+                        )
+                    }
+                }
+            }
 
-            val batchFuture = try {
-                tryWithExceptionHandling(
-                    log,
-                    "Publishing start flow events",
-                    untranslatedExceptions = setOf(CordaMessageAPIFatalException::class.java)
-                ) {
-                    publisher!!.batchPublish(records)
+            val existingClientRequestIds = flowStatusLookupService.getStatuses(
+                startFlows.filterIndexed { index, _ -> rejectionReasons[index] == null }.map { it.clientRequestId },
+                vNode.holdingIdentity
+            ).keys
+            startFlows.forEachIndexed { index, startFlow ->
+                if (rejectionReasons[index] == null && startFlow.clientRequestId in existingClientRequestIds) {
+                    rejectionReasons[index] = FlowRestExceptionConstants.ALREADY_EXISTS_ERROR
                 }
-            } catch (ex: CordaMessageAPIFatalException) {
-                throw markFatalAndReturnFailureException(ex)
             }
 
-            // Do not block REST thread execution till future completes, instead add a hook to log an error if batch
-            // publication fails for whatever reason and return to the REST caller that flow start been accepted.
-            // Should they wish to check the actual execution progress, they can always check the status using
-            // client request id provided.
-            batchFuture.exceptionally {
-                log.warn(
-                    "Failed to publish start flow batch for flowClass: $flowClassName, " +
-                            "clientRequestId: $clientRequestId on vNode $holdingIdentityShortHash", it
-                )
+            val acceptedFlows = startFlows.indices
+                .filter { rejectionReasons[it] == null }
+                .associateWith { createStartFlow(startFlows[it], vNode, holdingIdentityShortHash) }
+
+            if (acceptedFlows.isNotEmpty()) {
+                flowStatusLookupService.storeStatuses(acceptedFlows.values.map { it.first })
 
-                if (it is CordaMessageAPIFatalException) {
-                    // Note: not throwing returned exception as this call will be performed asynchronously from 
-                    // publisher's thread pool, just calling this method to log the fatal error
-                    markFatalAndReturnFailureException(it)
+                publishStartFlowEvents(acceptedFlows.values.map { it.second }) {
+                    "${acceptedFlows.size} flows on vNode $holdingIdentityShortHash"
                 }
             }
 
-            ResponseEntity.accepted(messageFactory.createFlowStatusResponse(status))
+            ResponseEntity.accepted(
+                StartFlowResponses(
+                    startFlows.mapIndexed { index, startFlow ->
+                        StartFlowResponse(
+                            clientRequestId = startFlow.clientRequestId,
+                            accepted = index in acceptedFlows,
+                            flowStatus = acceptedFlows[index]?.let { messageFactory.createFlowStatusResponse(it.first) },
+                            rejectionReason = rejectionReasons[index]
+                        )
+                    }
+                )
+            )
+        }
+    }
+
+    /**
+     * Return why a flow of a batch can't be started, without looking up whether it has already been started,
+     * or null if it can be started as far as that goes.
+     */
+    private fun getRejectionReason(
+        startFlow: StartFlowParameters,
+        clientRequestIds: MutableSet<String>,
+        startableFlows: Set<String>,
+        principal: String,
+        isAuthorized: (flowClassName: String) -> Boolean
+    ): String? {
+        val clientRequestId = startFlow.clientRequestId
+        val flowClassName = startFlow.flowClassName
+        return when {
+            !regexMatch(clientRequestId, RbacKeys.CLIENT_REQ_REGEX) ->
+                FlowRestExceptionConstants.INVALID_ID.format(clientRequestId, RbacKeys.CLIENT_REQ_REGEX)
+            !clientRequestIds.add(clientRequestId) ->
+                FlowRestExceptionConstants.DUPLICATE_IN_BATCH.format(clientRequestId)
+            flowClassName !in startableFlows ->
+                FlowRestExceptionConstants.NOT_STARTABLE.format(flowClassName)
+            !isAuthorized(flowClassName) ->
+                FlowRestExceptionConstants.FORBIDDEN.format(principal, flowClassName)
+            else -> null
+        }
+    }
+
+    private fun checkCanStartFlows() {
+        if (publisher == null) {
+            throw ServiceUnavailableException(FlowRestExceptionConstants.UNINITIALIZED_ERROR)
+        }
+        if (fatalErrorOccurred) {
+            // If Kafka has told us this publisher should not attempt a retry, most likely we have already been
+            // replaced by another worker and have been "fenced". In that case it would be unsafe to create another
+            // producer, because we'd attempt to replace our replacement. Most likely service orchestration has already
+            // replaced us - nothing else should lead to us being fenced - and therefore should be responsible for
+            // closing us down soon. There are other fatal error types, but none are recoverable by definition.
+            throw ServiceUnavailableException(FlowRestExceptionConstants.TEMPORARY_INTERNAL_FAILURE)
+        }
+    }
+
+    private fun checkFlowStartOperational(vNode: VirtualNodeInfo, holdingIdentityShortHash: String) {
+        if (vNode.flowStartOperationalStatus == VirtualNodeOperationalState.INACTIVE) {
+            throw OperationNotAllowedException(
+                FlowRestExceptionConstants.NOT_OPERATIONAL
+                    .format(holdingIdentityShortHash)
+            )
+        }
+    }
+
+    /**
+     * Create the "start requested" status of a flow, and the record of the event to start it with.
+     */
+    private fun createStartFlow(
+        startFlow: StartFlowParameters,
+        vNode: VirtualNodeInfo,
+        holdingIdentityShortHash: String
+    ): Pair<FlowStatus, Record<*, *>> {
+        val clientRequestId = startFlow.clientRequestId
+        val flowClassName = startFlow.flowClassName
+
+        // TODO Platform properties to be populated correctly.
+        // This is a placeholder which indicates access to everything, see CORE-6076
+        val flowContextPlatformProperties = mapOf(
+            "corda.account" to "account-zero",
+            MDC_CLIENT_ID to clientRequestId
+        )
+        val startEvent =
+            messageFactory.createStartFlowEvent(
+                clientRequestId,
+                vNode,
+                flowClassName,
+                startFlow.requestBody.escapedJson,
+                flowContextPlatformProperties
+            )
+        val status = messageFactory.createStartFlowStatus(clientRequestId, vNode, flowClassName)
+
+        val record = addTraceContextToRecord(
+            Record(
+                FLOW_MAPPER_START,
+                getKeyForStartEvent(status.key, holdingIdentityShortHash), startEvent
+            )
+        )
+
+        return status to record
+    }
+
+    private fun publishStartFlowEvents(records: List<Record<*, *>>, describeFlows: () -> String) {
+        val batchFuture = try {
+            tryWithExceptionHandling(
+                log,
+                "Publishing start flow events",
+                untranslatedExceptions = setOf(CordaMessageAPIFatalException::class.java)
+            ) {
+                publisher!!.batchPublish(records)
+            }
+        } catch (ex: CordaMessageAPIFatalException) {
+            throw markFatalAndReturnFailureException(ex)
+        }
+
+        // Do not block REST thread execution till future completes, instead add a hook to log an error if batch
+        // publication fails for whatever reason and return to the REST caller that flow start been accepted.
+        // Should they wish to check the actual execution progress, they can always check the status using
+        // client request id provided.
+        batchFuture.exceptionally {
+            log.warn("Failed to publish start flow batch for ${describeFlows()}", it)
+
+            if (it is CordaMessageAPIFatalException) {
+                // Note: not throwing returned exception as this call will be performed asynchronously from 
+                // publisher's thread pool, just calling this method to log the fatal error
+                markFatalAndReturnFailureException(it)
+            }
         }
     }
 
@@ -280,29 +412,66 @@ class FlowRestResourceImpl @Activate constructor(
     }
 
     override fun getMultipleFlowStatus(holdingIdentityShortHash: String, status: String?): FlowStatusResponses {
+        val page = getMultipleFlowStatus(holdingIdentityShortHash, status, null, null, null, null)
+        return FlowStatusResponses(page.flowStatusResponses)
+    }
+
+    override fun getMultipleFlowStatus(
+        holdingIdentityShortHash: String,
+        status: String?,
+        flowClassName: String?,
+        startedAfter: String?,
+        limit: Int?,
+        nextPageKey: String?,
+    ): PagedFlowStatusResponses {
+        val filter = FlowStatusFilter(
+            status = status?.let(::parseFlowState),
+            flowClassName = flowClassName,
+            startedAfter = startedAfter?.let(::parseStartedAfter)
+        )
+        if (limit != null && limit !in 1..MAX_FLOW_STATUS_PAGE_SIZE) {
+            throw BadRequestException("Limit must be in the range [1..$MAX_FLOW_STATUS_PAGE_SIZE], but was $limit")
+        }
         val vNode = getVirtualNode(holdingIdentityShortHash)
-        val flowStatuses = flowStatusLookupService.getStatusesPerIdentity(vNode.holdingIdentity)
+        val page = flowStatusLookupService.getStatusesPerIdentity(
+            vNode.holdingIdentity,
+            filter,
+            nextPageKey,
+            limit ?: Int.MAX_VALUE
+        )
 
-        val filteredStatuses = status?.let {
-            val flowState = try {
-                FlowStates.valueOf(it)
-            } catch (e: IllegalArgumentException) {
-                throw BadRequestException(
-                    title = e::class.java.simpleName,
-                    exceptionDetails = ExceptionDetails(
-                        e::class.java.name,
-                        "Status to filter by is not found in list of valid statuses: ${FlowStates.values()}"
-                    )
-                )
-            }
-            flowStatuses.filter { statusFilter -> statusFilter.flowStatus == flowState }
-        } ?: flowStatuses
+        return PagedFlowStatusResponses(
+            flowStatusResponses = page.statuses.map { messageFactory.createFlowStatusResponse(it) },
+            nextPageKey = page.nextPageKey
+        )
+    }
 
-        return createFlowStatusResponses(filteredStatuses)
+    private fun parseFlowState(status: String): FlowStates {
+        return try {
+            FlowStates.valueOf(status)
+        } catch (e: IllegalArgumentException) {
+            throw BadRequestException(
+                title = e::class.java.simpleName,
+                exceptionDetails = ExceptionDetails(
+                    e::class.java.name,
+                    "Status to filter by is not found in list of valid statuses: ${FlowStates.values()}"
+                )
+            )
+        }
     }
 
-    private fun createFlowStatusResponses(flowStatuses: List<FlowStatus>): FlowStatusResponses {
-        return FlowStatusResponses(flowStatusResponses = flowStatuses.map { messageFactory.createFlowStatusResponse(it) })
+    private fun parseStartedAfter(startedAfter: String): Instant {
+        return try {
+            Instant.parse(startedAfter)
+        } catch (e: DateTimeParseException) {
+            throw BadRequestException(
+                title = e::class.java.simpleName,
+                exceptionDetails = ExceptionDetails(
+                    e::class.java.name,
+                    "Start time to filter by is not a valid ISO-8601 instant: $startedAfter"
+                )
+            )
+        }
     }
 
     override fun getFlowResult(
@@ -8,6 +8,7 @@ import net.corda.data.flow.FlowKey
 import net.corda.data.flow.output.FlowStates
 import net.corda.data.flow.output.FlowStatus
 import net.corda.data.identity.HoldingIdentity
+import net.corda.flow.rest.FlowStatusFilter
 import net.corda.flow.rest.impl.utils.hash
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.statemanager.api.Metadata
@@ -24,6 +25,7 @@ import net.corda.schema.Schemas
 import net.corda.schema.configuration.BootConfig.INSTANCE_ID
 import net.corda.schema.configuration.ConfigKeys
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
 import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Nested
@@ -224,6 +226,108 @@ class FlowStatusLookupServiceImplTest {
                 flowStatusLookupService.storeStatus(flowStatus1)
             }
         }
+
+        @Nested
+        inner class PagedStatuses {
+            private fun flowStatus(clientRequestId: String, flowClassName: String, state: FlowStates, started: Instant) =
+                FlowStatus(
+                    FlowKey(clientRequestId, FLOW_KEY_1.identity),
+                    FlowInitiatorType.RPC,
+                    clientRequestId,
+                    flowClassName,
+                    state,
+                    null,
+                    null,
+                    null,
+                    started,
+                    started
+                )
+
+            private val first = flowStatus("b1", "FlowA", FlowStates.COMPLETED, Instant.ofEpochMilli(1000))
+            private val second = flowStatus("b2", "FlowA", FlowStates.RUNNING, Instant.ofEpochMilli(2000))
+            private val third = flowStatus("b3", "FlowB", FlowStates.COMPLETED, Instant.ofEpochMilli(3000))
+
+            @BeforeEach
+            fun addContent() {
+                listOf(first, second, third).forEach(flowStatusLookupService::storeStatus)
+            }
+
+            @Test
+            fun `getStatusesPerIdentity filters by status, flow class and start time`() {
+                val completed = flowStatusLookupService.getStatusesPerIdentity(
+                    FLOW_KEY_1.identity, FlowStatusFilter(status = FlowStates.COMPLETED), null, 10
+                )
+                val flowA = flowStatusLookupService.getStatusesPerIdentity(
+                    FLOW_KEY_1.identity, FlowStatusFilter(flowClassName = "FlowA"), null, 10
+                )
+                val startedLater = flowStatusLookupService.getStatusesPerIdentity(
+                    FLOW_KEY_1.identity, FlowStatusFilter(startedAfter = Instant.ofEpochMilli(1500)), null, 10
+                )
+
+                assertEquals(setOf(first, third), completed.statuses.toSet())
+                assertEquals(setOf(first, second), flowA.statuses.toSet())
+                assertEquals(setOf(second, third), startedLater.statuses.toSet())
+                assertNull(completed.nextPageKey)
+            }
+
+            @Test
+            fun `getStatusesPerIdentity returns every status once across pages`() {
+                val firstPage = flowStatusLookupService.getStatusesPerIdentity(FLOW_KEY_1.identity, FlowStatusFilter(), null, 2)
+                val secondPage = flowStatusLookupService.getStatusesPerIdentity(
+                    FLOW_KEY_1.identity, FlowStatusFilter(), firstPage.nextPageKey, 2
+                )
+
+                assertEquals(2, firstPage.statuses.size)
+                assertNotNull(firstPage.nextPageKey)
+                assertNull(secondPage.nextPageKey)
+                assertEquals(
+                    setOf(first, second, third),
+                    (firstPage.statuses + secondPage.statuses).toSet()
+                )
+                assertEquals(3, firstPage.statuses.size + secondPage.statuses.size)
+            }
+        }
+
+        @Nested
+        inner class StatusesStoredTogether {
+            private fun flowStatus(key: FlowKey) = FlowStatus(
+                key,
+                FlowInitiatorType.RPC,
+                key.id,
+                "FlowClassName",
+                FlowStates.START_REQUESTED,
+                null,
+                null,
+                null,
+                Instant.EPOCH,
+                Instant.EPOCH
+            )
+
+            private val aliceFirst = flowStatus(FlowKey("c1", FLOW_KEY_1.identity))
+            private val aliceSecond = flowStatus(FlowKey("c2", FLOW_KEY_1.identity))
+            private val bob = flowStatus(FlowKey("c1", FLOW_KEY_2.identity))
+
+            @BeforeEach
+            fun addContent() {
+                flowStatusLookupService.storeStatuses(listOf(aliceFirst, aliceSecond, bob))
+            }
+
+            @Test
+            fun `getStatuses returns the statuses found by client request ID`() {
+                assertEquals(
+                    mapOf("c1" to aliceFirst, "c2" to aliceSecond),
+                    flowStatusLookupService.getStatuses(listOf("c1", "c2", "c3"), FLOW_KEY_1.identity)
+                )
+                assertEquals(
+                    mapOf("c1" to bob),
+                    flowStatusLookupService.getStatuses(listOf("c1", "c2"), FLOW_KEY_2.identity)
+                )
+            }
+
+            @Test
+            fun `getStatuses returns an empty map for no client request IDs`() =
+                assertEquals(emptyMap<String, FlowStatus>(), flowStatusLookupService.getStatuses(emptyList(), FLOW_KEY_1.identity))
+        }
     }
 }
 
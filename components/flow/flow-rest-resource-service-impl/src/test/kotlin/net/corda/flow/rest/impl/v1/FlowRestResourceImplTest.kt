@@ -5,8 +5,11 @@ import net.corda.crypto.core.SecureHashImpl
 import net.corda.data.flow.FlowKey
 import net.corda.data.flow.output.FlowStates
 import net.corda.data.flow.output.FlowStatus
+import net.corda.flow.rest.FlowStatusFilter
 import net.corda.flow.rest.FlowStatusLookupService
+import net.corda.flow.rest.FlowStatusPage
 import net.corda.flow.rest.factory.MessageFactory
+import net.corda.flow.rest.impl.FlowRestExceptionConstants
 import net.corda.flow.rest.v1.FlowRestResource
 import net.corda.flow.rest.v1.types.request.StartFlowParameters
 import net.corda.flow.rest.v1.types.response.FlowStatusResponse
@@ -20,10 +23,12 @@ import net.corda.messaging.api.exception.CordaMessageAPIFatalException
 import net.corda.messaging.api.exception.CordaMessageAPIIntermittentException
 import net.corda.messaging.api.publisher.Publisher
 import net.corda.messaging.api.publisher.factory.PublisherFactory
+import net.corda.messaging.api.records.Record
 import net.corda.permissions.validation.PermissionValidationService
 import net.corda.rbac.schema.RbacKeys.PREFIX_SEPARATOR
 import net.corda.rbac.schema.RbacKeys.START_FLOW_PREFIX
 import net.corda.rest.JsonObject
+import net.corda.rest.ResponseCode
 import net.corda.rest.exception.BadRequestException
 import net.corda.rest.exception.ForbiddenException
 import net.corda.rest.exception.InternalServerException
@@ -40,16 +45,21 @@ import net.corda.virtualnode.OperationalStatus
 import net.corda.virtualnode.VirtualNodeInfo
 import net.corda.virtualnode.read.VirtualNodeInfoReadService
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.ValueSource
 import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
+import org.mockito.kotlin.argThat
 import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.atLeastOnce
 import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
+import org.mockito.kotlin.isNull
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
 import org.mockito.kotlin.times
@@ -232,29 +242,32 @@ class FlowRestResourceImplTest {
 
     @Test
     fun `get multiple flow status`() {
-        whenever(flowStatusLookupService.getStatusesPerIdentity(any())).thenReturn(listOf(FlowStatus(), FlowStatus()))
+        whenever(flowStatusLookupService.getStatusesPerIdentity(any(), any(), anyOrNull(), any()))
+            .thenReturn(FlowStatusPage(listOf(FlowStatus(), FlowStatus()), null))
         val flowRestResource = createFlowRestResource()
-        flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH)
+        val responses = flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH)
 
         verify(virtualNodeInfoReadService, times(1)).getByHoldingIdentityShortHash(any())
-        verify(flowStatusLookupService, times(1)).getStatusesPerIdentity(any())
+        verify(flowStatusLookupService, times(1))
+            .getStatusesPerIdentity(any(), eq(FlowStatusFilter()), isNull(), eq(Int.MAX_VALUE))
         verify(messageFactory, times(2)).createFlowStatusResponse(any())
         verify(fatalErrorFunction, never()).invoke()
+        assertEquals(2, responses.flowStatusResponses.size)
     }
 
     @Test
     fun `get multiple flow status by filter COMPLETED`() {
         val completed = FlowStatus()
         completed.flowStatus = FlowStates.COMPLETED
-        val failed = FlowStatus()
-        failed.flowStatus = FlowStates.FAILED
 
-        whenever(flowStatusLookupService.getStatusesPerIdentity(any())).thenReturn(listOf(completed, failed))
+        whenever(flowStatusLookupService.getStatusesPerIdentity(any(), any(), anyOrNull(), any()))
+            .thenReturn(FlowStatusPage(listOf(completed), null))
         val flowRestResource = createFlowRestResource()
         val responses = flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH, "COMPLETED")
 
         verify(virtualNodeInfoReadService, times(1)).getByHoldingIdentityShortHash(any())
-        verify(flowStatusLookupService, times(1)).getStatusesPerIdentity(any())
+        verify(flowStatusLookupService, times(1))
+            .getStatusesPerIdentity(any(), eq(FlowStatusFilter(status = FlowStates.COMPLETED)), isNull(), any())
         verify(messageFactory, times(1)).createFlowStatusResponse(any())
         verify(fatalErrorFunction, never()).invoke()
         assertNotNull(responses.flowStatusResponses)
@@ -264,17 +277,17 @@ class FlowRestResourceImplTest {
 
     @Test
     fun `get multiple flow status by filter FAILED`() {
-        val completed = FlowStatus()
-        completed.flowStatus = FlowStates.COMPLETED
         val failed = FlowStatus()
         failed.flowStatus = FlowStates.FAILED
 
-        whenever(flowStatusLookupService.getStatusesPerIdentity(any())).thenReturn(listOf(completed, failed))
+        whenever(flowStatusLookupService.getStatusesPerIdentity(any(), any(), anyOrNull(), any()))
+            .thenReturn(FlowStatusPage(listOf(failed), null))
         val flowRestResource = createFlowRestResource()
         val responses = flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH, "FAILED")
 
         verify(virtualNodeInfoReadService, times(1)).getByHoldingIdentityShortHash(any())
-        verify(flowStatusLookupService, times(1)).getStatusesPerIdentity(any())
+        verify(flowStatusLookupService, times(1))
+            .getStatusesPerIdentity(any(), eq(FlowStatusFilter(status = FlowStates.FAILED)), isNull(), any())
         verify(messageFactory, times(1)).createFlowStatusResponse(any())
         verify(fatalErrorFunction, never()).invoke()
         assertNotNull(responses.flowStatusResponses)
@@ -282,6 +295,56 @@ class FlowRestResourceImplTest {
         assertEquals("FAILED", responses.flowStatusResponses.first().flowStatus)
     }
 
+    @Test
+    fun `get multiple flow status pages by flow class and start time`() {
+        whenever(flowStatusLookupService.getStatusesPerIdentity(any(), any(), anyOrNull(), any()))
+            .thenReturn(FlowStatusPage(listOf(FlowStatus()), "next"))
+        val flowRestResource = createFlowRestResource()
+        val responses = flowRestResource.getMultipleFlowStatus(
+            VALID_SHORT_HASH,
+            null,
+            "com.example.MyFlow",
+            "2024-01-31T12:00:00Z",
+            1,
+            "previous"
+        )
+
+        verify(flowStatusLookupService, times(1)).getStatusesPerIdentity(
+            any(),
+            eq(FlowStatusFilter(flowClassName = "com.example.MyFlow", startedAfter = Instant.parse("2024-01-31T12:00:00Z"))),
+            eq("previous"),
+            eq(1)
+        )
+        assertEquals(1, responses.flowStatusResponses.size)
+        assertEquals("next", responses.nextPageKey)
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = [0, 1001])
+    fun `get multiple flow status throws bad request if limit is out of range`(limit: Int) {
+        val flowRestResource = createFlowRestResource()
+
+        assertThrows<BadRequestException> {
+            flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH, null, null, null, limit, null)
+        }
+
+        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any(), any(), anyOrNull(), any())
+    }
+
+    @Test
+    fun `get multiple flow status throws bad request if status or start time are invalid`() {
+        val flowRestResource = createFlowRestResource()
+
+        assertThrows<BadRequestException> {
+            flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH, "UNKNOWN")
+        }
+        assertThrows<BadRequestException> {
+            flowRestResource.getMultipleFlowStatus(VALID_SHORT_HASH, null, null, "yesterday")
+        }
+
+        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any(), any(), anyOrNull(), any())
+    }
+
     @Test
     fun `get multiple flow status throws resource not found if virtual node does not exist`() {
         whenever(virtualNodeInfoReadService.getByHoldingIdentityShortHash(any())).thenReturn(null)
@@ -293,7 +356,7 @@ class FlowRestResourceImplTest {
         }
 
         verify(virtualNodeInfoReadService, times(1)).getByHoldingIdentityShortHash(any())
-        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any())
+        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any(), any(), anyOrNull(), any())
         verify(messageFactory, never()).createFlowStatusResponse(any())
         verify(fatalErrorFunction, never()).invoke()
     }
@@ -308,7 +371,7 @@ class FlowRestResourceImplTest {
         }
 
         verify(virtualNodeInfoReadService, never()).getByHoldingIdentityShortHash(any())
-        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any())
+        verify(flowStatusLookupService, never()).getStatusesPerIdentity(any(), any(), anyOrNull(), any())
         verify(messageFactory, never()).createFlowStatusResponse(any())
         verify(fatalErrorFunction, never()).invoke()
     }
@@ -587,4 +650,129 @@ class FlowRestResourceImplTest {
             flowRestResource.startFlow(VALID_SHORT_HASH, StartFlowParameters("", FLOW1, TestJsonObject()))
         }
     }
+
+    @Test
+    fun `start flows looks up, stores and publishes all flows at once`() {
+        val flowRestResource = createFlowRestResource()
+        val recordsCaptor = argumentCaptor<List<Record<*, *>>>()
+        val statusesCaptor = argumentCaptor<Collection<FlowStatus>>()
+
+        val response = flowRestResource.startFlows(
+            VALID_SHORT_HASH,
+            listOf(
+                StartFlowParameters("request1", FLOW1, TestJsonObject()),
+                StartFlowParameters("request2", "flow2", TestJsonObject()),
+                StartFlowParameters("request3", FLOW1, TestJsonObject()),
+            )
+        )
+
+        verify(virtualNodeInfoReadService, times(1)).getByHoldingIdentityShortHash(any())
+        verify(cpiInfoReadService, times(1)).get(any())
+        verify(flowStatusLookupService, times(1)).getStatuses(eq(listOf("request1", "request2", "request3")), any())
+        verify(flowStatusLookupService, never()).getStatus(any(), any())
+        verify(flowStatusLookupService, times(1)).storeStatuses(statusesCaptor.capture())
+        verify(flowStatusLookupService, never()).storeStatus(any())
+        verify(permissionValidator, times(2)).authorizeUser(eq(loginName), any())
+        verify(publisher, times(1)).batchPublish(recordsCaptor.capture())
+        verify(fatalErrorFunction, never()).invoke()
+
+        assertEquals(3, statusesCaptor.firstValue.size)
+        assertEquals(3, recordsCaptor.firstValue.size)
+        assertEquals(ResponseCode.ACCEPTED, response.responseCode)
+        assertEquals(listOf("request1", "request2", "request3"), response.responseBody.startFlowResponses.map { it.clientRequestId })
+        assertTrue(response.responseBody.startFlowResponses.all { it.accepted && it.flowStatus != null && it.rejectionReason == null })
+    }
+
+    @Test
+    fun `start flows rejects each flow which can't be started and starts the others`() {
+        val flowRestResource = createFlowRestResource()
+        val recordsCaptor = argumentCaptor<List<Record<*, *>>>()
+
+        whenever(flowStatusLookupService.getStatuses(any(), any())).thenReturn(mapOf("existing" to FlowStatus()))
+        whenever(permissionValidator.authorizeUser(loginName, "$START_FLOW_PREFIX${PREFIX_SEPARATOR}flow2")).thenReturn(false)
+
+        val response = flowRestResource.startFlows(
+            VALID_SHORT_HASH,
+            listOf(
+                StartFlowParameters("request1", FLOW1, TestJsonObject()),
+                StartFlowParameters("request1", FLOW1, TestJsonObject()),
+                StartFlowParameters("existing", FLOW1, TestJsonObject()),
+                StartFlowParameters("", FLOW1, TestJsonObject()),
+                StartFlowParameters("request2", "invalid", TestJsonObject()),
+                StartFlowParameters("request3", "flow2", TestJsonObject()),
+            )
+        )
+
+        verify(flowStatusLookupService, times(1)).getStatuses(eq(listOf("request1", "existing")), any())
+        verify(flowStatusLookupService, times(1)).storeStatuses(argThat { size == 1 })
+        verify(publisher, times(1)).batchPublish(recordsCaptor.capture())
+        assertEquals(1, recordsCaptor.firstValue.size)
+
+        val responses = response.responseBody.startFlowResponses
+        assertEquals(listOf(true, false, false, false, false, false), responses.map { it.accepted })
+        assertNotNull(responses[0].flowStatus)
+        assertTrue(responses.drop(1).all { it.flowStatus == null && it.rejectionReason != null })
+        assertEquals(FlowRestExceptionConstants.ALREADY_EXISTS_ERROR, responses[2].rejectionReason)
+    }
+
+    @Test
+    fun `start flows does not store or publish anything if every flow is rejected`() {
+        val flowRestResource = createFlowRestResource()
+
+        val response = flowRestResource.startFlows(
+            VALID_SHORT_HASH,
+            listOf(StartFlowParameters("request1", "invalid", TestJsonObject()))
+        )
+
+        verify(flowStatusLookupService, never()).storeStatuses(any())
+        verify(publisher, never()).batchPublish(any())
+        assertFalse(response.responseBody.startFlowResponses.single().accepted)
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = [0, 1001])
+    fun `start flows throws bad request if the number of flows is out of range`(count: Int) {
+        val flowRestResource = createFlowRestResource()
+
+        assertThrows<BadRequestException> {
+            flowRestResource.startFlows(
+                VALID_SHORT_HASH,
+                (1..count).map { StartFlowParameters("request$it", FLOW1, TestJsonObject()) }
+            )
+        }
+
+        verify(virtualNodeInfoReadService, never()).getByHoldingIdentityShortHash(any())
+        verify(publisher, never()).batchPublish(any())
+    }
+
+    @Test
+    fun `start flows fails when flowStartOperationalStatus is INACTIVE`() {
+        val flowRestResource = createFlowRestResource()
+
+        whenever(virtualNodeInfoReadService.getByHoldingIdentityShortHash(any())).thenReturn(
+            getStubVirtualNode(flowStartOperationalStatus = OperationalStatus.INACTIVE)
+        )
+
+        assertThrows<OperationNotAllowedException> {
+            flowRestResource.startFlows(VALID_SHORT_HASH, listOf(StartFlowParameters(clientRequestId, FLOW1, TestJsonObject())))
+        }
+        verify(flowStatusLookupService, never()).getStatuses(any(), any())
+    }
+
+    @Test
+    fun `start flows always returns error after synchronous fatal failure`() {
+        val flowRestResource = createFlowRestResource()
+        val startFlows = listOf(StartFlowParameters(clientRequestId, FLOW1, TestJsonObject()))
+
+        doThrow(CordaMessageAPIFatalException("")).whenever(publisher).batchPublish(any())
+        assertThrows<InternalServerException> {
+            flowRestResource.startFlows(VALID_SHORT_HASH, startFlows)
+        }
+        verify(fatalErrorFunction, times(1)).invoke()
+
+        assertThrows<ServiceUnavailableException> {
+            flowRestResource.startFlows(VALID_SHORT_HASH, startFlows)
+        }
+        verify(publisher, times(1)).batchPublish(any())
+    }
 }
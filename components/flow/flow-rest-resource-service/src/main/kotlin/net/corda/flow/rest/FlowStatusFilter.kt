@@ -0,0 +1,18 @@
+package net.corda.flow.rest
+
+import net.corda.data.flow.output.FlowStates
+import java.time.Instant
+
+/**
+ * Criteria a [net.corda.data.flow.output.FlowStatus] must meet to be listed by [FlowStatusLookupService].
+ * Criteria which are `null` are not applied.
+ *
+ * @param status The processing status of the flow.
+ * @param flowClassName The name of the class of the flow.
+ * @param startedAfter The time after which the flow was started.
+ */
+data class FlowStatusFilter(
+    val status: FlowStates? = null,
+    val flowClassName: String? = null,
+    val startedAfter: Instant? = null,
+)
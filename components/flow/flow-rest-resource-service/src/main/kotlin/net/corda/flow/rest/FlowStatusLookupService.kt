@@ -27,6 +27,16 @@ interface FlowStatusLookupService: Lifecycle {
      * */
     fun getStatus(clientRequestId: String, holdingIdentity: HoldingIdentity): FlowStatus?
 
+    /**
+     * Returns the [FlowStatus] associated with each of a number of client request IDs and a [HoldingIdentity],
+     * looking all of them up at once. Client request IDs for which no [FlowStatus] can be found are left out.
+     *
+     * @param clientRequestIds The client request IDs which were provided when starting the flows.
+     * @param holdingIdentity The [HoldingIdentity] that the flows belong to.
+     * @return Latest [FlowStatus] for each flow found, by client request ID.
+     * */
+    fun getStatuses(clientRequestIds: Collection<String>, holdingIdentity: HoldingIdentity): Map<String, FlowStatus>
+
     /**
      * Returns a list of all flow statuses for a given holding identity. If none are found,
      * an empty list will be returned.
@@ -36,6 +46,23 @@ interface FlowStatusLookupService: Lifecycle {
      * */
     fun getStatusesPerIdentity(holdingIdentity: HoldingIdentity): List<FlowStatus>
 
+    /**
+     * Returns a page of the flow statuses for a given holding identity which match [filter]. Flow statuses are
+     * listed in the same order across pages, so that all of them can be listed one page at a time.
+     *
+     * @param holdingIdentity The [HoldingIdentity] which you'd like to retrieve flow statuses for.
+     * @param filter The criteria the flow statuses must meet.
+     * @param afterKey The [FlowStatusPage.nextPageKey] of the previous page, or null to list the first page.
+     * @param limit The maximum number of flow statuses to return.
+     * @return A page of flow statuses, which is empty if none exist.
+     * */
+    fun getStatusesPerIdentity(
+        holdingIdentity: HoldingIdentity,
+        filter: FlowStatusFilter,
+        afterKey: String?,
+        limit: Int,
+    ): FlowStatusPage
+
     /**
      * Stores a new status in the state manager.
      * Intended to allow saving "start requested" stauses from flow start REST handler
@@ -43,4 +70,12 @@ interface FlowStatusLookupService: Lifecycle {
      * @param status Status to save
      */
     fun storeStatus(status: FlowStatus)
+
+    /**
+     * Stores a number of new statuses in the state manager at once.
+     * Intended to allow saving "start requested" statuses from the batch flow start REST handler
+     *
+     * @param statuses Statuses to save
+     */
+    fun storeStatuses(statuses: Collection<FlowStatus>)
 }
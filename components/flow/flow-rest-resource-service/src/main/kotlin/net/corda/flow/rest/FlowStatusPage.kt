@@ -0,0 +1,15 @@
+package net.corda.flow.rest
+
+import net.corda.data.flow.output.FlowStatus
+
+/**
+ * A page of the flow statuses listed by [FlowStatusLookupService].
+ *
+ * @param statuses The flow statuses in this page.
+ * @param nextPageKey The key to pass to [FlowStatusLookupService.getStatusesPerIdentity] to list the next page of
+ * flow statuses, or `null` if this is the last page.
+ */
+data class FlowStatusPage(
+    val statuses: List<FlowStatus>,
+    val nextPageKey: String?,
+)
@@ -4,6 +4,8 @@ import net.corda.flow.rest.v1.types.request.StartFlowParameters
 import net.corda.flow.rest.v1.types.response.FlowResultResponse
 import net.corda.flow.rest.v1.types.response.FlowStatusResponse
 import net.corda.flow.rest.v1.types.response.FlowStatusResponses
+import net.corda.flow.rest.v1.types.response.PagedFlowStatusResponses
+import net.corda.flow.rest.v1.types.response.StartFlowResponses
 import net.corda.libs.configuration.SmartConfig
 import net.corda.rest.RestResource
 import net.corda.rest.annotations.ClientRequestBodyParameter
@@ -65,6 +67,38 @@ interface FlowRestResource : RestResource {
         startFlow: StartFlowParameters
     ): ResponseEntity<FlowStatusResponse>
 
+    @HttpPOST(
+        path = "{holdingIdentityShortHash}/batch",
+        title = "Start Multiple Flows",
+        description = "This method starts new instances of a number of flows for the specified holding identity. " +
+                "Each flow is accepted or rejected on its own, so that some flows of a batch can be started " +
+                "even if others can't.",
+        responseDescription = """
+            The outcome of starting each flow, in the order they were requested in, including:
+
+            clientRequestId: The unique ID supplied by the client for the flow.
+            accepted: Whether the flow was accepted to be started.
+            flowStatus: The initial status of the flow instance, only set when the flow was accepted otherwise null
+            rejectionReason: Why the flow was not started, for example because a flow has already been started with the
+                same clientRequestId, only set when the flow was not accepted otherwise null
+            """,
+        minVersion = RestApiVersion.C5_3
+    )
+    fun startFlows(
+        @RestPathParameter(description = "The short hash of the holding identity; obtained during node registration")
+        holdingIdentityShortHash: String,
+        @ClientRequestBodyParameter(
+            description = """
+                The flows to start for this holdingId, at most 1000 of them, each including:
+                clientRequestId: a client provided flow identifier
+                flowClassName: fully qualified class name of the flow to start
+                requestBody: optional start arguments string passed to the flow; defaults to an empty string
+            """,
+            required = true
+        )
+        startFlows: List<StartFlowParameters>
+    ): ResponseEntity<StartFlowResponses>
+
     @HttpGET(
         path = "{holdingIdentityShortHash}/{clientRequestId}",
         title = "Get Flow Status",
@@ -127,7 +161,8 @@ interface FlowRestResource : RestResource {
             flowError: The details of the error that caused a flow to fail, only set when the flow status is 'FAILED' otherwise null
             timestamp: The timestamp of when the status was last updated (in UTC)
             """,
-        minVersion = RestApiVersion.C5_2
+        minVersion = RestApiVersion.C5_2,
+        maxVersion = RestApiVersion.C5_2
     )
     fun getMultipleFlowStatus(
         @RestPathParameter(description = "The short hash of the holding identity; obtained during node registration")
@@ -141,6 +176,65 @@ interface FlowRestResource : RestResource {
         status: String? = null,
     ): FlowStatusResponses
 
+    @HttpGET(
+        path = "{holdingIdentityShortHash}",
+        title = "Get Multiple Flow Status",
+        description = "This method returns an array containing the statuses of all flows for a specified " +
+                "holding identity, for a particular flow processing status, flow class and start time if specified. " +
+                "An empty array is returned if there are no flows. If a limit is specified, the statuses are returned " +
+                "one page at a time, and the key of the next page is returned with each page but the last.",
+        responseDescription = """
+            A collection of statuses for the flow instances, including:
+            
+            holdingIdentityShortHash: The short form hash of the Holding Identity
+            clientRequestId: The unique ID supplied by the client when the flow was created.
+            flowId: The internal unique ID for the flow.
+            flowStatus: The current state of the executing flow.
+            flowResult: The result returned from a completed flow, only set when the flow status is 'COMPLETED' otherwise null
+            flowError: The details of the error that caused a flow to fail, only set when the flow status is 'FAILED' otherwise null
+            timestamp: The timestamp of when the status was last updated (in UTC)
+            nextPageKey: The key to request the next page of statuses with, only set when there may be more statuses
+            """,
+        minVersion = RestApiVersion.C5_3
+    )
+    fun getMultipleFlowStatus(
+        @RestPathParameter(description = "The short hash of the holding identity; obtained during node registration")
+        holdingIdentityShortHash: String,
+        @RestQueryParameter(
+            name = "status",
+            description = "Processing status of a flow to filter by. " +
+                    "For example - RUNNING, START_REQUESTED, RETRYING, COMPLETED, FAILED, KILLED",
+            required = false
+        )
+        status: String? = null,
+        @RestQueryParameter(
+            name = "flowClassName",
+            description = "Fully qualified name of the class of the flows to filter by.",
+            required = false
+        )
+        flowClassName: String? = null,
+        @RestQueryParameter(
+            name = "startedAfter",
+            description = "Only include flows started after this time, in ISO-8601 format. " +
+                    "For example - 2024-01-31T12:00:00Z",
+            required = false
+        )
+        startedAfter: String? = null,
+        @RestQueryParameter(
+            name = "limit",
+            description = "The maximum number of flow statuses to return. The value must be in the range [1..1000]. " +
+                    "If not specified, the statuses of all matching flows are returned.",
+            required = false
+        )
+        limit: Int? = null,
+        @RestQueryParameter(
+            name = "nextPageKey",
+            description = "The nextPageKey returned with the previous page of flow statuses, to return the next page.",
+            required = false
+        )
+        nextPageKey: String? = null,
+    ): PagedFlowStatusResponses
+
     @HttpGET(
         path = "{holdingIdentityShortHash}/{clientRequestId}/result",
         title = "Get Flow Result",
@@ -0,0 +1,12 @@
+package net.corda.flow.rest.v1.types.response
+
+/**
+ * A page of the statuses of the flows for a single holding identity
+ *
+ * @param flowStatusResponses List of [FlowStatusResponse]. Empty if there are no flows for this holding id.
+ * @param nextPageKey The key to request the next page of flow statuses with, or null if there are no more.
+ */
+data class PagedFlowStatusResponses(
+    val flowStatusResponses: List<FlowStatusResponse>,
+    val nextPageKey: String? = null
+)
@@ -0,0 +1,16 @@
+package net.corda.flow.rest.v1.types.response
+
+/**
+ * The outcome of starting one of a batch of flows.
+ *
+ * @param clientRequestId The unique ID supplied by the client for the flow.
+ * @param accepted Whether the flow was accepted to be started.
+ * @param flowStatus The initial status of the flow, only set when the flow was accepted otherwise null
+ * @param rejectionReason Why the flow was not started, only set when the flow was not accepted otherwise null
+ */
+data class StartFlowResponse(
+    val clientRequestId: String,
+    val accepted: Boolean,
+    val flowStatus: FlowStatusResponse?,
+    val rejectionReason: String?
+)
@@ -0,0 +1,10 @@
+package net.corda.flow.rest.v1.types.response
+
+/**
+ * The outcome of starting a batch of flows for a single holding identity
+ *
+ * @param startFlowResponses List of [StartFlowResponse], in the order the flows were requested in.
+ */
+data class StartFlowResponses(
+    val startFlowResponses: List<StartFlowResponse>
+)
@@ -455,7 +455,9 @@ class FlowServiceTestContext @Activate constructor(
             val response = flowEventProcessor.onNext(
                 State(lastPublishedState, metadata = null),
                 testRun.event
-            )
+            ).let {
+                it.copy(updatedState = flowEventProcessor.onBatchComplete(testRun.event.key, it.updatedState))
+            }
             testRun.flowContinuation = flowFiberFactory.fiber.flowContinuation
             testRun.response = response
             lastPublishedState = response.updatedState?.value
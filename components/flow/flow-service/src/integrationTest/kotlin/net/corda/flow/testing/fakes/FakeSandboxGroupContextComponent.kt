@@ -80,6 +80,10 @@ class FakeSandboxGroupContextComponent : SandboxGroupContextComponent {
         TODO("Not yet implemented")
     }
 
+    override fun capacity(type: SandboxGroupType): Long {
+        TODO("Not yet implemented")
+    }
+
     override fun flushCache(): CompletableFuture<*> {
         TODO("Not yet implemented")
     }
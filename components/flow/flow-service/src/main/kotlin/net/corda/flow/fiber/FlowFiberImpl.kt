@@ -183,19 +183,21 @@ class FlowFiberImpl(
         parkAndCustomSerialize { _ ->
             resetLoggingContext()
             log.trace { "Parking..." }
-            val fiberState = CordaMetrics.Metric.FlowFiberSerializationTime.builder()
+            // The fiber is serialized by the flow pipeline once it has parked, which it may defer until the end of
+            // the batch of events for this flow so that a fiber resumed again within the batch is never serialized.
+            val serializationTimer = CordaMetrics.Metric.FlowFiberSerializationTime.builder()
                 .forVirtualNode(getExecutionContext().flowCheckpoint.holdingIdentity.shortHash.toString())
                 .withTag(
                     CordaMetrics.Tag.FlowClass,
                     getExecutionContext().flowCheckpoint.flowStartContext.flowClassName
                 )
                 .build()
-                .recordCallable {
-                    getExecutionContext().sandboxGroupContext.checkpointSerializer.serialize(this)
-                }!!
+            val checkpointSerializer = getExecutionContext().sandboxGroupContext.checkpointSerializer
             flowCompletion.complete(
                 FlowIORequest.FlowSuspended(
-                    ByteBuffer.wrap(fiberState),
+                    {
+                        ByteBuffer.wrap(serializationTimer.recordCallable { checkpointSerializer.serialize(this) }!!)
+                    },
                     request,
                     prepareForCaching()
                 )
@@ -84,15 +84,22 @@ interface FlowIORequest<out R> {
 
     /**
      * Indicates a flow has been suspended
-     * @property fiber serialized fiber state at the point of suspension.
+     * @property serializeFiber serializes the fiber state at the point of suspension.
+     * @property fiber serialized fiber state at the point of suspension. The fiber is only serialized when this is
+     * first read, which must happen before the fiber is resumed.
      * @property output the IO request that caused the suspension.
      * @property cacheableFiber optional fiber to cache for performance improvements.
      */
     data class FlowSuspended<SUSPENDRETURN>(
-        val fiber: ByteBuffer,
+        val serializeFiber: () -> ByteBuffer,
         val output: FlowIORequest<SUSPENDRETURN>,
         val cacheableFiber: FlowFiberImpl? = null
-    ) : FlowIORequest<Unit>
+    ) : FlowIORequest<Unit> {
+        constructor(fiber: ByteBuffer, output: FlowIORequest<SUSPENDRETURN>, cacheableFiber: FlowFiberImpl? = null) :
+            this({ fiber }, output, cacheableFiber)
+
+        val fiber: ByteBuffer by lazy(LazyThreadSafetyMode.NONE, serializeFiber)
+    }
 
     data class ExternalEvent(
         val requestId: String,
@@ -0,0 +1,61 @@
+package net.corda.flow.fiber.cache
+
+import net.corda.data.flow.FlowKey
+import net.corda.data.flow.state.checkpoint.Checkpoint
+import net.corda.flow.fiber.FlowIORequest
+
+/**
+ * Holds the fibers of flows that suspended while a batch of events for the flow is being processed.
+ *
+ * A fiber that is resumed again within the same batch, for example when a synchronous external event is answered
+ * straight away, is then never serialized. The fiber a flow is left suspended with is serialized into its
+ * checkpoint once, when the batch completes.
+ */
+interface DeferredFiberSerializer {
+    /**
+     * Whether serialization of suspended fibers is deferred to the end of the batch. It is off unless the
+     * `net.corda.flow.fiber.serialization.deferred` system property is `true`.
+     */
+    val isEnabled: Boolean
+
+    /**
+     * Holds the suspended fiber of the flow with [key] until it is resumed or the batch completes.
+     *
+     * @param key The key of the suspended flow.
+     * @param suspendCount The suspend count of the flow's checkpoint after the suspension.
+     * @param suspended The suspension of the flow, which is able to serialize the fiber.
+     */
+    fun defer(key: FlowKey, suspendCount: Int, suspended: FlowIORequest.FlowSuspended<*>)
+
+    /**
+     * Takes the suspension held for the flow with [key] so that its fiber can be resumed.
+     *
+     * @param key The key of the flow to resume.
+     * @param suspendCount The suspend count of the checkpoint being resumed.
+     *
+     * @return The suspension held for the flow, or null if none was held for the [suspendCount].
+     *
+     * @throws FlowBatchRetryException If the fiber for the [suspendCount] has already been resumed in this batch.
+     */
+    fun take(key: FlowKey, suspendCount: Int): FlowIORequest.FlowSuspended<*>?
+
+    /**
+     * Serializes any fiber still held for the flow into its [checkpoint] and releases everything held for the flow.
+     *
+     * @param flowId The ID of the flow whose batch has completed.
+     * @param checkpoint The checkpoint the flow was left with at the end of the batch.
+     *
+     * @return The checkpoint to store.
+     *
+     * @throws FlowBatchRetryException If the [checkpoint] needs a fiber that has already been resumed in this batch.
+     */
+    fun complete(flowId: String, checkpoint: Checkpoint?): Checkpoint?
+
+    /**
+     * Releases everything held for the flow without serializing it, used when processing the batch of events for the
+     * flow is abandoned and its checkpoint is not stored.
+     *
+     * @param flowId The ID of the flow whose batch was abandoned.
+     */
+    fun release(flowId: String)
+}
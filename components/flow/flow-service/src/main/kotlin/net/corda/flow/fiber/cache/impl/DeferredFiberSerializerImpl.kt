@@ -0,0 +1,72 @@
+package net.corda.flow.fiber.cache.impl
+
+import net.corda.data.flow.FlowKey
+import net.corda.data.flow.state.checkpoint.Checkpoint
+import net.corda.flow.fiber.FlowIORequest
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
+import net.corda.flow.pipeline.exceptions.FlowBatchRetryException
+import net.corda.utilities.debug
+import org.osgi.service.component.annotations.Activate
+import org.osgi.service.component.annotations.Component
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
+
+@Component(service = [DeferredFiberSerializer::class])
+class DeferredFiberSerializerImpl(
+    override val isEnabled: Boolean
+) : DeferredFiberSerializer {
+
+    @Activate
+    constructor() : this(System.getProperty(DEFERRED_FIBER_SERIALIZATION_PROPERTY_NAME, "false").toBoolean())
+
+    private companion object {
+        private val logger = LoggerFactory.getLogger(DeferredFiberSerializerImpl::class.java)
+        private const val DEFERRED_FIBER_SERIALIZATION_PROPERTY_NAME = "net.corda.flow.fiber.serialization.deferred"
+    }
+
+    /**
+     * The suspension is null once the fiber has been resumed, which is remembered so that a checkpoint rolled back to
+     * that suspension is never resumed or stored without its fiber.
+     */
+    private class Deferred(val suspendCount: Int, var suspended: FlowIORequest.FlowSuspended<*>?)
+
+    // The events of one flow are processed by one thread at a time, but different flows are processed concurrently.
+    private val deferred = ConcurrentHashMap<String, Deferred>()
+
+    override fun defer(key: FlowKey, suspendCount: Int, suspended: FlowIORequest.FlowSuspended<*>) {
+        deferred[key.id] = Deferred(suspendCount, suspended)
+    }
+
+    override fun take(key: FlowKey, suspendCount: Int): FlowIORequest.FlowSuspended<*>? {
+        val held = deferred[key.id]
+        if (held == null || held.suspendCount != suspendCount) {
+            return null
+        }
+
+        val suspended = held.suspended ?: throw FlowBatchRetryException(
+            "Flow ${key.id} cannot be resumed from suspension $suspendCount as its fiber was already resumed in this batch"
+        )
+        held.suspended = null
+        return suspended
+    }
+
+    override fun complete(flowId: String, checkpoint: Checkpoint?): Checkpoint? {
+        val held = deferred.remove(flowId) ?: return checkpoint
+        val flowState = checkpoint?.flowState ?: return checkpoint
+        val fiber = flowState.fiber
+        if (flowState.suspendCount != held.suspendCount || (fiber != null && fiber.hasRemaining())) {
+            return checkpoint
+        }
+
+        val suspended = held.suspended ?: throw FlowBatchRetryException(
+            "Flow $flowId cannot be stored at suspension ${held.suspendCount} as its fiber was already resumed in this batch"
+        )
+        logger.debug { "Serializing deferred fiber for flow $flowId at suspension ${held.suspendCount}" }
+        flowState.fiber = suspended.fiber
+        return checkpoint
+    }
+
+    override fun release(flowId: String) {
+        deferred.remove(flowId)
+    }
+}
@@ -9,20 +9,26 @@ import net.corda.flow.fiber.FlowFiber
 import net.corda.flow.fiber.FlowFiberExecutionContext
 import net.corda.flow.fiber.FlowFiberImpl
 import net.corda.flow.fiber.FlowLogicAndArgs
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.fiber.cache.FlowFiberCache
+import net.corda.flow.pipeline.exceptions.FlowBatchRetryException
 import net.corda.flow.pipeline.exceptions.FlowFatalException
+import net.corda.flow.state.FlowCheckpoint
 import net.corda.metrics.CordaMetrics
 import org.osgi.service.component.annotations.Activate
 import org.osgi.service.component.annotations.Component
 import org.osgi.service.component.annotations.Reference
 import org.slf4j.LoggerFactory
+import java.nio.ByteBuffer
 import java.util.UUID
 
 @Component
 @Suppress("Unused")
 class FlowFiberFactoryImpl @Activate constructor(
     @Reference(service = FlowFiberCache::class)
-    private val flowFiberCache: FlowFiberCache
+    private val flowFiberCache: FlowFiberCache,
+    @Reference(service = DeferredFiberSerializer::class)
+    private val deferredFiberSerializer: DeferredFiberSerializer
 ) : FlowFiberFactory {
 
     private companion object {
@@ -81,21 +87,35 @@ class FlowFiberFactoryImpl @Activate constructor(
     }
 
     private fun getFromCacheOrDeserialize(flowFiberExecutionContext: FlowFiberExecutionContext): FlowFiber {
+        val checkpoint = flowFiberExecutionContext.flowCheckpoint
+        val sandboxGroupId = flowFiberExecutionContext.sandboxGroupContext.sandboxGroup.id
+        // Taking the deferred suspension marks its fiber as resumed, so it must happen whichever fiber is used.
+        val deferred = deferredFiberSerializer.take(checkpoint.flowKey, checkpoint.suspendCount)
         val cachedFiber: FlowFiber? = try {
-            flowFiberCache.get(
-                flowFiberExecutionContext.flowCheckpoint.flowKey,
-                flowFiberExecutionContext.flowCheckpoint.suspendCount,
-                flowFiberExecutionContext.sandboxGroupContext.sandboxGroup.id
-            )
+            flowFiberCache.get(checkpoint.flowKey, checkpoint.suspendCount, sandboxGroupId)
         } catch (e: InterruptedException) {
             throw e
         } catch (e: Exception) {
             logger.warn("Exception when getting from flow fiber cache.", e)
             null
         }
-        return cachedFiber ?: flowFiberExecutionContext.sandboxGroupContext.checkpointSerializer.deserialize(
-            flowFiberExecutionContext.flowCheckpoint.serializedFiber.array(),
-            FlowFiberImpl::class.java
-        )
+        return cachedFiber
+            ?: deferred?.cacheableFiber?.takeIf { it.getSandboxGroupId() == sandboxGroupId }
+            ?: flowFiberExecutionContext.sandboxGroupContext.checkpointSerializer.deserialize(
+                // A deferred fiber suspended in a sandbox that has since been evicted is serialized from the
+                // suspension it is still parked at, and deserialized into the current sandbox.
+                (deferred?.fiber ?: getSerializedFiber(checkpoint)).array(),
+                FlowFiberImpl::class.java
+            )
+    }
+
+    private fun getSerializedFiber(checkpoint: FlowCheckpoint): ByteBuffer {
+        if (deferredFiberSerializer.isEnabled && !checkpoint.serializedFiber.hasRemaining()) {
+            throw FlowBatchRetryException(
+                "Flow ${checkpoint.flowId} cannot be resumed from suspension ${checkpoint.suspendCount} as its fiber " +
+                    "was not serialized"
+            )
+        }
+        return checkpoint.serializedFiber
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package net.corda.flow.pipeline.exceptions
+
+import net.corda.messaging.api.exception.CordaMessageAPIIntermittentException
+
+/**
+ * The [FlowBatchRetryException] is thrown when the checkpoint a flow event is being processed against can no longer
+ * be restored within the current batch of events, because the fiber it suspended with has already been resumed and
+ * was never serialized. It is not handled by the flow pipeline, and is intermittent to the event mediator, so the poll
+ * is retried and the whole batch of events for the flow is processed again from its stored checkpoint.
+ */
+class FlowBatchRetryException(
+    message: String
+) : CordaMessageAPIIntermittentException(message)
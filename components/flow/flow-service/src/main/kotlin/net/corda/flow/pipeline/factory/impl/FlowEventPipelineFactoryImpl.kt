@@ -3,6 +3,7 @@ package net.corda.flow.pipeline.factory.impl
 import net.corda.data.flow.event.FlowEvent
 import net.corda.data.flow.state.checkpoint.Checkpoint
 import net.corda.flow.fiber.FlowIORequest
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.fiber.cache.FlowFiberCache
 import net.corda.flow.metrics.FlowIORequestTypeConverter
 import net.corda.flow.metrics.FlowMetricsFactory
@@ -39,6 +40,7 @@ class FlowEventPipelineFactoryImpl(
     private val flowFiberCache: FlowFiberCache,
     private val flowMetricsFactory: FlowMetricsFactory,
     private val flowIORequestTypeConverter: FlowIORequestTypeConverter,
+    private val deferredFiberSerializer: DeferredFiberSerializer,
     flowEventHandlers: List<FlowEventHandler<out Any>>,
     flowWaitingForHandlers: List<FlowWaitingForHandler<out Any>>,
     flowRequestHandlers: List<FlowRequestHandler<out FlowIORequest<*>>>
@@ -83,7 +85,9 @@ class FlowEventPipelineFactoryImpl(
         @Reference(service = FlowMetricsFactory::class)
         flowMetricsFactory: FlowMetricsFactory,
         @Reference(service = FlowIORequestTypeConverter::class)
-        flowIORequestTypeConverter: FlowIORequestTypeConverter
+        flowIORequestTypeConverter: FlowIORequestTypeConverter,
+        @Reference(service = DeferredFiberSerializer::class)
+        deferredFiberSerializer: DeferredFiberSerializer
     ) : this(
         flowRunner,
         flowGlobalPostProcessor,
@@ -92,6 +96,7 @@ class FlowEventPipelineFactoryImpl(
         flowFiberCache,
         flowMetricsFactory,
         flowIORequestTypeConverter,
+        deferredFiberSerializer,
         mutableListOf(),
         mutableListOf(),
         mutableListOf()
@@ -133,7 +138,8 @@ class FlowEventPipelineFactoryImpl(
             flowRequestHandlerMap,
             flowRunner,
             flowFiberCache,
-            flowIORequestTypeConverter
+            flowIORequestTypeConverter,
+            deferredFiberSerializer
         )
 
         return FlowEventPipelineImpl(
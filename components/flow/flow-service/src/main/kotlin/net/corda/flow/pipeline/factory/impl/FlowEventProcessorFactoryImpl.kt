@@ -2,6 +2,7 @@ package net.corda.flow.pipeline.factory.impl
 
 import net.corda.data.flow.event.FlowEvent
 import net.corda.data.flow.state.checkpoint.Checkpoint
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.pipeline.FlowEngineReplayService
 import net.corda.flow.pipeline.FlowEventExceptionProcessor
 import net.corda.flow.pipeline.FlowMDCService
@@ -26,7 +27,8 @@ class FlowEventProcessorFactoryImpl(
     private val flowEventContextConverter: FlowEventContextConverter,
     private val flowMDCService: FlowMDCService,
     postProcessingHandlers: List<FlowPostProcessingHandler>,
-    private val flowEngineReplayService: FlowEngineReplayService
+    private val flowEngineReplayService: FlowEngineReplayService,
+    private val deferredFiberSerializer: DeferredFiberSerializer
 ) : FlowEventProcessorFactory {
 
     // We cannot use constructor injection with DYNAMIC policy.
@@ -47,14 +49,17 @@ class FlowEventProcessorFactoryImpl(
         @Reference(service = FlowMDCService::class)
         flowMDCService: FlowMDCService,
         @Reference(service = FlowEngineReplayService::class)
-        flowEngineReplayService: FlowEngineReplayService
+        flowEngineReplayService: FlowEngineReplayService,
+        @Reference(service = DeferredFiberSerializer::class)
+        deferredFiberSerializer: DeferredFiberSerializer
     ): this(
         flowEventPipelineFactory,
         flowEventExceptionProcessor,
         flowEventContextConverter,
         flowMDCService,
         mutableListOf(),
-        flowEngineReplayService
+        flowEngineReplayService,
+        deferredFiberSerializer
     )
 
     override fun create(configs: Map<String, SmartConfig>): StateAndEventProcessor<String, Checkpoint, FlowEvent> {
@@ -65,7 +70,8 @@ class FlowEventProcessorFactoryImpl(
             configs,
             flowMDCService,
             postProcessingHandlers,
-            flowEngineReplayService
+            flowEngineReplayService,
+            deferredFiberSerializer
         )
     }
 }
@@ -2,11 +2,13 @@ package net.corda.flow.pipeline.impl
 
 import net.corda.data.flow.event.FlowEvent
 import net.corda.data.flow.state.checkpoint.Checkpoint
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.pipeline.FlowEngineReplayService
 import net.corda.flow.pipeline.FlowEventExceptionProcessor
 import net.corda.flow.pipeline.FlowEventPipeline
 import net.corda.flow.pipeline.FlowMDCService
 import net.corda.flow.pipeline.converters.FlowEventContextConverter
+import net.corda.flow.pipeline.exceptions.FlowBatchRetryException
 import net.corda.flow.pipeline.exceptions.FlowEventException
 import net.corda.flow.pipeline.exceptions.FlowFatalException
 import net.corda.flow.pipeline.exceptions.FlowMarkedForKillException
@@ -42,7 +44,8 @@ class FlowEventProcessorImpl(
     private val configs: Map<String, SmartConfig>,
     private val flowMDCService: FlowMDCService,
     private val postProcessingHandlers: List<FlowPostProcessingHandler>,
-    private val flowEngineReplayService: FlowEngineReplayService
+    private val flowEngineReplayService: FlowEngineReplayService,
+    private val deferredFiberSerializer: DeferredFiberSerializer
 ) : StateAndEventProcessor<String, Checkpoint, FlowEvent> {
 
     private companion object {
@@ -68,13 +71,26 @@ class FlowEventProcessorImpl(
         val flowEvent = event.value
         val mdcProperties = flowMDCService.getMDCLogging(state?.value, flowEvent, event.key)
         val eventType = event.value?.payload?.javaClass?.simpleName ?: "Unknown"
-        return withMDC(mdcProperties) {
-            traceStateAndEventExecution(event, "Flow Event - $eventType") {
-                createAndExecutePipeline(event, state, mdcProperties, this)
+        return try {
+            withMDC(mdcProperties) {
+                traceStateAndEventExecution(event, "Flow Event - $eventType") {
+                    createAndExecutePipeline(event, state, mdcProperties, this)
+                }
             }
+        } catch (t: Throwable) {
+            // The batch is abandoned and processed again from the stored checkpoint, which must not find the fibers
+            // held for this batch.
+            deferredFiberSerializer.release(event.key)
+            throw t
         }
     }
 
+    override fun onBatchComplete(key: String, state: State<Checkpoint>?): State<Checkpoint>? {
+        // The fiber of a flow left suspended at the end of the batch is only serialized into its checkpoint now.
+        val checkpoint = deferredFiberSerializer.complete(key, state?.value)
+        return state?.copy(value = checkpoint)
+    }
+
     private fun createAndExecutePipeline(
         event: Record<String, FlowEvent>,
         state: State<Checkpoint>?,
@@ -140,6 +156,10 @@ class FlowEventProcessorImpl(
                     .globalPostProcessing()
                     .context
             }
+        } catch (e: FlowBatchRetryException) {
+            // The checkpoint can no longer be restored within this batch, so the batch is processed again from the
+            // stored checkpoint instead of failing the flow.
+            throw e
         } catch (e: FlowEventException) {
             flowEventExceptionProcessor.process(e, pipeline.context)
         } catch (e: FlowPlatformException) {
@@ -2,6 +2,7 @@ package net.corda.flow.pipeline.impl
 
 import net.corda.flow.fiber.FlowContinuation
 import net.corda.flow.fiber.FlowIORequest
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.fiber.cache.FlowFiberCache
 import net.corda.flow.metrics.FlowIORequestTypeConverter
 import net.corda.flow.pipeline.events.FlowEventContext
@@ -28,7 +29,8 @@ internal class FlowExecutionPipelineStage(
     private val flowRequestHandlers: Map<Class<out FlowIORequest<*>>, FlowRequestHandler<out FlowIORequest<*>>>,
     private val flowRunner: FlowRunner,
     private val fiberCache: FlowFiberCache,
-    private val flowIORequestTypeConverter: FlowIORequestTypeConverter
+    private val flowIORequestTypeConverter: FlowIORequestTypeConverter,
+    private val deferredFiberSerializer: DeferredFiberSerializer? = null
 ) {
 
     private companion object {
@@ -111,8 +113,16 @@ internal class FlowExecutionPipelineStage(
             }
 
             is FlowIORequest.FlowSuspended<*> -> {
-                context.checkpoint.serializedFiber = fiberResult.fiber
-                fiberResult.cacheableFiber?.let {
+                val cacheableFiber = fiberResult.cacheableFiber
+                if (cacheableFiber != null && deferredFiberSerializer?.isEnabled == true) {
+                    // The live fiber is kept until the batch of events for this flow completes, and is only
+                    // serialized into the checkpoint then if it has not been resumed again in the meantime.
+                    context.checkpoint.serializedFiber = ByteBuffer.wrap(byteArrayOf())
+                    deferredFiberSerializer.defer(context.checkpoint.flowKey, context.checkpoint.suspendCount, fiberResult)
+                } else {
+                    context.checkpoint.serializedFiber = fiberResult.fiber
+                }
+                cacheableFiber?.let {
                     fiberCache.put(context.checkpoint.flowKey, context.checkpoint.suspendCount, it)
                 }
                 context.flowMetrics.flowFiberExitedWithSuspension(
@@ -18,4 +18,11 @@ interface FlowSandboxService {
      */
 
     fun get(holdingIdentity: HoldingIdentity, cpkFileHashes: Set<SecureHash>): FlowSandboxGroupContext
+
+    /**
+     * Starts rebuilding, in the background, the sandboxes of the virtual nodes whose flows used them the most before
+     * the worker was restarted, and keeps rebuilding them whenever they are evicted.
+     */
+
+    fun warmUp()
 }
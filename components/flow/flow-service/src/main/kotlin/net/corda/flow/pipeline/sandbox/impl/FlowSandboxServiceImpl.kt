@@ -1,32 +1,40 @@
 package net.corda.flow.pipeline.sandbox.impl
 
+import net.corda.cpiinfo.read.CpiInfoReadService
+import net.corda.crypto.core.ShortHash
 import net.corda.flow.pipeline.sandbox.FlowSandboxGroupContext
 import net.corda.flow.pipeline.sandbox.FlowSandboxService
 import net.corda.flow.pipeline.sandbox.impl.FlowSandboxGroupContextImpl.Companion.DEPENDENCY_INJECTOR
 import net.corda.flow.pipeline.sandbox.impl.FlowSandboxGroupContextImpl.Companion.FLOW_PROTOCOL_STORE
 import net.corda.flow.pipeline.sandbox.impl.FlowSandboxGroupContextImpl.Companion.NON_INJECTABLE_SINGLETONS
 import net.corda.flow.pipeline.sessions.FlowProtocolStoreFactory
+import net.corda.libs.packaging.core.CpkMetadata
 import net.corda.sandboxgroupcontext.MutableSandboxGroupContext
 import net.corda.sandboxgroupcontext.RequireSandboxAMQP
 import net.corda.sandboxgroupcontext.RequireSandboxJSON
 import net.corda.sandboxgroupcontext.SandboxGroupType
 import net.corda.sandboxgroupcontext.VirtualNodeContext
 import net.corda.sandboxgroupcontext.putObjectByKey
+import net.corda.sandboxgroupcontext.service.EvictionListener
 import net.corda.sandboxgroupcontext.service.SandboxGroupContextComponent
 import net.corda.sandboxgroupcontext.service.factory.SandboxDependencyInjectorFactory
 import net.corda.sandboxgroupcontext.service.registerCordappCustomSerializers
 import net.corda.sandboxgroupcontext.service.registerCustomCryptography
 import net.corda.sandboxgroupcontext.service.registerCustomJsonDeserializers
 import net.corda.sandboxgroupcontext.service.registerCustomJsonSerializers
+import net.corda.utilities.debug
 import net.corda.v5.crypto.SecureHash
 import net.corda.v5.serialization.SingletonSerializeAsToken
 import net.corda.virtualnode.HoldingIdentity
+import net.corda.virtualnode.read.VirtualNodeInfoReadService
 import org.osgi.framework.BundleContext
 import org.osgi.framework.Constants.SCOPE_PROTOTYPE
 import org.osgi.framework.Constants.SERVICE_SCOPE
 import org.osgi.service.component.annotations.Activate
 import org.osgi.service.component.annotations.Component
+import org.osgi.service.component.annotations.Deactivate
 import org.osgi.service.component.annotations.Reference
+import org.slf4j.LoggerFactory
 
 @Suppress("LongParameterList")
 @RequireSandboxAMQP
@@ -39,14 +47,72 @@ class FlowSandboxServiceImpl @Activate constructor(
     private val dependencyInjectionFactory: SandboxDependencyInjectorFactory,
     @Reference(service = FlowProtocolStoreFactory::class)
     private val flowProtocolStoreFactory: FlowProtocolStoreFactory,
+    @Reference(service = VirtualNodeInfoReadService::class)
+    private val virtualNodeInfoReadService: VirtualNodeInfoReadService,
+    @Reference(service = CpiInfoReadService::class)
+    private val cpiInfoReadService: CpiInfoReadService,
     private val bundleContext: BundleContext
 ) : FlowSandboxService {
 
     private companion object {
+        private val logger = LoggerFactory.getLogger(FlowSandboxServiceImpl::class.java)
         private const val NON_PROTOTYPE_SERVICES = "(!($SERVICE_SCOPE=$SCOPE_PROTOTYPE))"
     }
 
+    private val sandboxWarmUp = FlowSandboxWarmUp.fromSystemProperties(
+        capacity = { sandboxGroupContextComponent.capacity(SandboxGroupType.FLOW) },
+        warmSandbox = ::warmSandbox
+    )
+
+    private val evictionListener = object : EvictionListener {
+        override fun onEviction(vnc: VirtualNodeContext) = onEviction(vnc, evicted = false)
+
+        override fun onEviction(vnc: VirtualNodeContext, evicted: Boolean) {
+            sandboxWarmUp.onEviction(vnc.holdingIdentity.shortHash, evicted)
+        }
+    }
+
+    init {
+        if (sandboxWarmUp.isEnabled &&
+            !sandboxGroupContextComponent.addEvictionListener(SandboxGroupType.FLOW, evictionListener)
+        ) {
+            logger.error("FAILED TO ADD EVICTION LISTENER")
+        }
+    }
+
+    @Suppress("unused")
+    @Deactivate
+    fun shutdown() {
+        if (sandboxWarmUp.isEnabled &&
+            !sandboxGroupContextComponent.removeEvictionListener(SandboxGroupType.FLOW, evictionListener)
+        ) {
+            logger.error("FAILED TO REMOVE EVICTION LISTENER")
+        }
+        sandboxWarmUp.close()
+    }
+
     override fun get(holdingIdentity: HoldingIdentity, cpkFileHashes: Set<SecureHash>): FlowSandboxGroupContext {
+        sandboxWarmUp.recordUse(holdingIdentity.shortHash)
+        return getOrCreate(holdingIdentity, cpkFileHashes)
+    }
+
+    override fun warmUp() {
+        sandboxWarmUp.start()
+    }
+
+    private fun warmSandbox(holdingIdentityShortHash: ShortHash) {
+        // The CPKs are looked up again, so that the sandbox is built for the CPI the virtual node uses now.
+        val virtualNode = virtualNodeInfoReadService.getByHoldingIdentityShortHash(holdingIdentityShortHash)
+        val cpiMetadata = virtualNode?.let { cpiInfoReadService.get(it.cpiIdentifier) }
+        if (virtualNode == null || cpiMetadata == null) {
+            logger.debug { "Virtual node $holdingIdentityShortHash or its CPI no longer exists, not warming up its sandbox" }
+            return
+        }
+        getOrCreate(virtualNode.holdingIdentity, cpiMetadata.cpksMetadata.mapTo(linkedSetOf(), CpkMetadata::fileChecksum))
+        logger.info("Warmed up flow sandbox for $holdingIdentityShortHash")
+    }
+
+    private fun getOrCreate(holdingIdentity: HoldingIdentity, cpkFileHashes: Set<SecureHash>): FlowSandboxGroupContext {
         val vNodeContext = VirtualNodeContext(
             holdingIdentity,
             cpkFileHashes,
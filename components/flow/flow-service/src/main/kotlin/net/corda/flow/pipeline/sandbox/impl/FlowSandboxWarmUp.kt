@@ -0,0 +1,224 @@
+package net.corda.flow.pipeline.sandbox.impl
+
+import net.corda.crypto.core.ShortHash
+import net.corda.crypto.core.ShortHashException
+import net.corda.utilities.debug
+import net.corda.utilities.time.Clock
+import net.corda.utilities.time.UTCClock
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Keeps track of the virtual nodes whose flow sandboxes are used the most, and rebuilds the sandboxes of the hottest
+ * [maximumSize] of them in the background, so that the first flows after a restart or an eviction do not have to wait
+ * for their sandbox to be built.
+ *
+ * Fewer sandboxes than the [capacity] of the flow sandbox cache are warmed up, so that they cannot evict each other.
+ * A sandbox is only rebuilt after it was evicted by the size or expiry policy of the cache, and at most once every
+ * [rewarmInterval], so that a byte budget too small for the hottest sandboxes does not cause them to be rebuilt over
+ * and over. Sandboxes removed or flushed on purpose are not rebuilt.
+ *
+ * Uses are counted per virtual node and decay by half every [PERSIST_INTERVAL_SECONDS]. The counts are written to
+ * [hotSandboxesFile], when one is configured, so that the hottest sandboxes survive a restart of the worker.
+ */
+@Suppress("LongParameterList")
+internal class FlowSandboxWarmUp(
+    private val hotSandboxesFile: Path?,
+    private val maximumSize: Int,
+    private val executor: ScheduledExecutorService,
+    private val capacity: () -> Long,
+    private val rewarmInterval: Duration = Duration.ofSeconds(PERSIST_INTERVAL_SECONDS),
+    private val clock: Clock = UTCClock(),
+    private val warmSandbox: (ShortHash) -> Unit
+) : AutoCloseable {
+
+    companion object {
+        private val logger = LoggerFactory.getLogger(FlowSandboxWarmUp::class.java)
+        private const val WARM_UP_FILE_PROPERTY_NAME = "net.corda.flow.sandbox.warmUp.file"
+        private const val WARM_UP_MAX_SIZE_PROPERTY_NAME = "net.corda.flow.sandbox.warmUp.maximumSize"
+        private const val WARM_UP_THREADS_PROPERTY_NAME = "net.corda.flow.sandbox.warmUp.threads"
+        private const val PERSIST_INTERVAL_SECONDS = 60L
+
+        /**
+         * Creates a [FlowSandboxWarmUp] configured from system properties. Warm-up threads run at minimum priority,
+         * and there is only one of them by default, so that warming sandboxes up competes as little as possible with
+         * the flows being processed.
+         *
+         * The hottest sandboxes are only persisted when a file is configured. The file must not be shared with
+         * another worker.
+         */
+        fun fromSystemProperties(capacity: () -> Long, warmSandbox: (ShortHash) -> Unit): FlowSandboxWarmUp {
+            val threads = Integer.getInteger(WARM_UP_THREADS_PROPERTY_NAME, 1).coerceAtLeast(1)
+            return FlowSandboxWarmUp(
+                hotSandboxesFile = System.getProperty(WARM_UP_FILE_PROPERTY_NAME)?.takeIf(String::isNotBlank)?.let(Paths::get),
+                maximumSize = Integer.getInteger(WARM_UP_MAX_SIZE_PROPERTY_NAME, 5),
+                executor = ScheduledThreadPoolExecutor(threads, WarmUpThreadFactory()),
+                capacity = capacity,
+                warmSandbox = warmSandbox
+            )
+        }
+    }
+
+    private class WarmUpThreadFactory : ThreadFactory {
+        private val count = AtomicInteger()
+
+        override fun newThread(runnable: Runnable): Thread {
+            return Thread(runnable, "flow-sandbox-warm-up-${count.incrementAndGet()}").apply {
+                isDaemon = true
+                priority = Thread.MIN_PRIORITY
+            }
+        }
+    }
+
+    private val started = AtomicBoolean()
+    private val scores = ConcurrentHashMap<ShortHash, Long>()
+    private val recentUses = ConcurrentHashMap<ShortHash, LongAdder>()
+    private val pending = ConcurrentHashMap.newKeySet<ShortHash>()
+    private val lastRewarmed = ConcurrentHashMap<ShortHash, Instant>()
+
+    val isEnabled: Boolean
+        get() = maximumSize > 0
+
+    /**
+     * Records a use of the flow sandbox of the virtual node with [holdingIdentityShortHash].
+     */
+    fun recordUse(holdingIdentityShortHash: ShortHash) {
+        if (isEnabled) {
+            recentUses.computeIfAbsent(holdingIdentityShortHash) { LongAdder() }.increment()
+        }
+    }
+
+    /**
+     * Loads the sandboxes that were hot before the worker was restarted, and starts warming them up. Only the first
+     * call has any effect.
+     */
+    fun start() {
+        if (!isEnabled || !started.compareAndSet(false, true)) {
+            return
+        }
+        load()
+        executor.scheduleWithFixedDelay(::decayAndPersist, PERSIST_INTERVAL_SECONDS, PERSIST_INTERVAL_SECONDS, TimeUnit.SECONDS)
+        hottest().forEach(::schedule)
+    }
+
+    /**
+     * Warms up the sandbox of the virtual node with [holdingIdentityShortHash] again after it has been [evicted] by
+     * the size or expiry policy of the cache, if it is still one of the hottest and was not rebuilt within the last
+     * [rewarmInterval].
+     */
+    fun onEviction(holdingIdentityShortHash: ShortHash, evicted: Boolean) {
+        if (!started.get() || !evicted || holdingIdentityShortHash !in hottest()) {
+            return
+        }
+        val now = clock.instant()
+        val last = lastRewarmed[holdingIdentityShortHash]
+        if (last != null && now < last + rewarmInterval) {
+            logger.debug { "Flow sandbox for $holdingIdentityShortHash was evicted again within $rewarmInterval, not warming it up" }
+            return
+        }
+        lastRewarmed[holdingIdentityShortHash] = now
+        schedule(holdingIdentityShortHash)
+    }
+
+    /**
+     * @return The virtual nodes with the hottest flow sandboxes, hottest first, fewer than the capacity of the cache.
+     */
+    fun hottest(): List<ShortHash> {
+        val size = minOf(maximumSize.toLong(), capacity() - 1).coerceAtLeast(0).toInt()
+        val current = HashMap(scores)
+        recentUses.forEach { (holdingIdentity, uses) -> current.merge(holdingIdentity, uses.sum(), Long::plus) }
+        return current.entries
+            .sortedByDescending { it.value }
+            .take(size)
+            .map { it.key }
+    }
+
+    override fun close() {
+        executor.shutdownNow()
+        if (started.get()) {
+            decayAndPersist()
+        }
+    }
+
+    private fun schedule(holdingIdentityShortHash: ShortHash) {
+        if (!pending.add(holdingIdentityShortHash)) {
+            return
+        }
+        executor.execute {
+            try {
+                warm(holdingIdentityShortHash)
+            } finally {
+                pending.remove(holdingIdentityShortHash)
+            }
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun warm(holdingIdentityShortHash: ShortHash) {
+        try {
+            logger.debug { "Warming up flow sandbox for $holdingIdentityShortHash" }
+            warmSandbox(holdingIdentityShortHash)
+        } catch (e: Exception) {
+            // The sandbox is created when it is first needed instead.
+            logger.info("Failed to warm up flow sandbox for $holdingIdentityShortHash: ${e.message}")
+        }
+    }
+
+    private fun decayAndPersist() {
+        recentUses.forEach { (holdingIdentity, uses) -> scores.merge(holdingIdentity, uses.sumThenReset(), Long::plus) }
+        scores.replaceAll { _, score -> score / 2 }
+        scores.values.removeIf { it == 0L }
+        recentUses.values.removeIf { it.sum() == 0L }
+        val now = clock.instant()
+        lastRewarmed.values.removeIf { now >= it + rewarmInterval }
+        save()
+    }
+
+    private fun load() {
+        val file = hotSandboxesFile?.takeIf { Files.isRegularFile(it) } ?: return
+        try {
+            Files.readAllLines(file).forEach { line ->
+                val fields = line.split(' ')
+                val score = fields.getOrNull(1)?.toLongOrNull()
+                if (fields.size == 2 && score != null && score > 0) {
+                    scores.merge(ShortHash.parse(fields[0]), score, Long::plus)
+                }
+            }
+        } catch (e: IOException) {
+            logger.warn("Failed to read hot flow sandboxes from $file", e)
+        } catch (e: ShortHashException) {
+            logger.warn("Ignoring malformed hot flow sandboxes file $file: ${e.message}")
+        }
+    }
+
+    private fun save() {
+        val file = hotSandboxesFile ?: return
+        val lines = scores.entries
+            .sortedByDescending { it.value }
+            // Keep more than are warmed up, so that those just out of the top can still climb back in.
+            .take(maximumSize * 2)
+            .map { "${it.key} ${it.value}" }
+        try {
+            val temporary = file.resolveSibling("${file.fileName}.tmp")
+            Files.write(temporary, lines)
+            Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE)
+        } catch (e: IOException) {
+            logger.warn("Failed to write hot flow sandboxes to $file", e)
+        }
+    }
+}
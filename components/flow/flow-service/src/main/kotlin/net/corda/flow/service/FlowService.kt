@@ -6,6 +6,7 @@ import net.corda.cpiinfo.read.CpiInfoReadService
 import net.corda.external.messaging.services.ExternalMessagingRoutingService
 import net.corda.flow.maintenance.FlowMaintenance
 import net.corda.flow.maintenance.LedgerRepairScheduledTaskProcessor
+import net.corda.flow.pipeline.sandbox.FlowSandboxService
 import net.corda.lifecycle.Lifecycle
 import net.corda.lifecycle.LifecycleCoordinator
 import net.corda.lifecycle.LifecycleCoordinatorFactory
@@ -43,7 +44,9 @@ class FlowService @Activate constructor(
     @Reference(service = FlowMaintenance::class)
     private val flowMaintenance: FlowMaintenance,
     @Reference(service = LedgerRepairScheduledTaskProcessor::class)
-    private val ledgerRepairScheduledTaskProcessor: LedgerRepairScheduledTaskProcessor
+    private val ledgerRepairScheduledTaskProcessor: LedgerRepairScheduledTaskProcessor,
+    @Reference(service = FlowSandboxService::class)
+    private val flowSandboxService: FlowSandboxService
 ) : Lifecycle {
 
     companion object {
@@ -108,6 +111,9 @@ class FlowService @Activate constructor(
                 ledgerRepairScheduledTaskProcessor.onConfigChange(config)
 
                 coordinator.updateStatus(LifecycleStatus.UP)
+
+                // Everything needed to build sandboxes is up by now. Only the first call has any effect.
+                flowSandboxService.warmUp()
             }
 
             is StopEvent -> {
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.TestInstance
 import org.mockito.kotlin.any
 import org.mockito.kotlin.clearInvocations
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import java.util.*
@@ -102,7 +103,11 @@ class FlowFiberImplTest {
     ): FlowIORequest<*> {
         flowFuture = this.startFlow(flowFiberExecutionContext)
         while (flowFuture.get() is FlowIORequest.FlowSuspended<*>) {
-            // Sanity check that any time the FlowFiber was suspended, it was serialized
+            // Sanity check that any time the FlowFiber was suspended, it is serialized on demand and only once
+            verify(mockCheckpointSerializer, never()).serialize(this)
+            val suspended = flowFuture.get() as FlowIORequest.FlowSuspended<*>
+            suspended.fiber
+            suspended.fiber
             verify(mockCheckpointSerializer).serialize(this)
             clearInvocations(mockCheckpointSerializer)
             flowFuture = this.resume(flowFiberExecutionContext, FlowContinuation.Run(), scheduler)
@@ -0,0 +1,108 @@
+package net.corda.flow.fiber.cache
+
+import net.corda.data.flow.FlowKey
+import net.corda.data.flow.state.checkpoint.Checkpoint
+import net.corda.data.flow.state.checkpoint.FlowState
+import net.corda.data.identity.HoldingIdentity
+import net.corda.flow.fiber.FlowIORequest
+import net.corda.flow.fiber.cache.impl.DeferredFiberSerializerImpl
+import net.corda.flow.pipeline.exceptions.FlowBatchRetryException
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.nio.ByteBuffer
+
+class DeferredFiberSerializerTest {
+    private val key = FlowKey("flow1", HoldingIdentity("CN=Alice, O=Alice Corp, L=LDN, C=GB", "group1"))
+    private val fiberBytes = byteArrayOf(1, 2, 3)
+    private var serializations = 0
+    private val suspended = FlowIORequest.FlowSuspended(
+        { serializations++; ByteBuffer.wrap(fiberBytes) },
+        FlowIORequest.ForceCheckpoint
+    )
+    private val serializer = DeferredFiberSerializerImpl(isEnabled = true)
+
+    private fun checkpoint(suspendCount: Int, fiber: ByteArray = byteArrayOf()) = Checkpoint().apply {
+        flowState = FlowState().apply {
+            this.suspendCount = suspendCount
+            this.fiber = ByteBuffer.wrap(fiber)
+        }
+    }
+
+    @Test
+    fun `when take and nothing deferred return null`() {
+        assertThat(serializer.take(key, 1)).isNull()
+    }
+
+    @Test
+    fun `when take at the deferred suspend count return the suspension without serializing`() {
+        serializer.defer(key, 1, suspended)
+        assertThat(serializer.take(key, 1)).isSameAs(suspended)
+        assertThat(serializations).isEqualTo(0)
+    }
+
+    @Test
+    fun `when take at another suspend count return null`() {
+        serializer.defer(key, 1, suspended)
+        assertThat(serializer.take(key, 2)).isNull()
+    }
+
+    @Test
+    fun `when take after the fiber was resumed throw batch retry`() {
+        serializer.defer(key, 1, suspended)
+        serializer.take(key, 1)
+        assertThrows<FlowBatchRetryException> { serializer.take(key, 1) }
+    }
+
+    @Test
+    fun `when complete with the deferred suspension serialize the fiber into the checkpoint`() {
+        serializer.defer(key, 1, suspended)
+        val checkpoint = serializer.complete(key.id, checkpoint(1))
+        assertThat(checkpoint?.flowState?.fiber?.array()).isEqualTo(fiberBytes)
+        assertThat(serializations).isEqualTo(1)
+        assertThat(serializer.take(key, 1)).isNull()
+    }
+
+    @Test
+    fun `when complete after the flow suspended again the fiber is not serialized`() {
+        serializer.defer(key, 1, suspended)
+        serializer.take(key, 1)
+        val completed = checkpoint(2, byteArrayOf(4))
+        assertThat(serializer.complete(key.id, completed)).isSameAs(completed)
+        assertThat(completed.flowState.fiber.array()).isEqualTo(byteArrayOf(4))
+        assertThat(serializations).isEqualTo(0)
+    }
+
+    @Test
+    fun `when complete with no checkpoint release the deferred fiber`() {
+        serializer.defer(key, 1, suspended)
+        assertThat(serializer.complete(key.id, null)).isNull()
+        assertThat(serializer.take(key, 1)).isNull()
+        assertThat(serializations).isEqualTo(0)
+    }
+
+    @Test
+    fun `when complete needs a fiber that was already resumed throw batch retry`() {
+        serializer.defer(key, 1, suspended)
+        serializer.take(key, 1)
+        assertThrows<FlowBatchRetryException> { serializer.complete(key.id, checkpoint(1)) }
+        assertThat(serializer.take(key, 1)).isNull()
+    }
+
+    @Test
+    fun `when release the deferred fiber is dropped without serializing`() {
+        serializer.defer(key, 1, suspended)
+        serializer.release(key.id)
+        assertThat(serializer.take(key, 1)).isNull()
+        assertThat(serializer.complete(key.id, checkpoint(1))?.flowState?.fiber?.array()).isEmpty()
+        assertThat(serializations).isEqualTo(0)
+    }
+
+    @Test
+    fun `when release after the fiber was resumed the batch can be processed again`() {
+        serializer.defer(key, 1, suspended)
+        serializer.take(key, 1)
+        serializer.release(key.id)
+        assertThat(serializer.take(key, 1)).isNull()
+    }
+}
@@ -5,6 +5,7 @@ import net.corda.data.flow.event.external.ExternalEventResponse
 import net.corda.data.flow.state.checkpoint.Checkpoint
 import net.corda.flow.FLOW_ID_1
 import net.corda.flow.fiber.FlowIORequest
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.fiber.cache.FlowFiberCache
 import net.corda.flow.metrics.FlowIORequestTypeConverter
 import net.corda.flow.metrics.FlowMetricsFactory
@@ -61,6 +62,7 @@ class FlowEventPipelineFactoryImplTest {
         whenever(handler.type).thenReturn(FlowIORequest.ForceCheckpoint::class.java)
     }
     private val flowFiberCache = mock<FlowFiberCache>()
+    private val deferredFiberSerializer = mock<DeferredFiberSerializer>()
 
     private val factory = FlowEventPipelineFactoryImpl(
         flowRunner,
@@ -70,6 +72,7 @@ class FlowEventPipelineFactoryImplTest {
         flowFiberCache,
         flowMetricsFactory,
         flowIORequestTypeConverter,
+        deferredFiberSerializer,
         listOf(flowEventHandler),
         listOf(flowWaitingForHandler),
         listOf(flowRequestHandler)
@@ -82,7 +85,8 @@ class FlowEventPipelineFactoryImplTest {
             mapOf(FlowIORequest.ForceCheckpoint::class.java to flowRequestHandler),
             flowRunner,
             flowFiberCache,
-            flowIORequestTypeConverter
+            flowIORequestTypeConverter,
+            deferredFiberSerializer
         )
 
         val expected = FlowEventPipelineImpl(
@@ -18,12 +18,14 @@ import net.corda.data.flow.state.external.ExternalEventStateStatus
 import net.corda.data.flow.state.external.ExternalEventStateType
 import net.corda.data.identity.HoldingIdentity
 import net.corda.flow.MINIMUM_SMART_CONFIG
+import net.corda.flow.fiber.cache.DeferredFiberSerializer
 import net.corda.flow.pipeline.FlowEngineReplayService
 import net.corda.flow.pipeline.FlowEventExceptionProcessor
 import net.corda.flow.pipeline.FlowEventPipeline
 import net.corda.flow.pipeline.FlowMDCService
 import net.corda.flow.pipeline.converters.FlowEventContextConverter
 import net.corda.flow.pipeline.events.FlowEventContext
+import net.corda.flow.pipeline.exceptions.FlowBatchRetryException
 import net.corda.flow.pipeline.exceptions.FlowEventException
 import net.corda.flow.pipeline.exceptions.FlowFatalException
 import net.corda.flow.pipeline.exceptions.FlowMarkedForKillException
@@ -43,12 +45,14 @@ import net.corda.schema.configuration.FlowConfig
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.any
 import org.mockito.kotlin.anyOrNull
 import org.mockito.kotlin.argThat
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.inOrder
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
@@ -145,6 +149,7 @@ class FlowEventProcessorImplTest {
     private val flowPostProcessingHandlers = listOf(flowPostProcessingHandler1, flowPostProcessingHandler2)
 
     private val flowEngineReplayService = mock<FlowEngineReplayService>()
+    private val deferredFiberSerializer = mock<DeferredFiberSerializer>()
 
     private val processor = FlowEventProcessorImpl(
         flowEventPipelineFactory,
@@ -153,7 +158,8 @@ class FlowEventProcessorImplTest {
         mapOf(FLOW_CONFIG to MINIMUM_SMART_CONFIG),
         flowMDCService,
         flowPostProcessingHandlers,
-        flowEngineReplayService
+        flowEngineReplayService,
+        deferredFiberSerializer
     )
 
     @BeforeEach
@@ -289,6 +295,37 @@ class FlowEventProcessorImplTest {
         assertThat(response).isEqualTo(errorResponse)
     }
 
+    @Test
+    fun `Flow batch retry exception is not handled`() {
+        val error = FlowBatchRetryException("")
+
+        whenever(flowEventPipeline.eventPreProcessing()).thenThrow(error)
+
+        assertThrows<FlowBatchRetryException> {
+            processor.onNext(state, getFlowEventRecord(FlowEvent(flowKey, payload)))
+        }
+        verify(flowEventExceptionProcessor, never()).process(any<Throwable>(), any<FlowEventContext<Any>>())
+        verify(deferredFiberSerializer).release(flowKey)
+    }
+
+    @Test
+    fun `Completing a batch stores the checkpoint returned by the deferred fiber serializer`() {
+        val completedCheckpoint = mock<Checkpoint>()
+        whenever(deferredFiberSerializer.complete(flowKey, checkpoint)).thenReturn(completedCheckpoint)
+
+        val result = processor.onBatchComplete(flowKey, state)
+
+        assertThat(result).isEqualTo(State(completedCheckpoint, metadata = null))
+    }
+
+    @Test
+    fun `Completing a batch without a state releases the deferred fiber`() {
+        val result = processor.onBatchComplete(flowKey, null)
+
+        assertThat(result).isNull()
+        verify(deferredFiberSerializer).complete(flowKey, null)
+    }
+
     @Test
     fun `FlowMarkedForKillException produces flow kill context`() {
         val error = FlowMarkedForKillException("reason")
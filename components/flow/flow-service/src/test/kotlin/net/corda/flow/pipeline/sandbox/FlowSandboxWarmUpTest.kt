@@ -0,0 +1,190 @@
+package net.corda.flow.pipeline.sandbox
+
+import net.corda.crypto.core.ShortHash
+import net.corda.flow.pipeline.sandbox.impl.FlowSandboxWarmUp
+import net.corda.test.util.time.TestClock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.time.Instant
+import java.util.Collections
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+
+class FlowSandboxWarmUpTest {
+    private val alice = ShortHash.of("AAAAAAAAAAAA")
+    private val bob = ShortHash.of("BBBBBBBBBBBB")
+    private val charlie = ShortHash.of("CCCCCCCCCCCC")
+    private val warmed: MutableList<ShortHash> = Collections.synchronizedList(mutableListOf())
+    private val executors = mutableListOf<ScheduledExecutorService>()
+    private val clock = TestClock(Instant.EPOCH)
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @AfterEach
+    fun shutdown() {
+        executors.forEach { it.shutdownNow() }
+    }
+
+    private fun createWarmUp(
+        maximumSize: Int = 2,
+        file: Path? = tempDir.resolve("hot.txt"),
+        capacity: Long = 10
+    ): FlowSandboxWarmUp {
+        val executor = Executors.newSingleThreadScheduledExecutor().also(executors::add)
+        return FlowSandboxWarmUp(file, maximumSize, executor, { capacity }, Duration.ofSeconds(60), clock) { warmed += it }
+    }
+
+    private fun awaitWarmUps() {
+        executors.last().submit {}.get()
+    }
+
+    private fun FlowSandboxWarmUp.recordUses(holdingIdentity: ShortHash, times: Int) {
+        repeat(times) { recordUse(holdingIdentity) }
+    }
+
+    @Test
+    fun `hottest returns the most used virtual nodes up to the maximum size`() {
+        val warmUp = createWarmUp()
+        warmUp.recordUses(alice, 1)
+        warmUp.recordUses(bob, 3)
+        warmUp.recordUses(charlie, 2)
+
+        assertThat(warmUp.hottest()).containsExactly(bob, charlie)
+    }
+
+    @Test
+    fun `start warms up the sandboxes that were hottest before the restart`() {
+        createWarmUp().apply {
+            recordUses(alice, 1)
+            recordUses(bob, 6)
+            recordUses(charlie, 4)
+            start()
+            awaitWarmUps()
+            close()
+        }
+        warmed.clear()
+
+        val warmUp = createWarmUp()
+        warmUp.start()
+        awaitWarmUps()
+
+        assertThat(warmed).containsExactly(bob, charlie)
+    }
+
+    @Test
+    fun `start only warms up sandboxes once`() {
+        val warmUp = createWarmUp()
+        warmUp.recordUses(alice, 1)
+
+        warmUp.start()
+        warmUp.start()
+        awaitWarmUps()
+
+        assertThat(warmed).containsExactly(alice)
+    }
+
+    @Test
+    fun `eviction of a hot sandbox warms it up again`() {
+        val warmUp = createWarmUp(maximumSize = 1)
+        warmUp.recordUses(alice, 2)
+        warmUp.recordUses(bob, 1)
+        warmUp.start()
+        awaitWarmUps()
+        warmed.clear()
+
+        warmUp.onEviction(bob, evicted = true)
+        warmUp.onEviction(alice, evicted = true)
+        awaitWarmUps()
+
+        assertThat(warmed).containsExactly(alice)
+    }
+
+    @Test
+    fun `removal of a hot sandbox that was not evicted does not warm it up`() {
+        val warmUp = createWarmUp()
+        warmUp.recordUses(alice, 1)
+        warmUp.start()
+        awaitWarmUps()
+        warmed.clear()
+
+        warmUp.onEviction(alice, evicted = false)
+        awaitWarmUps()
+
+        assertThat(warmed).isEmpty()
+    }
+
+    @Test
+    fun `evicted sandbox is warmed up at most once per interval`() {
+        val warmUp = createWarmUp()
+        warmUp.recordUses(alice, 1)
+        warmUp.start()
+        awaitWarmUps()
+        warmed.clear()
+
+        warmUp.onEviction(alice, evicted = true)
+        awaitWarmUps()
+        clock.setTime(Instant.EPOCH.plusSeconds(59))
+        warmUp.onEviction(alice, evicted = true)
+        awaitWarmUps()
+        clock.setTime(Instant.EPOCH.plusSeconds(60))
+        warmUp.onEviction(alice, evicted = true)
+        awaitWarmUps()
+
+        assertThat(warmed).containsExactly(alice, alice)
+    }
+
+    @Test
+    fun `fewer sandboxes than the cache capacity are warmed up`() {
+        val warmUp = createWarmUp(maximumSize = 5, capacity = 3)
+        warmUp.recordUses(alice, 3)
+        warmUp.recordUses(bob, 2)
+        warmUp.recordUses(charlie, 1)
+
+        warmUp.start()
+        awaitWarmUps()
+
+        assertThat(warmUp.hottest()).containsExactly(alice, bob)
+        assertThat(warmed).containsExactly(alice, bob)
+    }
+
+    @Test
+    fun `eviction before start does not warm up the sandbox`() {
+        val warmUp = createWarmUp()
+        warmUp.recordUses(alice, 1)
+
+        warmUp.onEviction(alice, evicted = true)
+        awaitWarmUps()
+
+        assertThat(warmed).isEmpty()
+    }
+
+    @Test
+    fun `warm up is disabled when the maximum size is zero`() {
+        val warmUp = createWarmUp(maximumSize = 0)
+        warmUp.recordUses(alice, 1)
+
+        warmUp.start()
+        awaitWarmUps()
+
+        assertThat(warmUp.isEnabled).isFalse
+        assertThat(warmed).isEmpty()
+    }
+
+    @Test
+    fun `malformed hot sandboxes file is ignored`() {
+        val file = tempDir.resolve("hot.txt")
+        Files.write(file, listOf("not-a-short-hash 10"))
+
+        val warmUp = createWarmUp(file = file)
+        warmUp.start()
+        awaitWarmUps()
+
+        assertThat(warmed).isEmpty()
+    }
+}
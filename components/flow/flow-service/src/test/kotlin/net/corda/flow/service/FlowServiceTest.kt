@@ -6,6 +6,7 @@ import net.corda.external.messaging.services.ExternalMessagingRoutingService
 import net.corda.flow.MINIMUM_SMART_CONFIG
 import net.corda.flow.maintenance.FlowMaintenance
 import net.corda.flow.maintenance.LedgerRepairScheduledTaskProcessor
+import net.corda.flow.pipeline.sandbox.FlowSandboxService
 import net.corda.lifecycle.LifecycleCoordinatorName
 import net.corda.lifecycle.test.impl.LifecycleTest
 import net.corda.membership.read.MembershipGroupReaderProvider
@@ -44,6 +45,7 @@ class FlowServiceTest {
     private val flowMaintenance = mock<FlowMaintenance>()
     private val externalMessagingRoutingService = mock<ExternalMessagingRoutingService>()
     private val ledgerRepairScheduledTaskProcessor = mock<LedgerRepairScheduledTaskProcessor>()
+    private val flowSandboxService = mock<FlowSandboxService>()
 
     private val exampleConfig = mapOf(
         ConfigKeys.BOOT_CONFIG to MINIMUM_SMART_CONFIG,
@@ -112,6 +114,18 @@ class FlowServiceTest {
         }
     }
 
+    @Test
+    fun `on configuration event warms up sandboxes`() {
+        getFlowServiceTestContext().run {
+            testClass.start()
+            bringDependenciesUp()
+
+            sendConfigUpdate<FlowService>(exampleConfig)
+
+            verify(flowSandboxService).warmUp()
+        }
+    }
+
     @Test
     fun `on all dependents up flow service should not be up`() {
         getFlowServiceTestContext().run {
@@ -171,7 +185,8 @@ class FlowServiceTest {
                 flowExecutor,
                 externalMessagingRoutingService,
                 flowMaintenance,
-                ledgerRepairScheduledTaskProcessor
+                ledgerRepairScheduledTaskProcessor,
+                flowSandboxService
             )
         }
     }
@@ -0,0 +1,41 @@
+package net.corda.ledger.utxo.token.cache.entities
+
+import java.math.BigDecimal
+
+/**
+ * The [PoolBalanceCache] holds the total balance of the unconsumed tokens of each pool, grouped by owner and tag.
+ *
+ * The balances of a pool are loaded from the persistence layer when first needed and then maintained from ledger
+ * changes. They are reloaded once they are older than the reconciliation period, which bounds any drift between
+ * the cached balances and the vault.
+ */
+interface PoolBalanceCache {
+
+    /**
+     * Gets the total balance of the unconsumed tokens in a pool matching the filtering criteria.
+     *
+     * @param poolKey The key of the pool
+     * @param ownerHash The optional owner the tokens must match
+     * @param tagRegex The optional regular expression the token tags must match
+     * @param loadBalances Loads the balances of the pool grouped by [TokenBalanceKey], called when the balances of
+     * the pool are not cached or are due to be reconciled
+     *
+     * @return The total balance
+     */
+    fun getTotalBalance(
+        poolKey: TokenPoolKey,
+        ownerHash: String?,
+        tagRegex: String?,
+        loadBalances: () -> Map<TokenBalanceKey, BigDecimal>
+    ): BigDecimal
+
+    /**
+     * Applies tokens consumed and produced by the ledger to the balances of a pool. This is ignored if the balances of
+     * the pool are not currently cached.
+     *
+     * @param poolKey The key of the pool
+     * @param consumedTokens The tokens that have been consumed
+     * @param producedTokens The tokens that have been produced
+     */
+    fun applyLedgerChange(poolKey: TokenPoolKey, consumedTokens: Collection<CachedToken>, producedTokens: Collection<CachedToken>)
+}
@@ -0,0 +1,9 @@
+package net.corda.ledger.utxo.token.cache.entities
+
+/**
+ * The [TokenBalanceKey] identifies a group of tokens within a pool which share the same owner and tag.
+ *
+ * @property ownerHash The optional owner identity of the tokens
+ * @property tag The optional user defined tag of the tokens
+ */
+data class TokenBalanceKey(val ownerHash: String?, val tag: String?)
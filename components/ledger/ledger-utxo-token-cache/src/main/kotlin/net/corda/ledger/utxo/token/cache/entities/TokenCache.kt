@@ -8,6 +8,11 @@ import net.corda.v5.ledger.utxo.token.selection.Strategy
  */
 interface TokenCache {
 
+    /**
+     * The number of tokens currently held in the cache, regardless of strategy or expiry.
+     */
+    val size: Int
+
     /**
      * Returns the tokens present in the cache based on the strategy.
      *
@@ -15,6 +20,17 @@ interface TokenCache {
      */
     fun get(strategy: Strategy): Iterable<CachedToken>
 
+    /**
+     * Returns the tokens present in the cache that match a [TokenFilter], based on the strategy.
+     *
+     * The owner and tag indexes of the cache are used so that only matching tokens are visited. For the
+     * [Strategy.PRIORITY] strategy the tokens are returned in the order in which they were added.
+     *
+     * @param strategy The strategy that should have been used to retrieve the tokens from the persistence layer.
+     * @param tokenFilter The owner and tag criteria the tokens must match.
+     */
+    fun get(strategy: Strategy, tokenFilter: TokenFilter): Iterable<CachedToken>
+
     /**
      * Adds a set of tokens to the cache.
      *
@@ -38,4 +54,43 @@ interface TokenCache {
      * Empties the cache
      */
     fun removeAll()
+
+    /**
+     * Starts recording the tokens removed from the cache, so that the result of a query started now can exclude the
+     * tokens removed while it runs.
+     *
+     * @param limit The maximum number of removed tokens recorded before the log is invalidated
+     *
+     * @return The log of removed tokens, which is updated until it is invalidated or passed to [stopRemovalLog]
+     */
+    fun startRemovalLog(limit: Int): TokenRemovalLog
+
+    /**
+     * Stops recording the tokens removed from the cache in a log started by [startRemovalLog].
+     *
+     * @param removalLog The log to stop recording
+     */
+    fun stopRemovalLog(removalLog: TokenRemovalLog)
+
+    /**
+     * Runs a block while holding the lock of the cache. The claim state shards of a pool share the cache of the pool
+     * and are processed concurrently, so every other call to the cache is made while holding its lock.
+     *
+     * @param block The block to run
+     *
+     * @return The result of the block
+     */
+    fun <R> withLock(block: () -> R): R
+
+    /**
+     * Runs a block that does not use the cache, such as a query of the persistence layer, without holding the lock
+     * of the cache, so that the other claim state shards of the pool can use the cache meanwhile. The lock is held
+     * again once the block completes. Tokens removed from the cache while the block runs can be recorded by starting
+     * a removal log beforehand, see [startRemovalLog].
+     *
+     * @param block The block to run
+     *
+     * @return The result of the block
+     */
+    fun <R> withoutLock(block: () -> R): R
 }
@@ -7,7 +7,7 @@ package net.corda.ledger.utxo.token.cache.entities
  */
 interface TokenPoolCache {
     /**
-     * Gets the cached tokens for a given pool
+     * Gets the cached tokens for a given pool. The cache is shared by all claim state shards of the pool.
      *
      * @param poolKey The key for the required [TokenCache]
      */
@@ -0,0 +1,37 @@
+package net.corda.ledger.utxo.token.cache.entities
+
+/**
+ * The [TokenRemovalLog] records the state refs of the tokens removed from a [TokenCache] since it was started by
+ * [TokenCache.startRemovalLog].
+ *
+ * The log is invalidated once the cache is emptied or more than [limit] tokens have been removed, after which it is
+ * no longer updated.
+ *
+ * @param limit The maximum number of removed tokens recorded before the log is invalidated.
+ */
+class TokenRemovalLog(private val limit: Int) {
+
+    private val removedStateRefs = mutableSetOf<String>()
+
+    var isValid = true
+        private set
+
+    val stateRefs: Set<String>
+        get() = removedStateRefs
+
+    fun record(stateRefs: Collection<String>) {
+        if (!isValid) {
+            return
+        }
+
+        removedStateRefs += stateRefs
+        if (removedStateRefs.size > limit) {
+            invalidate()
+        }
+    }
+
+    fun invalidate() {
+        isValid = false
+        removedStateRefs.clear()
+    }
+}
@@ -0,0 +1,124 @@
+package net.corda.ledger.utxo.token.cache.entities.internal
+
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.PoolBalanceCache
+import net.corda.ledger.utxo.token.cache.entities.TokenBalanceKey
+import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import net.corda.ledger.utxo.token.cache.services.TagRegexCache
+import net.corda.utilities.time.Clock
+import java.math.BigDecimal
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+
+class PoolBalanceCacheImpl(
+    private val reconciliationPeriod: Duration,
+    private val clock: Clock,
+    private val tagRegexCache: TagRegexCache = TagRegexCache()
+) : PoolBalanceCache {
+
+    private class PoolBalances {
+        var reconcileAfter: Instant? = null
+        var reconciledBy = 0L
+        var balances = mutableMapOf<TokenBalanceKey, BigDecimal>()
+
+        // The ledger changes applied while each in flight reconciliation is loading, keyed by its sequence number
+        val changesDuringLoad = mutableMapOf<Long, MutableList<Pair<TokenBalanceKey, BigDecimal>>>()
+        var nextLoadSequence = 1L
+    }
+
+    // Balances are read by balance queries and updated by ledger changes from different threads, so access to the
+    // balances of each pool is synchronised on them
+    private val pools = ConcurrentHashMap<TokenPoolKey, PoolBalances>()
+
+    override fun getTotalBalance(
+        poolKey: TokenPoolKey,
+        ownerHash: String?,
+        tagRegex: String?,
+        loadBalances: () -> Map<TokenBalanceKey, BigDecimal>
+    ): BigDecimal {
+        val poolBalances = getOrReconcile(poolKey, loadBalances)
+        val ownerMatcher = { key: TokenBalanceKey -> ownerHash == null || ownerHash == key.ownerHash }
+        val tagMatcher = createTagMatcher(tagRegex)
+
+        return synchronized(poolBalances) {
+            poolBalances.balances.entries
+                .filter { (key, _) -> ownerMatcher(key) && tagMatcher(key.tag) }
+                .sumOf { it.value }
+        }
+    }
+
+    override fun applyLedgerChange(
+        poolKey: TokenPoolKey,
+        consumedTokens: Collection<CachedToken>,
+        producedTokens: Collection<CachedToken>
+    ) {
+        val poolBalances = pools[poolKey] ?: return
+
+        synchronized(poolBalances) {
+            val changes = consumedTokens.map { it.balanceKey() to it.amount.negate() } +
+                producedTokens.map { it.balanceKey() to it.amount }
+
+            poolBalances.balances.addAll(changes)
+            poolBalances.changesDuringLoad.values.forEach { it.addAll(changes) }
+        }
+    }
+
+    private fun getOrReconcile(
+        poolKey: TokenPoolKey,
+        loadBalances: () -> Map<TokenBalanceKey, BigDecimal>
+    ): PoolBalances {
+        val poolBalances = pools.computeIfAbsent(poolKey) { PoolBalances() }
+        val loadSequence = synchronized(poolBalances) {
+            val reconcileAfter = poolBalances.reconcileAfter
+            if (reconcileAfter != null && clock.instant() < reconcileAfter) {
+                return poolBalances
+            }
+
+            poolBalances.nextLoadSequence++.also { poolBalances.changesDuringLoad[it] = mutableListOf() }
+        }
+
+        // The balances are loaded outside the lock, so the ledger changes applied while loading are recorded and
+        // applied again to what is loaded, which may not reflect them
+        val loaded = try {
+            loadBalances().toMutableMap()
+        } catch (e: Exception) {
+            synchronized(poolBalances) { poolBalances.changesDuringLoad.remove(loadSequence) }
+            throw e
+        }
+
+        synchronized(poolBalances) {
+            val changesDuringLoad = checkNotNull(poolBalances.changesDuringLoad.remove(loadSequence))
+            // A reconciliation that started later has loaded more recent balances
+            if (loadSequence > poolBalances.reconciledBy) {
+                loaded.addAll(changesDuringLoad)
+                poolBalances.balances = loaded
+                poolBalances.reconciledBy = loadSequence
+                poolBalances.reconcileAfter = clock.instant().plus(reconciliationPeriod)
+            }
+        }
+        return poolBalances
+    }
+
+    private fun CachedToken.balanceKey() = TokenBalanceKey(ownerHash, tag)
+
+    private fun MutableMap<TokenBalanceKey, BigDecimal>.addAll(changes: List<Pair<TokenBalanceKey, BigDecimal>>) {
+        changes.forEach { (key, amount) ->
+            val balance = (this[key] ?: BigDecimal.ZERO) + amount
+            if (balance.signum() == 0) {
+                remove(key)
+            } else {
+                this[key] = balance
+            }
+        }
+    }
+
+    private fun createTagMatcher(tagRegex: String?): (String?) -> Boolean {
+        if (tagRegex == null) {
+            return { _ -> true }
+        }
+
+        val matcher = tagRegexCache.get(tagRegex)
+        return { it != null && matcher.containsMatchIn(it) }
+    }
+}
@@ -0,0 +1,29 @@
+package net.corda.ledger.utxo.token.cache.entities.internal
+
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
+
+/**
+ * The [PoolCacheState] of one claim state shard of a pool.
+ *
+ * All shards of a pool select from the same cached tokens, so the tokens claimed by the other shards of the pool are
+ * treated as claimed as well. Claims themselves are only added to and removed from the state of this shard.
+ *
+ * @param shardState The state of this shard.
+ * @param otherShardsClaimedTokens The tokens claimed by the other shards of the pool.
+ */
+class ShardedPoolCacheState(
+    private val shardState: PoolCacheState,
+    otherShardsClaimedTokens: Collection<CachedToken>
+) : PoolCacheState by shardState {
+
+    private val otherShardsClaimedTokens = otherShardsClaimedTokens.associateBy { it.stateRef }
+
+    override fun isTokenClaimed(stateRef: String): Boolean {
+        return shardState.isTokenClaimed(stateRef) || otherShardsClaimedTokens.containsKey(stateRef)
+    }
+
+    override fun claimedTokens(): Collection<CachedToken> {
+        return shardState.claimedTokens() + otherShardsClaimedTokens.values
+    }
+}
@@ -2,30 +2,92 @@ package net.corda.ledger.utxo.token.cache.entities.internal
 
 import net.corda.ledger.utxo.token.cache.entities.CachedToken
 import net.corda.ledger.utxo.token.cache.entities.TokenCache
+import net.corda.ledger.utxo.token.cache.entities.TokenFilter
+import net.corda.ledger.utxo.token.cache.entities.TokenRemovalLog
+import net.corda.ledger.utxo.token.cache.services.TagRegexCache
 import net.corda.utilities.time.Clock
 import net.corda.v5.ledger.utxo.token.selection.Strategy
 import java.time.Duration
+import java.util.PriorityQueue
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
-class TokenCacheImpl(private val expiryPeriod: Duration, private val clock: Clock) : TokenCache {
+class TokenCacheImpl(
+    private val expiryPeriod: Duration,
+    private val clock: Clock,
+    private val tagRegexCache: TagRegexCache = TagRegexCache()
+) : TokenCache {
+
+    private class Entry(val token: CachedToken, val sequence: Long)
 
     private var expiryTime = clock.instant()
     private var strategy: Strategy = Strategy.RANDOM
+    private var nextSequence = 0L
+
+    private val lock = ReentrantLock()
+
+    // We expect the calls to a specific pool to always be made while holding the lock, therefore simple maps are
+    // sufficient.
+    // All maps keep their entries in insertion order, which for the PRIORITY strategy is the priority order in which
+    // the tokens were returned by the persistence layer. The owner and tag indexes share the entries of the main map.
+    private val cachedTokens = mutableMapOf<String, Entry>()
+    private val tokensByOwner = mutableMapOf<String?, MutableMap<String, Entry>>()
+    private val tokensByTag = mutableMapOf<String?, MutableMap<String, Entry>>()
+    private val removalLogs = mutableListOf<TokenRemovalLog>()
 
-    // We expect the calls to a specific pool to always be synchronised, therefore a simple map is sufficient
-    private val cachedTokens = mutableMapOf<String, CachedToken>()
+    override val size: Int
+        get() = cachedTokens.size
 
     override fun add(tokens: Collection<CachedToken>, strategy: Strategy) {
         expiryTime = clock.instant().plus(expiryPeriod)
         this.strategy = strategy
-        tokens.associateByTo(cachedTokens) { it.stateRef }
+        tokens.forEach { token ->
+            remove(token.stateRef)
+            val entry = Entry(token, nextSequence++)
+            cachedTokens[token.stateRef] = entry
+            tokensByOwner.getOrPut(token.ownerHash) { mutableMapOf() }[token.stateRef] = entry
+            tokensByTag.getOrPut(token.tag) { mutableMapOf() }[token.stateRef] = entry
+        }
     }
 
     override fun removeAll(stateRefs: Set<String>) {
-        stateRefs.forEach { cachedTokens.remove(it) }
+        stateRefs.forEach { remove(it) }
+
+        // Tokens that are not cached are recorded as well, they may still be in the result of a query in progress
+        if (removalLogs.isNotEmpty()) {
+            removalLogs.forEach { it.record(stateRefs) }
+            removalLogs.removeIf { !it.isValid }
+        }
     }
 
     override fun removeAll() {
         cachedTokens.clear()
+        tokensByOwner.clear()
+        tokensByTag.clear()
+        removalLogs.forEach { it.invalidate() }
+        removalLogs.clear()
+    }
+
+    override fun startRemovalLog(limit: Int): TokenRemovalLog {
+        return TokenRemovalLog(limit).also { removalLogs += it }
+    }
+
+    override fun stopRemovalLog(removalLog: TokenRemovalLog) {
+        removalLogs.remove(removalLog)
+    }
+
+    override fun <R> withLock(block: () -> R): R {
+        return lock.withLock(block)
+    }
+
+    override fun <R> withoutLock(block: () -> R): R {
+        val holdCount = lock.holdCount
+        repeat(holdCount) { lock.unlock() }
+        try {
+            return block()
+        } finally {
+            repeat(holdCount) { lock.lock() }
+        }
     }
 
     override fun get(strategy: Strategy): Iterable<CachedToken> {
@@ -33,7 +95,80 @@ class TokenCacheImpl(private val expiryPeriod: Duration, private val clock: Cloc
             return emptySet()
         }
 
-        return cachedTokens.values
+        return cachedTokens.values.asSequence().map { it.token }.asIterable()
+    }
+
+    override fun get(strategy: Strategy, tokenFilter: TokenFilter): Iterable<CachedToken> {
+        if (strategyChanged(strategy) || cacheExpired()) {
+            return emptySet()
+        }
+
+        val ownerHash = tokenFilter.ownerHash
+        val matchingTags = tokenFilter.tagRegex?.let { findMatchingTags(it) }
+
+        val entries = if (ownerHash != null) {
+            val ownerTokens = tokensByOwner[ownerHash]?.values ?: return emptySet()
+            if (matchingTags == null) {
+                ownerTokens.asSequence()
+            } else {
+                ownerTokens.asSequence().filter { it.token.tag in matchingTags }
+            }
+        } else if (matchingTags != null) {
+            mergeInSequenceOrder(matchingTags.mapNotNull { tokensByTag[it]?.values })
+        } else {
+            cachedTokens.values.asSequence()
+        }
+
+        return entries.map { it.token }.asIterable()
+    }
+
+    private fun remove(stateRef: String) {
+        val entry = cachedTokens.remove(stateRef) ?: return
+        removeFromIndex(tokensByOwner, entry.token.ownerHash, stateRef)
+        removeFromIndex(tokensByTag, entry.token.tag, stateRef)
+    }
+
+    private fun removeFromIndex(index: MutableMap<String?, MutableMap<String, Entry>>, key: String?, stateRef: String) {
+        val tokens = index[key] ?: return
+        tokens.remove(stateRef)
+        if (tokens.isEmpty()) {
+            index.remove(key)
+        }
+    }
+
+    /**
+     * The regex is evaluated once per distinct tag held in the cache rather than once per token.
+     */
+    private fun findMatchingTags(tagRegex: String): Set<String> {
+        val matcher = tagRegexCache.get(tagRegex)
+        return tokensByTag.keys.filterNotNullTo(mutableSetOf()).filterTo(mutableSetOf()) { matcher.containsMatchIn(it) }
+    }
+
+    /**
+     * Tokens for different tags live in different index buckets. When the order matters the buckets are merged on
+     * the sequence in which the tokens were added, otherwise they are simply chained.
+     */
+    private fun mergeInSequenceOrder(buckets: List<Collection<Entry>>): Sequence<Entry> {
+        if (buckets.size <= 1 || strategy != Strategy.PRIORITY) {
+            return buckets.asSequence().flatMap { it.asSequence() }
+        }
+
+        return sequence {
+            val heads = PriorityQueue<Pair<Entry, Iterator<Entry>>>(buckets.size, compareBy { it.first.sequence })
+            buckets.forEach { bucket ->
+                val iterator = bucket.iterator()
+                if (iterator.hasNext()) {
+                    heads.add(iterator.next() to iterator)
+                }
+            }
+            while (heads.isNotEmpty()) {
+                val (entry, iterator) = heads.poll()
+                yield(entry)
+                if (iterator.hasNext()) {
+                    heads.add(iterator.next() to iterator)
+                }
+            }
+        }
     }
 
     private fun strategyChanged(strategy: Strategy) =
@@ -3,14 +3,21 @@ package net.corda.ledger.utxo.token.cache.entities.internal
 import net.corda.ledger.utxo.token.cache.entities.TokenCache
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolCache
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import net.corda.ledger.utxo.token.cache.services.TagRegexCache
 import net.corda.utilities.time.Clock
 import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
 
-class TokenPoolCacheImpl(private val expiryPeriod: Duration, private val clock: Clock) : TokenPoolCache {
+class TokenPoolCacheImpl(
+    private val expiryPeriod: Duration,
+    private val clock: Clock,
+    private val tagRegexCache: TagRegexCache = TagRegexCache()
+) : TokenPoolCache {
 
-    private val cache = mutableMapOf<TokenPoolKey, TokenCache>()
+    // Different pools are processed concurrently
+    private val cache = ConcurrentHashMap<TokenPoolKey, TokenCache>()
 
     override fun get(poolKey: TokenPoolKey): TokenCache {
-        return cache.getOrPut(poolKey) { TokenCacheImpl(expiryPeriod, clock) }
+        return cache.computeIfAbsent(poolKey) { TokenCacheImpl(expiryPeriod, clock, tagRegexCache) }
     }
 }
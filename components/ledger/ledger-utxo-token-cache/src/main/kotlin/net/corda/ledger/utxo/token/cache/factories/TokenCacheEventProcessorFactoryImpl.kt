@@ -5,6 +5,7 @@ import net.corda.flow.external.events.responses.factory.ExternalEventResponseFac
 import net.corda.ledger.utxo.token.cache.converters.EntityConverter
 import net.corda.ledger.utxo.token.cache.converters.EventConverter
 import net.corda.ledger.utxo.token.cache.entities.TokenEvent
+import net.corda.ledger.utxo.token.cache.entities.internal.PoolBalanceCacheImpl
 import net.corda.ledger.utxo.token.cache.entities.internal.TokenPoolCacheImpl
 import net.corda.ledger.utxo.token.cache.handlers.TokenBalanceQueryEventHandler
 import net.corda.ledger.utxo.token.cache.handlers.TokenClaimQueryEventHandler
@@ -18,6 +19,7 @@ import net.corda.ledger.utxo.token.cache.services.ClaimStateStoreCacheImpl
 import net.corda.ledger.utxo.token.cache.services.ClaimStateStoreFactoryImpl
 import net.corda.ledger.utxo.token.cache.services.ServiceConfiguration
 import net.corda.ledger.utxo.token.cache.services.SimpleTokenFilterStrategy
+import net.corda.ledger.utxo.token.cache.services.TagRegexCache
 import net.corda.ledger.utxo.token.cache.services.TokenPoolCacheManager
 import net.corda.ledger.utxo.token.cache.services.TokenPoolCacheStateSerialization
 import net.corda.ledger.utxo.token.cache.services.TokenSelectionMetrics
@@ -25,11 +27,17 @@ import net.corda.ledger.utxo.token.cache.services.TokenSelectionMetricsImpl
 import net.corda.ledger.utxo.token.cache.services.TokenSelectionSyncRPCProcessor
 import net.corda.ledger.utxo.token.cache.services.internal.AvailableTokenServiceImpl
 import net.corda.ledger.utxo.token.cache.services.internal.BackoffManagerImpl
+import net.corda.ledger.utxo.token.cache.services.internal.TokenCachePrefetcherImpl
 import net.corda.libs.statemanager.api.StateManager
 import net.corda.orm.JpaEntitiesRegistry
 import net.corda.utilities.time.Clock
 import net.corda.utilities.time.UTCClock
 import net.corda.virtualnode.read.VirtualNodeInfoReadService
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 @Suppress("LongParameterList")
 class TokenCacheEventProcessorFactoryImpl(
@@ -44,13 +52,20 @@ class TokenCacheEventProcessorFactoryImpl(
     private val clock: Clock
 ) : TokenCacheEventProcessorFactory {
 
+    private companion object {
+        const val PREFETCH_THREADS = 4
+        const val PREFETCH_QUEUE_SIZE = 64
+        const val PREFETCH_THREAD_KEEP_ALIVE_SECONDS = 60L
+    }
+
     override fun createTokenSelectionSyncRPCProcessor(
         stateManager: StateManager
     ): TokenSelectionSyncRPCProcessor {
         val tokenSelectionMetrics = TokenSelectionMetricsImpl()
+        val tagRegexCache = TagRegexCache()
         val tokenPoolCacheManager = TokenPoolCacheManager(
-            TokenPoolCacheImpl(serviceConfiguration.tokenCacheExpiryPeriod, UTCClock()),
-            createEventHandlerMap(tokenSelectionMetrics)
+            TokenPoolCacheImpl(serviceConfiguration.tokenCacheExpiryPeriod, UTCClock(), tagRegexCache),
+            createEventHandlerMap(tokenSelectionMetrics, tagRegexCache)
         )
         val claimStateStoreFactory = ClaimStateStoreFactoryImpl(stateManager, serialization, tokenPoolCacheManager, clock)
 
@@ -58,24 +73,34 @@ class TokenCacheEventProcessorFactoryImpl(
             eventConverter,
             entityConverter,
             tokenPoolCacheManager,
-            ClaimStateStoreCacheImpl(claimStateStoreFactory),
+            ClaimStateStoreCacheImpl(claimStateStoreFactory, serviceConfiguration.claimStateShardCount),
             externalEventResponseFactory,
             tokenSelectionMetrics
         )
     }
 
-    private fun createEventHandlerMap(tokenSelectionMetrics: TokenSelectionMetrics): Map<Class<*>, TokenEventHandler<in TokenEvent>> {
+    private fun createEventHandlerMap(
+        tokenSelectionMetrics: TokenSelectionMetrics,
+        tagRegexCache: TagRegexCache
+    ): Map<Class<*>, TokenEventHandler<in TokenEvent>> {
         val recordFactory = RecordFactoryImpl(externalEventResponseFactory)
-        val tokenFilterStrategy = SimpleTokenFilterStrategy()
+        val tokenFilterStrategy = SimpleTokenFilterStrategy(tagRegexCache)
         val utxoTokenRepository = UtxoTokenRepositoryImpl(SqlQueryProviderTokens())
+        val poolBalanceCache = serviceConfiguration.balanceReconciliationPeriod
+            .takeIf { !it.isZero }
+            ?.let { PoolBalanceCacheImpl(it, UTCClock(), tagRegexCache) }
 
         val availableTokenService = AvailableTokenServiceImpl(
             virtualNodeInfoService,
             dbConnectionManager,
             jpaEntitiesRegistry,
             utxoTokenRepository,
-            tokenSelectionMetrics
+            tokenSelectionMetrics,
+            poolBalanceCache
         )
+        val tokenCachePrefetcher = serviceConfiguration.tokenPrefetchLeadTime
+            .takeIf { !it.isZero }
+            ?.let { TokenCachePrefetcherImpl(availableTokenService, serviceConfiguration, createPrefetchExecutor(), UTCClock()) }
 
         return mapOf(
             createHandler(
@@ -88,16 +113,33 @@ class TokenCacheEventProcessorFactoryImpl(
                         UTCClock(),
                         serviceConfiguration.dbBackoffMinPeriod,
                         serviceConfiguration.dbBackoffMaxPeriod
-                    )
+                    ),
+                    tokenCachePrefetcher
                 )
             ),
             createHandler(TokenClaimReleaseEventHandler(recordFactory)),
             createHandler(TokenForceClaimReleaseEventHandler()),
-            createHandler(TokenLedgerChangeEventHandler()),
+            createHandler(TokenLedgerChangeEventHandler(poolBalanceCache)),
             createHandler(TokenBalanceQueryEventHandler(recordFactory, availableTokenService)),
         )
     }
 
+    private fun createPrefetchExecutor(): Executor {
+        val count = AtomicLong(0)
+        // Idle prefetch threads time out, so executors replaced on a configuration change do not hold any threads
+        return ThreadPoolExecutor(
+            PREFETCH_THREADS,
+            PREFETCH_THREADS,
+            PREFETCH_THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            LinkedBlockingQueue(PREFETCH_QUEUE_SIZE),
+            { runnable ->
+                Thread(runnable, "token-cache-prefetch-${count.getAndIncrement()}").apply { isDaemon = true }
+            },
+            ThreadPoolExecutor.AbortPolicy()
+        ).apply { allowCoreThreadTimeOut(true) }
+    }
+
     private inline fun <reified T : TokenEvent> createHandler(
         handler: TokenEventHandler<in T>
     ): Pair<Class<T>, TokenEventHandler<in TokenEvent>> {
@@ -18,7 +18,12 @@ class TokenBalanceQueryEventHandler(
         state: PoolCacheState,
         event: BalanceQuery
     ): Record<String, FlowEvent> {
-        val tokenBalance = availableTokenService.queryBalance(event.poolKey, event.ownerHash, event.tagRegex, state.claimedTokens())
+        val claimedTokens = state.claimedTokens()
+
+        // The balance is not taken from the cache, so the other claim state shards of the pool can use it meanwhile
+        val tokenBalance = tokenCache.withoutLock {
+            availableTokenService.queryBalance(event.poolKey, event.ownerHash, event.tagRegex, claimedTokens)
+        }
 
         return recordFactory.getBalanceResponse(
             event.flowId,
@@ -9,6 +9,7 @@ import net.corda.ledger.utxo.token.cache.factories.RecordFactory
 import net.corda.ledger.utxo.token.cache.services.AvailableTokenService
 import net.corda.ledger.utxo.token.cache.services.BackoffManager
 import net.corda.ledger.utxo.token.cache.services.ServiceConfiguration
+import net.corda.ledger.utxo.token.cache.services.TokenCachePrefetcher
 import net.corda.ledger.utxo.token.cache.services.TokenFilterStrategy
 import net.corda.messaging.api.records.Record
 import net.corda.v5.ledger.utxo.token.selection.Strategy
@@ -20,7 +21,8 @@ class TokenClaimQueryEventHandler(
     private val recordFactory: RecordFactory,
     private val availableTokenService: AvailableTokenService,
     private val serviceConfiguration: ServiceConfiguration,
-    private val backoffManager: BackoffManager
+    private val backoffManager: BackoffManager,
+    private val tokenCachePrefetcher: TokenCachePrefetcher? = null
 ) : TokenEventHandler<ClaimQuery> {
 
     private companion object {
@@ -45,6 +47,9 @@ class TokenClaimQueryEventHandler(
             )
         }
 
+        // Swap in any tokens the prefetcher has already loaded for this pool
+        tokenCachePrefetcher?.applyPrefetchedTokens(tokenCache, state, event)
+
         // Attempt to select the tokens from the current cache
         var selectionResult = selectTokens(tokenCache, state, event)
 
@@ -55,20 +60,37 @@ class TokenClaimQueryEventHandler(
                 // This way the cache size will be equal to the configured size once the claimed tokens are removed
                 // from the query results
                 val maxTokens = serviceConfiguration.cachedTokenPageSize + state.claimedTokens().size
-                val findResult = availableTokenService.findAvailTokens(
-                    event.poolKey,
-                    event.ownerHash,
-                    event.tagRegex,
-                    maxTokens,
-                    event.getStrategyOrDefault()
-                )
-
-                // Remove the claimed tokens from the query results
-                val tokens = findResult.tokens.filterNot { state.isTokenClaimed(it.stateRef) }
 
-                // Replace the tokens in the cache with the ones from the query result that have not been claimed
-                tokenCache.removeAll()
-                tokenCache.add(tokens, event.getStrategyOrDefault())
+                // The other claim state shards of the pool can use the cache while it is queried, the tokens they
+                // claim meanwhile are removed from the cache and therefore recorded by the removal log
+                val removalLog = tokenCache.startRemovalLog(maxTokens)
+                val findResult = try {
+                    tokenCache.withoutLock {
+                        availableTokenService.findAvailTokens(
+                            event.poolKey,
+                            event.ownerHash,
+                            event.tagRegex,
+                            maxTokens,
+                            event.getStrategyOrDefault()
+                        )
+                    }
+                } finally {
+                    tokenCache.stopRemovalLog(removalLog)
+                }
+
+                // The log is invalidated when another shard has refilled the cache meanwhile, or more tokens were
+                // removed than queried, in which case the result is not used and the cache is left as it is
+                if (removalLog.isValid) {
+                    // Remove the claimed tokens from the query results
+                    val tokens = findResult.tokens.filterNot {
+                        state.isTokenClaimed(it.stateRef) || it.stateRef in removalLog.stateRefs
+                    }
+
+                    // Replace the tokens in the cache with the ones from the query result that have not been claimed
+                    tokenCache.removeAll()
+                    tokenCache.add(tokens, event.getStrategyOrDefault())
+                    tokenCachePrefetcher?.cancel(tokenCache)
+                }
 
                 selectionResult = selectTokens(tokenCache, state, event)
             } else {
@@ -83,6 +105,7 @@ class TokenClaimQueryEventHandler(
             // Claimed tokens should not be stored in the token cache
             tokenCache.removeAll(selectedTokens.map { it.stateRef }.toSet())
             state.addNewClaim(claimId, selectedTokens)
+            tokenCachePrefetcher?.onTokensClaimed(tokenCache, state, event, selectedTokens.size)
             recordFactory.getSuccessfulClaimResponse(
                 event.flowId,
                 event.externalEventRequestId,
@@ -106,7 +129,7 @@ class TokenClaimQueryEventHandler(
         val selectedTokens = mutableListOf<CachedToken>()
         var selectedAmount = BigDecimal.ZERO
 
-        for (token in filterStrategy.filterTokens(tokenCache.get(event.getStrategyOrDefault()), event)) {
+        for (token in filterStrategy.filterTokens(tokenCache, event.getStrategyOrDefault(), event)) {
             if (selectedAmount >= event.targetAmount) {
                 break
             }
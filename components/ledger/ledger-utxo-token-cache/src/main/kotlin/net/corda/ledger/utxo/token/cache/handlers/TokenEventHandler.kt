@@ -14,7 +14,7 @@ interface TokenEventHandler<E : TokenEvent> {
     /**
      * Handles the received event
      *
-     * @param tokenCache An instance of the current [TokenCache]
+     * @param tokenCache An instance of the current [TokenCache], whose lock is held while the event is handled
      * @param state An instance of the [PoolCacheState] linked to this event
      * @param event The received event.
      */
@@ -2,11 +2,14 @@ package net.corda.ledger.utxo.token.cache.handlers
 
 import net.corda.data.flow.event.FlowEvent
 import net.corda.ledger.utxo.token.cache.entities.LedgerChange
+import net.corda.ledger.utxo.token.cache.entities.PoolBalanceCache
 import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
 import net.corda.ledger.utxo.token.cache.entities.TokenCache
 import net.corda.messaging.api.records.Record
 
-class TokenLedgerChangeEventHandler : TokenEventHandler<LedgerChange> {
+class TokenLedgerChangeEventHandler(
+    private val poolBalanceCache: PoolBalanceCache? = null
+) : TokenEventHandler<LedgerChange> {
 
     override fun handle(
         tokenCache: TokenCache,
@@ -17,6 +20,7 @@ class TokenLedgerChangeEventHandler : TokenEventHandler<LedgerChange> {
 
         tokenCache.removeAll(consumedStateRefs)
         state.tokensRemovedFromCache(consumedStateRefs)
+        poolBalanceCache?.applyLedgerChange(event.poolKey, event.consumedTokens, event.producedTokens)
         return null
     }
 }
@@ -4,5 +4,6 @@ import net.corda.v5.ledger.utxo.token.selection.Strategy
 
 interface SqlQueryProvider {
     fun getBalanceQuery(includeTagFilter: Boolean, includeOwnerFilter: Boolean): String
+    fun getBalanceByOwnerAndTagQuery(): String
     fun getPagedSelectQuery(limit: Int, includeTagFilter: Boolean, includeOwnerFilter: Boolean, strategy: Strategy): String
 }
@@ -42,6 +42,22 @@ class SqlQueryProviderTokens : SqlQueryProvider {
         """.trimIndent()
     }
 
+    override fun getBalanceByOwnerAndTagQuery(): String {
+        return """
+            SELECT 
+                token_owner_hash,
+                token_tag,
+                SUM(token_amount)
+            FROM {h-schema}utxo_visible_transaction_output as t_output
+            WHERE t_output.consumed is null
+            AND t_output.token_type = :$SQL_PARAMETER_TOKEN_TYPE
+            AND t_output.token_issuer_hash = :$SQL_PARAMETER_ISSUER_HASH
+            AND t_output.token_symbol = :$SQL_PARAMETER_SYMBOL
+            AND t_output.token_notary_x500_name = :$SQL_PARAMETER_TOKEN_NOTARY_X500_NAME
+            GROUP BY token_owner_hash, token_tag
+        """.trimIndent()
+    }
+
     override fun getPagedSelectQuery(limit: Int, includeTagFilter: Boolean, includeOwnerFilter: Boolean, strategy: Strategy): String {
         val tagFilter = if (includeTagFilter) {
             "AND t_output.token_tag ~ :$SQL_PARAMETER_TAG_FILTER"
@@ -1,6 +1,7 @@
 package net.corda.ledger.utxo.token.cache.repositories
 
 import net.corda.ledger.utxo.token.cache.entities.AvailTokenQueryResult
+import net.corda.ledger.utxo.token.cache.entities.TokenBalanceKey
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 import net.corda.v5.ledger.utxo.token.selection.Strategy
 import java.math.BigDecimal
@@ -30,4 +31,12 @@ interface UtxoTokenRepository {
         ownerHash: String?,
         regexTag: String?
     ): BigDecimal
+
+    /**
+     * Returns the total balance of the pool grouped by owner and tag
+     */
+    fun queryBalanceByOwnerAndTag(
+        entityManager: EntityManager,
+        poolKey: TokenPoolKey
+    ): Map<TokenBalanceKey, BigDecimal>
 }
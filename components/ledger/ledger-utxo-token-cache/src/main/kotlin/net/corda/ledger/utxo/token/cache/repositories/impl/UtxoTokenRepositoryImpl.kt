@@ -1,6 +1,7 @@
 package net.corda.ledger.utxo.token.cache.repositories.impl
 
 import net.corda.ledger.utxo.token.cache.entities.AvailTokenQueryResult
+import net.corda.ledger.utxo.token.cache.entities.TokenBalanceKey
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 import net.corda.ledger.utxo.token.cache.queries.SqlQueryProvider
 import net.corda.ledger.utxo.token.cache.queries.impl.SqlQueryProviderTokens.Companion.SQL_PARAMETER_ISSUER_HASH
@@ -74,6 +75,21 @@ class UtxoTokenRepositoryImpl(
         return query.resultListAsTuples().first()[0] as BigDecimal
     }
 
+    override fun queryBalanceByOwnerAndTag(
+        entityManager: EntityManager,
+        poolKey: TokenPoolKey
+    ): Map<TokenBalanceKey, BigDecimal> {
+        val query = entityManager.createNativeQuery(sqlQueryProvider.getBalanceByOwnerAndTagQuery(), Tuple::class.java)
+            .setParameter(SQL_PARAMETER_TOKEN_TYPE, poolKey.tokenType)
+            .setParameter(SQL_PARAMETER_ISSUER_HASH, poolKey.issuerHash)
+            .setParameter(SQL_PARAMETER_SYMBOL, poolKey.symbol)
+            .setParameter(SQL_PARAMETER_TOKEN_NOTARY_X500_NAME, poolKey.notaryX500Name)
+
+        return query.resultListAsTuples().associate {
+            TokenBalanceKey(it[0] as String?, it[1] as String?) to it[2] as BigDecimal
+        }
+    }
+
     private fun setParameterIfNecessaryOwnerHash(ownerHash: String?, query: Query) {
         if (ownerHash != null) {
             query.setParameter(SQL_PARAMETER_OWNER_HASH, ownerHash)
@@ -12,4 +12,26 @@ interface ClaimStateStore {
      * modified and persisted correctly, false if the state update failed due to a concurrency check.
      */
     fun enqueueRequest(request: (TokenPoolCacheState) -> TokenPoolCacheState): CompletableFuture<Boolean>
+
+    /**
+     * Gets the most recent [TokenPoolCacheState] held by the store, without queuing a request.
+     *
+     * @return The state as of the last processed request, which may be modified by requests still in the queue.
+     */
+    fun currentState(): TokenPoolCacheState
+
+    /**
+     * The number of shards the claim state of the pool is split into, as recorded with the state of shard zero of
+     * the pool. States created before the shard count was recorded have a single shard.
+     */
+    val shardCount: Int
+
+    /**
+     * Enqueues a request to record a new shard count with the state, see [shardCount].
+     *
+     * @param shardCount The number of shards the claim state of the pool is split into.
+     * @return A future that is completed once the request is complete, the future returns true if the shard count was
+     * persisted correctly, false if the state update failed due to a concurrency check.
+     */
+    fun recordShardCount(shardCount: Int): CompletableFuture<Boolean>
 }
@@ -3,5 +3,22 @@ package net.corda.ledger.utxo.token.cache.services
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 
 interface ClaimStateStoreCache {
-    fun get(key: TokenPoolKey): ClaimStateStore
+    /**
+     * Gets the [ClaimStateStore] for a shard of a token pool, creating it if needed.
+     *
+     * @param key The key of the token pool.
+     * @param shard The index of the shard, always zero when the pool is not sharded.
+     */
+    fun get(key: TokenPoolKey, shard: Int): ClaimStateStore
+
+    /**
+     * Gets the [TokenPoolShardRouter] for a token pool, which does not change once the pool has been used.
+     *
+     * The shard count of a pool is recorded with its claim state. The configured shard count only replaces the
+     * recorded one when the pool is first used and none of its shards hold a claim, as the release of an existing
+     * claim would otherwise be routed to a shard other than the one holding it.
+     *
+     * @param key The key of the token pool.
+     */
+    fun shardRouter(key: TokenPoolKey): TokenPoolShardRouter
 }
@@ -1,21 +1,63 @@
 package net.corda.ledger.utxo.token.cache.services
 
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
 import java.util.concurrent.ConcurrentHashMap
 
 class ClaimStateStoreCacheImpl(
     private val claimStateStoreFactory: ClaimStateStoreFactory,
+    private val configuredShardCount: Int = 1
 ) : ClaimStateStoreCache {
 
-    private val stateStoreCache = ConcurrentHashMap<TokenPoolKey, ClaimStateStore>()
+    private companion object {
+        val logger: Logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+    }
+
+    private val stateStoreCache = ConcurrentHashMap<Pair<TokenPoolKey, Int>, ClaimStateStore>()
+    private val shardRouters = ConcurrentHashMap<TokenPoolKey, TokenPoolShardRouter>()
 
-    override fun get(key: TokenPoolKey): ClaimStateStore {
-        return stateStoreCache.compute(key) { k, v ->
-            v ?: createClaimStateStore(k)
+    override fun get(key: TokenPoolKey, shard: Int): ClaimStateStore {
+        return stateStoreCache.compute(key to shard) { k, v ->
+            v ?: createClaimStateStore(k.first, k.second)
         }!!
     }
 
-    private fun createClaimStateStore(key: TokenPoolKey): ClaimStateStore {
-        return claimStateStoreFactory.create(key)
+    override fun shardRouter(key: TokenPoolKey): TokenPoolShardRouter {
+        shardRouters[key]?.let { return it }
+
+        // The shard count is resolved once for each pool, before any of its events are routed
+        return synchronized(shardRouters) {
+            shardRouters.getOrPut(key) { TokenPoolShardRouter(resolveShardCount(key)) }
+        }
+    }
+
+    private fun resolveShardCount(key: TokenPoolKey): Int {
+        val firstShard = get(key, 0)
+        val recordedShardCount = firstShard.shardCount
+        if (recordedShardCount == configuredShardCount) {
+            return recordedShardCount
+        }
+
+        val hasClaims = (0 until recordedShardCount).any { shard -> get(key, shard).currentState().tokenClaims.isNotEmpty() }
+        if (hasClaims) {
+            logger.warn(
+                "The claim state of token pool $key stays split into $recordedShardCount shards rather than the " +
+                    "configured $configuredShardCount, because the pool has claims. The shard count is changed once " +
+                    "the pool is loaded without any claims."
+            )
+            return recordedShardCount
+        }
+
+        return if (firstShard.recordShardCount(configuredShardCount).get()) {
+            configuredShardCount
+        } else {
+            logger.warn("Failed to record the claim state shard count of token pool $key, it stays at $recordedShardCount")
+            recordedShardCount
+        }
+    }
+
+    private fun createClaimStateStore(key: TokenPoolKey, shard: Int): ClaimStateStore {
+        return claimStateStoreFactory.create(key, shard)
     }
 }
@@ -3,5 +3,5 @@ package net.corda.ledger.utxo.token.cache.services
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 
 interface ClaimStateStoreFactory {
-    fun create(key: TokenPoolKey): ClaimStateStore
+    fun create(key: TokenPoolKey, shard: Int): ClaimStateStore
 }
@@ -11,9 +11,10 @@ class ClaimStateStoreFactoryImpl(
     private val clock: Clock
 ) : ClaimStateStoreFactory {
 
-    override fun create(key: TokenPoolKey): ClaimStateStore {
+    override fun create(key: TokenPoolKey, shard: Int): ClaimStateStore {
         return PerformanceClaimStateStoreImpl(
             key,
+            shard,
             serialization,
             stateManager,
             tokenPoolCacheManager,
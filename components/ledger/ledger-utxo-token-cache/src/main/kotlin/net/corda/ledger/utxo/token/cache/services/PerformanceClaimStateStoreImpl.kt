@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit
 @Suppress("LongParameterList")
 class PerformanceClaimStateStoreImpl(
     private val tokenPoolKey: TokenPoolKey,
+    private val shard: Int,
     private val serialization: TokenPoolCacheStateSerialization,
     private val stateManager: StateManager,
     private val tokenPoolCacheManager: TokenPoolCacheManager,
@@ -26,6 +27,8 @@ class PerformanceClaimStateStoreImpl(
 
     private companion object {
         val logger: Logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+
+        const val SHARD_COUNT_METADATA_KEY = "claimStateShardCount"
     }
 
     // We use a limited queue executor to ensure we only ever queue one new request if we are currently processing
@@ -41,18 +44,38 @@ class PerformanceClaimStateStoreImpl(
         )
     )
     private val requestQueue = LinkedBlockingQueue<QueuedRequestItem>()
+
+    // Shard zero uses the key of the pool itself, so enabling or disabling sharding keeps the existing state
+    private val stateKey = if (shard == 0) tokenPoolKey.toString() else "$tokenPoolKey-$shard"
+
+    @Volatile
     private var currentState = createClaimState()
 
     private data class QueuedRequestItem(
         val requestAction: (TokenPoolCacheState) -> TokenPoolCacheState,
-        val requestFuture: CompletableFuture<Boolean>
+        val requestFuture: CompletableFuture<Boolean>,
+        val shardCount: Int? = null
     )
 
     override fun enqueueRequest(request: (TokenPoolCacheState) -> TokenPoolCacheState): CompletableFuture<Boolean> {
-        val requestCompletion = CompletableFuture<Boolean>()
-        requestQueue.add(QueuedRequestItem(request, requestCompletion))
+        return enqueue(QueuedRequestItem(request, CompletableFuture<Boolean>()))
+    }
+
+    override fun currentState(): TokenPoolCacheState {
+        return currentState.poolState
+    }
+
+    override val shardCount: Int
+        get() = (currentState.metadata[SHARD_COUNT_METADATA_KEY] as? Number)?.toInt() ?: 1
+
+    override fun recordShardCount(shardCount: Int): CompletableFuture<Boolean> {
+        return enqueue(QueuedRequestItem({ it }, CompletableFuture<Boolean>(), shardCount))
+    }
+
+    private fun enqueue(request: QueuedRequestItem): CompletableFuture<Boolean> {
+        requestQueue.add(request)
         CompletableFuture.runAsync(::drainAndProcessQueue, executor)
-        return requestCompletion
+        return request.requestFuture
     }
 
     private fun drainAndProcessQueue() {
@@ -61,10 +84,12 @@ class PerformanceClaimStateStoreImpl(
         while (requests.isNotEmpty()) {
             // Executing all pending requests against the current state
             var currentPoolState = currentState.poolState
+            var metadata = currentState.metadata
             val unexceptionalRequests = mutableListOf<CompletableFuture<Boolean>>()
             requests.forEach { queuedRequest ->
                 try {
                     currentPoolState = queuedRequest.requestAction(currentPoolState)
+                    queuedRequest.shardCount?.let { metadata = Metadata(metadata + (SHARD_COUNT_METADATA_KEY to it)) }
                     unexceptionalRequests.add(queuedRequest.requestFuture)
                 } catch (e: Exception) {
                     queuedRequest.requestFuture.completeExceptionally(e)
@@ -73,10 +98,11 @@ class PerformanceClaimStateStoreImpl(
 
             // Try and update the state
             val stateManagerState = State(
-                tokenPoolKey.toString(),
+                stateKey,
                 serialization.serialize(currentPoolState),
                 currentState.dbVersion,
-                modifiedTime = clock.instant()
+                metadata,
+                clock.instant()
             )
 
             val mismatchedState = try {
@@ -89,10 +115,11 @@ class PerformanceClaimStateStoreImpl(
                 // The current batch of requests aborted and the state set to version -1.
                 // This will force a refresh of the state when the DB is available.
                 State(
-                    tokenPoolKey.toString(),
+                    stateKey,
                     stateManagerState.value,
                     -1,
-                    modifiedTime = stateManagerState.modifiedTime
+                    currentState.metadata,
+                    stateManagerState.modifiedTime
                 )
             }
 
@@ -107,7 +134,7 @@ class PerformanceClaimStateStoreImpl(
 
                 unexceptionalRequests.abort()
             } else {
-                currentState = currentState.copy(dbVersion = currentState.dbVersion + 1)
+                currentState = currentState.copy(dbVersion = currentState.dbVersion + 1, metadata = metadata)
                 unexceptionalRequests.accept()
             }
 
@@ -141,7 +168,7 @@ class PerformanceClaimStateStoreImpl(
     private fun createClaimState(): StoredPoolClaimState {
         // No existing Store for this key, we need to create one
         // Try and get the existing state from storage
-        val stateRecord = stateManager.get(listOf(tokenPoolKey.toString()))
+        val stateRecord = stateManager.get(listOf(stateKey))
             .map { it.value }
             .firstOrNull()
 
@@ -156,7 +183,7 @@ class PerformanceClaimStateStoreImpl(
         val tokenPoolCacheState = getDefaultTokenPoolCacheState()
         val stateBytes = serialization.serialize(tokenPoolCacheState)
         val newStoredState = State(
-            key = tokenPoolKey.toString(),
+            key = stateKey,
             value = stateBytes,
             metadata = Metadata(mapOf(STATE_TYPE to tokenPoolCacheState::class.java.name)),
             modifiedTime = clock.instant()
@@ -167,7 +194,8 @@ class PerformanceClaimStateStoreImpl(
         return StoredPoolClaimState(
             State.VERSION_INITIAL_VALUE,
             tokenPoolKey,
-            tokenPoolCacheState
+            tokenPoolCacheState,
+            newStoredState.metadata
         )
     }
 
@@ -175,7 +203,8 @@ class PerformanceClaimStateStoreImpl(
         return StoredPoolClaimState(
             existing.version,
             tokenPoolKey,
-            serialization.deserialize(existing.value)
+            serialization.deserialize(existing.value),
+            existing.metadata
         )
     }
 
@@ -15,4 +15,31 @@ interface ServiceConfiguration {
     val dbBackoffMinPeriod: Duration
 
     val dbBackoffMaxPeriod: Duration
+
+    /**
+     * The number of shards the claim state of each token pool is split into, see [TokenPoolShardRouter].
+     * Sharding is disabled unless this is configured with a value greater than one. The shard count of a pool that
+     * has claims is only changed once the pool is next loaded without claims, see [ClaimStateStoreCache.shardRouter].
+     * It is set with `tokens.claimStateShardCount` in the ledger configuration or, while the configuration schema does
+     * not define it, with the `net.corda.ledger.utxo.token.claimStateShardCount` system property of the worker.
+     */
+    val claimStateShardCount: Int
+
+    /**
+     * How often the balances held in memory for each pool are reloaded from the vault. Balance queries are served
+     * from memory only when this is configured with a non-zero period, otherwise each query runs against the vault.
+     * It is set with `tokens.balanceReconciliationPeriodMilliseconds` in the ledger configuration or, while the
+     * configuration schema does not define it, with the
+     * `net.corda.ledger.utxo.token.balanceReconciliationPeriodMilliseconds` system property of the worker.
+     */
+    val balanceReconciliationPeriod: Duration
+
+    /**
+     * How far ahead of the token cache of a pool running dry it is refilled in the background, see
+     * [TokenCachePrefetcher]. Prefetching is disabled unless this is configured with a non-zero period.
+     * It is set with `tokens.prefetchLeadTimeMilliseconds` in the ledger configuration or, while the configuration
+     * schema does not define it, with the `net.corda.ledger.utxo.token.prefetchLeadTimeMilliseconds` system property
+     * of the worker.
+     */
+    val tokenPrefetchLeadTime: Duration
 }
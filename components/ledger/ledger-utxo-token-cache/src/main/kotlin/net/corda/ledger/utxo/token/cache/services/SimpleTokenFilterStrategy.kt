@@ -1,9 +1,13 @@
 package net.corda.ledger.utxo.token.cache.services
 
 import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.TokenCache
 import net.corda.ledger.utxo.token.cache.entities.TokenFilter
+import net.corda.v5.ledger.utxo.token.selection.Strategy
 
-class SimpleTokenFilterStrategy : TokenFilterStrategy {
+class SimpleTokenFilterStrategy(
+    private val tagRegexCache: TagRegexCache = TagRegexCache()
+) : TokenFilterStrategy {
 
     override fun filterTokens(cachedTokenSource: Iterable<CachedToken>, tokenFilter: TokenFilter): Iterable<CachedToken> {
         if (tokenFilter.tagRegex == null && tokenFilter.ownerHash == null) {
@@ -13,9 +17,16 @@ class SimpleTokenFilterStrategy : TokenFilterStrategy {
         val tagMatcher = createTagMatcher(tokenFilter.tagRegex)
         val ownerMatcher = createOwnerMatcher(tokenFilter.ownerHash)
 
-        return cachedTokenSource.filter {
+        // The filter is applied lazily, so callers that stop once they have selected enough tokens only pay for
+        // the tokens they actually visit
+        return cachedTokenSource.asSequence().filter {
             tagMatcher(it.tag) && ownerMatcher(it.ownerHash)
-        }
+        }.asIterable()
+    }
+
+    override fun filterTokens(tokenCache: TokenCache, strategy: Strategy, tokenFilter: TokenFilter): Iterable<CachedToken> {
+        // The cache indexes its tokens by owner and tag, so only the matching tokens are visited
+        return tokenCache.get(strategy, tokenFilter)
     }
 
     private fun createTagMatcher(pattern: String?): (String?) -> Boolean {
@@ -23,8 +34,10 @@ class SimpleTokenFilterStrategy : TokenFilterStrategy {
             return { _ -> true }
         }
 
-        val matcher = Regex(pattern)
-        return { it != null && matcher.containsMatchIn(it) }
+        // Many tokens share the same tag, so the result of the match is remembered per distinct tag
+        val matcher = tagRegexCache.get(pattern)
+        val matchedTags = mutableMapOf<String, Boolean>()
+        return { it != null && matchedTags.getOrPut(it) { matcher.containsMatchIn(it) } }
     }
 
     private fun createOwnerMatcher(ownerHash: String?): (String?) -> Boolean {
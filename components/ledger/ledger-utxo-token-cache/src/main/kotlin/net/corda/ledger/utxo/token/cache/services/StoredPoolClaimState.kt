@@ -2,9 +2,11 @@ package net.corda.ledger.utxo.token.cache.services
 
 import net.corda.data.ledger.utxo.token.selection.state.TokenPoolCacheState
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import net.corda.libs.statemanager.api.Metadata
 
 data class StoredPoolClaimState(
     val dbVersion: Int,
     val key: TokenPoolKey,
-    val poolState: TokenPoolCacheState
+    val poolState: TokenPoolCacheState,
+    val metadata: Metadata = Metadata()
 )
@@ -0,0 +1,32 @@
+package net.corda.ledger.utxo.token.cache.services
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.corda.cache.caffeine.CacheFactoryImpl
+
+/**
+ * The [TagRegexCache] holds the compiled form of the tag regular expressions used by token queries, so that each
+ * distinct expression is compiled once rather than on every query.
+ *
+ * @param maxSize The maximum number of compiled expressions to keep.
+ */
+class TagRegexCache(maxSize: Long = DEFAULT_MAX_SIZE) {
+
+    private companion object {
+        const val DEFAULT_MAX_SIZE = 1000L
+    }
+
+    private val cache: Cache<String, Regex> = CacheFactoryImpl().build(
+        "token-tag-regex-cache",
+        Caffeine.newBuilder().maximumSize(maxSize)
+    )
+
+    /**
+     * Gets the compiled [Regex] for a tag pattern, compiling it if it is not already cached.
+     *
+     * @param pattern The tag regular expression.
+     */
+    fun get(pattern: String): Regex {
+        return cache.get(pattern) { Regex(it) }
+    }
+}
@@ -0,0 +1,48 @@
+package net.corda.ledger.utxo.token.cache.services
+
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
+import net.corda.ledger.utxo.token.cache.entities.TokenCache
+
+/**
+ * The [TokenCachePrefetcher] refills a [TokenCache] in the background before it runs dry, so that claims do not have
+ * to wait for the persistence layer to be queried.
+ *
+ * The prefetcher tracks the rate at which tokens are claimed from each cache and starts an asynchronous query when
+ * the cached tokens are not expected to last longer than the configured lead time. The result is swapped into the
+ * cache by the next claim once the query has completed. All calls for a given cache must be made while holding the
+ * lock of the cache, see [TokenCache.withLock].
+ */
+interface TokenCachePrefetcher {
+
+    /**
+     * Replaces the contents of the cache with the result of a completed prefetch, if there is one for the same
+     * criteria as the claim. Tokens removed from the cache since the prefetch started are left out, and the result is
+     * discarded if the cache has been emptied since or it is older than the token cache expiry period.
+     *
+     * @param tokenCache The cache to refill
+     * @param state The claim state of the pool, used to exclude tokens claimed since the prefetch started
+     * @param claimQuery The claim about to be processed
+     *
+     * @return True if prefetched tokens were added to the cache
+     */
+    fun applyPrefetchedTokens(tokenCache: TokenCache, state: PoolCacheState, claimQuery: ClaimQuery): Boolean
+
+    /**
+     * Records tokens claimed from the cache and starts a prefetch if the cache is expected to run dry within the
+     * lead time.
+     *
+     * @param tokenCache The cache the tokens were claimed from
+     * @param state The claim state of the pool, including the new claim
+     * @param claimQuery The claim that was processed
+     * @param claimedTokenCount The number of tokens claimed
+     */
+    fun onTokensClaimed(tokenCache: TokenCache, state: PoolCacheState, claimQuery: ClaimQuery, claimedTokenCount: Int)
+
+    /**
+     * Discards any outstanding prefetch for the cache, used when the cache has been refilled synchronously.
+     *
+     * @param tokenCache The cache that was refilled
+     */
+    fun cancel(tokenCache: TokenCache)
+}
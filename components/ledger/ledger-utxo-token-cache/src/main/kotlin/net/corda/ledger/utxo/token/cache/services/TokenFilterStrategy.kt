@@ -2,7 +2,9 @@ package net.corda.ledger.utxo.token.cache.services
 
 import net.corda.ledger.utxo.token.cache.entities.CachedToken
 import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.TokenCache
 import net.corda.ledger.utxo.token.cache.entities.TokenFilter
+import net.corda.v5.ledger.utxo.token.selection.Strategy
 
 /**
  * The [TokenFilterStrategy] implements the filtering strategy used to select tokens for a given [ClaimQuery]
@@ -18,4 +20,15 @@ interface TokenFilterStrategy {
      * @return An iterable list of filtered tokens
      */
     fun filterTokens(cachedTokenSource: Iterable<CachedToken>, tokenFilter: TokenFilter): Iterable<CachedToken>
+
+    /**
+     * Filters the tokens held in a [TokenCache] based on the [ClaimQuery]
+     *
+     * @param tokenCache The cache holding the tokens to filter
+     * @param strategy The strategy that should have been used to retrieve the tokens from the persistence layer
+     * @param tokenFilter The criteria used for the filter
+     *
+     * @return An iterable list of filtered tokens
+     */
+    fun filterTokens(tokenCache: TokenCache, strategy: Strategy, tokenFilter: TokenFilter): Iterable<CachedToken>
 }
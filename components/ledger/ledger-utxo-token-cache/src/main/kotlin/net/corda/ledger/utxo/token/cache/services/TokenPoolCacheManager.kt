@@ -1,39 +1,111 @@
 package net.corda.ledger.utxo.token.cache.services
 
 import net.corda.data.flow.event.FlowEvent
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
 import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
 import net.corda.ledger.utxo.token.cache.entities.TokenEvent
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolCache
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import net.corda.ledger.utxo.token.cache.entities.internal.ShardedPoolCacheState
 import net.corda.ledger.utxo.token.cache.handlers.TokenEventHandler
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
 class TokenPoolCacheManager(
     private val tokenPoolCache: TokenPoolCache,
     private val eventHandlerMap: Map<Class<*>, TokenEventHandler<in TokenEvent>>,
 ) {
+    // The events of each claim state shard are processed one at a time, while the shards of a pool are processed
+    // concurrently. The shards share the token cache of the pool, which is only locked while it is used, so one shard
+    // can claim from the cache while another queries the persistence layer, see [TokenCache.withoutLock].
+    private val shardLocks = ConcurrentHashMap<Pair<TokenPoolKey, Int>, ReentrantLock>()
+
+    // The claim state of each shard as of the last event it processed, which may not have been stored yet. It is only
+    // modified and read while holding the lock of the token cache of the pool.
+    private val processedShardStates = ConcurrentHashMap<TokenPoolKey, ConcurrentHashMap<Int, PoolCacheState>>()
+
+    /**
+     * Processes an event against the claim state of a pool, or of one shard of a pool.
+     *
+     * @param state The claim state the event is processed against.
+     * @param tokenEvent The event to process.
+     * @param shard The claim state shard of the pool the state belongs to, or null if the state does not belong to any
+     * one shard of the pool.
+     * @param otherShardsClaimedTokens Gets the stored tokens claimed by the other claim state shards of the pool, which
+     * are treated as claimed while the event is processed, along with the tokens those shards claimed since. It is
+     * called while holding the lock of the token cache of the pool.
+     */
     fun processEvent(
         state: PoolCacheState,
-        tokenEvent: TokenEvent
+        tokenEvent: TokenEvent,
+        shard: Int? = null,
+        otherShardsClaimedTokens: () -> Collection<CachedToken> = { emptyList() }
     ): ResponseAndState {
-        // Cleanup
-        state.removeInvalidClaims()
-        state.removeExpiredClaims()
+        val poolKey = tokenEvent.poolKey
+        return withShardLock(poolKey, shard) {
+            val tokenCache = tokenPoolCache.get(poolKey)
+            val result = tokenCache.withLock {
+                // Cleanup
+                state.removeInvalidClaims()
+                state.removeExpiredClaims()
 
-        // Get the handler that knows how to process the event
-        val handler = checkNotNull(eventHandlerMap[tokenEvent.javaClass]) {
-            "Received an event with and unrecognized payload '${tokenEvent.javaClass}'"
-        }
+                // Get the handler that knows how to process the event
+                val handler = checkNotNull(eventHandlerMap[tokenEvent.javaClass]) {
+                    "Received an event with and unrecognized payload '${tokenEvent.javaClass}'"
+                }
 
-        // Ask the respective handler to process the event
-        val tokenCache = tokenPoolCache.get(tokenEvent.poolKey)
-        val result = handler.handle(tokenCache, state, tokenEvent)
+                val poolState = toPoolState(poolKey, shard, state, otherShardsClaimedTokens)
 
-        return ResponseAndState(result?.value, state)
+                // Ask the respective handler to process the event
+                handler.handle(tokenCache, poolState, tokenEvent)
+            }
+
+            ResponseAndState(result?.value, state)
+        }
     }
 
     fun removeAllTokensFromCache(poolKey: TokenPoolKey) {
         val tokenCache = tokenPoolCache.get(poolKey)
-        tokenCache.removeAll()
+        tokenCache.withLock {
+            tokenCache.removeAll()
+        }
+    }
+
+    /**
+     * Claims of the other shards of the pool are stored asynchronously, so the claims they have processed but not
+     * stored yet are treated as claimed as well. Claims that are not stored after all are only treated as claimed
+     * until the shard processes its next event.
+     */
+    private fun toPoolState(
+        poolKey: TokenPoolKey,
+        shard: Int?,
+        state: PoolCacheState,
+        otherShardsClaimedTokens: () -> Collection<CachedToken>
+    ): PoolCacheState {
+        val shardStates = processedShardStates.computeIfAbsent(poolKey) { ConcurrentHashMap() }
+        if (shard != null) {
+            shardStates[shard] = state
+        }
+
+        val claimedByOtherShards = otherShardsClaimedTokens() + shardStates
+            .filterKeys { it != shard }
+            .values
+            .flatMap { it.claimedTokens() }
+
+        return if (claimedByOtherShards.isEmpty()) {
+            state
+        } else {
+            ShardedPoolCacheState(state, claimedByOtherShards)
+        }
+    }
+
+    private fun <R> withShardLock(poolKey: TokenPoolKey, shard: Int?, block: () -> R): R {
+        if (shard == null) {
+            return block()
+        }
+
+        return shardLocks.computeIfAbsent(poolKey to shard) { ReentrantLock() }.withLock(block)
     }
 
     data class ResponseAndState(val response: FlowEvent?, val state: PoolCacheState)
@@ -0,0 +1,51 @@
+package net.corda.ledger.utxo.token.cache.services
+
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.ClaimRelease
+import net.corda.ledger.utxo.token.cache.entities.ForceClaimRelease
+import net.corda.ledger.utxo.token.cache.entities.TokenEvent
+
+/**
+ * The [TokenPoolShardRouter] splits the claim state of a token pool into a number of shards. Each shard has its own
+ * stored state and request queue, so claims against a busy pool are not all serialised through the storage of a
+ * single state.
+ *
+ * Only the claim bookkeeping is sharded. All shards of a pool select from the same token cache, and tokens claimed by
+ * any shard are treated as claimed by all of them, so a claim can be satisfied by any of the pool's tokens and the
+ * tokens of the pool are only queried once. A claim is owned by the shard selected by the hash of its claim ID, so
+ * the release of a claim is routed to the shard holding it. Every other event is processed by shard zero.
+ *
+ * The shard a claim is owned by depends on the shard count, which is therefore fixed for each pool while it has
+ * claims, see [ClaimStateStoreCache.shardRouter]. A shard count of one disables sharding.
+ *
+ * @param shardCount The number of shards the claim state of the pool is split into.
+ */
+class TokenPoolShardRouter(val shardCount: Int) {
+
+    init {
+        require(shardCount >= 1) { "The claim state shard count must be at least 1 but was $shardCount" }
+    }
+
+    val isSharded: Boolean
+        get() = shardCount > 1
+
+    /**
+     * Gets the shard that processes an event.
+     */
+    fun shardOf(tokenEvent: TokenEvent): Int {
+        if (!isSharded) {
+            return 0
+        }
+
+        return when (tokenEvent) {
+            is ClaimQuery -> shardOf(tokenEvent.externalEventRequestId)
+            is ClaimRelease -> shardOf(tokenEvent.claimId)
+            is ForceClaimRelease -> shardOf(tokenEvent.claimId)
+            else -> 0
+        }
+    }
+
+    private fun shardOf(claimId: String): Int {
+        return Math.floorMod(claimId.hashCode(), shardCount)
+    }
+}
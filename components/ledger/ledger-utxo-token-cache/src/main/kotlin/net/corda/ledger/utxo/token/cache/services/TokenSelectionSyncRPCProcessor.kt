@@ -4,10 +4,14 @@ import net.corda.data.KeyValuePairList
 import net.corda.data.flow.event.FlowEvent
 import net.corda.data.flow.event.external.ExternalEventContext
 import net.corda.data.ledger.utxo.token.selection.event.TokenPoolCacheEvent
+import net.corda.data.ledger.utxo.token.selection.state.TokenPoolCacheState
 import net.corda.flow.external.events.responses.factory.ExternalEventResponseFactory
 import net.corda.ledger.utxo.token.cache.converters.EntityConverter
 import net.corda.ledger.utxo.token.cache.converters.EventConverter
+import net.corda.ledger.utxo.token.cache.entities.BalanceQuery
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
 import net.corda.ledger.utxo.token.cache.entities.TokenEvent
+import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 import net.corda.messaging.api.exception.CordaHTTPServerTransientException
 import net.corda.messaging.api.processor.SyncRPCProcessor
 import net.corda.utilities.debug
@@ -39,43 +43,80 @@ class TokenSelectionSyncRPCProcessor(
 
         return tokenSelectionMetrics.recordProcessingTime(tokenEvent) {
             try {
-                var responseEvent: FlowEvent? = null
-
-                val eventCompletion = eventProcessLock.withLock {
-                    val claimStateStore = claimStateStoreCache.get(tokenEvent.poolKey)
-
-                    claimStateStore.enqueueRequest { poolState ->
+                val shardRouter = claimStateStoreCache.shardRouter(tokenEvent.poolKey)
+                if (shardRouter.isSharded && tokenEvent is BalanceQuery) {
+                    processAcrossShards(tokenEvent, shardRouter)
+                } else {
+                    processOnShard(tokenEvent, shardRouter)
+                }
+            } catch (e: CordaHTTPServerTransientException) {
+                throw e
+            } catch (exception: Exception) {
+                externalEventResponseFactory.platformError(tokenEvent, exception)
+            }
+        }
+    }
 
-                        val state = entityConverter.toPoolCacheState(poolState)
-                        val result = tokenPoolCacheManager.processEvent(
-                            state,
-                            tokenEvent
-                        )
+    private fun processOnShard(tokenEvent: TokenEvent, shardRouter: TokenPoolShardRouter): FlowEvent? {
+        var responseEvent: FlowEvent? = null
+        val shard = shardRouter.shardOf(tokenEvent)
 
-                        logger.debug { "token response: $result" }
+        val eventCompletion = eventProcessLock.withLock {
+            val claimStateStore = claimStateStoreCache.get(tokenEvent.poolKey, shard)
 
-                        responseEvent = result.response
+            claimStateStore.enqueueRequest { poolState ->
 
-                        result.state.toAvro()
-                    }
+                val state = entityConverter.toPoolCacheState(poolState)
+                val result = tokenPoolCacheManager.processEvent(state, tokenEvent, shard) {
+                    claimedTokens(tokenEvent.poolKey, shardRouter, excludedShard = shard)
                 }
 
-                val stateWriteSuccess = eventCompletion.get()
+                logger.debug { "token response: $result" }
 
-                if (stateWriteSuccess) {
-                    responseEvent
-                } else {
-                    throw CordaHTTPServerTransientException(
-                        tokenEvent.externalEventRequestId,
-                        IllegalStateException("Failed to save state, version out of sync, please retry.")
-                    )
-                }
-            } catch (e: CordaHTTPServerTransientException) {
-                throw e
-            } catch (exception: Exception) {
-                externalEventResponseFactory.platformError(tokenEvent, exception)
+                responseEvent = result.response
+
+                result.state.toAvro()
             }
         }
+
+        val stateWriteSuccess = eventCompletion.get()
+
+        return if (stateWriteSuccess) {
+            responseEvent
+        } else {
+            throw CordaHTTPServerTransientException(
+                tokenEvent.externalEventRequestId,
+                IllegalStateException("Failed to save state, version out of sync, please retry.")
+            )
+        }
+    }
+
+    /**
+     * Balance queries do not modify the claim state, so for a sharded pool they are answered from the claims of all
+     * shards rather than being queued on any one shard.
+     */
+    private fun processAcrossShards(tokenEvent: TokenEvent, shardRouter: TokenPoolShardRouter): FlowEvent? {
+        val poolState = TokenPoolCacheState.newBuilder()
+            .setPoolKey(tokenEvent.poolKey.toAvro())
+            .setAvailableTokens(listOf())
+            .setTokenClaims(listOf())
+            .build()
+
+        return tokenPoolCacheManager.processEvent(entityConverter.toPoolCacheState(poolState), tokenEvent) {
+            claimedTokens(tokenEvent.poolKey, shardRouter, excludedShard = null)
+        }.response
+    }
+
+    /**
+     * Gets the stored tokens claimed by the shards of a pool, other than the excluded shard. The claims the shards have
+     * processed but not stored yet are added by the [TokenPoolCacheManager].
+     */
+    private fun claimedTokens(poolKey: TokenPoolKey, shardRouter: TokenPoolShardRouter, excludedShard: Int?): List<CachedToken> {
+        return (0 until shardRouter.shardCount)
+            .filter { it != excludedShard }
+            .flatMap { shard -> claimStateStoreCache.get(poolKey, shard).currentState().tokenClaims }
+            .flatMap { claim -> claim.claimedTokens }
+            .map { entityConverter.toCachedToken(it) }
     }
 
     private fun ExternalEventResponseFactory.platformError(tokenEvent: TokenEvent, exception: Exception) =
@@ -6,6 +6,7 @@ import net.corda.db.schema.CordaDb
 import net.corda.flow.external.events.responses.exceptions.VirtualNodeException
 import net.corda.ledger.utxo.token.cache.entities.AvailTokenQueryResult
 import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.PoolBalanceCache
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 import net.corda.ledger.utxo.token.cache.entities.internal.TokenBalanceCacheImpl
 import net.corda.ledger.utxo.token.cache.repositories.UtxoTokenRepository
@@ -17,6 +18,7 @@ import net.corda.v5.ledger.utxo.token.selection.TokenBalance
 import net.corda.v5.serialization.SingletonSerializeAsToken
 import net.corda.virtualnode.VirtualNodeInfo
 import net.corda.virtualnode.read.VirtualNodeInfoReadService
+import java.math.BigDecimal
 
 @Suppress("LongParameterList")
 class AvailableTokenServiceImpl(
@@ -25,6 +27,7 @@ class AvailableTokenServiceImpl(
     private val jpaEntitiesRegistry: JpaEntitiesRegistry,
     private val utxoTokenRepository: UtxoTokenRepository,
     private val tokenSelectionMetrics: TokenSelectionMetrics,
+    private val poolBalanceCache: PoolBalanceCache? = null
 ) : AvailableTokenService, SingletonSerializeAsToken {
     override fun findAvailTokens(
         poolKey: TokenPoolKey,
@@ -54,18 +57,28 @@ class AvailableTokenServiceImpl(
         tagRegex: String?,
         claimedTokens: Collection<CachedToken>
     ): TokenBalance {
-        val virtualNode = getVirtualNodeInfo(poolKey)
-        val entityManagerFactory = getOrCreateEntityManagerFactory(virtualNode)
+        val totalBalance = poolBalanceCache?.getTotalBalance(poolKey, ownerHash, tagRegex) {
+            val entityManagerFactory = getOrCreateEntityManagerFactory(getVirtualNodeInfo(poolKey))
+            tokenSelectionMetrics.recordDbOperationTime("query balance by owner and tag") {
+                utxoTokenRepository.queryBalanceByOwnerAndTag(entityManagerFactory.createEntityManager(), poolKey)
+            }
+        } ?: queryTotalBalance(poolKey, ownerHash, tagRegex)
 
-        val totalBalance = tokenSelectionMetrics.recordDbOperationTime("query balance") {
-            utxoTokenRepository.queryBalance(entityManagerFactory.createEntityManager(), poolKey, ownerHash, tagRegex)
-        }
         val claimedBalance = claimedTokens.sumOf { it.amount }
         val availableBalance = totalBalance - claimedBalance
 
         return TokenBalanceCacheImpl(availableBalance, totalBalance)
     }
 
+    private fun queryTotalBalance(poolKey: TokenPoolKey, ownerHash: String?, tagRegex: String?): BigDecimal {
+        val virtualNode = getVirtualNodeInfo(poolKey)
+        val entityManagerFactory = getOrCreateEntityManagerFactory(virtualNode)
+
+        return tokenSelectionMetrics.recordDbOperationTime("query balance") {
+            utxoTokenRepository.queryBalance(entityManagerFactory.createEntityManager(), poolKey, ownerHash, tagRegex)
+        }
+    }
+
     private fun getOrCreateEntityManagerFactory(virtualNode: VirtualNodeInfo) =
         tokenSelectionMetrics.entityManagerCreationTime {
             dbConnectionManager.getOrCreateEntityManagerFactory(
@@ -13,6 +13,23 @@ import java.time.Duration
 @Component
 class ServiceConfigurationImpl : ServiceConfiguration {
 
+    companion object {
+        const val UTXO_TOKEN_CLAIM_STATE_SHARD_COUNT = "tokens.claimStateShardCount"
+        const val UTXO_TOKEN_BALANCE_RECONCILIATION_PERIOD_MILLISECONDS = "tokens.balanceReconciliationPeriodMilliseconds"
+        const val UTXO_TOKEN_PREFETCH_LEAD_TIME_MILLISECONDS = "tokens.prefetchLeadTimeMilliseconds"
+
+        // The ledger configuration schema does not define the settings above yet, so until it does they are set on the
+        // token selection worker with these system properties instead, for example through its Java options
+        const val CLAIM_STATE_SHARD_COUNT_PROPERTY = "net.corda.ledger.utxo.token.claimStateShardCount"
+        const val BALANCE_RECONCILIATION_PERIOD_MILLISECONDS_PROPERTY =
+            "net.corda.ledger.utxo.token.balanceReconciliationPeriodMilliseconds"
+        const val PREFETCH_LEAD_TIME_MILLISECONDS_PROPERTY = "net.corda.ledger.utxo.token.prefetchLeadTimeMilliseconds"
+
+        private const val DEFAULT_CLAIM_STATE_SHARD_COUNT = 1
+        private const val DEFAULT_BALANCE_RECONCILIATION_PERIOD_MILLISECONDS = 0L
+        private const val DEFAULT_PREFETCH_LEAD_TIME_MILLISECONDS = 0L
+    }
+
     private var config: SmartConfig? = null
 
     override fun init(config: SmartConfig) {
@@ -34,6 +51,28 @@ class ServiceConfigurationImpl : ServiceConfiguration {
     override val dbBackoffMaxPeriod: Duration
         get() = Duration.ofMillis(getLongValue(UTXO_TOKEN_MAX_DB_BACKOFF_PERIOD_MILLISECONDS))
 
+    override val claimStateShardCount: Int
+        get() = config?.takeIf { it.hasPath(UTXO_TOKEN_CLAIM_STATE_SHARD_COUNT) }
+            ?.getInt(UTXO_TOKEN_CLAIM_STATE_SHARD_COUNT)
+            ?: Integer.getInteger(CLAIM_STATE_SHARD_COUNT_PROPERTY, DEFAULT_CLAIM_STATE_SHARD_COUNT)
+
+    override val balanceReconciliationPeriod: Duration
+        get() = Duration.ofMillis(
+            config?.takeIf { it.hasPath(UTXO_TOKEN_BALANCE_RECONCILIATION_PERIOD_MILLISECONDS) }
+                ?.getLong(UTXO_TOKEN_BALANCE_RECONCILIATION_PERIOD_MILLISECONDS)
+                ?: java.lang.Long.getLong(
+                    BALANCE_RECONCILIATION_PERIOD_MILLISECONDS_PROPERTY,
+                    DEFAULT_BALANCE_RECONCILIATION_PERIOD_MILLISECONDS
+                )
+        )
+
+    override val tokenPrefetchLeadTime: Duration
+        get() = Duration.ofMillis(
+            config?.takeIf { it.hasPath(UTXO_TOKEN_PREFETCH_LEAD_TIME_MILLISECONDS) }
+                ?.getLong(UTXO_TOKEN_PREFETCH_LEAD_TIME_MILLISECONDS)
+                ?: java.lang.Long.getLong(PREFETCH_LEAD_TIME_MILLISECONDS_PROPERTY, DEFAULT_PREFETCH_LEAD_TIME_MILLISECONDS)
+        )
+
     private fun getIntValue(name: String): Int {
         return checkNotNull(config?.getInt(name)) { "The token service has not been configured, missing $name." }
     }
@@ -0,0 +1,193 @@
+package net.corda.ledger.utxo.token.cache.services.internal
+
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
+import net.corda.ledger.utxo.token.cache.entities.TokenCache
+import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
+import net.corda.ledger.utxo.token.cache.entities.TokenRemovalLog
+import net.corda.ledger.utxo.token.cache.services.AvailableTokenService
+import net.corda.ledger.utxo.token.cache.services.ServiceConfiguration
+import net.corda.ledger.utxo.token.cache.services.TokenCachePrefetcher
+import net.corda.utilities.time.Clock
+import net.corda.v5.ledger.utxo.token.selection.Strategy
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class TokenCachePrefetcherImpl(
+    private val availableTokenService: AvailableTokenService,
+    private val serviceConfiguration: ServiceConfiguration,
+    private val executor: Executor,
+    private val clock: Clock
+) : TokenCachePrefetcher {
+
+    private companion object {
+        val logger: Logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+
+        // The weight given to the latest claim when updating the average rate at which tokens are claimed
+        const val RATE_SMOOTHING_FACTOR = 0.2
+
+        // A prefetch is always started once the cache holds less than this fraction of a page of tokens
+        const val LOW_WATER_MARK_DIVISOR = 4
+    }
+
+    private data class PrefetchCriteria(
+        val poolKey: TokenPoolKey,
+        val ownerHash: String?,
+        val tagRegex: String?,
+        val strategy: Strategy
+    )
+
+    private class Prefetch(
+        val criteria: PrefetchCriteria,
+        val startTime: Instant,
+        val claimedWhenStarted: Set<String>,
+        val removedSinceStarted: TokenRemovalLog,
+        val result: CompletableFuture<Collection<CachedToken>>
+    )
+
+    private class Demand {
+        var lastClaimTime: Instant? = null
+        var tokensPerSecond = 0.0
+        var prefetch: Prefetch? = null
+    }
+
+    // Calls for one cache are serialised by the lock of the cache, but different caches are handled concurrently
+    private val demandByCache = ConcurrentHashMap<TokenCache, Demand>()
+
+    override fun applyPrefetchedTokens(tokenCache: TokenCache, state: PoolCacheState, claimQuery: ClaimQuery): Boolean {
+        val demand = demandByCache[tokenCache] ?: return false
+        val prefetch = demand.prefetch ?: return false
+        if (!prefetch.result.isDone) {
+            return false
+        }
+
+        discard(tokenCache, demand)
+        if (!isUsable(prefetch, claimQuery)) {
+            return false
+        }
+
+        // Tokens consumed, or claimed and released as spent, while the query was running are removed from the cache
+        // and recorded in the removal log. Anything claimed before or after the prefetch started is also left out.
+        val tokens = prefetch.result.get().filterNot {
+            it.stateRef in prefetch.claimedWhenStarted ||
+                it.stateRef in prefetch.removedSinceStarted.stateRefs ||
+                state.isTokenClaimed(it.stateRef)
+        }
+
+        tokenCache.removeAll()
+        tokenCache.add(tokens, prefetch.criteria.strategy)
+        return true
+    }
+
+    override fun onTokensClaimed(
+        tokenCache: TokenCache,
+        state: PoolCacheState,
+        claimQuery: ClaimQuery,
+        claimedTokenCount: Int
+    ) {
+        val demand = demandByCache.computeIfAbsent(tokenCache) { Demand() }
+        updateClaimRate(demand, claimedTokenCount)
+
+        if (demand.prefetch != null || !isRunningDry(tokenCache, demand)) {
+            return
+        }
+
+        startPrefetch(tokenCache, demand, state, claimQuery)
+    }
+
+    override fun cancel(tokenCache: TokenCache) {
+        demandByCache[tokenCache]?.let { discard(tokenCache, it) }
+    }
+
+    private fun discard(tokenCache: TokenCache, demand: Demand) {
+        demand.prefetch?.let { tokenCache.stopRemovalLog(it.removedSinceStarted) }
+        demand.prefetch = null
+    }
+
+    /**
+     * A prefetch is only used for a claim with the same criteria, while the removal log is still valid, and only
+     * within the cache expiry period of it being started, as it does not reflect any tokens produced since.
+     */
+    private fun isUsable(prefetch: Prefetch, claimQuery: ClaimQuery): Boolean {
+        val expiryTime = prefetch.startTime.plus(serviceConfiguration.tokenCacheExpiryPeriod)
+        return !prefetch.result.isCompletedExceptionally &&
+            prefetch.criteria == claimQuery.toPrefetchCriteria() &&
+            prefetch.removedSinceStarted.isValid &&
+            clock.instant() <= expiryTime
+    }
+
+    private fun updateClaimRate(demand: Demand, claimedTokenCount: Int) {
+        val now = clock.instant()
+        val lastClaimTime = demand.lastClaimTime
+        if (lastClaimTime != null) {
+            val elapsedSeconds = Duration.between(lastClaimTime, now).toMillis().coerceAtLeast(1) / 1000.0
+            val latestRate = claimedTokenCount / elapsedSeconds
+            demand.tokensPerSecond = RATE_SMOOTHING_FACTOR * latestRate + (1 - RATE_SMOOTHING_FACTOR) * demand.tokensPerSecond
+        }
+        demand.lastClaimTime = now
+    }
+
+    private fun isRunningDry(tokenCache: TokenCache, demand: Demand): Boolean {
+        val remainingTokens = tokenCache.size
+        if (remainingTokens < serviceConfiguration.cachedTokenPageSize / LOW_WATER_MARK_DIVISOR) {
+            return true
+        }
+
+        if (demand.tokensPerSecond <= 0.0) {
+            return false
+        }
+
+        val millisRemaining = remainingTokens / demand.tokensPerSecond * 1000
+        return millisRemaining < serviceConfiguration.tokenPrefetchLeadTime.toMillis()
+    }
+
+    private fun startPrefetch(tokenCache: TokenCache, demand: Demand, state: PoolCacheState, claimQuery: ClaimQuery) {
+        val criteria = claimQuery.toPrefetchCriteria()
+        val claimedTokens = state.claimedTokens()
+        val maxTokens = serviceConfiguration.cachedTokenPageSize + claimedTokens.size
+        val startTime = clock.instant()
+
+        val result = try {
+            CompletableFuture.supplyAsync(
+                {
+                    availableTokenService.findAvailTokens(
+                        criteria.poolKey,
+                        criteria.ownerHash,
+                        criteria.tagRegex,
+                        maxTokens,
+                        criteria.strategy
+                    ).tokens
+                },
+                executor
+            )
+        } catch (e: RejectedExecutionException) {
+            logger.debug("Token prefetch for pool ${criteria.poolKey} skipped, too many prefetches in progress")
+            return
+        }
+
+        result.whenComplete { _, exception ->
+            if (exception != null) {
+                logger.warn("Token prefetch for pool ${criteria.poolKey} failed", exception)
+            }
+        }
+
+        // Once more tokens have been removed than the query can return the result is too stale to be worth using
+        demand.prefetch = Prefetch(
+            criteria,
+            startTime,
+            claimedTokens.mapTo(mutableSetOf()) { it.stateRef },
+            tokenCache.startRemovalLog(maxTokens),
+            result
+        )
+    }
+
+    private fun ClaimQuery.toPrefetchCriteria() =
+        PrefetchCriteria(poolKey, ownerHash, tagRegex, strategy ?: Strategy.RANDOM)
+}
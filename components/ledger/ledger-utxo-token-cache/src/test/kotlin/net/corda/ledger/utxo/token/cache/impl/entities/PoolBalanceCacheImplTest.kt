@@ -0,0 +1,121 @@
+package net.corda.ledger.utxo.token.cache.impl.entities
+
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.TokenBalanceKey
+import net.corda.ledger.utxo.token.cache.entities.internal.PoolBalanceCacheImpl
+import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
+import net.corda.test.util.time.AutoTickTestClock
+import net.corda.test.util.time.TestClock
+import net.corda.utilities.seconds
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.whenever
+import java.math.BigDecimal
+import java.time.Instant
+
+class PoolBalanceCacheImplTest {
+
+    private val balances = mapOf(
+        TokenBalanceKey("h1", "t1") to BigDecimal(10),
+        TokenBalanceKey("h1", "t2") to BigDecimal(20),
+        TokenBalanceKey("h2", "t1") to BigDecimal(30),
+        TokenBalanceKey("h2", null) to BigDecimal(40)
+    )
+    private var loadCount = 0
+    private val loadBalances = {
+        loadCount++
+        balances
+    }
+
+    private val target = PoolBalanceCacheImpl(10.seconds, AutoTickTestClock(Instant.EPOCH, 1.seconds))
+
+    @Test
+    fun `balances are filtered by owner and tag`() {
+        assertThat(target.getTotalBalance(POOL_KEY, null, null, loadBalances)).isEqualTo(BigDecimal(100))
+        assertThat(target.getTotalBalance(POOL_KEY, "h1", null, loadBalances)).isEqualTo(BigDecimal(30))
+        assertThat(target.getTotalBalance(POOL_KEY, null, "t1", loadBalances)).isEqualTo(BigDecimal(40))
+        assertThat(target.getTotalBalance(POOL_KEY, "h2", "t1", loadBalances)).isEqualTo(BigDecimal(30))
+        assertThat(target.getTotalBalance(POOL_KEY, "h3", null, loadBalances)).isEqualTo(BigDecimal.ZERO)
+    }
+
+    @Test
+    fun `balances are only loaded once within the reconciliation period`() {
+        repeat(5) { target.getTotalBalance(POOL_KEY, null, null, loadBalances) }
+
+        assertThat(loadCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `balances are reloaded once the reconciliation period has passed`() {
+        val target = PoolBalanceCacheImpl(2.seconds, AutoTickTestClock(Instant.EPOCH, 1.seconds))
+
+        repeat(4) { target.getTotalBalance(POOL_KEY, null, null, loadBalances) }
+
+        assertThat(loadCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `ledger changes update the cached balances`() {
+        target.getTotalBalance(POOL_KEY, null, null, loadBalances)
+
+        target.applyLedgerChange(
+            POOL_KEY,
+            listOf(createToken("h1", "t1", 10), createToken("h2", "t1", 5)),
+            listOf(createToken("h1", "t3", 7))
+        )
+
+        assertThat(target.getTotalBalance(POOL_KEY, "h1", null, loadBalances)).isEqualTo(BigDecimal(27))
+        assertThat(target.getTotalBalance(POOL_KEY, null, "t1", loadBalances)).isEqualTo(BigDecimal(25))
+        assertThat(loadCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `ledger changes are ignored when the pool balances are not cached`() {
+        target.applyLedgerChange(POOL_KEY, listOf(), listOf(createToken("h1", "t1", 10)))
+
+        assertThat(target.getTotalBalance(POOL_KEY, null, null, loadBalances)).isEqualTo(BigDecimal(100))
+    }
+
+    @Test
+    fun `ledger changes applied while reconciling are applied to the reconciled balances`() {
+        val clock = TestClock(Instant.EPOCH)
+        val target = PoolBalanceCacheImpl(10.seconds, clock)
+        target.getTotalBalance(POOL_KEY, null, null, loadBalances)
+        clock.setTime(Instant.EPOCH.plusSeconds(10))
+
+        // The second load is a reconciliation, the ledger change is applied after the balances have been read
+        val reconcileWithInterleavedChange = {
+            val loaded = loadBalances()
+            target.applyLedgerChange(POOL_KEY, listOf(createToken("h1", "t1", 10)), listOf(createToken("h3", "t1", 5)))
+            loaded
+        }
+        target.getTotalBalance(POOL_KEY, null, null, reconcileWithInterleavedChange)
+
+        assertThat(loadCount).isEqualTo(2)
+        assertThat(target.getTotalBalance(POOL_KEY, null, null, loadBalances)).isEqualTo(BigDecimal(95))
+        assertThat(target.getTotalBalance(POOL_KEY, "h1", null, loadBalances)).isEqualTo(BigDecimal(20))
+        assertThat(target.getTotalBalance(POOL_KEY, "h3", null, loadBalances)).isEqualTo(BigDecimal(5))
+    }
+
+    @Test
+    fun `ledger changes applied while first loading are applied to the loaded balances`() {
+        val loadWithInterleavedChange = {
+            val loaded = loadBalances()
+            target.applyLedgerChange(POOL_KEY, listOf(createToken("h2", "t1", 30)), listOf())
+            loaded
+        }
+
+        assertThat(target.getTotalBalance(POOL_KEY, null, "t1", loadWithInterleavedChange)).isEqualTo(BigDecimal(10))
+        assertThat(target.getTotalBalance(POOL_KEY, null, null, loadBalances)).isEqualTo(BigDecimal(70))
+        assertThat(loadCount).isEqualTo(1)
+    }
+
+    private fun createToken(ownerHash: String?, tag: String?, amount: Int): CachedToken {
+        return mock<CachedToken>().apply {
+            whenever(this.ownerHash).thenReturn(ownerHash)
+            whenever(this.tag).thenReturn(tag)
+            whenever(this.amount).thenReturn(BigDecimal(amount))
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package net.corda.ledger.utxo.token.cache.impl.entities
 
 import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
 import net.corda.ledger.utxo.token.cache.entities.TokenCache
 import net.corda.ledger.utxo.token.cache.entities.internal.TokenCacheImpl
+import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
 import net.corda.test.util.time.AutoTickTestClock
 import net.corda.utilities.millis
 import net.corda.utilities.seconds
@@ -14,7 +16,10 @@ import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.EnumSource
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.whenever
+import java.math.BigDecimal
 import java.time.Instant
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
 
 class TokenCacheImplTest {
 
@@ -114,4 +119,124 @@ class TokenCacheImplTest {
         assertThat(target.get(strategy).toList()).containsOnly(cachedToken1, cachedToken2, cachedToken3)
         assertThat(target.get(strategy).toList()).isEmpty()
     }
+
+    @ParameterizedTest
+    @EnumSource(Strategy::class)
+    fun `filtering by owner only returns tokens for that owner`(strategy: Strategy) {
+        val token1 = createToken("s1", "t1", "h1")
+        val token2 = createToken("s2", "t2", "h2")
+        val token3 = createToken("s3", "t3", "h1")
+        target.add(listOf(token1, token2, token3), strategy)
+
+        assertThat(target.get(strategy, createFilter(null, "h1")).toList()).containsExactly(token1, token3)
+        assertThat(target.get(strategy, createFilter(null, "h3")).toList()).isEmpty()
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy::class)
+    fun `filtering by tag only returns tokens with a matching tag`(strategy: Strategy) {
+        val token1 = createToken("s1", "t1", "h1")
+        val token2 = createToken("s2", "t2 t1 t3", "h2")
+        val token3 = createToken("s3", "t4", null)
+        val token4 = createToken("s4", null, "h1")
+        target.add(listOf(token1, token2, token3, token4), strategy)
+
+        assertThat(target.get(strategy, createFilter("(t1)", null)).toList()).containsOnly(token1, token2)
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy::class)
+    fun `filtering by owner and tag only returns tokens matching both`(strategy: Strategy) {
+        val token1 = createToken("s1", "t1", "h1")
+        val token2 = createToken("s2", "t2", "h1")
+        val token3 = createToken("s3", "t2", "h2")
+        target.add(listOf(token1, token2, token3), strategy)
+
+        assertThat(target.get(strategy, createFilter("t2", "h1")).toList()).containsExactly(token2)
+    }
+
+    @Test
+    fun `filtering by tag keeps the order the tokens were added in for the priority strategy`() {
+        val token1 = createToken("s1", "a", "h1")
+        val token2 = createToken("s2", "b", "h1")
+        val token3 = createToken("s3", "a", "h1")
+        val token4 = createToken("s4", "b", "h1")
+        target.add(listOf(token1, token2, token3, token4), Strategy.PRIORITY)
+
+        assertThat(target.get(Strategy.PRIORITY, createFilter("a|b", null)).toList())
+            .containsExactly(token1, token2, token3, token4)
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy::class)
+    fun `removed tokens are removed from the indexes`(strategy: Strategy) {
+        val token1 = createToken("s1", "t1", "h1")
+        val token2 = createToken("s2", "t1", "h1")
+        target.add(listOf(token1, token2), strategy)
+
+        target.removeAll(setOf("s1"))
+        assertThat(target.get(strategy, createFilter("t1", "h1")).toList()).containsExactly(token2)
+
+        target.removeAll()
+        assertThat(target.get(strategy, createFilter("t1", null)).toList()).isEmpty()
+        assertThat(target.get(strategy, createFilter(null, "h1")).toList()).isEmpty()
+    }
+
+    @Test
+    fun `no filtered tokens are returned if different strategy is used`() {
+        target.add(listOf(createToken("s1", "t1", "h1")), Strategy.RANDOM)
+
+        assertThat(target.get(Strategy.PRIORITY, createFilter("t1", "h1")).toList()).isEmpty()
+    }
+
+    @Test
+    fun `removal logs record removed tokens until stopped`() {
+        target.add(listOf(cachedToken1, cachedToken2), Strategy.RANDOM)
+        val removalLog = target.startRemovalLog(10)
+
+        target.removeAll(setOf("s1", "s3"))
+        target.stopRemovalLog(removalLog)
+        target.removeAll(setOf("s2"))
+
+        assertThat(removalLog.isValid).isTrue
+        assertThat(removalLog.stateRefs).containsExactlyInAnyOrder("s1", "s3")
+    }
+
+    @Test
+    fun `removal logs are invalidated when the cache is emptied or the limit is exceeded`() {
+        val emptiedLog = target.startRemovalLog(10)
+        val limitedLog = target.startRemovalLog(1)
+
+        target.removeAll(setOf("s1", "s2"))
+        assertThat(limitedLog.isValid).isFalse
+        assertThat(emptiedLog.isValid).isTrue
+
+        target.removeAll()
+        assertThat(emptiedLog.isValid).isFalse
+        assertThat(emptiedLog.stateRefs).isEmpty()
+    }
+
+    @Test
+    fun `the lock of the cache is released while running a block without it`() {
+        target.add(listOf(cachedToken1, cachedToken2), Strategy.RANDOM)
+
+        target.withLock {
+            target.withoutLock {
+                // Another thread can use the cache meanwhile
+                CompletableFuture.runAsync { target.withLock { target.removeAll(setOf("s1")) } }.get(10, TimeUnit.SECONDS)
+            }
+            assertThat(target.get(Strategy.RANDOM).toList()).containsOnly(cachedToken2)
+        }
+    }
+
+    private fun createFilter(tagRegex: String?, ownerHash: String?) =
+        ClaimQuery("r1", "f1", BigDecimal(1), tagRegex, ownerHash, POOL_KEY, null)
+
+    private fun createToken(stateRef: String, tag: String?, ownerHash: String?): CachedToken {
+        return mock<CachedToken>().apply {
+            whenever(this.stateRef).thenReturn(stateRef)
+            whenever(this.tag).thenReturn(tag)
+            whenever(this.ownerHash).thenReturn(ownerHash)
+        }
+    }
 }
@@ -49,6 +49,7 @@ class TokenBalanceQueryEventHandlerTest {
     @BeforeEach
     fun setup() {
         whenever(tokenCache.get(any())).doAnswer { cachedTokens }
+        whenever(tokenCache.withoutLock<Any?>(any())).doAnswer { it.getArgument<() -> Any?>(0)() }
         whenever(poolCacheState.claimedTokens()).doAnswer { emptyList() }
     }
 
@@ -7,6 +7,7 @@ import net.corda.ledger.utxo.token.cache.entities.CachedToken
 import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
 import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
 import net.corda.ledger.utxo.token.cache.entities.TokenCache
+import net.corda.ledger.utxo.token.cache.entities.TokenRemovalLog
 import net.corda.ledger.utxo.token.cache.factories.RecordFactory
 import net.corda.ledger.utxo.token.cache.handlers.TokenClaimQueryEventHandler
 import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
@@ -68,7 +69,9 @@ class TokenClaimQueryEventHandlerTest {
 
     @BeforeEach
     fun setup() {
-        whenever(filterStrategy.filterTokens(any(), any())).doAnswer { cachedTokens.toList() }
+        whenever(filterStrategy.filterTokens(any<TokenCache>(), any(), any())).doAnswer { cachedTokens.toList() }
+        whenever(tokenCache.startRemovalLog(any())).doAnswer { TokenRemovalLog(it.getArgument(0)) }
+        whenever(tokenCache.withoutLock<Any?>(any())).doAnswer { it.getArgument<() -> Any?>(0)() }
     }
 
     @Test
@@ -1,5 +1,7 @@
 package net.corda.ledger.utxo.token.cache.impl.services
 
+import net.corda.data.ledger.utxo.token.selection.data.TokenClaim
+import net.corda.data.ledger.utxo.token.selection.state.TokenPoolCacheState
 import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
 import net.corda.ledger.utxo.token.cache.services.ClaimStateStore
 import net.corda.ledger.utxo.token.cache.services.ClaimStateStoreCacheImpl
@@ -9,9 +11,11 @@ import org.junit.jupiter.api.Test
 import org.mockito.kotlin.any
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
+import java.util.concurrent.CompletableFuture
 
 class ClaimStateStoreCacheImplTest {
     private val claimStateStoreFactory = mock<ClaimStateStoreFactory>()
@@ -20,29 +24,111 @@ class ClaimStateStoreCacheImplTest {
     @Test
     fun `get when no existing state in store then create default state`() {
         val newClaimStateStore = mock<ClaimStateStore>()
-        whenever(claimStateStoreFactory.create(any())).thenReturn(newClaimStateStore)
+        whenever(claimStateStoreFactory.create(any(), any())).thenReturn(newClaimStateStore)
 
-        val result = claimStateStoreCache.get(POOL_KEY)
+        val result = claimStateStoreCache.get(POOL_KEY, 0)
         assertThat(result).isEqualTo(newClaimStateStore)
 
-        verify(claimStateStoreFactory).create(eq(POOL_KEY))
+        verify(claimStateStoreFactory).create(eq(POOL_KEY), eq(0))
     }
 
     @Test
     fun `get when existing cached used cached version`() {
         val newClaimStateStore = mock<ClaimStateStore>()
-        whenever(claimStateStoreFactory.create(any())).thenReturn(newClaimStateStore)
+        whenever(claimStateStoreFactory.create(any(), any())).thenReturn(newClaimStateStore)
 
         // The claim state store is created
-        val result1 = claimStateStoreCache.get(POOL_KEY)
+        val result1 = claimStateStoreCache.get(POOL_KEY, 0)
         // The previous created claim state store is retrieved
-        val result2 = claimStateStoreCache.get(POOL_KEY)
+        val result2 = claimStateStoreCache.get(POOL_KEY, 0)
 
         // Ensure the claim state store are all the same
         assertThat(result1).isEqualTo(newClaimStateStore)
         assertThat(result2).isSameAs(result1)
 
         // Ensure that the claim state was only created once
-        verify(claimStateStoreFactory, times(1)).create(any())
+        verify(claimStateStoreFactory, times(1)).create(any(), any())
+    }
+
+    @Test
+    fun `shard router uses the recorded shard count when it is the configured one`() {
+        val firstShard = createClaimStateStore(0, recordedShardCount = 4)
+        val target = ClaimStateStoreCacheImpl(claimStateStoreFactory, 4)
+
+        assertThat(target.shardRouter(POOL_KEY).shardCount).isEqualTo(4)
+        verify(firstShard, never()).recordShardCount(any())
+    }
+
+    @Test
+    fun `shard router records the configured shard count when the pool has no claims`() {
+        val firstShard = createClaimStateStore(0, recordedShardCount = 2)
+        createClaimStateStore(1)
+        whenever(firstShard.recordShardCount(4)).thenReturn(CompletableFuture.completedFuture(true))
+        val target = ClaimStateStoreCacheImpl(claimStateStoreFactory, 4)
+
+        assertThat(target.shardRouter(POOL_KEY).shardCount).isEqualTo(4)
+        verify(firstShard).recordShardCount(4)
+    }
+
+    @Test
+    fun `shard router keeps the recorded shard count while the pool has claims`() {
+        val firstShard = createClaimStateStore(0, recordedShardCount = 2)
+        createClaimStateStore(1, createClaim("c1"))
+        val target = ClaimStateStoreCacheImpl(claimStateStoreFactory, 4)
+
+        assertThat(target.shardRouter(POOL_KEY).shardCount).isEqualTo(2)
+        verify(firstShard, never()).recordShardCount(any())
+    }
+
+    @Test
+    fun `shard router keeps the recorded shard count when the configured one cannot be recorded`() {
+        val firstShard = createClaimStateStore(0, recordedShardCount = 2)
+        createClaimStateStore(1)
+        whenever(firstShard.recordShardCount(4)).thenReturn(CompletableFuture.completedFuture(false))
+        val target = ClaimStateStoreCacheImpl(claimStateStoreFactory, 4)
+
+        assertThat(target.shardRouter(POOL_KEY).shardCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `shard router is resolved once for each pool`() {
+        val firstShard = createClaimStateStore(0)
+        whenever(firstShard.recordShardCount(4)).thenReturn(CompletableFuture.completedFuture(true))
+        val target = ClaimStateStoreCacheImpl(claimStateStoreFactory, 4)
+
+        val router = target.shardRouter(POOL_KEY)
+        // A claim made after the shard count was resolved does not change it
+        whenever(firstShard.currentState()).thenReturn(createPoolState(createClaim("c1")))
+
+        assertThat(target.shardRouter(POOL_KEY)).isSameAs(router)
+        verify(firstShard, times(1)).recordShardCount(4)
+    }
+
+    private fun createClaimStateStore(
+        shard: Int,
+        vararg claims: TokenClaim,
+        recordedShardCount: Int = 1
+    ): ClaimStateStore {
+        val claimStateStore = mock<ClaimStateStore>().apply {
+            whenever(shardCount).thenReturn(recordedShardCount)
+            whenever(currentState()).thenReturn(createPoolState(*claims))
+        }
+        whenever(claimStateStoreFactory.create(POOL_KEY, shard)).thenReturn(claimStateStore)
+        return claimStateStore
+    }
+
+    private fun createClaim(claimId: String): TokenClaim {
+        return TokenClaim.newBuilder()
+            .setClaimId(claimId)
+            .setClaimedTokens(listOf())
+            .build()
+    }
+
+    private fun createPoolState(vararg claims: TokenClaim): TokenPoolCacheState {
+        return TokenPoolCacheState.newBuilder()
+            .setPoolKey(POOL_KEY.toAvro())
+            .setAvailableTokens(listOf())
+            .setTokenClaims(claims.toList())
+            .build()
     }
 }
@@ -145,6 +145,21 @@ class PerformanceClaimStateStoreImplTest {
         println("Instance B  Failures: $instanceBFailCount")
     }
 
+    @Test
+    fun `recorded shard count is kept with the state`() {
+        val stateManager = StateManagerSimulator().apply {
+            this.create(listOf(baseState))
+        }
+        val target = createTarget(stateManager)
+        assertThat(target.shardCount).isEqualTo(1)
+
+        assertThat(target.recordShardCount(4).get()).isTrue
+        assertThat(target.enqueueRequest { it }.get()).isTrue
+
+        assertThat(target.shardCount).isEqualTo(4)
+        assertThat(createTarget(stateManager).shardCount).isEqualTo(4)
+    }
+
     private fun createTokenClaim(claimId: String): TokenClaim {
         return TokenClaim.newBuilder()
             .setClaimId(claimId)
@@ -155,7 +170,7 @@ class PerformanceClaimStateStoreImplTest {
     private fun createTarget(
         sm: StateManager
     ): PerformanceClaimStateStoreImpl {
-        return PerformanceClaimStateStoreImpl(POOL_KEY, serialization, sm, tokenPoolCacheManager, clock)
+        return PerformanceClaimStateStoreImpl(POOL_KEY, 0, serialization, sm, tokenPoolCacheManager, clock)
     }
 
     class StateManagerSimulator(private val updateSleepTime: Long = 0) : StateManager {
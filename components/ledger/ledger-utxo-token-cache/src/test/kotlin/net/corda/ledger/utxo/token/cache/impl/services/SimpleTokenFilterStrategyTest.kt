@@ -56,6 +56,14 @@ class SimpleTokenFilterStrategyTest {
         assertThat(target.filterTokens(inputTokens, query)).containsOnly(token2)
     }
 
+    @Test
+    fun `owner hash and tag should match the tokens of a cache`() {
+        val tokenCache = TokenCacheImpl(Duration.ZERO, UTCClock()).apply { add(inputTokens, Strategy.RANDOM) }
+        val query = ClaimQuery("r1", "f1", BigDecimal(1), "t1", "h1", POOL_KEY, null)
+
+        assertThat(target.filterTokens(tokenCache, Strategy.RANDOM, query)).containsOnly(token1, token2)
+    }
+
     private fun createToken(stateRef: String, tag: String?, ownerHash: String?): CachedToken {
         return mock<CachedToken>().apply {
             whenever(this.stateRef).thenReturn(stateRef)
@@ -1,32 +1,58 @@
 package net.corda.ledger.utxo.token.cache.impl.services
 
 import net.corda.data.flow.event.FlowEvent
+import net.corda.ledger.utxo.token.cache.entities.AvailTokenQueryResult
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
 import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
 import net.corda.ledger.utxo.token.cache.entities.TokenEvent
 import net.corda.ledger.utxo.token.cache.entities.TokenPoolKey
 import net.corda.ledger.utxo.token.cache.entities.internal.TokenPoolCacheImpl
+import net.corda.ledger.utxo.token.cache.factories.RecordFactory
+import net.corda.ledger.utxo.token.cache.handlers.TokenClaimQueryEventHandler
 import net.corda.ledger.utxo.token.cache.handlers.TokenEventHandler
 import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
+import net.corda.ledger.utxo.token.cache.services.AvailableTokenService
+import net.corda.ledger.utxo.token.cache.services.ServiceConfiguration
+import net.corda.ledger.utxo.token.cache.services.SimpleTokenFilterStrategy
 import net.corda.ledger.utxo.token.cache.services.TokenPoolCacheManager
 import net.corda.messaging.api.records.Record
 import net.corda.utilities.time.UTCClock
+import net.corda.v5.ledger.utxo.token.selection.Strategy
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
+import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.inOrder
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
+import java.math.BigDecimal
 import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 class TokenCacheEventProcessorTest {
 
+    private companion object {
+        const val PAGE_SIZE = 100
+    }
+
     private val mockHandler = mock<TokenEventHandler<FakeTokenEvent>>()
     private val tokenCacheEventHandlerMap = mutableMapOf<Class<*>, TokenEventHandler<in TokenEvent>>()
     private val event = FakeTokenEvent()
     private val tokenPoolCache = TokenPoolCacheImpl(Duration.ZERO, UTCClock())
     private val cachePoolState = mock<PoolCacheState>()
+    private val recordFactory = mock<RecordFactory>()
+    private val availableTokenService = mock<AvailableTokenService>()
+    private val serviceConfiguration = mock<ServiceConfiguration>().apply {
+        whenever(cachedTokenPageSize).thenReturn(PAGE_SIZE)
+    }
 
     @BeforeEach
     fun setup() {
@@ -65,6 +91,119 @@ class TokenCacheEventProcessorTest {
         inOrder.verify(mockHandler).handle(any(), any(), any())
     }
 
+    @Test
+    fun `a claim on any shard is satisfied by the tokens of the whole pool`() {
+        val tokens = (1..4).map { createToken("s$it") }
+        tokenPoolCache.get(POOL_KEY).add(tokens, Strategy.RANDOM)
+        whenever(recordFactory.getSuccessfulClaimResponse(any(), any(), any(), any())).thenReturn(Record("", "", FlowEvent()))
+
+        createClaimingTokenPoolCacheManager().processEvent(cachePoolState, createClaimQuery(40)) { emptyList() }
+
+        verify(cachePoolState).addNewClaim("c1", tokens)
+        verify(availableTokenService, never()).findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any())
+    }
+
+    @Test
+    fun `tokens claimed by other shards of the pool are not claimed again`() {
+        val tokens = (1..4).map { createToken("s$it") }
+        tokenPoolCache.get(POOL_KEY).add(tokens, Strategy.RANDOM)
+        whenever(recordFactory.getSuccessfulClaimResponse(any(), any(), any(), any())).thenReturn(Record("", "", FlowEvent()))
+
+        createClaimingTokenPoolCacheManager().processEvent(cachePoolState, createClaimQuery(20)) { tokens.take(2) }
+
+        verify(cachePoolState).addNewClaim("c1", tokens.drop(2))
+    }
+
+    @Test
+    fun `a shortfall across the shards of a pool queries the tokens of the pool once`() {
+        val tokens = (1..4).map { createToken("s$it") }
+        tokenPoolCache.get(POOL_KEY).add(tokens, Strategy.RANDOM)
+        whenever(availableTokenService.findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any()))
+            .thenReturn(AvailTokenQueryResult(POOL_KEY, tokens.toSet()))
+        whenever(recordFactory.getFailedClaimResponse(any(), any(), any())).thenReturn(Record("", "", FlowEvent()))
+
+        createClaimingTokenPoolCacheManager().processEvent(cachePoolState, createClaimQuery(30)) { tokens.take(2) }
+
+        // The page of tokens queried is not scaled by the number of shards, only by the tokens already claimed
+        verify(availableTokenService).findAvailTokens(POOL_KEY, null, null, PAGE_SIZE + 2, Strategy.RANDOM)
+        verify(recordFactory).getFailedClaimResponse("f1", "c1", POOL_KEY)
+        verify(cachePoolState, never()).addNewClaim(any(), any())
+    }
+
+    @Test
+    fun `a shard claims from the cache of the pool while another shard of the pool queries the tokens of the pool`() {
+        val tokens = (1..7).map { createToken("s$it") }
+        tokenPoolCache.get(POOL_KEY).add(tokens.take(4), Strategy.RANDOM)
+        val queryStarted = CountDownLatch(1)
+        val queryReleased = CountDownLatch(1)
+        whenever(availableTokenService.findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any())).doAnswer {
+            queryStarted.countDown()
+            queryReleased.await(10, TimeUnit.SECONDS)
+            AvailTokenQueryResult(POOL_KEY, tokens.toSet())
+        }
+        whenever(recordFactory.getSuccessfulClaimResponse(any(), any(), any(), any())).thenReturn(Record("", "", FlowEvent()))
+        val tokenPoolCacheManager = createClaimingTokenPoolCacheManager()
+        val firstShardState = mock<PoolCacheState>()
+        val secondShardState = mock<PoolCacheState>()
+
+        // The claim on the first shard falls short of the cached tokens and queries the tokens of the pool
+        val firstShardClaim = CompletableFuture.supplyAsync {
+            tokenPoolCacheManager.processEvent(firstShardState, createClaimQuery(50, "c1"), 0)
+        }
+        assertThat(queryStarted.await(10, TimeUnit.SECONDS)).isTrue
+
+        // The second shard is not held up by the query
+        tokenPoolCacheManager.processEvent(secondShardState, createClaimQuery(20, "c2"), 1)
+        verify(secondShardState).addNewClaim("c2", tokens.take(2))
+
+        // The tokens claimed by the second shard while the query ran are left out of its result
+        queryReleased.countDown()
+        firstShardClaim.get(10, TimeUnit.SECONDS)
+        verify(firstShardState).addNewClaim("c1", tokens.drop(2))
+    }
+
+    @Test
+    fun `tokens claimed by another shard of the pool are not claimed again before its claim state is stored`() {
+        val tokens = (1..4).map { createToken("s$it") }
+        tokenPoolCache.get(POOL_KEY).add(tokens, Strategy.RANDOM)
+        whenever(recordFactory.getSuccessfulClaimResponse(any(), any(), any(), any())).thenReturn(Record("", "", FlowEvent()))
+        val tokenPoolCacheManager = createClaimingTokenPoolCacheManager()
+        val firstShardState = mock<PoolCacheState>()
+        val secondShardState = mock<PoolCacheState>()
+        tokenPoolCacheManager.processEvent(firstShardState, createClaimQuery(20, "c1"), 0) { emptyList() }
+        whenever(firstShardState.claimedTokens()).thenReturn(tokens.take(2))
+
+        // The claimed tokens are cached again, as by a query of the tokens of the pool, while the claim of the first
+        // shard is not stored yet
+        tokenPoolCache.get(POOL_KEY).add(tokens, Strategy.RANDOM)
+        tokenPoolCacheManager.processEvent(secondShardState, createClaimQuery(20, "c2"), 1) { emptyList() }
+
+        verify(secondShardState).addNewClaim("c2", tokens.drop(2))
+    }
+
+    private fun createClaimingTokenPoolCacheManager(): TokenPoolCacheManager {
+        @Suppress("unchecked_cast")
+        tokenCacheEventHandlerMap[ClaimQuery::class.java] = TokenClaimQueryEventHandler(
+            SimpleTokenFilterStrategy(),
+            recordFactory,
+            availableTokenService,
+            serviceConfiguration,
+            mock()
+        ) as TokenEventHandler<in TokenEvent>
+        return createTokenPoolCacheManager()
+    }
+
+    private fun createClaimQuery(targetAmount: Int, claimId: String = "c1"): ClaimQuery {
+        return ClaimQuery(claimId, "f1", BigDecimal(targetAmount), null, null, POOL_KEY, null)
+    }
+
+    private fun createToken(stateRef: String): CachedToken {
+        return mock<CachedToken>().apply {
+            whenever(this.stateRef).thenReturn(stateRef)
+            whenever(amount).thenReturn(BigDecimal.TEN)
+        }
+    }
+
     private fun createTokenPoolCacheManager(): TokenPoolCacheManager {
         return TokenPoolCacheManager(
             tokenPoolCache,
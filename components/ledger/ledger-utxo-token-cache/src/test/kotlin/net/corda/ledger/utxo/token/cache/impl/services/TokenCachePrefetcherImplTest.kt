@@ -0,0 +1,178 @@
+package net.corda.ledger.utxo.token.cache.impl.services
+
+import net.corda.ledger.utxo.token.cache.entities.AvailTokenQueryResult
+import net.corda.ledger.utxo.token.cache.entities.CachedToken
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.PoolCacheState
+import net.corda.ledger.utxo.token.cache.entities.TokenCache
+import net.corda.ledger.utxo.token.cache.entities.TokenRemovalLog
+import net.corda.ledger.utxo.token.cache.entities.internal.TokenCacheImpl
+import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
+import net.corda.ledger.utxo.token.cache.services.AvailableTokenService
+import net.corda.ledger.utxo.token.cache.services.ServiceConfiguration
+import net.corda.ledger.utxo.token.cache.services.internal.TokenCachePrefetcherImpl
+import net.corda.test.util.time.AutoTickTestClock
+import net.corda.test.util.time.TestClock
+import net.corda.utilities.millis
+import net.corda.utilities.seconds
+import net.corda.v5.ledger.utxo.token.selection.Strategy
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
+import org.mockito.kotlin.eq
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+import java.math.BigDecimal
+import java.time.Instant
+import java.util.concurrent.Executor
+
+class TokenCachePrefetcherImplTest {
+
+    private val token1 = createToken("s1")
+    private val token2 = createToken("s2")
+    private val token3 = createToken("s3")
+
+    private val availableTokenService = mock<AvailableTokenService>()
+    private val serviceConfiguration = mock<ServiceConfiguration>().apply {
+        whenever(cachedTokenPageSize).thenReturn(100)
+        whenever(tokenPrefetchLeadTime).thenReturn(1.seconds)
+        whenever(tokenCacheExpiryPeriod).thenReturn(10.seconds)
+    }
+    private val tokenCache = mock<TokenCache>().apply {
+        whenever(startRemovalLog(any())).thenAnswer { TokenRemovalLog(it.getArgument(0)) }
+    }
+    private val state = mock<PoolCacheState>()
+    private val claimQuery = ClaimQuery("c1", "f1", BigDecimal(1), null, null, POOL_KEY, Strategy.RANDOM)
+    private val directExecutor = Executor { it.run() }
+
+    private val target = TokenCachePrefetcherImpl(
+        availableTokenService,
+        serviceConfiguration,
+        directExecutor,
+        AutoTickTestClock(Instant.EPOCH, 100.millis)
+    )
+
+    @BeforeEach
+    fun setup() {
+        whenever(availableTokenService.findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any()))
+            .thenReturn(AvailTokenQueryResult(POOL_KEY, listOf(token1, token2, token3)))
+        whenever(state.claimedTokens()).thenReturn(listOf())
+    }
+
+    @Test
+    fun `no prefetch is started while the cache holds enough tokens`() {
+        whenever(tokenCache.size).thenReturn(1000)
+
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        verify(availableTokenService, never()).findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any())
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isFalse
+    }
+
+    @Test
+    fun `a prefetch is started when the cache falls below the low water mark`() {
+        whenever(tokenCache.size).thenReturn(10)
+
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        verify(availableTokenService).findAvailTokens(eq(POOL_KEY), eq(null), eq(null), eq(100), eq(Strategy.RANDOM))
+    }
+
+    @Test
+    fun `a prefetch is started when the claim rate would empty the cache within the lead time`() {
+        whenever(tokenCache.size).thenReturn(50)
+
+        // Each claim is 100ms apart, so 10 tokens per claim is 100 tokens per second on average
+        repeat(20) { target.onTokensClaimed(tokenCache, state, claimQuery, 10) }
+
+        verify(availableTokenService).findAvailTokens(any(), anyOrNull(), anyOrNull(), any(), any())
+    }
+
+    @Test
+    fun `prefetched tokens replace the cache contents excluding claimed tokens`() {
+        whenever(tokenCache.size).thenReturn(10)
+        whenever(state.claimedTokens()).thenReturn(listOf(token1))
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        whenever(state.isTokenClaimed("s2")).thenReturn(true)
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isTrue
+
+        verify(tokenCache).removeAll()
+        verify(tokenCache).add(listOf(token3), Strategy.RANDOM)
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isFalse
+    }
+
+    @Test
+    fun `prefetched tokens are not used for a claim with different criteria`() {
+        whenever(tokenCache.size).thenReturn(10)
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery.copy(ownerHash = "h1"))).isFalse
+        verify(tokenCache, never()).add(any(), any())
+    }
+
+    @Test
+    fun `cancelled prefetches are discarded`() {
+        whenever(tokenCache.size).thenReturn(10)
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        target.cancel(tokenCache)
+
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isFalse
+    }
+
+    @Test
+    fun `tokens removed from the cache while a prefetch is running are not added to the cache`() {
+        val pendingPrefetches = mutableListOf<Runnable>()
+        val target = TokenCachePrefetcherImpl(
+            availableTokenService,
+            serviceConfiguration,
+            { pendingPrefetches += it },
+            AutoTickTestClock(Instant.EPOCH, 100.millis)
+        )
+        val tokenCache = TokenCacheImpl(10.seconds, AutoTickTestClock(Instant.EPOCH, 100.millis))
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        // The token is consumed after the prefetch has been started, but before its query has run
+        tokenCache.removeAll(setOf("s2"))
+        pendingPrefetches.forEach { it.run() }
+
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isTrue
+        assertThat(tokenCache.get(Strategy.RANDOM).map { it.stateRef }).containsExactlyInAnyOrder("s1", "s3")
+    }
+
+    @Test
+    fun `prefetches are discarded when the cache is emptied while they are running`() {
+        val tokenCache = TokenCacheImpl(10.seconds, AutoTickTestClock(Instant.EPOCH, 100.millis))
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        tokenCache.removeAll()
+
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isFalse
+        assertThat(tokenCache.size).isEqualTo(0)
+    }
+
+    @Test
+    fun `prefetches are discarded once older than the token cache expiry period`() {
+        val clock = TestClock(Instant.EPOCH)
+        val target = TokenCachePrefetcherImpl(availableTokenService, serviceConfiguration, directExecutor, clock)
+        whenever(tokenCache.size).thenReturn(10)
+        target.onTokensClaimed(tokenCache, state, claimQuery, 1)
+
+        clock.setTime(Instant.EPOCH.plusSeconds(11))
+
+        assertThat(target.applyPrefetchedTokens(tokenCache, state, claimQuery)).isFalse
+        verify(tokenCache, never()).add(any(), any())
+        verify(tokenCache).stopRemovalLog(any())
+    }
+
+    private fun createToken(stateRef: String): CachedToken {
+        return mock<CachedToken>().apply {
+            whenever(this.stateRef).thenReturn(stateRef)
+        }
+    }
+}
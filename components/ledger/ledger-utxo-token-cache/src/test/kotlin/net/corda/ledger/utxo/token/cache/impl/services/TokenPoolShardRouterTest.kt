@@ -0,0 +1,66 @@
+package net.corda.ledger.utxo.token.cache.impl.services
+
+import net.corda.ledger.utxo.token.cache.entities.BalanceQuery
+import net.corda.ledger.utxo.token.cache.entities.ClaimQuery
+import net.corda.ledger.utxo.token.cache.entities.ClaimRelease
+import net.corda.ledger.utxo.token.cache.entities.ForceClaimRelease
+import net.corda.ledger.utxo.token.cache.entities.LedgerChange
+import net.corda.ledger.utxo.token.cache.impl.POOL_KEY
+import net.corda.ledger.utxo.token.cache.services.TokenPoolShardRouter
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.math.BigDecimal
+
+class TokenPoolShardRouterTest {
+
+    private val target = TokenPoolShardRouter(4)
+
+    @Test
+    fun `a shard count below one is rejected`() {
+        assertThrows<IllegalArgumentException> { TokenPoolShardRouter(0) }
+    }
+
+    @Test
+    fun `all events are routed to shard zero when not sharded`() {
+        val router = TokenPoolShardRouter(1)
+        val claimQueries = (1..20).map { createClaimQuery("c$it") }
+
+        assertThat(router.isSharded).isFalse
+        assertThat(claimQueries.map { router.shardOf(it) }).containsOnly(0)
+    }
+
+    @Test
+    fun `claims are spread across the shards`() {
+        val claimQueries = (1..20).map { createClaimQuery("c$it") }
+
+        val shards = claimQueries.map { target.shardOf(it) }
+
+        assertThat(shards.toSet().size).isGreaterThan(1)
+        assertThat(shards).allMatch { it in 0 until 4 }
+    }
+
+    @Test
+    fun `claims and their release are routed to the same shard`() {
+        val claimQuery = createClaimQuery("c1")
+        val claimRelease = ClaimRelease("c1", "e2", "f1", setOf(), POOL_KEY)
+        val forceClaimRelease = ForceClaimRelease("c1", POOL_KEY)
+
+        val shard = target.shardOf(claimQuery)
+        assertThat(target.shardOf(claimRelease)).isEqualTo(shard)
+        assertThat(target.shardOf(forceClaimRelease)).isEqualTo(shard)
+    }
+
+    @Test
+    fun `other events are routed to shard zero`() {
+        val balanceQuery = BalanceQuery("e1", "f1", null, null, POOL_KEY)
+        val ledgerChange = LedgerChange(POOL_KEY, null, "e1", "f1", listOf(), listOf())
+
+        assertThat(target.shardOf(balanceQuery)).isEqualTo(0)
+        assertThat(target.shardOf(ledgerChange)).isEqualTo(0)
+    }
+
+    private fun createClaimQuery(claimId: String): ClaimQuery {
+        return ClaimQuery(claimId, "f1", BigDecimal(1), null, null, POOL_KEY, null)
+    }
+}
@@ -19,6 +19,7 @@ import net.corda.ledger.utxo.token.cache.impl.TOKEN_POOL_CACHE_STATE_2
 import net.corda.ledger.utxo.token.cache.services.ClaimStateStore
 import net.corda.ledger.utxo.token.cache.services.ClaimStateStoreCache
 import net.corda.ledger.utxo.token.cache.services.TokenPoolCacheManager
+import net.corda.ledger.utxo.token.cache.services.TokenPoolShardRouter
 import net.corda.ledger.utxo.token.cache.services.TokenSelectionMetricsImpl
 import net.corda.ledger.utxo.token.cache.services.TokenSelectionSyncRPCProcessor
 import net.corda.messaging.api.exception.CordaHTTPServerTransientException
@@ -27,6 +28,7 @@ import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
@@ -53,7 +55,8 @@ class TokenSelectionSyncRPCProcessorTest {
     }
     private val claimStateStore = FakeClaimStateStore()
     private val claimStateStoreCache = mock<ClaimStateStoreCache>().apply {
-        whenever(get(POOL_KEY)).thenReturn(claimStateStore)
+        whenever(get(POOL_KEY, 0)).thenReturn(claimStateStore)
+        whenever(shardRouter(POOL_KEY)).thenReturn(TokenPoolShardRouter(1))
     }
     private val externalEventResponseFactory = mock<ExternalEventResponseFactory>()
     private val tokenPoolCacheManager = mock<TokenPoolCacheManager>()
@@ -81,7 +84,7 @@ class TokenSelectionSyncRPCProcessorTest {
         whenever(entityConverter.toPoolCacheState(TOKEN_POOL_CACHE_STATE_2)).thenReturn(POOL_CACHE_STATE_2)
 
         claimStateStore.inputPoolState = TOKEN_POOL_CACHE_STATE_2
-        whenever(tokenPoolCacheManager.processEvent(any(), any())).thenReturn(processorResponse)
+        whenever(tokenPoolCacheManager.processEvent(any(), any(), anyOrNull(), any())).thenReturn(processorResponse)
 
         // Process the event
         val result = tokenSelectionSyncRPCProcessor.process(tokenPoolCacheEvent)
@@ -91,7 +94,7 @@ class TokenSelectionSyncRPCProcessorTest {
 
         // Ensure the correct arguments are passed to the tokenPoolCacheManager
         val expectedState = POOL_CACHE_STATE_2
-        verify(tokenPoolCacheManager).processEvent(eq(expectedState), eq(tokenEvent))
+        verify(tokenPoolCacheManager).processEvent(eq(expectedState), eq(tokenEvent), eq(0), any())
     }
 
     @Test
@@ -105,7 +108,7 @@ class TokenSelectionSyncRPCProcessorTest {
 
         claimStateStore.inputPoolState = TOKEN_POOL_CACHE_STATE
         claimStateStore.completionType = false
-        whenever(tokenPoolCacheManager.processEvent(any(), any())).thenReturn(processorResponse)
+        whenever(tokenPoolCacheManager.processEvent(any(), any(), anyOrNull(), any())).thenReturn(processorResponse)
 
         val e = assertThrows<CordaHTTPServerTransientException> {
             tokenSelectionSyncRPCProcessor.process(tokenPoolCacheEvent)
@@ -143,7 +146,7 @@ class TokenSelectionSyncRPCProcessorTest {
         val returnedEvent = FlowEvent(testFlowId, WakeUpWithException())
         val errorRecord = Record("", "", returnedEvent)
 
-        whenever(claimStateStoreCache.get(any())).thenThrow(IllegalStateException())
+        whenever(claimStateStoreCache.get(any(), any())).thenThrow(IllegalStateException())
         whenever(externalEventResponseFactory.platformError(any(), any<Exception>())).thenReturn(errorRecord)
 
         val result = tokenSelectionSyncRPCProcessor.process(tokenPoolCacheEvent)
@@ -174,5 +177,15 @@ class TokenSelectionSyncRPCProcessorTest {
                 CompletableFuture<Boolean>().apply { completeExceptionally(e) }
             }
         }
+
+        override fun currentState(): TokenPoolCacheState {
+            return inputPoolState!!
+        }
+
+        override val shardCount = 1
+
+        override fun recordShardCount(shardCount: Int): CompletableFuture<Boolean> {
+            return CompletableFuture.completedFuture(completionType)
+        }
     }
 }
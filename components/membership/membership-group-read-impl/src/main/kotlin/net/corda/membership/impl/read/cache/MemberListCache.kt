@@ -33,12 +33,13 @@ interface MemberListCache : MemberDataListCache<MemberInfo> {
 
         private val cache = ConcurrentHashMap<HoldingIdentity, ReplaceableList<MemberInfo>>()
 
-        override fun get(holdingIdentity: HoldingIdentity): List<MemberInfo> = cache[holdingIdentity] ?: emptyList()
+        override fun get(holdingIdentity: HoldingIdentity): List<MemberInfo> =
+            cache[holdingIdentity]?.snapshot ?: MemberListSnapshot.EMPTY
         override fun getAll(): Map<HoldingIdentity, List<MemberInfo>> = cache
 
         override fun put(holdingIdentity: HoldingIdentity, data: List<MemberInfo>) {
             cache.computeIfAbsent(holdingIdentity) { holdingId ->
-                ReplaceableList<MemberInfo>(emptyList()).also { list ->
+                ReplaceableList(MemberListSnapshot.EMPTY).also { list ->
                     CordaMetrics.Metric.Membership.MemberListCacheSize(list).builder()
                         .forVirtualNode(holdingId.shortHash.value)
                         .withTag(CordaMetrics.Tag.MembershipGroup, holdingId.groupId)
@@ -69,14 +70,20 @@ interface MemberListCache : MemberDataListCache<MemberInfo> {
 
         /**
          * An implementation of [List] which has additional method [addOrReplace]. Calling [addOrReplace] will result in the
-         * underlying list being overwritten rather than mutated.
+         * underlying list being overwritten rather than mutated, by publishing a new [MemberListSnapshot].
          */
-        private class ReplaceableList<T>(seed: List<T>) : List<T> {
+        private class ReplaceableList(seed: MemberListSnapshot) : List<MemberInfo> {
             private val dataRef = AtomicReference(seed)
-            private var data: List<T>
+            private var data: MemberListSnapshot
                 set(value) = dataRef.set(value)
                 get() = dataRef.get()
 
+            /**
+             * The current contents of this list, which are not affected by later calls to [addOrReplace].
+             */
+            val snapshot: MemberListSnapshot
+                get() = data
+
             /**
              * Update the underlying list to include the given list of candidates. All candidates in the given list will
              * be added, and if any existing entries match the given predicate when compared to the given candidate list, they
@@ -87,33 +94,36 @@ interface MemberListCache : MemberDataListCache<MemberInfo> {
              * @param predicate the function used to detect when to replace instead of add. When an existing entry paired with
              * any of the candidates is true for the given predicate, then that entry is replaced.
              */
-            fun addOrReplace(candidates: List<T>, predicate: (oldEntry: T, newEntry: T) -> Boolean): ReplaceableList<T> {
+            fun addOrReplace(
+                candidates: List<MemberInfo>,
+                predicate: (oldEntry: MemberInfo, newEntry: MemberInfo) -> Boolean
+            ): ReplaceableList {
                 // Add all items which do not match one of the new candidates from the old list to the new list
                 data.filterTo(arrayListOf()) { o ->
                     candidates.none { n -> predicate(o, n) }
                 }.also { newData ->
                     // Add all new candidates
                     newData.addAll(candidates)
-                    data = newData
+                    data = MemberListSnapshot.of(newData)
                 }
                 return this
             }
 
             override val size get() = data.size
 
-            override fun contains(element: T) = data.contains(element)
+            override fun contains(element: MemberInfo) = data.contains(element)
 
-            override fun containsAll(elements: Collection<T>) = data.containsAll(elements)
+            override fun containsAll(elements: Collection<MemberInfo>) = data.containsAll(elements)
 
             override fun get(index: Int) = data[index]
 
-            override fun indexOf(element: T) = data.indexOf(element)
+            override fun indexOf(element: MemberInfo) = data.indexOf(element)
 
             override fun isEmpty() = data.isEmpty()
 
             override fun iterator() = data.iterator()
 
-            override fun lastIndexOf(element: T) = data.lastIndexOf(element)
+            override fun lastIndexOf(element: MemberInfo) = data.lastIndexOf(element)
 
             override fun listIterator() = data.listIterator()
 
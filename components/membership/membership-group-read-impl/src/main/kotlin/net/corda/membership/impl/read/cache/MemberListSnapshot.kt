@@ -0,0 +1,109 @@
+package net.corda.membership.impl.read.cache
+
+import net.corda.data.p2p.app.MembershipStatusFilter
+import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_ACTIVE
+import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_PENDING
+import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_SUSPENDED
+import net.corda.membership.lib.MemberInfoExtension.Companion.ledgerKeyHashes
+import net.corda.membership.lib.MemberInfoExtension.Companion.sessionKeyHashes
+import net.corda.membership.lib.MemberInfoExtension.Companion.status
+import net.corda.v5.base.types.MemberX500Name
+import net.corda.v5.crypto.SecureHash
+import net.corda.v5.membership.MemberInfo
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * An immutable member list, as published by [MemberListCache] each time a member list changes.
+ *
+ * The members matching each [MembershipStatusFilter] are only selected once per snapshot, and are indexed by name,
+ * ledger key hash and session key hash when first looked up by those, so that looking up a single member does not
+ * scan the whole member list.
+ */
+class MemberListSnapshot private constructor(
+    private val members: List<MemberInfo>
+) : List<MemberInfo> by members {
+    companion object {
+        val EMPTY = MemberListSnapshot(emptyList())
+
+        /**
+         * @return [members] if it is already a [MemberListSnapshot], or else a snapshot of its current contents.
+         */
+        fun of(members: List<MemberInfo>): MemberListSnapshot {
+            return members as? MemberListSnapshot ?: MemberListSnapshot(members.toList())
+        }
+    }
+
+    /**
+     * The members of a snapshot which match a [MembershipStatusFilter].
+     */
+    class FilteredMembers internal constructor(val members: List<MemberInfo>) {
+        private val byName by lazy { members.uniqueIndex { setOf(it.name) } }
+        private val byLedgerKeyHash by lazy { members.uniqueIndex { it.ledgerKeyHashes } }
+        private val bySessionKeyHash by lazy { members.uniqueIndex { it.sessionKeyHashes } }
+
+        /**
+         * @return The only member called [name], or `null` if there is no such member or more than one.
+         */
+        fun lookup(name: MemberX500Name): MemberInfo? = byName[name]
+
+        /**
+         * @return The only member with ledger key hash [ledgerKeyHash], or `null` if there is no such member or
+         * more than one.
+         */
+        fun lookupByLedgerKey(ledgerKeyHash: SecureHash): MemberInfo? = byLedgerKeyHash[ledgerKeyHash]
+
+        /**
+         * @return The only member with session key hash [sessionKeyHash], or `null` if there is no such member or
+         * more than one.
+         */
+        fun lookupBySessionKey(sessionKeyHash: SecureHash): MemberInfo? = bySessionKeyHash[sessionKeyHash]
+    }
+
+    private val filtered = ConcurrentHashMap<MembershipStatusFilter, FilteredMembers>()
+
+    /**
+     * @return The members of this snapshot which match [filter].
+     */
+    fun filterBy(filter: MembershipStatusFilter): FilteredMembers {
+        return filtered.computeIfAbsent(filter) { FilteredMembers(members.filterBy(it)) }
+    }
+
+    private fun List<MemberInfo>.filterBy(filter: MembershipStatusFilter): List<MemberInfo> {
+        return when (filter) {
+            MembershipStatusFilter.PENDING -> this.filter { it.status == MEMBER_STATUS_PENDING }
+            MembershipStatusFilter.ACTIVE -> this.filter { it.status == MEMBER_STATUS_ACTIVE }
+            MembershipStatusFilter.ACTIVE_IF_PRESENT_OR_PENDING ->
+                this.groupBy { it.name }.flatMap { memberEntry ->
+                    memberEntry.value.filterBy(MembershipStatusFilter.ACTIVE).ifEmpty {
+                        memberEntry.value.filterBy(MembershipStatusFilter.PENDING)
+                    }
+                }
+            MembershipStatusFilter.ACTIVE_OR_SUSPENDED_IF_PRESENT_OR_PENDING -> groupBy { it.name }.flatMap {
+                it.value.filterBy(MembershipStatusFilter.ACTIVE_OR_SUSPENDED).ifEmpty {
+                    it.value.filterBy(MembershipStatusFilter.PENDING)
+                }
+            }
+            else -> this.filter { it.status == MEMBER_STATUS_ACTIVE || it.status == MEMBER_STATUS_SUSPENDED }
+        }
+    }
+
+    override fun equals(other: Any?): Boolean = members == other
+
+    override fun hashCode(): Int = members.hashCode()
+
+    override fun toString(): String = members.toString()
+}
+
+/**
+ * Indexes each member by each of its [keys]. A key shared by more than one member is indexed to `null`,
+ * as none of those members can be picked for it.
+ */
+private fun <K> List<MemberInfo>.uniqueIndex(keys: (MemberInfo) -> Collection<K>): Map<K, MemberInfo?> {
+    val index = HashMap<K, MemberInfo?>()
+    forEach { member ->
+        keys(member).toSet().forEach { key ->
+            index[key] = if (index.containsKey(key)) null else member
+        }
+    }
+    return index
+}
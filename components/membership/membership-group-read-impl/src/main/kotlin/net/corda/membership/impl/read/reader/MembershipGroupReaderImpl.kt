@@ -2,16 +2,11 @@ package net.corda.membership.impl.read.reader
 
 import net.corda.data.p2p.app.MembershipStatusFilter
 import net.corda.libs.platform.PlatformInfoProvider
+import net.corda.membership.impl.read.cache.MemberListSnapshot
 import net.corda.membership.impl.read.cache.MembershipGroupReadCache
 import net.corda.membership.lib.InternalGroupParameters
-import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_ACTIVE
-import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_PENDING
-import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_SUSPENDED
 import net.corda.membership.lib.MemberInfoExtension.Companion.PLATFORM_VERSION
 import net.corda.membership.lib.MemberInfoExtension.Companion.isMgm
-import net.corda.membership.lib.MemberInfoExtension.Companion.ledgerKeyHashes
-import net.corda.membership.lib.MemberInfoExtension.Companion.sessionKeyHashes
-import net.corda.membership.lib.MemberInfoExtension.Companion.status
 import net.corda.membership.lib.MemberInfoFactory
 import net.corda.membership.lib.SignedGroupParameters
 import net.corda.membership.lib.toSortedMap
@@ -35,8 +30,8 @@ class MembershipGroupReaderImpl(
     override val groupId: String = holdingIdentity.groupId
     override val owningMember: MemberX500Name = holdingIdentity.x500Name
 
-    private val memberList: List<MemberInfo>
-        get() = membershipGroupReadCache.memberListCache.get(holdingIdentity)
+    private val memberList: MemberListSnapshot
+        get() = membershipGroupReadCache.memberListCache.get(holdingIdentity)?.let(MemberListSnapshot::of)
             ?: throw IllegalStateException(
                 "Failed to find member list for ID='${holdingIdentity.shortHash}, Group ID='${holdingIdentity.groupId}'"
             )
@@ -48,13 +43,13 @@ class MembershipGroupReaderImpl(
         get() = groupParametersReaderService.getSigned(holdingIdentity)
 
     override fun lookup(filter: MembershipStatusFilter): Collection<MemberInfo> =
-        withCurrentMgmPlatformVersion(memberList.filterBy(filter))
+        withCurrentMgmPlatformVersion(memberList.filterBy(filter).members)
 
     override fun lookupByLedgerKey(ledgerKeyHash: SecureHash, filter: MembershipStatusFilter): MemberInfo? =
-        memberList.filterBy(filter).singleOrNull { ledgerKeyHash in it.ledgerKeyHashes }
+        memberList.filterBy(filter).lookupByLedgerKey(ledgerKeyHash)
 
     override fun lookupBySessionKey(sessionKeyHash: SecureHash, filter: MembershipStatusFilter): MemberInfo? =
-        memberList.filterBy(filter).singleOrNull { it.sessionKeyHashes.contains(sessionKeyHash) }?.let {
+        memberList.filterBy(filter).lookupBySessionKey(sessionKeyHash)?.let {
             withCurrentMgmPlatformVersion(setOf(it)).first()
         }
 
@@ -63,29 +58,10 @@ class MembershipGroupReaderImpl(
     }
 
     override fun lookup(name: MemberX500Name, filter: MembershipStatusFilter): MemberInfo? =
-        memberList.filterBy(filter).singleOrNull { it.name == name }?.let {
+        memberList.filterBy(filter).lookup(name)?.let {
             withCurrentMgmPlatformVersion(setOf(it)).first()
         }
 
-    private fun List<MemberInfo>.filterBy(filter: MembershipStatusFilter): List<MemberInfo> {
-        return when (filter) {
-            MembershipStatusFilter.PENDING -> this.filter { it.status == MEMBER_STATUS_PENDING }
-            MembershipStatusFilter.ACTIVE -> this.filter { it.status == MEMBER_STATUS_ACTIVE }
-            MembershipStatusFilter.ACTIVE_IF_PRESENT_OR_PENDING ->
-                this.groupBy { it.name }.flatMap { memberEntry ->
-                    memberEntry.value.filterBy(MembershipStatusFilter.ACTIVE).ifEmpty {
-                        memberEntry.value.filterBy(MembershipStatusFilter.PENDING)
-                    }
-                }
-            MembershipStatusFilter.ACTIVE_OR_SUSPENDED_IF_PRESENT_OR_PENDING -> groupBy { it.name }.flatMap {
-                it.value.filterBy(MembershipStatusFilter.ACTIVE_OR_SUSPENDED).ifEmpty {
-                    it.value.filterBy(MembershipStatusFilter.PENDING)
-                }
-            }
-            else -> this.filter { it.status == MEMBER_STATUS_ACTIVE || it.status == MEMBER_STATUS_SUSPENDED }
-        }
-    }
-
     /**
      * Note: This method should be called on every lookup result returned by the following methods: [lookup], [lookup],
      * [lookupBySessionKey].
@@ -0,0 +1,92 @@
+package net.corda.membership.impl.read.cache
+
+import net.corda.data.p2p.app.MembershipStatusFilter
+import net.corda.membership.impl.read.TestProperties.Companion.aliceName
+import net.corda.membership.impl.read.TestProperties.Companion.bobName
+import net.corda.membership.impl.read.TestProperties.Companion.charlieName
+import net.corda.membership.lib.MemberInfoExtension.Companion.LEDGER_KEYS
+import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_ACTIVE
+import net.corda.membership.lib.MemberInfoExtension.Companion.MEMBER_STATUS_PENDING
+import net.corda.membership.lib.MemberInfoExtension.Companion.SESSION_KEYS
+import net.corda.membership.lib.MemberInfoExtension.Companion.STATUS
+import net.corda.v5.base.types.MemberX500Name
+import net.corda.v5.crypto.SecureHash
+import net.corda.v5.membership.MGMContext
+import net.corda.v5.membership.MemberContext
+import net.corda.v5.membership.MemberInfo
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.eq
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+
+class MemberListSnapshotTest {
+    private val sharedKeyHash = mock<SecureHash>()
+    private val aliceKeyHash = mock<SecureHash>()
+    private val bobKeyHash = mock<SecureHash>()
+
+    private fun createMember(name: MemberX500Name, status: String, keyHash: SecureHash): MemberInfo {
+        val memberContext = mock<MemberContext> {
+            on { parseSet(eq(LEDGER_KEYS), eq(SecureHash::class.java)) } doReturn setOf(keyHash, sharedKeyHash)
+            on { parseSet(eq(SESSION_KEYS), eq(SecureHash::class.java)) } doReturn setOf(keyHash)
+        }
+        val mgmContext = mock<MGMContext> {
+            on { parse(STATUS, String::class.java) } doReturn status
+        }
+        return mock {
+            on { this.name } doReturn name
+            on { memberProvidedContext } doReturn memberContext
+            on { mgmProvidedContext } doReturn mgmContext
+        }
+    }
+
+    private val alice = createMember(aliceName, MEMBER_STATUS_ACTIVE, aliceKeyHash)
+    private val bob = createMember(bobName, MEMBER_STATUS_ACTIVE, bobKeyHash)
+    private val pendingBob = createMember(bobName, MEMBER_STATUS_PENDING, bobKeyHash)
+    private val snapshot = MemberListSnapshot.of(listOf(alice, bob, pendingBob))
+
+    @Test
+    fun `lookup by name returns the only member with that name`() {
+        assertThat(snapshot.filterBy(MembershipStatusFilter.ACTIVE).lookup(bobName)).isSameAs(bob)
+        assertThat(snapshot.filterBy(MembershipStatusFilter.PENDING).lookup(bobName)).isSameAs(pendingBob)
+        assertThat(snapshot.filterBy(MembershipStatusFilter.ACTIVE).lookup(charlieName)).isNull()
+    }
+
+    @Test
+    fun `lookup by key hash returns the only member with that key`() {
+        val active = snapshot.filterBy(MembershipStatusFilter.ACTIVE)
+        assertThat(active.lookupByLedgerKey(aliceKeyHash)).isSameAs(alice)
+        assertThat(active.lookupBySessionKey(bobKeyHash)).isSameAs(bob)
+    }
+
+    @Test
+    fun `lookup by a key shared by more than one member returns null`() {
+        assertThat(snapshot.filterBy(MembershipStatusFilter.ACTIVE).lookupByLedgerKey(sharedKeyHash)).isNull()
+        assertThat(snapshot.filterBy(MembershipStatusFilter.PENDING).lookupByLedgerKey(sharedKeyHash)).isSameAs(pendingBob)
+    }
+
+    @Test
+    fun `members are only filtered and indexed once per snapshot`() {
+        val pending = snapshot.filterBy(MembershipStatusFilter.PENDING)
+        assertThat(snapshot.filterBy(MembershipStatusFilter.PENDING)).isSameAs(pending)
+
+        pending.lookupBySessionKey(bobKeyHash)
+        pending.lookupBySessionKey(aliceKeyHash)
+
+        verify(pendingBob.memberProvidedContext, times(1)).parseSet(eq(SESSION_KEYS), eq(SecureHash::class.java))
+    }
+
+    @Test
+    fun `ACTIVE_IF_PRESENT_OR_PENDING prefers each member's active info`() {
+        assertThat(snapshot.filterBy(MembershipStatusFilter.ACTIVE_IF_PRESENT_OR_PENDING).members)
+            .containsExactly(alice, bob)
+    }
+
+    @Test
+    fun `of returns an existing snapshot unchanged`() {
+        assertThat(MemberListSnapshot.of(snapshot)).isSameAs(snapshot)
+        assertThat(snapshot).isEqualTo(listOf(alice, bob, pendingBob))
+    }
+}
@@ -0,0 +1,61 @@
+package net.corda.membership.p2p.helpers
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.corda.cache.caffeine.CacheFactoryImpl
+import net.corda.crypto.cipher.suite.sha256Bytes
+import net.corda.crypto.core.DigitalSignatureWithKey
+import net.corda.v5.crypto.SignatureSpec
+import java.nio.ByteBuffer
+import java.security.PublicKey
+
+/**
+ * Remembers the signatures made by MGMs, so that data which has not changed since it was last signed is not sent to
+ * the crypto worker to be signed again. Membership packages sign the Merkle root of each member's signed information,
+ * and so an unchanged member is signed once rather than once for every package it is sent in.
+ */
+class MgmSignatureCache(maximumSize: Long) {
+    companion object {
+        private const val SIGNATURE_CACHE_MAX_SIZE_PROPERTY_NAME = "net.corda.membership.p2p.signature.cache.maximumSize"
+
+        /**
+         * The cache shared by all the [SignerFactory]s of this worker.
+         */
+        val shared: MgmSignatureCache by lazy {
+            MgmSignatureCache(java.lang.Long.getLong(SIGNATURE_CACHE_MAX_SIZE_PROPERTY_NAME, 10000))
+        }
+    }
+
+    private data class SignatureKey(
+        val tenantId: String,
+        val publicKey: PublicKey,
+        val signatureName: String,
+        val dataHash: ByteBuffer,
+    )
+
+    private val signatures: Cache<SignatureKey, DigitalSignatureWithKey> = CacheFactoryImpl().build(
+        "MGM-Signature-Cache",
+        Caffeine.newBuilder().maximumSize(maximumSize)
+    )
+
+    /**
+     * Returns the signature of [data] by [publicKey] using [signatureSpec], calling [sign] to create it only if
+     * there is no such signature in the cache.
+     *
+     * [sign] is called outside the cache, so that the round trip to the crypto worker does not block other callers.
+     * The same data may therefore be signed more than once at the same time, in which case the first signature to
+     * be cached is returned to all of them.
+     */
+    fun getOrSign(
+        tenantId: String,
+        publicKey: PublicKey,
+        signatureSpec: SignatureSpec,
+        data: ByteArray,
+        sign: () -> DigitalSignatureWithKey,
+    ): DigitalSignatureWithKey {
+        val key = SignatureKey(tenantId, publicKey, signatureSpec.signatureName, ByteBuffer.wrap(data.sha256Bytes()))
+        signatures.getIfPresent(key)?.let { return it }
+        val signature = sign()
+        return signatures.asMap().putIfAbsent(key, signature) ?: signature
+    }
+}
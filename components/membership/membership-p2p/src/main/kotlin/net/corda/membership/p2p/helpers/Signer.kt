@@ -1,12 +1,14 @@
 package net.corda.membership.p2p.helpers
 
 import net.corda.crypto.client.CryptoOpsClient
+import net.corda.crypto.core.DigitalSignatureWithKey
 import java.security.PublicKey
 
 class Signer(
     private val tenantId: String,
     private val publicKey: PublicKey,
     private val cryptoOpsClient: CryptoOpsClient,
+    private val signatureCache: MgmSignatureCache? = null,
 ) {
     val signatureSpec by lazy {
         val keySpecExtractor = KeySpecExtractor(
@@ -16,7 +18,11 @@ class Signer(
         keySpecExtractor.getSpec(publicKey)
     }
 
-    fun sign(data: ByteArray) =
+    fun sign(data: ByteArray): DigitalSignatureWithKey =
+        signatureCache?.getOrSign(tenantId, publicKey, signatureSpec, data) { signWithCrypto(data) }
+            ?: signWithCrypto(data)
+
+    private fun signWithCrypto(data: ByteArray) =
         cryptoOpsClient.sign(
             tenantId = tenantId,
             publicKey = publicKey,
@@ -9,6 +9,7 @@ import net.corda.v5.membership.MemberInfo
 class SignerFactory(
     private val cryptoOpsClient: CryptoOpsClient,
     private val locallyHostedIdentitiesService: LocallyHostedIdentitiesService,
+    private val signatureCache: MgmSignatureCache = MgmSignatureCache.shared,
 ) {
     fun createSigner(
         mgm: MemberInfo,
@@ -20,6 +21,7 @@ class SignerFactory(
             mgm.id,
             hostingMapData.preferredSessionKey,
             cryptoOpsClient,
+            signatureCache,
         )
     }
 }
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import java.security.PublicKey
 
@@ -45,6 +47,28 @@ class SignerTest {
         assertThat(signer.sign(data)).isEqualTo(signature)
     }
 
+    @Test
+    fun `sign with a signature cache only signs the same data once`() {
+        val data = byteArrayOf(1, 2, 3)
+        val otherData = byteArrayOf(4, 5, 6)
+        val key = mock<CryptoSigningKey> {
+            on { schemeCodeName } doReturn RSA_CODE_NAME
+        }
+        whenever(cryptoOpsClient.lookupKeysByIds(tenantId, listOf(ShortHash.of(publicKey.publicKeyId())))).doReturn(listOf(key))
+        val signature = mock<DigitalSignatureWithKey>()
+        val otherSignature = mock<DigitalSignatureWithKey>()
+        whenever(cryptoOpsClient.sign(tenantId, publicKey, SignatureSpecs.RSA_SHA512, data)).doReturn(signature)
+        whenever(cryptoOpsClient.sign(tenantId, publicKey, SignatureSpecs.RSA_SHA512, otherData)).doReturn(otherSignature)
+        val signatureCache = MgmSignatureCache(10)
+
+        assertThat(Signer(tenantId, publicKey, cryptoOpsClient, signatureCache).sign(data)).isEqualTo(signature)
+        assertThat(Signer(tenantId, publicKey, cryptoOpsClient, signatureCache).sign(data.copyOf())).isEqualTo(signature)
+        assertThat(Signer(tenantId, publicKey, cryptoOpsClient, signatureCache).sign(otherData)).isEqualTo(otherSignature)
+
+        verify(cryptoOpsClient, times(1)).sign(tenantId, publicKey, SignatureSpecs.RSA_SHA512, data)
+        verify(cryptoOpsClient, times(1)).sign(tenantId, publicKey, SignatureSpecs.RSA_SHA512, otherData)
+    }
+
     @Test
     fun `sign fail if spec can not be found`() {
         val data = byteArrayOf(1, 2, 3)
@@ -35,7 +35,6 @@ import net.corda.data.p2p.app.AppMessage
 import net.corda.data.p2p.app.AuthenticatedMessage
 import net.corda.data.p2p.app.AuthenticatedMessageHeader
 import net.corda.data.p2p.app.MembershipStatusFilter
-import net.corda.data.sync.BloomFilter
 import net.corda.db.messagebus.testkit.DBSetup
 import net.corda.layeredpropertymap.toAvro
 import net.corda.libs.configuration.SmartConfigFactory
@@ -435,7 +434,7 @@ class SynchronisationIntegrationTest {
                 clock.instant()
             ),
             requesterHash.toAvro(),
-            BloomFilter(1, 1, 1, byteBuffer),
+            null,
             secureHash,
             secureHash
         )
@@ -15,6 +15,9 @@ import net.corda.data.membership.p2p.MembershipPackage
 import net.corda.data.membership.p2p.MembershipSyncRequest
 import net.corda.data.p2p.app.AppMessage
 import net.corda.data.p2p.app.MembershipStatusFilter
+import net.corda.data.sync.BloomFilter
+import net.corda.datasync.add
+import net.corda.datasync.createBloomFilter
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.configuration.helper.getConfig
 import net.corda.lifecycle.LifecycleCoordinator
@@ -165,6 +168,7 @@ class MemberSynchronisationServiceImpl internal constructor(
         const val PUBLICATION_TIMEOUT_SECONDS = 30L
         const val RESEND_NOW_MAX_IN_MINUTES = 5L
         const val SERVICE = "MemberSynchronisationService"
+        const val KNOWN_MEMBERS_FALSE_POSITIVE_RATE = 0.01
 
         private val random by lazy {
             Random()
@@ -414,6 +418,7 @@ class MemberSynchronisationServiceImpl internal constructor(
         val memberHash = services.merkleTreeGenerator.generateTreeUsingMembers(listOf(member))
             .root
             .toAvro()
+        val knownMembers = groupReader.lookup(MembershipStatusFilter.ACTIVE_OR_SUSPENDED).filterNot { it.isMgm }
         return services.membershipP2PRecordsFactory.createMembershipAuthenticatedMessageRecord(
             source = memberIdentity.toAvro(),
             destination = mgm.toAvro(),
@@ -423,8 +428,7 @@ class MemberSynchronisationServiceImpl internal constructor(
                     services.clock.instant(),
                 ),
                 memberHash,
-                // TODO Set Bloom filter
-                null,
+                createKnownMembersFilter(knownMembers),
                 // TODO Set Group Parameters Hash
                 memberHash,
                 // TODO Set CPI whitelist Hash
@@ -433,6 +437,22 @@ class MemberSynchronisationServiceImpl internal constructor(
         )
     }
 
+    /**
+     * Creates a filter of the hashes of the members the view owner already has, so that the MGM only needs to send
+     * the members which changed since. A new seed is used for each request, so that a member missed because of a
+     * false positive is not missed again when the hash check fails and the view owner asks for another sync.
+     */
+    private fun createKnownMembersFilter(knownMembers: Collection<MemberInfo>): BloomFilter? {
+        if (knownMembers.isEmpty()) {
+            return null
+        }
+        return createBloomFilter(knownMembers.size, KNOWN_MEMBERS_FALSE_POSITIVE_RATE, random.nextInt()).also { filter ->
+            knownMembers.forEach {
+                filter.add(services.merkleTreeGenerator.generateTreeUsingMembers(listOf(it)).root.bytes)
+            }
+        }
+    }
+
     private fun createSynchroniseNowRequest(
         viewOwningMember: HoldingIdentity,
         mgm: HoldingIdentity
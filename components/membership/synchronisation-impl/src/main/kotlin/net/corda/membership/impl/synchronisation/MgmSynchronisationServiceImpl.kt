@@ -6,11 +6,14 @@ import net.corda.configuration.read.ConfigurationReadService
 import net.corda.crypto.cipher.suite.CipherSchemeMetadata
 import net.corda.crypto.cipher.suite.merkle.MerkleTreeProvider
 import net.corda.crypto.client.CryptoOpsClient
+import net.corda.crypto.core.bytes
 import net.corda.crypto.core.toCorda
 import net.corda.data.membership.command.synchronisation.mgm.ProcessSyncRequest
 import net.corda.data.membership.p2p.DistributionType
 import net.corda.data.membership.p2p.MembershipPackage
 import net.corda.data.p2p.app.MembershipStatusFilter.ACTIVE_OR_SUSPENDED
+import net.corda.data.sync.BloomFilter
+import net.corda.datasync.possiblyContains
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.configuration.helper.getConfig
 import net.corda.lifecycle.LifecycleCoordinator
@@ -42,6 +45,7 @@ import net.corda.messaging.api.records.Record
 import net.corda.p2p.messaging.P2pRecordsFactory
 import net.corda.schema.configuration.ConfigKeys.MEMBERSHIP_CONFIG
 import net.corda.schema.configuration.MembershipConfig.TtlsConfig.MEMBERS_PACKAGE_UPDATE
+import net.corda.utilities.debug
 import net.corda.utilities.time.Clock
 import net.corda.utilities.time.UTCClock
 import net.corda.v5.base.exceptions.CordaRuntimeException
@@ -220,7 +224,18 @@ class MgmSynchronisationServiceImpl internal constructor(
                         createMembershipPackage(mgmInfo, listOf(requesterInfo), groupParameters),
                     )
                 } else {
-                    createPackageRecord(mgm, requester, createMembershipPackage(mgmInfo, allNonPendingMembersExcludingMgm, groupParameters))
+                    // only send the members the requester does not already have, the hash check still covers the
+                    // whole member list so that the requester can tell whether it is missing anything
+                    createPackageRecord(
+                        mgm,
+                        requester,
+                        createMembershipPackage(
+                            mgmInfo,
+                            allNonPendingMembersExcludingMgm.notKnownBy(request.syncRequest.bloomFilter),
+                            groupParameters,
+                            services.merkleTreeGenerator.generateTreeUsingSignedMembers(allNonPendingMembersExcludingMgm).root,
+                        )
+                    )
                 }
             } else {
                 // member has not received the latest updates regarding its own membership
@@ -261,18 +276,31 @@ class MgmSynchronisationServiceImpl internal constructor(
             return services.merkleTreeGenerator.generateTreeUsingSignedMembers(listOf(memberInfo)).root
         }
 
+        /**
+         * Filters out the members whose current hash is in the requester's [knownMembers] filter, as the requester
+         * (most likely) already has them. Without a filter, the requester is sent the full member list.
+         */
+        private fun List<SelfSignedMemberInfo>.notKnownBy(knownMembers: BloomFilter?): List<SelfSignedMemberInfo> {
+            if (knownMembers == null) {
+                return this
+            }
+            return filterNot { knownMembers.possiblyContains(calculateHash(it).bytes) }.also {
+                logger.debug { "Sending ${it.size} of $size members which changed since the requester's last sync." }
+            }
+        }
+
         private fun createMembershipPackage(
             mgm: MemberInfo,
             members: Collection<SelfSignedMemberInfo>,
             groupParameters: InternalGroupParameters,
+            hashCheck: SecureHash = services.merkleTreeGenerator.generateTreeUsingSignedMembers(members).root,
         ): MembershipPackage {
             val mgmSigner = services.signerFactory.createSigner(mgm)
-            val membersTree = services.merkleTreeGenerator.generateTreeUsingSignedMembers(members)
 
             return services.membershipPackageFactory.createMembershipPackage(
                 mgmSigner,
                 members,
-                membersTree.root,
+                hashCheck,
                 groupParameters,
             )
         }
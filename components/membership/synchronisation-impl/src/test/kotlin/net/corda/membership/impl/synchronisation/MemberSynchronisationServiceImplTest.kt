@@ -3,6 +3,7 @@ package net.corda.membership.impl.synchronisation
 import com.typesafe.config.ConfigFactory
 import net.corda.configuration.read.ConfigChangedEvent
 import net.corda.configuration.read.ConfigurationReadService
+import net.corda.crypto.core.bytes
 import net.corda.crypto.core.toCorda
 import net.corda.data.crypto.SecureHash
 import net.corda.data.crypto.wire.CryptoSignatureSpec
@@ -17,6 +18,7 @@ import net.corda.data.membership.p2p.MembershipSyncRequest
 import net.corda.data.membership.p2p.SignedMemberships
 import net.corda.data.p2p.app.AppMessage
 import net.corda.data.p2p.app.MembershipStatusFilter
+import net.corda.datasync.possiblyContains
 import net.corda.libs.configuration.SmartConfig
 import net.corda.libs.configuration.SmartConfigFactory
 import net.corda.lifecycle.LifecycleCoordinator
@@ -568,6 +570,24 @@ class MemberSynchronisationServiceImplTest {
         }
     }
 
+    @Test
+    fun `processMembershipUpdates sends a filter of the known members with the sync request`() {
+        postConfigChangedEvent()
+        synchronisationService.start()
+        whenever(signedMemberships.hashCheck) doReturn SecureHash("algo", ByteBuffer.wrap(byteArrayOf(4, 5, 6)))
+        whenever(groupReader.lookup(filter = MembershipStatusFilter.ACTIVE_OR_SUSPENDED)).doReturn(
+            listOf(
+                mgmInfo,
+                memberInfo,
+            )
+        )
+
+        synchronisationService.processMembershipUpdates(updates)
+
+        verify(merkleTreeGenerator, never()).generateTreeUsingMembers(listOf(mgmInfo))
+        assertThat(synchRequest.firstValue.bloomFilter.possiblyContains(hash.toCorda().bytes)).isTrue
+    }
+
     @Test
     fun `startup schedual sync for all the virtual nodes`() {
         val mgm = HoldingIdentity(participantName, GROUP_NAME)
@@ -3,6 +3,7 @@ package net.corda.membership.impl.synchronisation
 import net.corda.configuration.read.ConfigChangedEvent
 import net.corda.configuration.read.ConfigurationReadService
 import net.corda.crypto.client.CryptoOpsClient
+import net.corda.crypto.core.bytes
 import net.corda.crypto.core.toCorda
 import net.corda.data.crypto.SecureHash
 import net.corda.data.crypto.wire.CryptoSignatureSpec
@@ -16,6 +17,8 @@ import net.corda.data.membership.p2p.MembershipSyncRequest
 import net.corda.data.p2p.app.AppMessage
 import net.corda.data.p2p.app.MembershipStatusFilter
 import net.corda.data.sync.BloomFilter
+import net.corda.datasync.add
+import net.corda.datasync.createBloomFilter
 import net.corda.libs.configuration.SmartConfig
 import net.corda.lifecycle.LifecycleCoordinator
 import net.corda.lifecycle.LifecycleCoordinatorFactory
@@ -297,7 +300,7 @@ class MgmSynchronisationServiceImplTest {
 
     private fun createSecureHash(algorithm: String) = SecureHash(algorithm, byteBuffer)
 
-    private fun createRequest(member: HoldingIdentity) = ProcessSyncRequest(
+    private fun createRequest(member: HoldingIdentity, knownMembers: BloomFilter? = null) = ProcessSyncRequest(
         SynchronisationMetaData(
             mgm,
             member
@@ -308,7 +311,7 @@ class MgmSynchronisationServiceImplTest {
                 clock.instant()
             ),
             secureHash,
-            BloomFilter(1, 1, 1, byteBuffer),
+            knownMembers,
             secureHash,
             secureHash
         )
@@ -470,6 +473,32 @@ class MgmSynchronisationServiceImplTest {
         synchronisationService.stop()
     }
 
+    @Test
+    fun `only the members the requester does not have are sent when the request has a filter of known members`() {
+        val daisyTree = mock<MerkleTree> {
+            on { root } doReturn SecureHash("algorithm1", "5678".toByteBuffer()).toCorda()
+        }
+        whenever(merkleTreeGenerator.generateTreeUsingSignedMembers(argThat { contains(daisyInfo) && size == 1 }))
+            .doReturn(daisyTree)
+        val knownMembers = createBloomFilter(10, 0.01, 1).also {
+            it.add(matchingMerkleTree.root.bytes)
+        }
+        postConfigChangedEvent()
+        synchronisationService.start()
+        val capturedList = argumentCaptor<List<SelfSignedMemberInfo>>()
+
+        synchronisationService.processSyncRequest(createRequest(alice, knownMembers))
+
+        verify(membershipPackageFactory, times(1)).createMembershipPackage(
+            any(),
+            capturedList.capture(),
+            eq(matchingMerkleTree.root),
+            eq(groupParameters)
+        )
+        assertThat(capturedList.firstValue).containsExactly(daisyInfo)
+        synchronisationService.stop()
+    }
+
     @Test
     fun `only the requesting member's info is sent when member hash is not matching`() {
         postConfigChangedEvent()
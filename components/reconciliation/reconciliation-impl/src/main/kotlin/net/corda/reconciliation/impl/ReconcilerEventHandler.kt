@@ -12,6 +12,7 @@ import net.corda.lifecycle.TimerEvent
 import net.corda.metrics.CordaMetrics
 import net.corda.reconciliation.ReconcilerReader
 import net.corda.reconciliation.ReconcilerWriter
+import net.corda.reconciliation.VersionedRecord
 import net.corda.utilities.VisibleForTesting
 import net.corda.utilities.debug
 import net.corda.utilities.trace
@@ -31,6 +32,17 @@ internal class ReconcilerEventHandler<K : Any, V : Any>(
     private val forceInitialReconciliation: Boolean,
 ) : LifecycleEventHandler {
 
+    private companion object {
+        const val PUBLISH_BATCH_SIZE = 100
+
+        /**
+         * Every how many reconciliation runs all DB records are compared to Kafka again, rather than only those which
+         * changed since the last run. Setting it to 1 makes every run a full sweep.
+         */
+        val fullSweepInterval = java.lang.Long.getLong("net.corda.reconciliation.full.sweep.interval", 10L)
+            .coerceAtLeast(1L)
+    }
+
     val name = "${ReconcilerEventHandler::class.java.name}<${keyClass.name}, ${valueClass.name}>"
 
     // Including the generic arguments to logger to differentiate between `ReconcilerEventHandler` parameterized classes
@@ -106,21 +118,55 @@ internal class ReconcilerEventHandler<K : Any, V : Any>(
                 .withTag(CordaMetrics.Tag.OperationStatus, reconciliationOutcome)
                 .build()
                 .record(reconciledCount.toDouble())
+
+            CordaMetrics.Metric.Db.ReconciliationSkippedRecordsCount.builder()
+                .withTag(CordaMetrics.Tag.OperationName, name)
+                .withTag(CordaMetrics.Tag.OperationStatus, reconciliationOutcome)
+                .build()
+                .record(skippedCount.toDouble())
         }
     }
 
     private var firstRun = true
 
+    /**
+     * The version (and deletion state) of each DB record as it was last known to be in sync with Kafka. On incremental
+     * runs, DB records which have not moved on from their watermark are skipped without being compared to Kafka.
+     */
+    private val reconciledVersions = HashMap<K, Watermark>()
+
+    private var runsSinceFullSweep = 0
+
+    @VisibleForTesting
+    internal var skippedCount = 0
+        private set
+
     // TODO following method should be extracted to dedicated file, to be tested separately
     // TODO Must add to the below DEBUG logging reporting to be reconciled records potentially more
     @Suppress("ComplexMethod")
     @VisibleForTesting
     internal fun reconcile(): Int {
-        val kafkaRecords =
+        // Kafka may have drifted from the DB independently of any DB change (e.g. a compacted topic was reset),
+        // which incremental runs cannot notice, so every so often all DB records are compared to Kafka again.
+        val fullSweep = firstRun || ++runsSinceFullSweep >= fullSweepInterval
+        if (fullSweep) {
+            runsSinceFullSweep = 0
+            reconciledVersions.clear()
+        }
+        skippedCount = 0
+
+        // Only read from Kafka if there is at least one DB record that has moved on from its watermark.
+        val kafkaRecords by lazy {
             kafkaReader.getAllVersionedRecords().asSequence().associateBy { it.key }
+        }
 
         val toBeReconciledDbRecords =
             dbReader.getAllVersionedRecords().filter { dbRecord ->
+                if (!fullSweep && reconciledVersions[dbRecord.key] == Watermark(dbRecord)) {
+                    skippedCount++
+                    return@filter false
+                }
+
                 val matchedKafkaRecord = kafkaRecords[dbRecord.key]
                 val toBeReconciled = if (matchedKafkaRecord == null) {
                     !dbRecord.isDeleted // reconcile db inserted records (i.e. db column cpi.is_deleted == false)
@@ -149,6 +195,8 @@ internal class ReconcilerEventHandler<K : Any, V : Any>(
 
                 if (toBeReconciled) {
                     logger.debug { "DbRecord[k=${dbRecord.key},v=${dbRecord.version}] marked for reconciliation" }
+                } else {
+                    reconciledVersions[dbRecord.key] = Watermark(dbRecord)
                 }
 
                 toBeReconciled
@@ -156,22 +204,43 @@ internal class ReconcilerEventHandler<K : Any, V : Any>(
                 ?: throw ReconciliationException("Error occurred while retrieving db records")
 
         var reconciledCount = 0
+        val batch = ArrayList<VersionedRecord<K, V>>(PUBLISH_BATCH_SIZE)
         toBeReconciledDbRecords.use {
             it.forEach { dbRecord ->
-                if (dbRecord.isDeleted) {
-                    writer.remove(dbRecord.key)
-                } else {
-                    writer.put(dbRecord.key, dbRecord.value)
+                batch.add(dbRecord)
+                if (batch.size == PUBLISH_BATCH_SIZE) {
+                    reconciledCount += publish(batch)
                 }
-                reconciledCount++
             }
         }
+        reconciledCount += publish(batch)
 
         firstRun = false
 
+        logger.debug { "Reconciled $reconciledCount records, skipped $skippedCount unchanged records" }
         return reconciledCount
     }
 
+    /**
+     * Publishes a batch of DB records to Kafka, and only then moves their watermarks on.
+     */
+    private fun publish(batch: MutableList<VersionedRecord<K, V>>): Int {
+        if (batch.isEmpty()) {
+            return 0
+        }
+        val (deleted, updated) = batch.partition { it.isDeleted }
+        if (updated.isNotEmpty()) {
+            writer.putAll(updated.associate { it.key to it.value })
+        }
+        if (deleted.isNotEmpty()) {
+            writer.removeAll(deleted.map { it.key })
+        }
+        batch.forEach { reconciledVersions[it.key] = Watermark(it) }
+        val published = batch.size
+        batch.clear()
+        return published
+    }
+
     private fun scheduleNextReconciliation(coordinator: LifecycleCoordinator) {
         logger.debug { "Registering new ${ReconcileEvent::class.simpleName}" }
         coordinator.setTimer(timerKey, reconciliationIntervalMs) { ReconcileEvent(it) }
@@ -200,5 +269,9 @@ internal class ReconcilerEventHandler<K : Any, V : Any>(
 
     internal data class UpdateIntervalEvent(val intervalMs: Long): LifecycleEvent
 
+    private data class Watermark(val version: Int, val isDeleted: Boolean) {
+        constructor(record: VersionedRecord<*, *>) : this(record.version, record.isDeleted)
+    }
+
     private class ReconciliationException(message: String) : CordaRuntimeException(message)
 }
\ No newline at end of file
@@ -163,4 +163,81 @@ internal class ReconcilerEventHandlerTest {
         val reconciledOnFirstReconciliation = reconcilerEventHandler.reconcile()
         assertEquals(0, reconciledOnFirstReconciliation)
     }
-}
\ No newline at end of file
+
+    private fun versionedRecord(key: String, version: Int, isDeleted: Boolean = false) =
+        object : VersionedRecord<String, Int> {
+            override val version = version
+            override val isDeleted = isDeleted
+            override val key = key
+            override val value = version
+        }
+
+    @Test
+    fun `incremental reconciliation skips unchanged db records without reading Kafka`() {
+        val dbReader = mock<ReconcilerReader<String, Int>>().also {
+            whenever(it.getAllVersionedRecords()).doAnswer {
+                listOf(versionedRecord("key1", 1), versionedRecord("key2", 1)).stream()
+            }
+        }
+        val kafkaReader = mock<ReconcilerReader<String, Int>>().also {
+            whenever(it.getAllVersionedRecords()).doAnswer {
+                listOf(versionedRecord("key1", 1)).stream()
+            }
+        }
+        val writer = mock<ReconcilerWriter<String, Int>>()
+
+        reconcilerEventHandler =
+            ReconcilerEventHandler(
+                dbReader,
+                kafkaReader,
+                writer,
+                keyClass = String::class.java,
+                valueClass = Int::class.java,
+                10L,
+                forceInitialReconciliation = false,
+            )
+
+        assertEquals(1, reconcilerEventHandler.reconcile())
+        verify(writer).putAll(mapOf("key2" to 1))
+
+        assertEquals(0, reconcilerEventHandler.reconcile())
+        assertEquals(2, reconcilerEventHandler.skippedCount)
+        verify(kafkaReader, times(1)).getAllVersionedRecords()
+    }
+
+    @Test
+    fun `incremental reconciliation publishes db records whose version moved on`() {
+        var dbRecords = listOf(versionedRecord("key1", 1), versionedRecord("key2", 1))
+        val dbReader = mock<ReconcilerReader<String, Int>>().also {
+            whenever(it.getAllVersionedRecords()).doAnswer { dbRecords.stream() }
+        }
+        val kafkaReader = mock<ReconcilerReader<String, Int>>().also {
+            whenever(it.getAllVersionedRecords()).doAnswer {
+                listOf(versionedRecord("key1", 1), versionedRecord("key2", 1)).stream()
+            }
+        }
+        val writer = mock<ReconcilerWriter<String, Int>>()
+
+        reconcilerEventHandler =
+            ReconcilerEventHandler(
+                dbReader,
+                kafkaReader,
+                writer,
+                keyClass = String::class.java,
+                valueClass = Int::class.java,
+                10L,
+                forceInitialReconciliation = false,
+            )
+
+        assertEquals(0, reconcilerEventHandler.reconcile())
+
+        dbRecords = listOf(versionedRecord("key1", 2), versionedRecord("key2", 1, isDeleted = true))
+        assertEquals(2, reconcilerEventHandler.reconcile())
+        assertEquals(0, reconcilerEventHandler.skippedCount)
+        verify(writer).putAll(mapOf("key1" to 2))
+        verify(writer).removeAll(listOf("key2"))
+
+        assertEquals(0, reconcilerEventHandler.reconcile())
+        assertEquals(2, reconcilerEventHandler.skippedCount)
+    }
+}
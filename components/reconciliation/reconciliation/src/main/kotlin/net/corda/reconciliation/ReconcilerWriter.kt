@@ -17,6 +17,22 @@ interface ReconcilerWriter<K : Any, V : Any> {
      */
     fun remove(recordKey: K)
 
+    /**
+     * Publishes a batch of records to Kafka. Writers that can publish several records at once should override this,
+     * as by default each record is [put] separately.
+     */
+    fun putAll(records: Map<K, V>) {
+        records.forEach { (recordKey, recordValue) -> put(recordKey, recordValue) }
+    }
+
+    /**
+     * Removes a batch of records from Kafka. Writers that can publish several records at once should override this,
+     * as by default each record is [remove]d separately.
+     */
+    fun removeAll(recordKeys: Collection<K>) {
+        recordKeys.forEach { remove(it) }
+    }
+
     val lifecycleCoordinatorName: LifecycleCoordinatorName
 
     /**
@@ -7,5 +7,10 @@ interface CacheControl : CacheEviction {
     fun resizeCaches(capacity: Long) = SandboxGroupType.values().forEach { resizeCache(it, capacity) }
     fun resizeCache(type: SandboxGroupType, capacity: Long)
 
+    /**
+     * @return The number of sandboxes of [type] the cache currently holds at most.
+     */
+    fun capacity(type: SandboxGroupType): Long
+
     fun flushCache(): CompletableFuture<*>
 }
@@ -12,4 +12,10 @@ fun interface EvictionListener {
      * itself here simply because we don't need to yet. And also because we are waiting for people to _stop_ using it.
      */
     fun onEviction(vnc: VirtualNodeContext)
+
+    /**
+     * Invoked instead of [onEviction] when a listener also needs to know whether the [VirtualNodeContext] was
+     * [evicted] by the size or expiry policy of the cache, rather than removed explicitly, flushed or closed.
+     */
+    fun onEviction(vnc: VirtualNodeContext, evicted: Boolean) = onEviction(vnc)
 }
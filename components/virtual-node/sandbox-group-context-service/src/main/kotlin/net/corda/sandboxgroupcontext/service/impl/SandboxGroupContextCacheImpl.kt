@@ -2,7 +2,9 @@ package net.corda.sandboxgroupcontext.service.impl
 
 import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
+import io.micrometer.core.instrument.Gauge
 import net.corda.cache.caffeine.CacheFactoryImpl
+import net.corda.metrics.CordaMetrics
 import net.corda.sandboxgroupcontext.SandboxGroupContext
 import net.corda.sandboxgroupcontext.SandboxGroupType
 import net.corda.sandboxgroupcontext.VirtualNodeContext
@@ -14,17 +16,31 @@ import java.lang.ref.ReferenceQueue
 import java.lang.ref.WeakReference
 import java.time.Duration
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentMap
 
+/**
+ * Caches sandboxes per [SandboxGroupType]. Each type's cache holds at most its capacity of sandboxes and, if that
+ * type has a byte budget in [maximumBytes], at most that many bytes of sandboxes as estimated by [estimateSize].
+ */
+@Suppress("TooManyFunctions")
 internal class SandboxGroupContextCacheImpl private constructor(
-    override val capacities: Map<SandboxGroupType, Long>,
+    capacities: Map<SandboxGroupType, Long>,
+    private val maximumBytes: Map<SandboxGroupType, Long>,
+    private val estimateSize: (SandboxGroupContext) -> Long,
     private val evictionListeners: Map<SandboxGroupType, MutableSet<EvictionListener>>,
     private val expiryQueue: ReferenceQueue<SandboxGroupContextWrapper>,
     private val toBeClosed: MutableSet<ToBeClosed>
 ) : SandboxGroupContextCache {
-    constructor(capacities: Long) : this(
+    constructor(
+        capacities: Long,
+        maximumBytes: Map<SandboxGroupType, Long> = emptyMap(),
+        estimateSize: (SandboxGroupContext) -> Long = { 0 }
+    ) : this(
         capacities = SandboxGroupType.values().associateWith { capacities },
+        maximumBytes = maximumBytes,
+        estimateSize = estimateSize,
         evictionListeners = SandboxGroupType.values().associateWith { linkedSetOf<EvictionListener>() },
         expiryQueue = ReferenceQueue<SandboxGroupContextWrapper>(),
         toBeClosed = ConcurrentHashMap.newKeySet()
@@ -35,13 +51,20 @@ internal class SandboxGroupContextCacheImpl private constructor(
         private const val WAIT_MILLIS = 100L
     }
 
-    private fun onEviction(vnc: VirtualNodeContext) {
+    private val currentCapacities = ConcurrentHashMap(capacities)
+
+    override val capacities: Map<SandboxGroupType, Long>
+        get() = currentCapacities
+
+    private val sizeGauges = ConcurrentHashMap<SandboxGroupType, Gauge>()
+
+    private fun onEviction(vnc: VirtualNodeContext, evicted: Boolean) {
         val listeners = evictionListeners[vnc.sandboxGroupType] ?: return
         synchronized(listeners) {
             listeners.toList()
         }.forEach { listener ->
             try {
-                listener.onEviction(vnc)
+                listener.onEviction(vnc, evicted)
             } catch (e: Exception) {
                 logger.warn("Error while evicting sandbox $vnc", e)
             }
@@ -75,15 +98,17 @@ internal class SandboxGroupContextCacheImpl private constructor(
      * invoke [CloseableSandboxGroupContext.close] on cache eviction when all strong references are gone.
      */
     private class SandboxGroupContextWrapper(
-        val wrappedSandboxGroupContext: CloseableSandboxGroupContext
+        val wrappedSandboxGroupContext: CloseableSandboxGroupContext,
+        val estimatedBytes: Long
     ) : SandboxGroupContext by wrappedSandboxGroupContext
 
     /**
-     * Builds a cache for the specified SandboxGroup [type] with [capacity] maximum size.
-     * Uses buildNonAsync in order that the removal listener is called in the same thread as cache interactions.
-     * The removal listener interacts with both the expiryQueue and the toBeClosed list, neither of which are
-     * thread safe. This also ensures if purgeExpiryQueue closes any sandboxes they are closed in the same thread
-     * as would be the case with all other calls to the same method.
+     * Builds a cache for the specified SandboxGroup [type] with [capacity] maximum size, or with the [type]'s
+     * byte budget as maximum weight if it has one.
+     * Uses buildNonAsync in order that the removal listener is called in the thread interacting with the cache.
+     * Sandboxes for different keys are created concurrently, so the removal listener, and with it the eviction
+     * listeners and purgeExpiryQueue, can run in several threads at once. The expiryQueue and the toBeClosed set
+     * are both thread safe, and each evicted sandbox is only closed by the thread that polls it from the queue.
      */
     private fun buildSandboxGroupTypeCache(
         type: SandboxGroupType,
@@ -91,7 +116,15 @@ internal class SandboxGroupContextCacheImpl private constructor(
     ): Cache<VirtualNodeContext, SandboxGroupContextWrapper> = CacheFactoryImpl().buildNonAsync(
         "sandbox-cache-${type}",
         Caffeine.newBuilder()
-            .maximumSize(capacity)
+            .apply {
+                val budget = maximumBytes[type]
+                if (budget == null) {
+                    maximumSize(capacity)
+                } else {
+                    maximumWeight(if (capacity > 0) budget else 0)
+                    weigher { key: VirtualNodeContext, context: SandboxGroupContextWrapper -> weightOf(type, key, context) }
+                }
+            }
             // Add the wrapped [CloseableSandboxGroupContext] to the internal [expiryQueue],
             // so it is only closed once it's safe to do so (i.e. wrapping [SandboxGroupContextWrapper]
             // is not referenced anymore).
@@ -100,30 +133,75 @@ internal class SandboxGroupContextCacheImpl private constructor(
                 key ?: return@removalListener
                 (context?.wrappedSandboxGroupContext as? AutoCloseable)?.also { autoCloseable ->
                     toBeClosed += ToBeClosed(key, context.completion, autoCloseable, context, expiryQueue)
-                    onEviction(key)
+                    onEviction(key, cause.wasEvicted())
+                }
+                if (cause.wasEvicted()) {
+                    CordaMetrics.Metric.SandboxEvictionCount.builder()
+                        .withTag(CordaMetrics.Tag.SandboxGroupType, type.name)
+                        .withTag(CordaMetrics.Tag.SandboxEvictionCause, cause.name)
+                        .build()
+                        .increment()
                 }
 
                 logger.info(
-                    "Evicting {} sandbox for {} holdingId {} [{}]",
+                    "Evicting {} sandbox for {} holdingId {} [{}], estimated size {} bytes",
                     key.sandboxGroupType,
                     key.holdingIdentity.x500Name,
                     key.holdingIdentity.shortHash,
-                    cause.name
+                    cause.name,
+                    context?.estimatedBytes
                 )
             }
-    )
+    ).also { cache ->
+        sizeGauges.computeIfAbsent(type) {
+            CordaMetrics.Metric.SandboxCacheEstimatedSize {
+                cache.asMap().values.sumOf(SandboxGroupContextWrapper::estimatedBytes)
+            }.builder()
+                .withTag(CordaMetrics.Tag.SandboxGroupType, type.name)
+                .build()
+        }
+    }
+
+    /**
+     * Weighs a sandbox by its estimated size, but never less than an equal share of the [type]'s byte budget,
+     * so that the cache never holds more sandboxes than its capacity either. A sandbox larger than the whole
+     * budget weighs the budget, so it evicts every other sandbox but is kept itself rather than being evicted
+     * as soon as it is created.
+     */
+    private fun weightOf(type: SandboxGroupType, key: VirtualNodeContext, context: SandboxGroupContextWrapper): Int {
+        val budget = maximumBytes[type] ?: 0
+        val capacity = currentCapacities[type] ?: 0
+        val share = if (capacity > 0) budget / capacity else budget
+        if (context.estimatedBytes > budget) {
+            logger.warn(
+                "{} sandbox for {} is estimated at {} bytes, which exceeds the sandbox cache budget of {} bytes",
+                type,
+                key.holdingIdentity.x500Name,
+                context.estimatedBytes,
+                budget
+            )
+        }
+        return maxOf(context.estimatedBytes, share).coerceAtMost(budget).coerceIn(1, Int.MAX_VALUE.toLong()).toInt()
+    }
 
     /**
      * Creates the cache for the given [sandboxGroupType] with [newCapacity] maximum size, if not created yet.
      * Changes the maximum size for the [sandboxGroupType]'s cache to [newCapacity] if the cache already exists.
      */
     override fun resize(sandboxGroupType: SandboxGroupType, newCapacity: Long) {
+        currentCapacities[sandboxGroupType] = newCapacity
         val sandboxCache = caches.computeIfAbsent(sandboxGroupType) { type ->
             buildSandboxGroupTypeCache(type, newCapacity)
         }
 
+        // A byte budget stays the maximum weight, and the new capacity applies to the weights of new sandboxes.
+        val budget = maximumBytes[sandboxGroupType]
         sandboxCache.policy().eviction().ifPresent {
-            it.maximum = newCapacity
+            it.maximum = when {
+                budget == null -> newCapacity
+                newCapacity > 0 -> budget
+                else -> 0
+            }
         }
     }
 
@@ -168,6 +246,20 @@ internal class SandboxGroupContextCacheImpl private constructor(
         }
     }
 
+    /**
+     * A sandbox that is being created. It is invalidated when its key is removed or the cache is flushed while it is
+     * being created, so that the sandbox is not kept in the cache once it has been created.
+     */
+    private class Creation {
+        val future = CompletableFuture<SandboxGroupContextWrapper>()
+
+        @Volatile
+        var invalidated = false
+    }
+
+    // Sandboxes that are currently being created, so that concurrent requests for the same key share one creation.
+    private val inProgress = ConcurrentHashMap<VirtualNodeContext, Creation>()
+
     private val caches: ConcurrentMap<SandboxGroupType, Cache<VirtualNodeContext, SandboxGroupContextWrapper>> =
         capacities.mapValuesTo(ConcurrentHashMap()) { (type, capacity) ->
             buildSandboxGroupTypeCache(type, capacity)
@@ -175,6 +267,7 @@ internal class SandboxGroupContextCacheImpl private constructor(
 
     override fun flush(): CompletableFuture<*> {
         purgeExpiryQueue()
+        inProgress.values.forEach { it.invalidated = true }
 
         val map = mutableMapOf<VirtualNodeContext, SandboxGroupContextWrapper>()
         caches.values.forEach {
@@ -216,6 +309,7 @@ internal class SandboxGroupContextCacheImpl private constructor(
 
     override fun remove(virtualNodeContext: VirtualNodeContext): CompletableFuture<*>? {
         purgeExpiryQueue()
+        inProgress[virtualNodeContext]?.invalidated = true
 
         val sandboxCache = caches[virtualNodeContext.sandboxGroupType]
         return sandboxCache?.getIfPresent(virtualNodeContext)?.let { ctx ->
@@ -238,13 +332,81 @@ internal class SandboxGroupContextCacheImpl private constructor(
             )
         }
 
-        return sandboxCache.get(virtualNodeContext) {
+        // Cache hits are lock free. The map lookup does not record cache statistics,
+        // so the hit is recorded by fetching the sandbox again through the cache.
+        if (sandboxCache.asMap().containsKey(virtualNodeContext)) {
+            sandboxCache.getIfPresent(virtualNodeContext)?.also { return it }
+        }
+
+        // Only one thread creates the sandbox for each key. Any other thread asking for the
+        // same key waits for that creation to finish, while requests for other keys proceed.
+        val creation = Creation()
+        val existingCreation = inProgress.putIfAbsent(virtualNodeContext, creation)
+        return if (existingCreation == null) {
+            create(sandboxCache, virtualNodeContext, createFunction, creation)
+        } else {
+            awaitCreation(existingCreation)
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun create(
+        sandboxCache: Cache<VirtualNodeContext, SandboxGroupContextWrapper>,
+        virtualNodeContext: VirtualNodeContext,
+        createFunction: (VirtualNodeContext) -> CloseableSandboxGroupContext,
+        creation: Creation
+    ): SandboxGroupContext {
+        try {
+            // The sandbox may have been cached between our lookup and registering this creation.
+            val sandboxGroupContext = sandboxCache.asMap()[virtualNodeContext] ?: run {
+                logger.info(
+                    "Creating {} sandbox for {}",
+                    virtualNodeContext.sandboxGroupType,
+                    virtualNodeContext.holdingIdentity.x500Name
+                )
+                // The sandbox is created outside the cache's own computation, which would otherwise block
+                // other keys sharing its hash bin, and is then loaded into the cache as already created.
+                val wrapper = createFunction(virtualNodeContext).let { SandboxGroupContextWrapper(it, estimateSize(it)) }
+                sandboxCache.get(virtualNodeContext) { wrapper }.also {
+                    discardIfInvalidated(sandboxCache, virtualNodeContext, it, creation)
+                }
+            }
+            creation.future.complete(sandboxGroupContext)
+            return sandboxGroupContext
+        } catch (e: Throwable) {
+            creation.future.completeExceptionally(e)
+            throw e
+        } finally {
+            inProgress.remove(virtualNodeContext, creation)
+        }
+    }
+
+    /**
+     * Discards a sandbox created while its key was removed or the cache was flushed. A removal that happens after
+     * the invalidation is checked here finds the sandbox already in the cache, and removes it itself.
+     * The sandbox is still returned to the requests waiting for it, and is closed once they no longer use it.
+     */
+    private fun discardIfInvalidated(
+        sandboxCache: Cache<VirtualNodeContext, SandboxGroupContextWrapper>,
+        virtualNodeContext: VirtualNodeContext,
+        sandboxGroupContext: SandboxGroupContextWrapper,
+        creation: Creation
+    ) {
+        if (creation.invalidated && sandboxCache.asMap().remove(virtualNodeContext, sandboxGroupContext)) {
             logger.info(
-                "Creating {} sandbox for {}",
+                "Discarding {} sandbox for {} removed while it was created",
                 virtualNodeContext.sandboxGroupType,
                 virtualNodeContext.holdingIdentity.x500Name
             )
-            SandboxGroupContextWrapper(createFunction(virtualNodeContext))
+            sandboxCache.cleanUp()
+        }
+    }
+
+    private fun awaitCreation(creation: Creation): SandboxGroupContext {
+        return try {
+            creation.future.join()
+        } catch (e: CompletionException) {
+            throw e.cause ?: e
         }
     }
 
@@ -255,6 +417,8 @@ internal class SandboxGroupContextCacheImpl private constructor(
             it.invalidateAll()
             it.cleanUp()
         }
+        sizeGauges.values.forEach(CordaMetrics.registry::remove)
+        sizeGauges.clear()
     }
 
     private fun Map<SandboxGroupType, Long>.forSandboxGroupType(type: SandboxGroupType) =
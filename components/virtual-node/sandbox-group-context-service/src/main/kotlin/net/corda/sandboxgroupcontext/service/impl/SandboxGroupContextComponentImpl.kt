@@ -208,4 +208,9 @@ class SandboxGroupContextComponentImpl @Activate constructor(
         (sandboxGroupContextService as? CacheControl
             ?: throw IllegalStateException("Sandbox $type cache could not be resized to $capacity")).resizeCache(type, capacity)
     }
+
+    override fun capacity(type: SandboxGroupType): Long {
+        return (sandboxGroupContextService as? CacheControl
+            ?: throw IllegalStateException("Sandbox $type cache capacity is not available")).capacity(type)
+    }
 }
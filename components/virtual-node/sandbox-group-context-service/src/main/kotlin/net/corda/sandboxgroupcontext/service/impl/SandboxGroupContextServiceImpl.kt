@@ -122,7 +122,14 @@ class SandboxGroupContextServiceImpl @Activate constructor(
         }
     }
 
-    private val cache = SandboxGroupContextCacheImpl(0)
+    private val cache = SandboxGroupContextCacheImpl(
+        capacities = 0,
+        maximumBytes = SandboxSizeEstimator.maximumBytesFromSystemProperties(),
+        estimateSize = SandboxSizeEstimator::estimate
+    )
+
+    // Serialises changes to the cache as a whole. Creating and fetching individual sandboxes does not take this
+    // lock, as the cache only serialises the creation of each sandbox with other requests for the same sandbox.
     private val lock = ReentrantLock()
 
     override fun resizeCache(type: SandboxGroupType, capacity: Long) = lock.withLock {
@@ -132,6 +139,8 @@ class SandboxGroupContextServiceImpl @Activate constructor(
         }
     }
 
+    override fun capacity(type: SandboxGroupType): Long = cache.capacities[type] ?: 0
+
     override fun flushCache(): CompletableFuture<*> = lock.withLock {
         cache.flush()
     }
@@ -156,8 +165,8 @@ class SandboxGroupContextServiceImpl @Activate constructor(
     override fun getOrCreate(
         virtualNodeContext: VirtualNodeContext,
         initializer: SandboxGroupContextInitializer
-    ): SandboxGroupContext = lock.withLock {
-        cache.get(virtualNodeContext) { vnc ->
+    ): SandboxGroupContext {
+        return cache.get(virtualNodeContext) { vnc ->
             val sandboxTimer = CordaMetrics.Metric.SandboxCreateTime.builder()
                 .forVirtualNode(vnc.holdingIdentity.shortHash.value)
                 .withTag(CordaMetrics.Tag.SandboxGroupType, vnc.sandboxGroupType.name)
@@ -329,7 +338,7 @@ class SandboxGroupContextServiceImpl @Activate constructor(
         serviceNames: (CpkMetadata) -> Iterable<String>,
         isMetadataService: (Class<*>) -> Boolean,
         serviceMarkerType: Class<*>
-    ): AutoCloseable = lock.withLock {
+    ): AutoCloseable {
         val group = sandboxGroupContext.sandboxGroup
         val services = group.metadata.flatMap { (mainBundle, cpkMetadata) ->
             // Fetch metadata classes provided by each CPK main bundle.
@@ -396,16 +405,14 @@ class SandboxGroupContextServiceImpl @Activate constructor(
     }
 
     override fun acceptCustomMetadata(sandboxGroupContext: MutableSandboxGroupContext) {
-        lock.withLock {
-            sandboxGroupContext.getObjectByKey<Iterable<Any>>(SANDBOX_SINGLETONS)
-                ?.filterIsInstance<CustomMetadataConsumer>()
-                ?.forEach { customMetadataConsumer ->
-                    customMetadataConsumer.accept(sandboxGroupContext)
-                }
-        }
+        sandboxGroupContext.getObjectByKey<Iterable<Any>>(SANDBOX_SINGLETONS)
+            ?.filterIsInstance<CustomMetadataConsumer>()
+            ?.forEach { customMetadataConsumer ->
+                customMetadataConsumer.accept(sandboxGroupContext)
+            }
     }
 
-    override fun hasCpks(cpkChecksums: Set<SecureHash>): Boolean = lock.withLock {
+    override fun hasCpks(cpkChecksums: Set<SecureHash>): Boolean {
         val missingCpks = cpkChecksums.filter {
             cpkReadService.get(it) == null
         }
@@ -414,7 +421,7 @@ class SandboxGroupContextServiceImpl @Activate constructor(
             logger.info("CPK(s) not (yet) found in cache: {}", missingCpks)
         }
 
-        missingCpks.isEmpty()
+        return missingCpks.isEmpty()
     }
 
     @Deactivate
@@ -0,0 +1,61 @@
+package net.corda.sandboxgroupcontext.service.impl
+
+import net.corda.sandboxgroupcontext.SandboxGroupContext
+import net.corda.sandboxgroupcontext.SandboxGroupType
+import net.corda.sandboxgroupcontext.getAllSandboxSingletonServices
+import org.osgi.framework.Bundle
+import org.slf4j.LoggerFactory
+
+/**
+ * Estimates how much heap a sandbox retains, so that the sandbox caches can be bounded by memory rather than by
+ * number of sandboxes. Measuring the retained size exactly would mean walking the sandbox's object graph, and so
+ * the estimate is instead taken from the number of classes in each CPK's main bundle, the number of library
+ * bundles and the number of singletons registered for the sandbox.
+ */
+internal object SandboxSizeEstimator {
+    private val logger = LoggerFactory.getLogger(this::class.java)
+
+    private const val MAXIMUM_BYTES_PROPERTY_NAME_FORMAT = "net.corda.sandbox.cache.%s.maximumBytes"
+
+    // Class loaders, service registrations and the context's own object cache.
+    private const val BYTES_PER_SANDBOX = 4L * 1024 * 1024
+    // Class metadata, constant pools and static state.
+    private const val BYTES_PER_CLASS = 16L * 1024
+    private const val BYTES_PER_LIBRARY_BUNDLE = 2L * 1024 * 1024
+    private const val BYTES_PER_SINGLETON = 64L * 1024
+
+    /**
+     * @return The byte budget for each [SandboxGroupType]'s cache, from the `net.corda.sandbox.cache.<type>.maximumBytes`
+     * system properties. Types without a positive budget are not included, and are bounded by number of sandboxes only.
+     */
+    fun maximumBytesFromSystemProperties(): Map<SandboxGroupType, Long> {
+        return SandboxGroupType.values().associateWith { type ->
+            java.lang.Long.getLong(MAXIMUM_BYTES_PROPERTY_NAME_FORMAT.format(type.name.lowercase()), 0)
+        }.filterValues { it > 0 }.also { budgets ->
+            budgets.forEach { (type, bytes) -> logger.info("Sandbox {} cache is limited to {} bytes", type, bytes) }
+        }
+    }
+
+    /**
+     * @return The estimated number of bytes retained by the [sandboxGroupContext].
+     */
+    fun estimate(sandboxGroupContext: SandboxGroupContext): Long {
+        val metadata = sandboxGroupContext.sandboxGroup.metadata
+        val classes = metadata.keys.sumOf(::countClasses)
+        val libraryBundles = metadata.values.sumOf { it.libraries.size }
+        val singletons = sandboxGroupContext.getAllSandboxSingletonServices().size
+        return BYTES_PER_SANDBOX +
+            classes * BYTES_PER_CLASS +
+            libraryBundles * BYTES_PER_LIBRARY_BUNDLE +
+            singletons * BYTES_PER_SINGLETON
+    }
+
+    private fun countClasses(bundle: Bundle): Long {
+        return try {
+            bundle.findEntries("/", "*.class", true)?.asSequence()?.count()?.toLong() ?: 0
+        } catch (e: IllegalStateException) {
+            // The bundle has already been uninstalled.
+            0
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.RegisterExtension
 import org.junit.jupiter.api.fail
 import org.junit.jupiter.api.parallel.ResourceLock
@@ -34,6 +35,10 @@ import org.mockito.kotlin.whenever
 import java.time.Duration.ofSeconds
 import java.util.UUID
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit.SECONDS
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.math.roundToInt
 
 @Suppress("ExplicitGarbageCollectionCall")
@@ -320,6 +325,92 @@ class SandboxGroupContextCacheTest {
         }
     }
 
+    @Test
+    fun `concurrent requests for the same key create one sandbox`() {
+        val cache = SandboxGroupContextCacheImpl(10)
+        val creating = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val createCount = AtomicInteger()
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            val first = executor.submit<SandboxGroupContext> {
+                cache.get(vNodeContext1) {
+                    createCount.incrementAndGet()
+                    creating.countDown()
+                    release.await()
+                    mockSandboxContext(name = "ctx1")
+                }
+            }
+            assertTrue(creating.await(TIMEOUT, SECONDS))
+            val second = executor.submit<SandboxGroupContext> {
+                cache.get(vNodeContext1) {
+                    createCount.incrementAndGet()
+                    mockSandboxContext(name = "ctx2")
+                }
+            }
+            release.countDown()
+
+            assertThat(second.get(TIMEOUT, SECONDS)).isSameAs(first.get(TIMEOUT, SECONDS))
+            assertThat(createCount.get()).isEqualTo(1)
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    fun `creating a sandbox does not block requests for other keys`() {
+        val cache = SandboxGroupContextCacheImpl(10)
+        val vNodeContext2 = VirtualNodeContext(
+            holdingIdentity = idAlice,
+            cpkFileChecksums = emptySet(),
+            sandboxGroupType = SandboxGroupType.FLOW,
+            serviceFilter = createRandomFilter()
+        )
+        val creating = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val slowCreation = executor.submit<SandboxGroupContext> {
+                cache.get(vNodeContext1) {
+                    creating.countDown()
+                    release.await()
+                    mockSandboxContext(name = "ctx1")
+                }
+            }
+            assertTrue(creating.await(TIMEOUT, SECONDS))
+
+            assertThat(cache.get(vNodeContext2) { mockSandboxContext(name = "ctx2") }).isNotNull
+            assertFalse(slowCreation.isDone)
+
+            release.countDown()
+            assertThat(slowCreation.get(TIMEOUT, SECONDS)).isNotNull
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    fun `sandbox removed while it is created is not cached`() {
+        assertSandboxInvalidatedWhileCreatedIsNotCached { cache -> cache.remove(vNodeContext1) }
+    }
+
+    @Test
+    fun `sandbox flushed while it is created is not cached`() {
+        assertSandboxInvalidatedWhileCreatedIsNotCached { cache -> cache.flush() }
+    }
+
+    @Test
+    fun `failed creation is not cached`() {
+        val cache = SandboxGroupContextCacheImpl(10)
+
+        assertThrows<IllegalStateException> {
+            cache.get(vNodeContext1) { throw IllegalStateException("Creation failed") }
+        }
+
+        val sandboxContext = mockSandboxContext(name = "ctx1")
+        assertThat(cache.get(vNodeContext1) { sandboxContext }).isNotNull
+    }
+
     @Test
     fun testEmptyCacheFlushesImmediately() {
         val cache = SandboxGroupContextCacheImpl(10)
@@ -424,6 +515,127 @@ class SandboxGroupContextCacheTest {
         }
     }
 
+    @Test
+    fun `when cache has a byte budget, evict sandboxes beyond it`() {
+        val cache = SandboxGroupContextCacheImpl(10, mapOf(SandboxGroupType.FLOW to 100L)) { 60 }
+
+        for (i in 0 until 3) {
+            cache.get(VirtualNodeContext(
+                holdingIdentity = createTestHoldingIdentity("CN=Bob-$i, O=Bob Corp, L=LDN, C=GB", "group"),
+                cpkFileChecksums = emptySet(),
+                sandboxGroupType = SandboxGroupType.FLOW,
+                serviceFilter = createRandomFilter()
+            )) { mockSandboxContext() }
+        }
+
+        verifyCacheMetrics(puts = 3, misses = 3, evictions = 2)
+        verifySandboxMetrics(estimatedSize = 60, evictions = 2)
+    }
+
+    @Test
+    fun `when cache has a byte budget, hold no more sandboxes than its capacity`() {
+        val cache = SandboxGroupContextCacheImpl(2, mapOf(SandboxGroupType.FLOW to 1000L)) { 1 }
+
+        for (i in 0 until 3) {
+            cache.get(VirtualNodeContext(
+                holdingIdentity = createTestHoldingIdentity("CN=Bob-$i, O=Bob Corp, L=LDN, C=GB", "group"),
+                cpkFileChecksums = emptySet(),
+                sandboxGroupType = SandboxGroupType.FLOW,
+                serviceFilter = createRandomFilter()
+            )) { mockSandboxContext() }
+        }
+
+        verifyCacheMetrics(puts = 3, misses = 3, evictions = 1)
+        verifySandboxMetrics(estimatedSize = 2, evictions = 1)
+    }
+
+    @Test
+    fun `when a sandbox exceeds the byte budget, keep it rather than evict it immediately`() {
+        val cache = SandboxGroupContextCacheImpl(10, mapOf(SandboxGroupType.FLOW to 100L)) { 150 }
+        val createCount = AtomicInteger()
+
+        repeat(3) {
+            cache.get(vNodeContext1) {
+                createCount.incrementAndGet()
+                mockSandboxContext()
+            }
+        }
+        assertThat(createCount.get()).isEqualTo(1)
+        verifyCacheMetrics(puts = 1, misses = 1, hits = 2)
+
+        cache.get(VirtualNodeContext(
+            holdingIdentity = idAlice,
+            cpkFileChecksums = emptySet(),
+            sandboxGroupType = SandboxGroupType.FLOW,
+            serviceFilter = createRandomFilter()
+        )) { mockSandboxContext() }
+
+        verifySandboxMetrics(estimatedSize = 150, evictions = 1)
+    }
+
+    @Test
+    fun `when cache closed, remove its estimated size metric`() {
+        val cache = SandboxGroupContextCacheImpl(10) { 1 }
+        cache.get(vNodeContext1) { mockSandboxContext() }
+        verifySandboxMetrics(estimatedSize = 1)
+
+        cache.close()
+
+        assertThat(CordaMetrics.registry.find("corda.sandbox.cache.estimated.size").gauge()).isNull()
+    }
+
+    private fun assertSandboxInvalidatedWhileCreatedIsNotCached(invalidate: (SandboxGroupContextCacheImpl) -> Unit) {
+        val cache = SandboxGroupContextCacheImpl(10)
+        val creating = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val createCount = AtomicInteger()
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val staleCreation = executor.submit<SandboxGroupContext> {
+                cache.get(vNodeContext1) {
+                    createCount.incrementAndGet()
+                    creating.countDown()
+                    release.await()
+                    mockSandboxContext(name = "stale")
+                }
+            }
+            assertTrue(creating.await(TIMEOUT, SECONDS))
+
+            invalidate(cache)
+            release.countDown()
+            val staleContext = staleCreation.get(TIMEOUT, SECONDS)
+
+            val freshContext = cache.get(vNodeContext1) {
+                createCount.incrementAndGet()
+                mockSandboxContext(name = "fresh")
+            }
+            assertThat(freshContext).isNotSameAs(staleContext)
+            assertThat(createCount.get()).isEqualTo(2)
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    private fun verifySandboxMetrics(
+        sandboxType: SandboxGroupType = SandboxGroupType.FLOW,
+        estimatedSize: Int = 0,
+        evictions: Int = 0
+    ) {
+        val cacheEstimatedSize = CordaMetrics.registry
+            .find("corda.sandbox.cache.estimated.size")
+            .tag("sandbox.type", sandboxType.name).gauge()?.value()?.roundToInt()
+        assertThat(cacheEstimatedSize)
+            .withFailMessage("Expected $sandboxType estimated size to be $estimatedSize but was $cacheEstimatedSize")
+            .isEqualTo(estimatedSize)
+
+        val sandboxEvictions = CordaMetrics.registry
+            .find("corda.sandbox.eviction.count")
+            .tags("sandbox.type", sandboxType.name, "sandbox.eviction.cause", "SIZE").counter()?.count()?.roundToInt() ?: 0
+        assertThat(sandboxEvictions)
+            .withFailMessage("Expected $sandboxType evictions to be $evictions but was $sandboxEvictions")
+            .isEqualTo(evictions)
+    }
+
     private fun verifyCacheMetrics(
         sandboxType: SandboxGroupType = SandboxGroupType.FLOW,
         puts: Int = 0,
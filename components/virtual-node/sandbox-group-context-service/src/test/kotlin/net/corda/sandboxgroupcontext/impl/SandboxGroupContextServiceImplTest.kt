@@ -225,10 +225,10 @@ class SandboxGroupContextServiceImplTest {
         assertThat(service.remove(ctx1))
             .isNull()
         eventually(duration = ofSeconds(60)) {
-            verify(flowEvictionListener).onEviction(ctx1)
+            verify(flowEvictionListener).onEviction(ctx1, evicted = false)
         }
-        verify(persistenceEvictionListener, never()).onEviction(any())
-        verify(verificationEvictionListener, never()).onEviction(any())
+        verify(persistenceEvictionListener, never()).onEviction(any(), any())
+        verify(verificationEvictionListener, never()).onEviction(any(), any())
     }
 
     @Test
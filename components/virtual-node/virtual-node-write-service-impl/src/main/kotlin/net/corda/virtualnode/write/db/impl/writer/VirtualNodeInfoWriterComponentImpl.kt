@@ -74,6 +74,16 @@ class VirtualNodeInfoWriterComponentImpl @Activate constructor(
     override fun remove(recordKey: HoldingIdentity) =
         publish(listOf(Record(Schemas.VirtualNode.VIRTUAL_NODE_INFO_TOPIC, recordKey.toAvro(), null)))
 
+    override fun putAll(records: Map<HoldingIdentity, VirtualNodeInfo>) =
+        publish(
+            records.map { (recordKey, recordValue) ->
+                Record(Schemas.VirtualNode.VIRTUAL_NODE_INFO_TOPIC, recordKey.toAvro(), recordValue.toAvro())
+            }
+        )
+
+    override fun removeAll(recordKeys: Collection<HoldingIdentity>) =
+        publish(recordKeys.map { Record(Schemas.VirtualNode.VIRTUAL_NODE_INFO_TOPIC, it.toAvro(), null) })
+
     /** Synchronous publish */
     @Suppress("ForbiddenComment")
     private fun publish(records: List<Record<HoldingIdentityAvro, VirtualNodeInfoAvro>>) {
@@ -85,7 +95,7 @@ class VirtualNodeInfoWriterComponentImpl @Activate constructor(
             // TODO:  according the publish kdoc, we need to handle failure, retries, and possibly transactions.  Next PR.
             val futures = publisher!!.publish(records)
 
-            // Wait for the future (there should only be one) to complete.
+            // Wait for the futures to complete.
             futures.forEach { it.get() }
         }
     }
@@ -40,7 +40,28 @@ internal class ChunkReaderImpl(private val destDir: Path) : ChunkReader {
         val chunks: MutableSet<Int>,
         var expectedCount: Int,
         var expectedChecksum: SecureHash
-    )
+    ) {
+        // While chunks arrive in order, the binary is hashed as it is written, rather than read back once complete.
+        val messageDigest = Checksum.newMessageDigest()
+        var digestedUpTo = 0L
+        var inOrder = true
+
+        fun digest(chunk: Chunk) {
+            if (inOrder && chunk.offset == digestedUpTo) {
+                val data = chunk.data.duplicate()
+                digestedUpTo += data.remaining()
+                messageDigest.update(data)
+            } else {
+                inOrder = false
+            }
+        }
+
+        fun checksum(path: Path): SecureHash = if (inOrder) {
+            SecureHashImpl(Checksum.ALGORITHM, messageDigest.digest())
+        } else {
+            Checksum.digestForPath(path)
+        }
+    }
 
     private val chunksSoFar = mutableMapOf<RequestId, ChunksReceived>()
     private var chunksCombinedCallback: ChunksCombined? = null
@@ -67,6 +88,7 @@ internal class ChunkReaderImpl(private val destDir: Path) : ChunkReader {
             // We have a chunk, move to the correct offset, and write the data.
             // We expect the data to be correctly sized. There is a unit test to
             // ensure the writer does this.
+            chunksReceived.digest(chunk)
             @Suppress("SpreadOperator")
             Files.newByteChannel(path, CREATE_OR_UPDATE, *path.posixOptional(CPI_FILE_PERMISSIONS)).use { channel ->
                 channel.position(chunk.offset)
@@ -78,7 +100,7 @@ internal class ChunkReaderImpl(private val destDir: Path) : ChunkReader {
 
         // Have we received all the chunks?
         if (chunksReceived.expectedCount == chunksReceived.chunks.size) {
-            val actualChecksum = Checksum.digestForPath(path)
+            val actualChecksum = chunksReceived.checksum(path)
             if (actualChecksum != chunksReceived.expectedChecksum) {
                 throw IllegalArgumentException(SECURE_HASH_VALIDATION_ERROR)
             }
@@ -34,6 +34,11 @@ object Permissions {
                 "POST:/api/$VERSION_PATH_REGEX/flow/$vNodeShortHash",
                 null
             ),
+            PermissionTemplate(
+                "Start Multiple Flows endpoint",
+                "POST:/api/$VERSION_PATH_REGEX/flow/$vNodeShortHash/batch",
+                null
+            ),
             PermissionTemplate(
                 "Get status for all flows",
                 "GET:/api/$VERSION_PATH_REGEX/flow/$vNodeShortHash",
@@ -34,6 +34,10 @@ class PlatformDigestServiceImpl @Activate constructor(
     }
     private val lengths = ConcurrentHashMap<String, Int>()
 
+    // Message digests are not thread-safe, but each digest resets them, so every thread keeps and reuses its own
+    // instance of each algorithm rather than looking one up from the provider for every hash.
+    private val threadDigests = ThreadLocal.withInitial { HashMap<String, DigestAlgorithm>() }
+
     override fun hash(bytes: ByteArray, platformDigestName: DigestAlgorithmName): SecureHash {
         val hashBytes = digestFor(platformDigestName).digest(bytes)
         return SecureHashImpl(platformDigestName.name, hashBytes)
@@ -77,9 +81,11 @@ class PlatformDigestServiceImpl @Activate constructor(
         supportedDigestAlgorithms
 
     private fun digestFor(digestAlgorithmName: DigestAlgorithmName): DigestAlgorithm =
-        factories.getOrPut(digestAlgorithmName.name) {
-            SpiDigestAlgorithmFactory(schemeMetadata, digestAlgorithmName.name)
-        }.instance
+        threadDigests.get().getOrPut(digestAlgorithmName.name) {
+            factories.getOrPut(digestAlgorithmName.name) {
+                SpiDigestAlgorithmFactory(schemeMetadata, digestAlgorithmName.name)
+            }.instance
+        }
 
     private class SpiDigestAlgorithmFactory(
         schemeMetadata: CipherSchemeMetadata,
@@ -115,6 +121,8 @@ class PlatformDigestServiceImpl @Activate constructor(
 
             override fun digest(bytes: ByteArray): ByteArray = messageDigest.digest(bytes)
             override fun digest(inputStream : InputStream): ByteArray {
+                // Discard anything left over from a previous stream which failed to be read to its end.
+                messageDigest.reset()
                 val buffer = ByteArray(STREAM_BUFFER_SIZE)
                 while(true) {
                     val read = inputStream.read(buffer)
@@ -1,11 +1,15 @@
 package net.corda.cipher.suite.impl
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.corda.cache.caffeine.CacheFactoryImpl
 import net.corda.crypto.cipher.suite.CipherSchemeMetadata
 import net.corda.crypto.cipher.suite.CustomSignatureSpec
 import net.corda.crypto.cipher.suite.SignatureVerificationService
 import net.corda.crypto.cipher.suite.getParamsSafely
 import net.corda.crypto.cipher.suite.publicKeyId
 import net.corda.crypto.cipher.suite.schemes.KeyScheme
+import net.corda.crypto.core.SecureHashImpl
 import net.corda.crypto.impl.SignatureInstances
 import net.corda.crypto.impl.getSigningData
 import net.corda.sandbox.type.UsedByFlow
@@ -14,6 +18,7 @@ import net.corda.sandbox.type.UsedByVerification
 import net.corda.utilities.debug
 import net.corda.v5.application.crypto.DigestService
 import net.corda.v5.crypto.DigestAlgorithmName
+import net.corda.v5.crypto.SecureHash
 import net.corda.v5.crypto.SignatureSpec
 import net.corda.v5.crypto.exceptions.CryptoSignatureException
 import net.corda.v5.serialization.SingletonSerializeAsToken
@@ -22,6 +27,8 @@ import org.osgi.service.component.annotations.Component
 import org.osgi.service.component.annotations.Reference
 import org.osgi.service.component.annotations.ServiceScope.PROTOTYPE
 import org.slf4j.LoggerFactory
+import java.nio.ByteBuffer
+import java.security.MessageDigest
 import java.security.PublicKey
 import javax.crypto.Cipher
 
@@ -29,15 +36,56 @@ import javax.crypto.Cipher
     service = [ SignatureVerificationService::class, UsedByFlow::class, UsedByPersistence::class, UsedByVerification::class ],
     scope = PROTOTYPE
 )
-class SignatureVerificationServiceImpl @Activate constructor(
-    @Reference(service = CipherSchemeMetadata::class)
+class SignatureVerificationServiceImpl internal constructor(
     private val schemeMetadata: CipherSchemeMetadata,
-    @Reference(service = DigestService::class)
-    private val hashingService: DigestService
+    private val hashingService: DigestService,
+    private val verifiedSignatures: Cache<SecureHash, Boolean>?
 ) : SignatureVerificationService,
     UsedByFlow, UsedByPersistence, UsedByVerification, SingletonSerializeAsToken {
+    @Activate
+    constructor(
+        @Reference(service = CipherSchemeMetadata::class)
+        schemeMetadata: CipherSchemeMetadata,
+        @Reference(service = DigestService::class)
+        hashingService: DigestService
+    ) : this(schemeMetadata, hashingService, sharedVerifiedSignatures)
+
     companion object {
         private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+
+        private const val VERIFIED_SIGNATURES_CACHE_SIZE_PROPERTY = "net.corda.crypto.signature.verification.cache.size"
+
+        // Successful verifications, shared by every instance of this service on the worker, as the same signatures are
+        // verified again and again by different flows when resolving backchains and finalizing transactions. Only
+        // enabled when given a positive size, as the cache keeps a digest of every signature verified.
+        private val sharedVerifiedSignatures: Cache<SecureHash, Boolean>? =
+            java.lang.Long.getLong(VERIFIED_SIGNATURES_CACHE_SIZE_PROPERTY, 0).takeIf { it > 0 }?.let { size ->
+                CacheFactoryImpl().build("VerifiedSignatures", Caffeine.newBuilder().maximumSize(size))
+            }
+
+        /**
+         * @return A digest of everything a signature verification depends on, with each input prefixed by its length
+         * so that no two different sets of inputs can be written to the digest the same way.
+         */
+        private fun verifiedSignatureKey(
+            originalData: ByteArray,
+            signatureData: ByteArray,
+            publicKey: PublicKey,
+            signatureSpec: SignatureSpec
+        ): SecureHash {
+            val messageDigest = MessageDigest.getInstance(DigestAlgorithmName.SHA2_256.name)
+            val lengthBuffer = ByteBuffer.allocate(Int.SIZE_BYTES)
+            listOf(
+                publicKey.encoded,
+                signatureSpec.signatureName.toByteArray(Charsets.UTF_8),
+                signatureData,
+                originalData
+            ).forEach { input ->
+                messageDigest.update(lengthBuffer.clear().putInt(input.size).array())
+                messageDigest.update(input)
+            }
+            return SecureHashImpl(DigestAlgorithmName.SHA2_256.name, messageDigest.digest())
+        }
     }
 
     private val signatureInstances = SignatureInstances(schemeMetadata.providers)
@@ -134,8 +182,16 @@ class SignatureVerificationServiceImpl @Activate constructor(
         require(originalData.isNotEmpty()) {
             "Clear data is empty, nothing to verify!"
         }
+        // Signature specs with parameters, and custom ones, are not cached as their parameters are not part of the key.
+        val cache = verifiedSignatures?.takeIf {
+            signatureSpec !is CustomSignatureSpec && signatureSpec.getParamsSafely() == null
+        }
+        val cacheKey = cache?.let { verifiedSignatureKey(originalData, signatureData, publicKey, signatureSpec) }
+        if (cacheKey != null && cache?.getIfPresent(cacheKey) == true) {
+            return true
+        }
         val signingData = signatureSpec.getSigningData(hashingService, originalData)
-        return if (signatureSpec is CustomSignatureSpec && scheme.algorithmName == "RSA") {
+        val result = if (signatureSpec is CustomSignatureSpec && scheme.algorithmName == "RSA") {
             val cipher = Cipher.getInstance(
                 signatureSpec.signatureName,
                 schemeMetadata.providers.getValue(scheme.providerName)
@@ -150,5 +206,9 @@ class SignatureVerificationServiceImpl @Activate constructor(
                 signature.verify(signatureData)
             }
         }
+        if (result && cacheKey != null) {
+            cache?.put(cacheKey, true)
+        }
+        return result
     }
 }
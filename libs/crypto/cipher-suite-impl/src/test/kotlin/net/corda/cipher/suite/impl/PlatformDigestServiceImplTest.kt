@@ -18,7 +18,10 @@ import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.MethodSource
 import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.io.InputStream
 import java.security.MessageDigest
+import java.util.stream.Collectors
 import kotlin.random.Random
 import kotlin.test.assertEquals
 import kotlin.test.assertFailsWith
@@ -209,6 +212,38 @@ class PlatformDigestServiceImplTest {
             digestService.hash(message, algorithmName))
     }
 
+    @ParameterizedTest
+    @MethodSource("digests")
+    fun `Should not retain state of a failed input stream for all supported digests`(
+        digestScheme: DigestScheme
+    ) {
+        val algorithmName = DigestAlgorithmName(digestScheme.algorithmName)
+        val message = Random(17).nextBytes(1000)
+        val failingStream = object : InputStream() {
+            private var read = 0
+            override fun read(): Int = if (read++ < 100) 1 else throw IOException("Broken")
+        }
+        assertThrows<IOException> {
+            digestService.hash(failingStream, algorithmName)
+        }
+        assertEquals(
+            digestService.hash(message, algorithmName),
+            digestService.hash(ByteArrayInputStream(message), algorithmName)
+        )
+    }
+
+    @ParameterizedTest
+    @MethodSource("digests")
+    fun `Should calculate the same hashes from several threads at once for all supported digests`(
+        digestScheme: DigestScheme
+    ) {
+        val algorithmName = DigestAlgorithmName(digestScheme.algorithmName)
+        val messages = (0 until 200).map { Random(it).nextBytes(it + 1) }
+        val expected = messages.map { digestService.hash(it, algorithmName) }
+        val actual = messages.parallelStream().map { digestService.hash(it, algorithmName) }.collect(Collectors.toList())
+        assertEquals(expected, actual)
+    }
+
     @ParameterizedTest
     @MethodSource("digests")
     fun `Should calculate hash for array for all supported digests`(
@@ -1,10 +1,18 @@
 package net.corda.cipher.suite.impl
 
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.corda.cipher.suite.impl.infra.generateKeyPair
+import net.corda.cipher.suite.impl.infra.signData
 import net.corda.crypto.cipher.suite.CipherSchemeMetadata
 import net.corda.crypto.cipher.suite.SignatureSpecs
 import net.corda.crypto.cipher.suite.schemes.ECDSA_SECP256R1_TEMPLATE
 import net.corda.utilities.toByteArray
 import net.corda.v5.crypto.DigestAlgorithmName
+import net.corda.v5.crypto.KeySchemeCodes.EDDSA_ED25519_CODE_NAME
+import net.corda.v5.crypto.SecureHash
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.mockito.kotlin.any
@@ -178,4 +186,25 @@ class SignatureVerificationServiceGeneralTests {
             )
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `isValid only caches successful verifications`() {
+        val schemeMetadata = CipherSchemeMetadataImpl()
+        val verifiedSignatures = Caffeine.newBuilder().build<SecureHash, Boolean>()
+        val service = SignatureVerificationServiceImpl(
+            schemeMetadata = schemeMetadata,
+            hashingService = DigestServiceImpl(PlatformDigestServiceImpl(schemeMetadata), null),
+            verifiedSignatures = verifiedSignatures
+        )
+        val keyPair = generateKeyPair(schemeMetadata, EDDSA_ED25519_CODE_NAME)
+        val data = UUID.randomUUID().toByteArray()
+        val signature = signData(schemeMetadata, SignatureSpecs.EDDSA_ED25519, keyPair, data)
+
+        assertTrue(service.isValid(data, signature, keyPair.public, SignatureSpecs.EDDSA_ED25519))
+        assertTrue(service.isValid(data, signature, keyPair.public, SignatureSpecs.EDDSA_ED25519))
+        assertEquals(1, verifiedSignatures.estimatedSize())
+
+        assertFalse(service.isValid(UUID.randomUUID().toByteArray(), signature, keyPair.public, SignatureSpecs.EDDSA_ED25519))
+        assertEquals(1, verifiedSignatures.estimatedSize())
+    }
+}
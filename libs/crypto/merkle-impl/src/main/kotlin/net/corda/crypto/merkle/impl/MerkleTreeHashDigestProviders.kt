@@ -13,6 +13,7 @@ import net.corda.v5.crypto.merkle.MerkleProof
 import net.corda.v5.crypto.merkle.MerkleProofType
 import java.nio.charset.Charset
 import java.security.SecureRandom
+import java.util.concurrent.ConcurrentHashMap
 
 private fun createNonce(random: SecureRandom): ByteArray {
     val nonce = ByteArray(NonceHashDigestProvider.EXPECTED_ENTROPY_LENGTH)
@@ -41,7 +42,7 @@ class DefaultHashDigestProvider(
 
     override fun nodeHash(depth: Int, left: SecureHash, right: SecureHash): SecureHash {
         checkMatchingAlgorithms(left, right)
-        return digestService.hash(concatByteArrays(ONE_BYTE, left.serialize(), right.serialize()), digestAlgorithmName)
+        return digestService.hash(nodeHashInput(ONE_BYTE, left, right), digestAlgorithmName)
     }
 }
 
@@ -76,7 +77,7 @@ class TweakableHashDigestProvider(
 
     override fun nodeHash(depth: Int, left: SecureHash, right: SecureHash): SecureHash {
         checkMatchingAlgorithms(left, right)
-        return digestService.hash(concatByteArrays(nodePrefix, left.serialize(), right.serialize()), digestAlgorithmName)
+        return digestService.hash(nodeHashInput(nodePrefix, left, right), digestAlgorithmName)
     }
 }
 
@@ -117,7 +118,7 @@ open class NonceHashDigestProvider(
 
         override fun nodeHash(depth: Int, left: SecureHash, right: SecureHash): SecureHash {
             checkMatchingAlgorithms(left, right)
-            return digestService.hash(concatByteArrays(depth.toByteArray(), left.serialize(), right.serialize()), digestAlgorithmName)
+            return digestService.hash(nodeHashInput(depth.toByteArray(), left, right), digestAlgorithmName)
         }
     }
 
@@ -142,7 +143,7 @@ open class NonceHashDigestProvider(
 
     override fun nodeHash(depth: Int, left: SecureHash, right: SecureHash): SecureHash {
         checkMatchingAlgorithms(left, right)
-        return digestService.hash(concatByteArrays(depth.toByteArray(), left.serialize(), right.serialize()), digestAlgorithmName)
+        return digestService.hash(nodeHashInput(depth.toByteArray(), left, right), digestAlgorithmName)
     }
 
     override fun equals(other: Any?): Boolean {
@@ -189,6 +190,29 @@ internal fun deserialize(bytes: ByteArray, digestService: DigestService): Secure
     }
 }
 
+private val serializedAlgorithms = ConcurrentHashMap<String, ByteArray>()
+
+// The algorithm name and separator which start the serialized form of a hash. Never modified once cached.
+private fun serializedAlgorithm(algorithm: String): ByteArray =
+    serializedAlgorithms.computeIfAbsent(algorithm) {
+        ("$it$SERIALIZATION_SEPARATOR").toByteArray(Charset.forName("UTF8"))
+    }
+
 internal fun SecureHash.serialize(): ByteArray {
-    return ("$algorithm$SERIALIZATION_SEPARATOR").toByteArray(Charset.forName("UTF8")) + bytes
+    return serializedAlgorithm(algorithm) + bytes
+}
+
+/**
+ * @return [prefix] followed by the serialized forms of [left] and [right], written straight into one array rather
+ * than concatenating separately serialized copies of each hash, as this is done for every node of every tree.
+ */
+internal fun nodeHashInput(prefix: ByteArray, left: SecureHash, right: SecureHash): ByteArray {
+    val parts = arrayOf(prefix, serializedAlgorithm(left.algorithm), left.bytes, serializedAlgorithm(right.algorithm), right.bytes)
+    val input = ByteArray(parts.sumOf { it.size })
+    var offset = 0
+    for (part in parts) {
+        System.arraycopy(part, 0, input, offset, part.size)
+        offset += part.size
+    }
+    return input
 }
\ No newline at end of file
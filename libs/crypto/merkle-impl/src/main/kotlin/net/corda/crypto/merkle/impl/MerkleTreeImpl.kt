@@ -5,6 +5,8 @@ import net.corda.v5.crypto.extensions.merkle.MerkleTreeHashDigestProvider
 import net.corda.v5.crypto.merkle.MerkleProof
 import net.corda.v5.crypto.merkle.MerkleProofType
 import net.corda.v5.crypto.merkle.MerkleTree
+import java.util.stream.Collectors
+import java.util.stream.IntStream
 
 /**
  *  leaves:         [L0, L1, L2, L3, L4]
@@ -79,6 +81,9 @@ class MerkleTreeImpl(
     }
 
     companion object {
+        // Below this many leaves, the cost of hashing them in parallel outweighs the gain.
+        private const val PARALLEL_LEAF_HASHING_THRESHOLD = 512
+
         @JvmStatic
         fun createMerkleTree(
             leaves: List<ByteArray>,
@@ -105,13 +110,29 @@ class MerkleTreeImpl(
 
     }
 
+    /**
+     * The leaves of wide trees are hashed in parallel, as each leaf hash is independent of the others. This is only
+     * done for the hash digest providers defined here, which are known to be safe to call from several threads at
+     * once, and not for those provided by CorDapps.
+     */
     private val leafHashes: List<SecureHash> by lazy(LazyThreadSafetyMode.PUBLICATION) {
-        leaves.mapIndexed { index, bytes ->
-            val nonce = digest.leafNonce(index)
-            digest.leafHash(index, nonce, bytes)
+        if (leaves.size >= PARALLEL_LEAF_HASHING_THRESHOLD && digest.isThreadSafe()) {
+            IntStream.range(0, leaves.size).parallel()
+                .mapToObj { leafHash(it) }
+                .collect(Collectors.toList())
+        } else {
+            leaves.indices.map { leafHash(it) }
         }
     }
 
+    private fun leafHash(index: Int): SecureHash {
+        val nonce = digest.leafNonce(index)
+        return digest.leafHash(index, nonce, leaves[index])
+    }
+
+    private fun MerkleTreeHashDigestProvider.isThreadSafe(): Boolean =
+        this is DefaultHashDigestProvider || this is TweakableHashDigestProvider || this is NonceHashDigestProvider
+
     /**
      * We calculate the tree's elements here from starting with the lowest level and progressing level by level towards
      * the root element.
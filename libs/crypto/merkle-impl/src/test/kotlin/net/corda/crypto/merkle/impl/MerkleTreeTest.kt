@@ -1192,6 +1192,22 @@ class MerkleTreeTest {
 
     }
 
+    @Test
+    fun `wide trees hashed in parallel have the same root as when hashed one leaf at a time`() {
+        val leaves = (0 until 2000).map { it.toByteArray() }
+        val sequentialProvider = object : MerkleTreeHashDigestProvider by defaultHashDigestProvider {}
+        val sequentialNonceProvider = object : MerkleTreeHashDigestProvider by nonceHashDigestProvider {}
+
+        assertEquals(
+            MerkleTreeImpl.createMerkleTree(leaves, sequentialProvider).root,
+            MerkleTreeImpl.createMerkleTree(leaves, defaultHashDigestProvider).root
+        )
+        assertEquals(
+            MerkleTreeImpl.createMerkleTree(leaves, sequentialNonceProvider).root,
+            MerkleTreeImpl.createMerkleTree(leaves, nonceHashDigestProvider).root
+        )
+    }
+
     @Test
     fun `Merkle proof size 1 with double SHA256`() {
         testProof(
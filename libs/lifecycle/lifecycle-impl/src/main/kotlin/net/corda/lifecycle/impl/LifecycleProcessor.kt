@@ -112,10 +112,12 @@ internal class LifecycleProcessor(
             }
             is TrackRegistration -> {
                 state.trackedRegistrations.add(event.registration)
+                updateDependencies()
                 true
             }
             is StopTrackingRegistration -> {
                 state.trackedRegistrations.remove(event.registration)
+                updateDependencies()
                 true
             }
             is StatusChange -> {
@@ -236,6 +238,13 @@ internal class LifecycleProcessor(
         registry.updateStatus(coordinator.name, newStatus, reason)
     }
 
+    /**
+     * Inform the registry of the coordinators this coordinator follows, through the registrations it tracks.
+     */
+    private fun updateDependencies() {
+        registry.updateDependencies(name, state.trackedRegistrations.flatMapTo(LinkedHashSet()) { it.coordinatorNames })
+    }
+
     private fun runUserEventHandler(event: LifecycleEvent, coordinator: LifecycleCoordinator): Boolean {
         return try {
             userEventHandler.processEvent(event, coordinator)
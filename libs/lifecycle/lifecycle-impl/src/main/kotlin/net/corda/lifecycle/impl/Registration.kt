@@ -1,6 +1,7 @@
 package net.corda.lifecycle.impl
 
 import net.corda.lifecycle.CustomEvent
+import net.corda.lifecycle.LifecycleCoordinatorName
 import net.corda.lifecycle.LifecycleStatus
 import net.corda.lifecycle.RegistrationHandle
 import net.corda.lifecycle.RegistrationStatusChangeEvent
@@ -37,6 +38,12 @@ internal class Registration(
 
     private val isClosed = AtomicBoolean(false)
 
+    /**
+     * The names of the coordinators that have been registered to.
+     */
+    val coordinatorNames: Set<LifecycleCoordinatorName>
+        get() = coordinators.mapTo(LinkedHashSet()) { it.name }
+
     private val currentStatus: LifecycleStatus
         get() = if (coordinatorStatusMap.values.all { it == LifecycleStatus.UP }) {
             LifecycleStatus.UP
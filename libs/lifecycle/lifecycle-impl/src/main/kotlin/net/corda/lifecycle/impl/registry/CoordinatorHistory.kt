@@ -0,0 +1,88 @@
+package net.corda.lifecycle.impl.registry
+
+import net.corda.lifecycle.LifecycleCoordinatorName
+import net.corda.lifecycle.LifecycleStatus
+import net.corda.lifecycle.registry.StatusTransition
+import java.time.Instant
+
+/**
+ * The status transitions of a single coordinator, and the coordinators it currently follows.
+ *
+ * Only the last [MAX_TRANSITIONS] transitions are kept, so that coordinators which keep going UP and DOWN do not grow
+ * their history without bounds.
+ */
+internal class CoordinatorHistory(private val name: LifecycleCoordinatorName, created: Instant) {
+    companion object {
+        const val NEW_COORDINATOR_REASON = "Coordinator has just been created"
+        const val MAX_TRANSITIONS = 32
+    }
+
+    private val transitions = ArrayDeque<StatusTransition>().apply {
+        add(StatusTransition(LifecycleStatus.DOWN, NEW_COORDINATOR_REASON, created))
+    }
+
+    @Volatile
+    var dependencies: Set<LifecycleCoordinatorName> = emptySet()
+
+    /**
+     * Record a status update, unless it repeats the last status and reason recorded.
+     *
+     * @return `true` if the update was recorded as a new transition.
+     */
+    @Synchronized
+    fun record(status: LifecycleStatus, reason: String, timestamp: Instant): Boolean {
+        val last = transitions.last()
+        if (last.status == status && last.reason == reason) {
+            return false
+        }
+        if (transitions.size == MAX_TRANSITIONS) {
+            transitions.removeFirst()
+        }
+        transitions.addLast(StatusTransition(status, reason, timestamp))
+        return true
+    }
+
+    @Synchronized
+    fun timeline() = CoordinatorTimeline(name, transitions.toList(), dependencies)
+}
+
+/**
+ * A snapshot of a [CoordinatorHistory].
+ */
+internal class CoordinatorTimeline(
+    val name: LifecycleCoordinatorName,
+    val transitions: List<StatusTransition>,
+    val dependencies: Set<LifecycleCoordinatorName>,
+) {
+    val status: LifecycleStatus
+        get() = transitions.last().status
+
+    /**
+     * Whether the coordinator was ever started, rather than only created.
+     */
+    val started: Boolean
+        get() = transitions.any { it.reason != CoordinatorHistory.NEW_COORDINATOR_REASON }
+
+    private val upFrom = transitions.indexOfLast { it.status != LifecycleStatus.UP } + 1
+
+    /**
+     * When the coordinator last went UP, or `null` if it is not UP.
+     */
+    val upSince: Instant? = transitions.getOrNull(upFrom)?.timestamp
+
+    /**
+     * When the coordinator was last started or went DOWN (or ERROR), before going UP if it is UP.
+     */
+    val waitingSince: Instant = run {
+        var from = upFrom - 1
+        while (from > 0 && transitions[from - 1].status != LifecycleStatus.UP) {
+            from--
+        }
+        when {
+            from < 0 -> transitions.first()
+            // Creating a coordinator does not start it, so its time to go UP runs from when it is started.
+            transitions[from].reason == CoordinatorHistory.NEW_COORDINATOR_REASON && from + 1 < upFrom -> transitions[from + 1]
+            else -> transitions[from]
+        }.timestamp
+    }
+}
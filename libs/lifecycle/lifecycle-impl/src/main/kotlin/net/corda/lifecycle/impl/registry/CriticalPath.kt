@@ -0,0 +1,63 @@
+package net.corda.lifecycle.impl.registry
+
+import net.corda.lifecycle.LifecycleCoordinatorName
+import net.corda.lifecycle.registry.CriticalPathStep
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * Computes the critical path of coordinators going UP, out of the coordinators' timelines and dependencies.
+ *
+ * The path to a coordinator is the path to whichever of the coordinators it follows went UP last (or is not UP),
+ * followed by the coordinator itself. The critical path is the path to the started coordinator which went UP last,
+ * or which is not UP; out of several such coordinators, the one with the longest path.
+ */
+internal class CriticalPath(
+    private val timelines: Map<LifecycleCoordinatorName, CoordinatorTimeline>,
+    private val now: Instant,
+) {
+    private val paths = HashMap<LifecycleCoordinatorName, List<CoordinatorTimeline>>()
+
+    private val CoordinatorTimeline.end: Instant
+        get() = upSince ?: now
+
+    private val longestLatestPath = compareBy<List<CoordinatorTimeline>>({ it.last().end }, { it.size })
+
+    fun steps(): List<CriticalPathStep> {
+        val path = timelines.values
+            .filter { it.started }
+            .map { pathTo(it, HashSet()) }
+            .maxWithOrNull(longestLatestPath)
+            ?: return emptyList()
+        return path.mapIndexed { index, timeline ->
+            val previousEnd = path.getOrNull(index - 1)?.end
+            val blockedFrom = if (previousEnd != null && previousEnd > timeline.waitingSince) {
+                previousEnd
+            } else {
+                timeline.waitingSince
+            }
+            CriticalPathStep(
+                timeline.name,
+                timeline.status,
+                timeline.upSince,
+                Duration.between(blockedFrom, timeline.end).coerceAtLeast(Duration.ZERO),
+            )
+        }
+    }
+
+    private fun pathTo(
+        timeline: CoordinatorTimeline,
+        visiting: MutableSet<LifecycleCoordinatorName>,
+    ): List<CoordinatorTimeline> {
+        paths[timeline.name]?.let { return it }
+        // Guards against coordinators which (indirectly) follow each other.
+        visiting.add(timeline.name)
+        val blockingPath = timeline.dependencies
+            .filterNot { it in visiting }
+            .mapNotNull { timelines[it] }
+            .map { pathTo(it, visiting) }
+            .maxWithOrNull(longestLatestPath)
+        visiting.remove(timeline.name)
+        return (blockingPath.orEmpty() + timeline).also { paths[timeline.name] = it }
+    }
+}
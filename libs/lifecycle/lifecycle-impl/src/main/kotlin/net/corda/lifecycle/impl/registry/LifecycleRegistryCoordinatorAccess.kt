@@ -33,6 +33,14 @@ interface LifecycleRegistryCoordinatorAccess {
      */
     fun updateStatus(name: LifecycleCoordinatorName, status: LifecycleStatus, reason: String)
 
+    /**
+     * Update the registry of the coordinators a named coordinator currently follows the status of.
+     *
+     * @param name The name of the coordinator which has registered on, or cancelled a registration on, other coordinators.
+     * @param dependencies The names of all the coordinators it now follows.
+     */
+    fun updateDependencies(name: LifecycleCoordinatorName, dependencies: Set<LifecycleCoordinatorName>)
+
     /**
      * Retrieve a coordinator for a given name.
      *
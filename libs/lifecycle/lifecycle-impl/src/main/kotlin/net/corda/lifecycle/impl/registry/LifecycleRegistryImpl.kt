@@ -1,15 +1,23 @@
 package net.corda.lifecycle.impl.registry
 
+import io.micrometer.core.instrument.Timer
 import net.corda.lifecycle.LifecycleCoordinatorName
 import net.corda.lifecycle.LifecycleStatus
 import net.corda.lifecycle.impl.LifecycleCoordinatorInternal
+import net.corda.lifecycle.impl.registry.CoordinatorHistory.Companion.NEW_COORDINATOR_REASON
 import net.corda.lifecycle.registry.CoordinatorStatus
+import net.corda.lifecycle.registry.CriticalPathStep
 import net.corda.lifecycle.registry.LifecycleRegistry
 import net.corda.lifecycle.registry.LifecycleRegistryException
+import net.corda.lifecycle.registry.StatusTransition
+import net.corda.metrics.CordaMetrics
 import net.corda.utilities.debug
 import net.corda.utilities.trace
 import org.osgi.service.component.annotations.Component
 import org.slf4j.LoggerFactory
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentMap
 
@@ -17,22 +25,46 @@ import java.util.concurrent.ConcurrentMap
  * The lifecycle registry implementation.
  *
  * The lifecycle registry provides two pieces of functionality. The first is a lookup mechanism for finding coordinators
- * based on a name. The second is a record of the current statuses of all coordinators in the system.
+ * based on a name. The second is a record of the current statuses of all coordinators in the system, along with when
+ * their statuses changed and which other coordinators they follow, from which it works out what holds up coordinators
+ * going UP.
  */
 @Component(service = [LifecycleRegistry::class, LifecycleRegistryCoordinatorAccess::class])
-class LifecycleRegistryImpl : LifecycleRegistry, LifecycleRegistryCoordinatorAccess {
+class LifecycleRegistryImpl internal constructor(
+    private val clock: Clock
+) : LifecycleRegistry, LifecycleRegistryCoordinatorAccess {
 
     private companion object {
-        private const val NEW_COORDINATOR_REASON = "Coordinator has just been created"
-
         private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
     }
 
+    constructor() : this(Clock.systemUTC())
+
     private val coordinators: MutableMap<LifecycleCoordinatorName, LifecycleCoordinatorInternal> =
         ConcurrentHashMap()
 
     private val statuses: ConcurrentMap<LifecycleCoordinatorName, CoordinatorStatus> = ConcurrentHashMap()
 
+    private val histories: ConcurrentMap<LifecycleCoordinatorName, CoordinatorHistory> = ConcurrentHashMap()
+
+    // Keyed by component name only, as the instance IDs of some coordinators are random and would make the number of
+    // meters grow without bound.
+    private val upTimers: ConcurrentMap<String, UpTimers> = ConcurrentHashMap()
+
+    private class UpTimers(componentName: String) : AutoCloseable {
+        val upTime: Timer = CordaMetrics.Metric.Lifecycle.CoordinatorUpTime.builder()
+            .withTag(CordaMetrics.Tag.LifecycleCoordinator, componentName)
+            .build()
+        val blockedTime: Timer = CordaMetrics.Metric.Lifecycle.CoordinatorBlockedTime.builder()
+            .withTag(CordaMetrics.Tag.LifecycleCoordinator, componentName)
+            .build()
+
+        override fun close() {
+            CordaMetrics.registry.remove(upTime)
+            CordaMetrics.registry.remove(blockedTime)
+        }
+    }
+
     /**
      * See [LifecycleRegistryCoordinatorAccess].
      */
@@ -49,11 +81,35 @@ class LifecycleRegistryImpl : LifecycleRegistry, LifecycleRegistryCoordinatorAcc
             // Without `computeIfPresent`, `updateStatus` may (in theory) re-introduce just removed coordinator to `statuses` map only,
             // but not to `coordinators` map.
             val coordinatorStatus = CoordinatorStatus(name, status, reason)
+            val previousStatus = statuses[name]?.status
             statuses.computeIfPresent(name) { _, _ -> coordinatorStatus }
+            val now = clock.instant()
+            val recorded = histories[name]?.record(status, reason, now) ?: false
+            if (recorded && status == LifecycleStatus.UP && previousStatus != LifecycleStatus.UP) {
+                recordUpTimes(name, now)
+            }
             logger.trace { "Coordinator status update: $name is now $status ($reason)" }
         }
     }
 
+    /**
+     * Records how long the coordinator took to go UP, and how long it took after the coordinators it follows did.
+     */
+    private fun recordUpTimes(name: LifecycleCoordinatorName, upAt: Instant) {
+        val timeline = histories[name]?.timeline() ?: return
+        val lastDependencyUp = timeline.dependencies
+            .mapNotNull { histories[it]?.timeline()?.upSince }
+            .maxOrNull()
+        val blockedFrom = if (lastDependencyUp != null && lastDependencyUp > timeline.waitingSince) {
+            lastDependencyUp
+        } else {
+            timeline.waitingSince
+        }
+        val timers = upTimers.computeIfAbsent(name.componentName, ::UpTimers)
+        timers.upTime.record(Duration.between(timeline.waitingSince, upAt))
+        timers.blockedTime.record(Duration.between(blockedFrom, upAt))
+    }
+
     /**
      * See [LifecycleRegistryCoordinatorAccess].
      */
@@ -64,9 +120,18 @@ class LifecycleRegistryImpl : LifecycleRegistry, LifecycleRegistryCoordinatorAcc
             throw LifecycleRegistryException("A coordinator with name $name has already been registered")
         }
         statuses[name] = coordinatorStatus
+        histories[name] = CoordinatorHistory(name, clock.instant())
         logger.trace { "Registered new coordinator with name $name" }
     }
 
+    /**
+     * See [LifecycleRegistryCoordinatorAccess].
+     */
+    override fun updateDependencies(name: LifecycleCoordinatorName, dependencies: Set<LifecycleCoordinatorName>) {
+        // A coordinator which has already been removed updates a history that is no longer referenced.
+        histories[name]?.dependencies = dependencies
+    }
+
     /**
      * See [LifecycleRegistryCoordinatorAccess].
      */
@@ -82,6 +147,10 @@ class LifecycleRegistryImpl : LifecycleRegistry, LifecycleRegistryCoordinatorAcc
         logger.debug { "Removing coordinator $name from registry" }
         coordinators.remove(name)
         statuses.remove(name)
+        histories.remove(name)
+        if (coordinators.keys.none { it.componentName == name.componentName }) {
+            upTimers.remove(name.componentName)?.close()
+        }
     }
 
     /**
@@ -90,4 +159,25 @@ class LifecycleRegistryImpl : LifecycleRegistry, LifecycleRegistryCoordinatorAcc
     override fun componentStatus(): Map<LifecycleCoordinatorName, CoordinatorStatus> {
         return statuses.toMap()
     }
+
+    /**
+     * See [LifecycleRegistry].
+     */
+    override fun statusTransitions(): Map<LifecycleCoordinatorName, List<StatusTransition>> {
+        return histories.mapValues { it.value.timeline().transitions }
+    }
+
+    /**
+     * See [LifecycleRegistry].
+     */
+    override fun dependencyGraph(): Map<LifecycleCoordinatorName, Set<LifecycleCoordinatorName>> {
+        return histories.mapValues { it.value.dependencies }
+    }
+
+    /**
+     * See [LifecycleRegistry].
+     */
+    override fun criticalPath(): List<CriticalPathStep> {
+        return CriticalPath(histories.mapValues { it.value.timeline() }, clock.instant()).steps()
+    }
 }
@@ -4,12 +4,21 @@ import net.corda.lifecycle.LifecycleCoordinatorName
 import net.corda.lifecycle.LifecycleStatus
 import net.corda.lifecycle.impl.LifecycleCoordinatorInternal
 import net.corda.lifecycle.registry.CoordinatorStatus
+import net.corda.lifecycle.registry.CriticalPathStep
 import net.corda.lifecycle.registry.LifecycleRegistryException
+import net.corda.lifecycle.registry.StatusTransition
+import net.corda.metrics.CordaMetrics
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Disabled
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
+import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.mock
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
 
 class LifecycleRegistryImplTest {
 
@@ -141,4 +150,105 @@ class LifecycleRegistryImplTest {
             registry.getCoordinator(aliceName)
         }
     }
+
+    private var now = Instant.ofEpochSecond(1000)
+
+    private val clock = mock<Clock> {
+        on { instant() } doAnswer { now }
+    }
+
+    private fun startedRegistry(): LifecycleRegistryImpl {
+        val registry = LifecycleRegistryImpl(clock)
+        listOf(aliceName, bobName, charlieName).forEach { registry.registerCoordinator(it, mock()) }
+        now = now.plusSeconds(1)
+        listOf(aliceName, bobName, charlieName).forEach { registry.updateStatus(it, LifecycleStatus.DOWN, "Started") }
+        registry.updateDependencies(charlieName, setOf(aliceName, bobName))
+        return registry
+    }
+
+    private fun LifecycleRegistryImpl.goUpAfter(name: LifecycleCoordinatorName, seconds: Long) {
+        now = now.plusSeconds(seconds)
+        updateStatus(name, LifecycleStatus.UP, "$name is up")
+    }
+
+    @Test
+    fun `status transitions are recorded with their timestamps`() {
+        val registry = startedRegistry()
+        registry.goUpAfter(aliceName, 1)
+        registry.updateStatus(aliceName, LifecycleStatus.UP, "$aliceName is up")
+
+        assertEquals(
+            listOf(
+                StatusTransition(LifecycleStatus.DOWN, "Coordinator has just been created", Instant.ofEpochSecond(1000)),
+                StatusTransition(LifecycleStatus.DOWN, "Started", Instant.ofEpochSecond(1001)),
+                StatusTransition(LifecycleStatus.UP, "$aliceName is up", Instant.ofEpochSecond(1002)),
+            ),
+            registry.statusTransitions()[aliceName]
+        )
+        assertEquals(setOf(aliceName, bobName), registry.dependencyGraph()[charlieName])
+        assertEquals(emptySet<LifecycleCoordinatorName>(), registry.dependencyGraph()[aliceName])
+    }
+
+    @Test
+    fun `critical path follows the dependency which went up last`() {
+        val registry = startedRegistry()
+        registry.goUpAfter(aliceName, 1)
+        registry.goUpAfter(bobName, 3)
+        registry.goUpAfter(charlieName, 1)
+
+        assertEquals(
+            listOf(
+                CriticalPathStep(bobName, LifecycleStatus.UP, Instant.ofEpochSecond(1005), Duration.ofSeconds(4)),
+                CriticalPathStep(charlieName, LifecycleStatus.UP, Instant.ofEpochSecond(1006), Duration.ofSeconds(1)),
+            ),
+            registry.criticalPath()
+        )
+    }
+
+    @Test
+    fun `critical path ends with a coordinator which is not up yet`() {
+        val registry = startedRegistry()
+        registry.goUpAfter(bobName, 1)
+        registry.goUpAfter(aliceName, 2)
+        now = now.plusSeconds(5)
+
+        assertEquals(
+            listOf(
+                CriticalPathStep(aliceName, LifecycleStatus.UP, Instant.ofEpochSecond(1004), Duration.ofSeconds(3)),
+                CriticalPathStep(charlieName, LifecycleStatus.DOWN, null, Duration.ofSeconds(5)),
+            ),
+            registry.criticalPath()
+        )
+    }
+
+    @Test
+    fun `removed coordinators are dropped from the timeline`() {
+        val registry = startedRegistry()
+        registry.removeCoordinator(charlieName)
+        registry.updateDependencies(charlieName, setOf(aliceName))
+
+        assertEquals(setOf(aliceName, bobName), registry.statusTransitions().keys)
+        assertEquals(setOf(aliceName, bobName), registry.dependencyGraph().keys)
+    }
+
+    @Test
+    fun `up time meters are tagged with the component name and removed with its last coordinator`() {
+        val registry = LifecycleRegistryImpl(clock)
+        val first = LifecycleCoordinatorName("Dave", "1")
+        val second = LifecycleCoordinatorName("Dave", "2")
+        listOf(first, second).forEach { registry.registerCoordinator(it, mock()) }
+        registry.goUpAfter(first, 1)
+        registry.goUpAfter(second, 1)
+
+        fun upTimer() = CordaMetrics.registry
+            .find("corda.${CordaMetrics.Metric.Lifecycle.CoordinatorUpTime.metricsName}")
+            .tag(CordaMetrics.Tag.LifecycleCoordinator.value, "Dave")
+            .timer()
+        assertNotNull(upTimer())
+
+        registry.removeCoordinator(first)
+        assertNotNull(upTimer())
+        registry.removeCoordinator(second)
+        assertNull(upTimer())
+    }
 }
@@ -0,0 +1,23 @@
+package net.corda.lifecycle.registry
+
+import net.corda.lifecycle.LifecycleCoordinatorName
+import net.corda.lifecycle.LifecycleStatus
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * A coordinator on the critical path of coordinators going UP.
+ *
+ * @param name The name of the coordinator
+ * @param status The current status of the coordinator
+ * @param upSince When the coordinator last went UP, or `null` if it is not UP.
+ * @param blockedFor How long the coordinator itself held up the critical path, i.e. the time it took to go UP after the
+ * previous coordinator on the path went UP (or after it was started, if that was later). For a coordinator which is
+ * not UP, how long it has been holding the critical path up so far.
+ */
+data class CriticalPathStep(
+    val name: LifecycleCoordinatorName,
+    val status: LifecycleStatus,
+    val upSince: Instant?,
+    val blockedFor: Duration,
+)
@@ -26,6 +26,30 @@ interface LifecycleRegistry {
      */
     fun componentStatus(): Map<LifecycleCoordinatorName, CoordinatorStatus>
 
+    /**
+     * Obtain the status transitions of all coordinators, oldest first. The history of each coordinator is bounded, so
+     * the oldest transitions of a coordinator that changes status often are dropped.
+     *
+     * @return A map of coordinator names to their status transitions.
+     */
+    fun statusTransitions(): Map<LifecycleCoordinatorName, List<StatusTransition>> = emptyMap()
+
+    /**
+     * Obtain the coordinators each coordinator currently follows the status of.
+     *
+     * @return A map of coordinator names to the names of the coordinators they follow.
+     */
+    fun dependencyGraph(): Map<LifecycleCoordinatorName, Set<LifecycleCoordinatorName>> = emptyMap()
+
+    /**
+     * Obtain the chain of coordinators which held up the coordinators of the system going UP. The chain ends with the
+     * coordinator which went UP last, or with one that is not UP yet. Every other coordinator on the chain is, out of
+     * the coordinators the next one follows, the one which went UP last or is not UP.
+     *
+     * @return The coordinators on the critical path, from the first one to hold it up to the last.
+     */
+    fun criticalPath(): List<CriticalPathStep> = emptyList()
+
     /**
      * Returns all [LifecycleCoordinatorName] in the given statuses
      */
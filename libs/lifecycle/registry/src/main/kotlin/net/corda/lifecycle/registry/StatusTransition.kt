@@ -0,0 +1,13 @@
+package net.corda.lifecycle.registry
+
+import net.corda.lifecycle.LifecycleStatus
+import java.time.Instant
+
+/**
+ * A change of status of a single coordinator.
+ *
+ * @param status The status the coordinator changed to
+ * @param reason A description of what put the coordinator into this status.
+ * @param timestamp When the coordinator changed to this status.
+ */
+data class StatusTransition(val status: LifecycleStatus, val reason: String, val timestamp: Instant)
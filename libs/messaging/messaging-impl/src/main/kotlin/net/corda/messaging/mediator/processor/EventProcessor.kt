@@ -65,6 +65,7 @@ class EventProcessor<K : Any, S : Any, E : Any>(
         }
     }
 
+    @Suppress("TooGenericExceptionCaught")
     private fun processRecords(
         input: EventProcessingInput<K, E>,
         inputProcessorState: StateAndEventProcessor.State<S>?,
@@ -79,10 +80,17 @@ class EventProcessor<K : Any, S : Any, E : Any>(
                 processorState = updatedProcessorState
                 asyncOutputs.addOutputs(consumerInputEvent, newAsyncOutputs)
             }
+            processorState = config.messageProcessor.onBatchComplete(key, processorState)
             val state = stateManagerHelper.createOrUpdateState(key.toString(), inputState, processorState)
             stateChangeAndOperation(inputState, state)
         } catch (e: EventProcessorSyncEventsIntermittentException) {
             asyncOutputs.clear()
+            @Suppress("unchecked_cast")
+            releaseBatch(key, e.partiallyProcessedState as StateAndEventProcessor.State<S>?)
+            StateChangeAndOperation.Transient
+        } catch (e: CordaMessageAPIIntermittentException) {
+            asyncOutputs.clear()
+            releaseBatch(key, processorState)
             StateChangeAndOperation.Transient
         } catch (e: EventProcessorSyncEventsFatalException) {
             // If a fatal error occurs here, the RPC client has failed to deliver a message to another part
@@ -96,30 +104,51 @@ class EventProcessor<K : Any, S : Any, E : Any>(
                 "unable to contact Corda services while processing events"
             )
             stateChangeAndOperation(inputState, state)
+        } catch (e: Exception) {
+            // Any other failure still propagates, so that the poll is retried, but the processor must first be told
+            // the batch for this key is over.
+            releaseBatch(key, null)
+            throw e
         }
 
         return EventProcessingOutput(asyncOutputs.values.flatten(), stateChangeAndOperation)
     }
 
+    /**
+     * Tells the processor the batch for [key] is over when the state it was processed into is discarded, so it can
+     * release any work it deferred. The state is not used, so a failure to complete it is ignored.
+     */
+    @Suppress("TooGenericExceptionCaught", "SwallowedException")
+    private fun releaseBatch(key: K, state: StateAndEventProcessor.State<S>?) {
+        try {
+            config.messageProcessor.onBatchComplete(key, state)
+        } catch (e: Exception) {
+            // Nothing is stored for the discarded state
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught", "SwallowedException")
     private fun getMostRecentState(
         key: K,
         partiallyProcessedState: StateAndEventProcessor.State<*>?,
         currentProcessorState: StateAndEventProcessor.State<S>?,
         inputState: State?
     ): State? {
-        return when {
-            partiallyProcessedState != null -> {
-                @Suppress("unchecked_cast")
-                stateManagerHelper.createOrUpdateState(
-                    key.toString(),
-                    inputState,
-                    partiallyProcessedState as StateAndEventProcessor.State<S>
-                )
-            }
+        @Suppress("unchecked_cast")
+        val mostRecentProcessorState = partiallyProcessedState as StateAndEventProcessor.State<S>?
+            ?: currentProcessorState
+            ?: return inputState
 
-            currentProcessorState != null -> stateManagerHelper.createOrUpdateState(key.toString(), inputState, currentProcessorState)
-
-            else -> inputState
+        return try {
+            stateManagerHelper.createOrUpdateState(
+                key.toString(),
+                inputState,
+                config.messageProcessor.onBatchComplete(key, mostRecentProcessorState)
+            )
+        } catch (e: Exception) {
+            // The most recent state cannot be completed, so the key is failed with the state it started from
+            releaseBatch(key, null)
+            inputState
         }
     }
 
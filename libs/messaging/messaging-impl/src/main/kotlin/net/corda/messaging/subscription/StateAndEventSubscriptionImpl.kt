@@ -333,10 +333,10 @@ internal class StateAndEventSubscriptionImpl<K : Any, S : Any, E : Any>(
     private fun getUpdatesForEvent(state: S?, event: CordaConsumerRecord<K, E>): StateAndEventProcessor.Response<S>? {
         val future = stateAndEventConsumer.waitForFunctionToFinish(
             {
-                processor.onNext(
-                    State(state, metadata = null),
-                    event.toRecord()
-                )
+                // Each event is processed and stored on its own, so every event completes a batch.
+                val record = event.toRecord()
+                val response = processor.onNext(State(state, metadata = null), record)
+                response.copy(updatedState = processor.onBatchComplete(record.key, response.updatedState))
             }, config.processorTimeout.toMillis(),
             "Failed to finish within the time limit for state: $state and event: $event"
         )
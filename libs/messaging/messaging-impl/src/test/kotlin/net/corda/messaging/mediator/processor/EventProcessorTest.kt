@@ -20,12 +20,14 @@ import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.parallel.Execution
 import org.junit.jupiter.api.parallel.ExecutionMode
 import org.mockito.kotlin.any
 import org.mockito.kotlin.anyOrNull
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
@@ -204,6 +206,36 @@ class EventProcessorTest {
         assertThat(output?.stateChangeAndOperation).isInstanceOf(StateChangeAndOperation.Transient::class.java)
     }
 
+    @Test
+    fun `when processing a key fails, its batch is released and the exception is rethrown`() {
+        val input = mapOf("key" to EventProcessingInput("key", getStringRecords(1, "key"), inputState1))
+
+        whenever(stateAndEventProcessor.onNext(anyOrNull(), any())).thenThrow(IllegalStateException("baz"))
+
+        assertThrows<IllegalStateException> {
+            eventProcessor.processEvents(input)
+        }
+        verify(stateAndEventProcessor).onBatchComplete("key", null)
+        verify(stateManagerHelper, never()).failStateProcessing(any(), anyOrNull(), any())
+    }
+
+    @Test
+    fun `when completing the batch of a key fails with a retryable exception, the key is not marked with processing failure`() {
+        val input = mapOf("key" to EventProcessingInput("key", getStringRecords(1, "key"), null))
+
+        whenever(stateAndEventProcessor.onNext(anyOrNull(), any())).thenAnswer {
+            Response(updatedProcessingState, listOf(Record("", "key", asyncMessage)))
+        }
+        whenever(stateAndEventProcessor.onBatchComplete(any(), anyOrNull())).thenThrow(CordaMessageAPIIntermittentException("baz"))
+
+        val outputMap = eventProcessor.processEvents(input)
+
+        val output = outputMap["key"]
+        assertEquals(emptyList<MediatorMessage<Any>>(), output?.asyncOutputs)
+        assertThat(output?.stateChangeAndOperation).isInstanceOf(StateChangeAndOperation.Transient::class.java)
+        verify(stateManagerHelper, never()).failStateProcessing(any(), anyOrNull(), any())
+    }
+
     private fun buildTestConfig() = EventMediatorConfig(
         "",
         SmartConfigImpl.empty(),
@@ -69,6 +69,19 @@ interface StateAndEventProcessor<K : Any, S : Any, E : Any> {
      */
     fun onNext(state: State<S>?, event: Record<K, E>): Response<S>
 
+    /**
+     * Called once all the events for a key in the current batch have been passed to [onNext], before the resulting
+     * [state] is stored. Processors that defer work on the state between the events of a batch must complete it here.
+     *
+     * This is also called when the processing of the batch fails, in which case the returned state may be discarded.
+     * An exception thrown from this method causes the events of the batch to be processed again from the stored state.
+     *
+     * @param key the key the events of the batch relate to.
+     * @param state the state returned from the last call to [onNext] for the [key].
+     * @return the state to store.
+     */
+    fun onBatchComplete(key: K, state: State<S>?): State<S>? = state
+
     /**
      * [keyClass], [stateValueClass] and [eventValueClass] to easily get the class types the processor operates upon.
      *
@@ -44,6 +44,19 @@ object CordaMetrics {
          */
         object SandboxCreateTime : Metric<Timer>("sandbox.create.time", CordaMetrics::timer)
 
+        /**
+         * Number of sandboxes evicted from the sandbox cache.
+         */
+        object SandboxEvictionCount : Metric<Counter>("sandbox.eviction.count", Metrics::counter)
+
+        /**
+         * Estimated number of bytes retained by the sandboxes in the sandbox cache.
+         */
+        class SandboxCacheEstimatedSize(computation: Supplier<Number>) : ComputedValue<Nothing>(
+            "sandbox.cache.estimated.size",
+            computation
+        )
+
         /**
          * FLOW METRICS
          *
@@ -647,6 +660,13 @@ object CordaMetrics {
              * Metric for the number of reconciled records for a reconciliation run.
              */
             object ReconciliationRecordsCount : Metric<DistributionSummary>("db.reconciliation.records.count", Metrics::summary)
+
+            /**
+             * Metric for the number of records a reconciliation run skipped because they had not changed since they were
+             * last reconciled.
+             */
+            object ReconciliationSkippedRecordsCount :
+                Metric<DistributionSummary>("db.reconciliation.skipped.records.count", Metrics::summary)
         }
 
         object Messaging {
@@ -731,6 +751,19 @@ object CordaMetrics {
             class LiveTasks(computation: Supplier<Number>) : ComputedValue<Nothing>("taskmanager.live.tasks", computation)
         }
 
+        object Lifecycle {
+            /**
+             * Time taken by a lifecycle coordinator to go UP, from when it was last started or went DOWN.
+             */
+            object CoordinatorUpTime : Metric<Timer>("lifecycle.coordinator.up.time", CordaMetrics::timer)
+
+            /**
+             * Time taken by a lifecycle coordinator to go UP after the last of the coordinators it follows went UP,
+             * i.e. how long the coordinator itself held up everything which depends on it.
+             */
+            object CoordinatorBlockedTime : Metric<Timer>("lifecycle.coordinator.blocked.time", CordaMetrics::timer)
+        }
+
         object StateManger {
             private const val PREFIX = "state.manager"
 
@@ -778,6 +811,11 @@ object CordaMetrics {
          */
         SandboxGroupType("sandbox.type"),
 
+        /**
+         * Reason why a sandbox was evicted from the sandbox cache.
+         */
+        SandboxEvictionCause("sandbox.eviction.cause"),
+
         /**
          * Source of metric.
          */
@@ -955,7 +993,12 @@ object CordaMetrics {
         /**
          * Token selection database operation.
          */
-        TokenSelectionDbOperation("token.selection.db.operation")
+        TokenSelectionDbOperation("token.selection.db.operation"),
+
+        /**
+         * The component name of the lifecycle coordinator the metric was recorded for.
+         */
+        LifecycleCoordinator("lifecycle.coordinator")
     }
 
     /**
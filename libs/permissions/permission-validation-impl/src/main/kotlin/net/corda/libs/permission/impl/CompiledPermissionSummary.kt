@@ -0,0 +1,55 @@
+package net.corda.libs.permission.impl
+
+import net.corda.data.permissions.summary.PermissionSummary
+import net.corda.data.permissions.summary.UserPermissionSummary
+import net.corda.utilities.debug
+import org.slf4j.LoggerFactory
+import net.corda.data.permissions.PermissionType as AvroPermissionType
+
+/**
+ * A user's [UserPermissionSummary] with each of its permission strings compiled into a regular expression, so that
+ * authorizing an operation does not need to compile the user's permissions again.
+ */
+internal class CompiledPermissionSummary(val summary: UserPermissionSummary) {
+    private companion object {
+        private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+    }
+
+    private class CompiledPermission(val permission: PermissionSummary) {
+        private val regex = permission.permissionString.toRegex(RegexOption.IGNORE_CASE)
+
+        fun matches(operation: String) = regex.matches(operation)
+
+        override fun toString(): String = permission.toString()
+    }
+
+    private val denies: List<CompiledPermission>
+    private val allows: List<CompiledPermission>
+
+    init {
+        val (denies, allows) = summary.permissions
+            .partition { it.permissionType == AvroPermissionType.DENY }
+        this.denies = denies.map(::CompiledPermission)
+        this.allows = allows.map(::CompiledPermission)
+    }
+
+    /**
+     * @return `true` if the [operation] is allowed by one of the user's permissions and denied by none of them.
+     */
+    fun isAuthorized(operation: String): Boolean {
+        val maybeFirstDeny = denies.firstOrNull { it.matches(operation) }
+        if (maybeFirstDeny != null) {
+            logger.debug { "Explicitly denied by: '$maybeFirstDeny'" }
+            return false
+        }
+
+        val maybeFirstAllow = allows.firstOrNull { it.matches(operation) }
+        if (maybeFirstAllow != null) {
+            logger.debug { "Explicitly allowed by: '$maybeFirstAllow'" }
+            return true
+        }
+
+        logger.debug { "No deny or allow found - denying" }
+        return false
+    }
+}
@@ -1,12 +1,15 @@
 package net.corda.libs.permission.impl
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.corda.cache.caffeine.CacheFactoryImpl
 import net.corda.data.permissions.summary.UserPermissionSummary
 import net.corda.libs.permission.PermissionValidator
 import net.corda.libs.permissions.validation.cache.PermissionValidationCache
 import net.corda.utilities.debug
 import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicReference
-import net.corda.data.permissions.PermissionType as AvroPermissionType
 
 class PermissionValidatorImpl(
     private val permissionValidationCacheRef: AtomicReference<PermissionValidationCache?>
@@ -14,8 +17,26 @@ class PermissionValidatorImpl(
 
     companion object {
         private val logger = LoggerFactory.getLogger(this::class.java.enclosingClass)
+
+        private val decisionsCacheSize =
+            java.lang.Long.getLong("net.corda.libs.permission.validation.decisions.cache.size", 10000)
     }
 
+    /**
+     * The decision made for an operation, which only holds while the user's permission summary is still [summary].
+     */
+    private class Decision(val summary: UserPermissionSummary, val authorized: Boolean)
+
+    // Permission summaries are replaced rather than modified when they change, so a compiled summary or a decision
+    // is only used while the summary it was made from is still the one in the permission validation cache.
+    private val compiledSummaries = ConcurrentHashMap<String, CompiledPermissionSummary>()
+
+    private val decisions: Cache<Pair<String, String>, Decision> = CacheFactoryImpl().build(
+        "PermissionValidationDecisions",
+        Caffeine.newBuilder()
+            .maximumSize(decisionsCacheSize)
+    )
+
     private var running = false
 
     override val isRunning: Boolean
@@ -40,6 +61,7 @@ class PermissionValidatorImpl(
 
         if (permissionSummary == null) {
             logger.debug { "No permission found for user $loginName." }
+            compiledSummaries.remove(loginName.lowercase())
             return false
         }
 
@@ -48,32 +70,19 @@ class PermissionValidatorImpl(
             return false
         }
 
-        logger.debug { "Permission summary found for user $loginName with permissions: ${permissionSummary.permissions.joinToString()}." }
-
-        return findPermissionMatch(permissionSummary, operation)
+        val decisionKey = loginName.lowercase() to operation
+        val decision = decisions.getIfPresent(decisionKey)?.takeIf { it.summary === permissionSummary }
+            ?: Decision(permissionSummary, findPermissionMatch(loginName, permissionSummary, operation)).also {
+                decisions.put(decisionKey, it)
+            }
+        return decision.authorized
     }
 
-    private fun findPermissionMatch(permissionSummary: UserPermissionSummary, operation: String): Boolean {
-        val (denies, allows) = permissionSummary.permissions
-            .partition { it.permissionType == AvroPermissionType.DENY }
-
-        val maybeFirstDeny = denies.firstOrNull { wildcardMatch(it.permissionString, operation) }
-        if (maybeFirstDeny != null) {
-            logger.debug { "Explicitly denied by: '$maybeFirstDeny'" }
-            return false
-        }
-
-        val maybeFirstAllow = allows.firstOrNull { wildcardMatch(it.permissionString, operation) }
-        if (maybeFirstAllow != null) {
-            logger.debug { "Explicitly allowed by: '$maybeFirstAllow'" }
-            return true
-        }
-
-        logger.debug { "No deny or allow found - denying" }
-        return false
-    }
+    private fun findPermissionMatch(loginName: String, permissionSummary: UserPermissionSummary, operation: String): Boolean {
+        logger.debug { "Permission summary found for user $loginName with permissions: ${permissionSummary.permissions.joinToString()}." }
 
-    private fun wildcardMatch(permissionString: String, permissionRequested: String): Boolean {
-        return permissionRequested.matches(permissionString.toRegex(RegexOption.IGNORE_CASE))
+        val compiledSummary = compiledSummaries[loginName.lowercase()]?.takeIf { it.summary === permissionSummary }
+            ?: CompiledPermissionSummary(permissionSummary).also { compiledSummaries[loginName.lowercase()] = it }
+        return compiledSummary.isAuthorized(operation)
     }
 }
@@ -66,4 +66,35 @@ class PermissionValidatorImplTest {
     fun `User with proper permission set to DENY will not be authorized`() {
         assertFalse(permissionValidator.authorizeUser(userName, certsInstallRequest))
     }
+
+    @Test
+    fun `wildcard permission will authorize matching requests regardless of case`() {
+        whenever(permissionValidationCache.getPermissionSummary(userName)).thenReturn(
+            UserPermissionSummary(
+                userName,
+                true,
+                listOf(PermissionSummary("id3", null, null, "GET:/api/v5_3/flow/.*", PermissionType.ALLOW)),
+                Instant.now()
+            )
+        )
+
+        assertTrue(permissionValidator.authorizeUser(userName, "get:/API/v5_3/flow/12345678"))
+        assertFalse(permissionValidator.authorizeUser(userName, "POST:/api/v5_3/flow/12345678"))
+    }
+
+    @Test
+    fun `changes to the user's permissions apply to operations which were already authorized`() {
+        assertTrue(permissionValidator.authorizeUser(userName, cpiUploadRequest))
+
+        whenever(permissionValidationCache.getPermissionSummary(userName)).thenReturn(
+            UserPermissionSummary(
+                userName,
+                true,
+                userPermissionSummaries.permissions + PermissionSummary("id3", null, null, cpiUploadRequest, PermissionType.DENY),
+                Instant.now()
+            )
+        )
+
+        assertFalse(permissionValidator.authorizeUser(userName, cpiUploadRequest))
+    }
 }
@@ -149,4 +149,58 @@ class RestServerResponseEntityTest : RestServerTestBase() {
             assertThat(createdResponse.description).isEqualTo("Description of postReturnsCreatedWithEscapedJson")
         }
     }
+
+    @Test
+    fun `endpoint returning a future responds with the value it completes with`() {
+        val response = client.call(POST, WebRequest<Any>("responseentity/post-returns-future-entity"), userName, password)
+        assertEquals(HttpStatus.SC_OK, response.responseStatus)
+        assertEquals("{\"id\":\"future completed\"}", response.body)
+    }
+
+    @Test
+    fun `endpoint returning a future of ResponseEntity responds with its status code`() {
+        val response = client.call(POST, WebRequest<Any>("responseentity/post-returns-future-accepted-entity"), userName, password)
+        assertEquals(HttpStatus.SC_ACCEPTED, response.responseStatus)
+        assertEquals("{\"id\":\"accepted\"}", response.body)
+    }
+
+    @Test
+    fun `endpoint returning a future completed by another thread responds once it completes`() {
+        val response = client.call(
+            POST,
+            WebRequest<Any>("responseentity/post-returns-future-completed-by-another-thread"),
+            userName,
+            password
+        )
+        assertEquals(HttpStatus.SC_OK, response.responseStatus)
+        assertEquals("completed by another thread", response.body)
+    }
+
+    @Test
+    fun `endpoint returning a failed future responds with the error it failed with`() {
+        val response = client.call(POST, WebRequest<Any>("responseentity/post-returns-failed-future"), userName, password)
+        assertEquals(HttpStatus.SC_NOT_FOUND, response.responseStatus)
+        assertThat(response.body).contains("No entity to complete the future with")
+    }
+
+    @Test
+    fun `endpoint returning a future without a value has no_content and empty body`() {
+        val response = client.call(DELETE, WebRequest<Any>("responseentity/delete-returns-future-void"), userName, password)
+        assertEquals(HttpStatus.SC_NO_CONTENT, response.responseStatus)
+        assertEquals("", response.body)
+    }
+
+    @Test
+    fun `OpenAPI describes the response of an endpoint returning a future as the value it completes with`() {
+        val apiSpec = client.call(HttpVerb.GET, WebRequest<Any>("swagger.json"))
+        assertEquals(HttpStatus.SC_OK, apiSpec.responseStatus)
+        val openAPI = Json.mapper().readValue(apiSpec.body, OpenAPI::class.java)
+
+        val rawEntityResponse = assertNotNull(openAPI.paths["/responseentity/post-returns-raw-entity"])
+            .post.responses[HttpStatus.SC_OK.toString()]
+        val futureEntityResponse = assertNotNull(openAPI.paths["/responseentity/post-returns-future-entity"])
+            .post.responses[HttpStatus.SC_OK.toString()]
+
+        assertThat(futureEntityResponse?.content).isEqualTo(rawEntityResponse?.content)
+    }
 }
@@ -5,6 +5,7 @@ import net.corda.rest.exception.ServiceUnavailableException
 import net.corda.rest.server.impl.apigen.models.InvocationMethod
 import net.corda.utilities.trace
 import org.slf4j.LoggerFactory
+import java.util.concurrent.CompletionStage
 
 /**
  * [MethodInvoker] implementations are responsible for doing method invocations using the arguments provided.
@@ -38,10 +39,11 @@ internal open class DefaultMethodInvoker(private val invocationMethod: Invocatio
             0 -> method.invoke(instance)
             else -> method.invoke(instance, *args)
         }.also { log.trace { "Invoke method \"${invocationMethod.method.name}\" with args size: ${args.size} completed." } }
-        return if (invocationMethod.transform != null) {
-            invocationMethod.transform.invoke(invoked)
+        val transform = invocationMethod.transform ?: return invoked
+        return if (invoked is CompletionStage<*>) {
+            invoked.thenApply { value: Any? -> transform(value) }
         } else {
-            invoked
+            transform(invoked)
         }
     }
 }
@@ -5,14 +5,19 @@ import net.corda.rest.server.impl.apigen.models.GenericParameterizedType
 import net.corda.rest.server.impl.apigen.processing.openapi.schema.ParameterizedClass
 import net.corda.rest.server.impl.apigen.processing.openapi.schema.SchemaModelProvider
 import net.corda.rest.server.impl.apigen.processing.openapi.schema.model.SchemaModel
+import java.util.concurrent.CompletionStage
 
+/**
+ * Builds the schema of a [ResponseEntity], or of the [CompletionStage] returned by an asynchronous method, as the
+ * schema of the value it wraps.
+ */
 internal class HttpResponseTypeBuilder(
     private val schemaModelProvider: SchemaModelProvider
 ) : SchemaBuilder {
-    override val keys = listOf(ResponseEntity::class.java)
+    override val keys = listOf(ResponseEntity::class.java, CompletionStage::class.java)
 
     override fun build(clazz: Class<*>, parameterizedClassList: List<GenericParameterizedType>): SchemaModel {
-        // HttpResponse only has one generic type. Get this type and build schema model from it.
+        // HttpResponse and CompletionStage only have one generic type. Get this type and build schema model from it.
         val realType = parameterizedClassList.first()
         return schemaModelProvider.toSchemaModel(
             ParameterizedClass(
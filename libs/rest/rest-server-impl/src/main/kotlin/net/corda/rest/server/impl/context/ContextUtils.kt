@@ -30,9 +30,14 @@ import net.corda.utilities.withMDC
 import net.corda.v5.base.types.MemberX500Name
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import org.slf4j.MDC
+import java.lang.reflect.ParameterizedType
 import java.time.Duration
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CompletionStage
 import javax.security.auth.login.FailedLoginException
 
+@Suppress("TooManyFunctions")
 internal object ContextUtils {
 
     private val log = LoggerFactory.getLogger(ContextUtils::class.java)
@@ -117,6 +122,7 @@ internal object ContextUtils {
                 methodLogger.trace { "Get parameter values." }
 
                 val startTime = System.nanoTime()
+                var completesAsynchronously = false
                 try {
                     validateRequestContentType(this, ctx)
 
@@ -134,31 +140,106 @@ internal object ContextUtils {
                     @Suppress("SpreadOperator")
                     val result = invokeDelegatedMethod(*paramValues.toTypedArray())
 
-                    ctx.buildJsonResult(result, this.method.method.returnType)
-
-                    ctx.header(Header.CACHE_CONTROL, "no-cache")
-                    methodLogger.debug { "Invoke method \"${this.method.method.name}\" for route info completed." }
-                } catch (e: Exception) {
-                    "Error invoking path '${this.fullPath}' - ${e.message}".let {
-                        methodLogger.info(it)
-                        methodLogger.debug(it, e)
+                    if (result is CompletionStage<*>) {
+                        completeAsynchronously(ctx, result, methodLogger, ctxMethod, startTime)
+                        completesAsynchronously = true
+                    } else {
+                        completeRequest(ctx, result, this.method.method.returnType, methodLogger)
                     }
-                    throw HttpExceptionMapper.mapToResponse(e)
+                } catch (e: Exception) {
+                    throw mapException(e, methodLogger)
                 } finally {
-                    if (ctx.isMultipartFormData()) {
-                        cleanUpMultipartRequest(ctx)
+                    if (!completesAsynchronously) {
+                        finishRequest(ctx, ctxMethod, startTime)
                     }
+                }
+            }
+        }
+    }
 
-                    CordaMetrics.Metric.HttpRequestTime.builder()
-                        .withTag(CordaMetrics.Tag.UriPath, ctx.matchedPath())
-                        .withTag(CordaMetrics.Tag.HttpMethod, ctxMethod)
-                        .withTag(CordaMetrics.Tag.OperationStatus, "${ctx.status()}")
-                        .build().record(Duration.ofNanos(System.nanoTime() - startTime))
+    /**
+     * Complete the request once the [result] of an asynchronous method completes, without holding on to the server
+     * thread in the meantime.
+     *
+     * The [result] may complete on any thread, so the REST context and MDC of the request are re-established on that
+     * thread while the response is built.
+     */
+    private fun RouteInfo.completeAsynchronously(
+        ctx: Context,
+        result: CompletionStage<*>,
+        methodLogger: Logger,
+        ctxMethod: String,
+        startTime: Long
+    ) {
+        val restAuthContext = CURRENT_REST_CONTEXT.get()
+        val mdc = MDC.getCopyOfContextMap() ?: emptyMap()
+        val resultType = asynchronousResultType()
+        ctx.future {
+            result.toCompletableFuture().handle { value: Any?, error: Throwable? ->
+                withRestContext(restAuthContext) {
+                    withMDC(mdc) {
+                        try {
+                            if (error != null) {
+                                throw (error as? CompletionException)?.cause ?: error
+                            }
+                            completeRequest(ctx, value.takeUnless { it is Unit }, resultType, methodLogger)
+                        } catch (e: Exception) {
+                            throw CompletionException(mapException(e, methodLogger))
+                        } finally {
+                            finishRequest(ctx, ctxMethod, startTime)
+                        }
+                    }
                 }
             }
         }
     }
 
+    /**
+     * The type to build the result of an asynchronous method as, which has no content if the method's
+     * [CompletionStage] completes without a value.
+     */
+    private fun RouteInfo.asynchronousResultType(): Class<*> {
+        val valueType = (method.method.genericReturnType as? ParameterizedType)?.actualTypeArguments?.firstOrNull()
+        return if (valueType == Void::class.java || valueType == Unit::class.java) Void.TYPE else Any::class.java
+    }
+
+    private fun RouteInfo.completeRequest(ctx: Context, result: Any?, returnType: Class<*>, methodLogger: Logger) {
+        ctx.buildJsonResult(result, returnType)
+
+        ctx.header(Header.CACHE_CONTROL, "no-cache")
+        methodLogger.debug { "Invoke method \"${this.method.method.name}\" for route info completed." }
+    }
+
+    private fun RouteInfo.mapException(e: Exception, methodLogger: Logger): Exception {
+        "Error invoking path '${this.fullPath}' - ${e.message}".let {
+            methodLogger.info(it)
+            methodLogger.debug(it, e)
+        }
+        return HttpExceptionMapper.mapToResponse(e)
+    }
+
+    private fun finishRequest(ctx: Context, ctxMethod: String, startTime: Long) {
+        if (ctx.isMultipartFormData()) {
+            cleanUpMultipartRequest(ctx)
+        }
+
+        CordaMetrics.Metric.HttpRequestTime.builder()
+            .withTag(CordaMetrics.Tag.UriPath, ctx.matchedPath())
+            .withTag(CordaMetrics.Tag.HttpMethod, ctxMethod)
+            .withTag(CordaMetrics.Tag.OperationStatus, "${ctx.status()}")
+            .build().record(Duration.ofNanos(System.nanoTime() - startTime))
+    }
+
+    private fun <T> withRestContext(restAuthContext: RestAuthContext?, block: () -> T): T {
+        val previous = CURRENT_REST_CONTEXT.get()
+        CURRENT_REST_CONTEXT.set(restAuthContext)
+        try {
+            return block()
+        } finally {
+            CURRENT_REST_CONTEXT.set(previous)
+        }
+    }
+
     @Suppress("ThrowsCount")
     fun RouteInfo.retrieveParameters(ctx: ClientRequestContext): List<Any?> {
         val parametersRetrieverContext = ParametersRetrieverContext(ctx)
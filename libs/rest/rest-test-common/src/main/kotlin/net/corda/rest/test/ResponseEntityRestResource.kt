@@ -7,6 +7,7 @@ import net.corda.rest.annotations.HttpPOST
 import net.corda.rest.annotations.HttpPUT
 import net.corda.rest.annotations.HttpRestResource
 import net.corda.rest.response.ResponseEntity
+import java.util.concurrent.CompletableFuture
 
 @HttpRestResource(path = "responseentity")
 interface ResponseEntityRestResource : RestResource {
@@ -47,4 +48,19 @@ interface ResponseEntityRestResource : RestResource {
 
     @HttpDELETE(path = "async-delete-returns-accepted")
     fun asyncDeleteReturnsAccepted(): ResponseEntity<DeleteStatus>
+
+    @HttpPOST(path = "post-returns-future-entity")
+    fun postReturnsFutureEntity(): CompletableFuture<TestHttpEntity>
+
+    @HttpPOST(path = "post-returns-future-accepted-entity")
+    fun postReturnsFutureAcceptedEntity(): CompletableFuture<ResponseEntity<TestHttpEntity>>
+
+    @HttpPOST(path = "post-returns-future-completed-by-another-thread")
+    fun postReturnsFutureCompletedByAnotherThread(): CompletableFuture<String>
+
+    @HttpPOST(path = "post-returns-failed-future")
+    fun postReturnsFailedFuture(): CompletableFuture<TestHttpEntity>
+
+    @HttpDELETE(path = "delete-returns-future-void")
+    fun deleteReturnsFutureVoid(): CompletableFuture<Unit>
 }
@@ -1,7 +1,10 @@
 package net.corda.rest.test
 
 import net.corda.rest.PluggableRestResource
+import net.corda.rest.exception.ResourceNotFoundException
 import net.corda.rest.response.ResponseEntity
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
 
 class ResponseEntityRestResourceImpl : ResponseEntityRestResource, PluggableRestResource<ResponseEntityRestResource> {
     override fun postReturnsNoContent() {}
@@ -38,6 +41,29 @@ class ResponseEntityRestResourceImpl : ResponseEntityRestResource, PluggableRest
         return ResponseEntity.accepted(ResponseEntityRestResource.DeleteStatus.DELETING)
     }
 
+    override fun postReturnsFutureEntity(): CompletableFuture<ResponseEntityRestResource.TestHttpEntity> {
+        return CompletableFuture.completedFuture(ResponseEntityRestResource.TestHttpEntity("future completed"))
+    }
+
+    override fun postReturnsFutureAcceptedEntity(): CompletableFuture<ResponseEntity<ResponseEntityRestResource.TestHttpEntity>> {
+        return CompletableFuture.completedFuture(ResponseEntity.accepted(ResponseEntityRestResource.TestHttpEntity("accepted")))
+    }
+
+    override fun postReturnsFutureCompletedByAnotherThread(): CompletableFuture<String> {
+        return CompletableFuture.supplyAsync(
+            { "completed by another thread" },
+            CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+        )
+    }
+
+    override fun postReturnsFailedFuture(): CompletableFuture<ResponseEntityRestResource.TestHttpEntity> {
+        return CompletableFuture.failedFuture(ResourceNotFoundException("No entity to complete the future with"))
+    }
+
+    override fun deleteReturnsFutureVoid(): CompletableFuture<Unit> {
+        return CompletableFuture.completedFuture(Unit)
+    }
+
     override val protocolVersion: Int
         get() = 1
 
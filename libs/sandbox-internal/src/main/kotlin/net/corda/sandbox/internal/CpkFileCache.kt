@@ -0,0 +1,125 @@
+package net.corda.sandbox.internal
+
+import net.corda.libs.packaging.Cpk
+import net.corda.v5.crypto.SecureHash
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.io.InputStream
+import java.io.UncheckedIOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.nio.file.attribute.BasicFileAttributes
+import java.nio.file.attribute.FileTime
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Remembers which CPK files have already been verified against their checksum, and keeps the bundles extracted from
+ * them in [bundleDirectory], so that creating another sandbox group for the same CPKs neither hashes the CPK files
+ * nor extracts their bundles again.
+ *
+ * A CPK file or extracted bundle is only trusted while its size and last modified time are unchanged since it was
+ * verified or extracted. Extracted bundles are kept under the checksum of the CPK they were extracted from.
+ */
+internal class CpkFileCache(private val bundleDirectory: Path?) {
+    private companion object {
+        private val logger = LoggerFactory.getLogger(CpkFileCache::class.java)
+    }
+
+    private data class FileStamp(val size: Long, val lastModified: FileTime)
+
+    private data class VerifiedCpk(val fileChecksum: SecureHash, val stamp: FileStamp)
+
+    private val verifiedCpks = ConcurrentHashMap<Path, VerifiedCpk>()
+    private val extractedBundles = ConcurrentHashMap<Path, FileStamp>()
+
+    init {
+        // Anything left over from a previous run was not extracted by this cache, and so cannot be trusted.
+        bundleDirectory?.let(::deleteContents)
+    }
+
+    /**
+     * Runs [verifier] for the [cpk], unless the CPK file has already been verified and has not changed since.
+     */
+    fun verify(cpk: Cpk, verifier: (Cpk) -> Unit) {
+        val path = cpk.path
+        // The stamp is taken before verifying, so that a modification made while verifying is noticed next time.
+        val stamp = path?.let(::stampOf)
+        if (path != null && stamp != null) {
+            val verified = verifiedCpks[path]
+            if (verified != null && verified.fileChecksum == cpk.metadata.fileChecksum && verified.stamp == stamp) {
+                return
+            }
+        }
+
+        verifier(cpk)
+
+        if (path != null && stamp != null) {
+            verifiedCpks[path] = VerifiedCpk(cpk.metadata.fileChecksum, stamp)
+        }
+    }
+
+    /**
+     * Opens the bundle [entryName] of the [cpk], from the copy extracted by an earlier call if it is unchanged, or
+     * else by extracting it again using [open].
+     */
+    fun openBundle(cpk: Cpk, entryName: String, open: () -> InputStream): InputStream {
+        val cpkDirectory = bundleDirectory?.resolve(cpk.metadata.fileChecksum.toHexString())
+        val bundleFile = cpkDirectory?.resolve(entryName)?.normalize()
+        if (cpk.path == null || bundleFile == null || !bundleFile.startsWith(cpkDirectory)) {
+            return open()
+        }
+
+        val extracted = extractedBundles[bundleFile]
+        if (extracted != null && extracted == stampOf(bundleFile)) {
+            return Files.newInputStream(bundleFile)
+        }
+
+        return try {
+            extract(open, bundleFile)
+            Files.newInputStream(bundleFile)
+        } catch (e: IOException) {
+            logger.warn("Could not extract $entryName from CPK ${cpk.metadata.cpkId.name} to $bundleFile", e)
+            open()
+        }
+    }
+
+    private fun extract(open: () -> InputStream, bundleFile: Path) {
+        Files.createDirectories(bundleFile.parent)
+        val temporary = Files.createTempFile(bundleFile.parent, bundleFile.fileName.toString(), ".tmp")
+        try {
+            open().use { Files.copy(it, temporary, REPLACE_EXISTING) }
+            Files.move(temporary, bundleFile, REPLACE_EXISTING, ATOMIC_MOVE)
+        } finally {
+            Files.deleteIfExists(temporary)
+        }
+        stampOf(bundleFile)?.let { extractedBundles[bundleFile] = it }
+    }
+
+    private fun stampOf(path: Path): FileStamp? {
+        return try {
+            val attributes = Files.readAttributes(path, BasicFileAttributes::class.java)
+            FileStamp(attributes.size(), attributes.lastModifiedTime())
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private fun deleteContents(directory: Path) {
+        if (!Files.isDirectory(directory)) {
+            return
+        }
+        try {
+            Files.walk(directory).use { paths ->
+                paths.sorted(Comparator.reverseOrder())
+                    .filter { it != directory }
+                    .forEach(Files::delete)
+            }
+        } catch (e: IOException) {
+            logger.warn("Could not delete bundles extracted to $directory", e)
+        } catch (e: UncheckedIOException) {
+            logger.warn("Could not delete bundles extracted to $directory", e)
+        }
+    }
+}
@@ -39,6 +39,9 @@ internal object ClassTagV1 {
 // The symbolic name of the `sandbox-hooks` bundle.
 internal const val SANDBOX_HOOKS_BUNDLE = "net.corda.sandbox-hooks"
 
+// The directory in the sandbox bundle's persistent storage area where bundles extracted from CPKs are kept.
+internal const val CPK_BUNDLES_DIRECTORY = "cpk-bundles"
+
 val Bundle.isFragment: Boolean get() {
     return (adapt(BundleRevision::class.java).types and TYPE_FRAGMENT) != 0
 }
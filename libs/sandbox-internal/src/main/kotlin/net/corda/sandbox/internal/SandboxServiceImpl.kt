@@ -4,6 +4,7 @@ package net.corda.sandbox.internal
 
 import net.corda.crypto.core.SecureHashImpl
 import net.corda.libs.packaging.Cpk
+import net.corda.libs.packaging.PackagingConstants.CPK_FORMAT_VERSION2_MAINBUNDLE_PLACEHOLDER
 import net.corda.sandbox.RequireSandboxHooks
 import net.corda.sandbox.SandboxContextService
 import net.corda.sandbox.SandboxCreationService
@@ -73,6 +74,9 @@ internal class SandboxServiceImpl @Activate constructor(
     // Bundles that failed to uninstall when a sandbox group was unloaded.
     private val zombieBundles = ConcurrentHashMap.newKeySet<Bundle>()
 
+    // The CPKs verified so far, and the bundles extracted from them, to be reused by later sandbox groups.
+    private val cpkFileCache = CpkFileCache(bundleContext.getDataFile(CPK_BUNDLES_DIRECTORY)?.toPath())
+
     private val logger = LoggerFactory.getLogger(this::class.java)
 
     override fun createPublicSandbox(publicBundles: Iterable<Bundle>, privateBundles: Iterable<Bundle>) {
@@ -183,15 +187,25 @@ internal class SandboxServiceImpl @Activate constructor(
      *
      * Grants each sandbox visibility of the public sandboxes and of the other sandboxes in the group.
      */
-    override fun createSandboxGroup(cpks: Iterable<Cpk>, securityDomain: String): SandboxGroup = bundleLock.withLock {
+    override fun createSandboxGroup(cpks: Iterable<Cpk>, securityDomain: String): SandboxGroup {
         sandboxForbidsThat(securityDomain.contains('/')) {
             "Security domain cannot contain a '/' character."
         }
 
-        // Verify that CPK files were not tampered with
+        // Verify that CPK files were not tampered with. Hashing the CPK files does not touch the OSGi framework,
+        // and so is done before taking the bundleLock to let sandbox groups for other CPKs be verified concurrently.
         // TODO there is a small time window between verification and installation during which CPK files might still be modified
         verifyCpks(cpks)
 
+        return bundleLock.withLock {
+            installSandboxGroup(cpks, securityDomain)
+        }
+    }
+
+    /**
+     * Installs, resolves and starts the bundles of each of the [cpks]. Must be called holding the [bundleLock].
+     */
+    private fun installSandboxGroup(cpks: Iterable<Cpk>, securityDomain: String): SandboxGroup {
         // We track the bundles that are being created, so that we can start them all at once at the end if needed.
         val bundles = mutableSetOf<Bundle>()
 
@@ -201,7 +215,7 @@ internal class SandboxServiceImpl @Activate constructor(
             val mainBundle = installBundle(
                 "${cpk.metadata.cpkId.name}-${cpk.metadata.cpkId.version}/${cpk.metadata.mainBundle}",
                 // TODO - only pass in metadata and inject in service to get binary
-                cpk.getMainBundle(),
+                openMainBundle(cpk),
                 sandboxId,
                 securityDomain
             )
@@ -212,7 +226,7 @@ internal class SandboxServiceImpl @Activate constructor(
             val libraryBundles = cpk.metadata.libraries.mapTo(LinkedHashSet()) { libraryJar ->
                 installBundle(
                     "${cpk.metadata.cpkId.name}-${cpk.metadata.cpkId.version}/$libraryJar",
-                    cpk.getResourceAsStream(libraryJar),
+                    cpkFileCache.openBundle(cpk, libraryJar) { cpk.getResourceAsStream(libraryJar) },
                     sandboxId,
                     securityDomain
                 )
@@ -287,11 +301,25 @@ internal class SandboxServiceImpl @Activate constructor(
     }
 
     /**
-     * Calculates [cpk]'s checksum and validates it against expected value
+     * Calculates [cpk]'s checksum and validates it against expected value, unless the CPK file has already been
+     * validated and has not changed since.
      */
     private fun verifyCpkChecksum(cpk: Cpk) {
-        sandboxRequiresThat(checksum(cpk.getInputStream()) == cpk.metadata.fileChecksum) {
-            "File checksum validation failed for CPK ${cpk.metadata.cpkId.name} during sandbox creation"
+        cpkFileCache.verify(cpk) {
+            sandboxRequiresThat(checksum(it.getInputStream()) == it.metadata.fileChecksum) {
+                "File checksum validation failed for CPK ${it.metadata.cpkId.name} during sandbox creation"
+            }
+        }
+    }
+
+    /**
+     * Opens [cpk]'s main bundle. A version 2 CPK is its own main bundle, and so is never extracted.
+     */
+    private fun openMainBundle(cpk: Cpk): InputStream {
+        return if (cpk.metadata.mainBundle == CPK_FORMAT_VERSION2_MAINBUNDLE_PLACEHOLDER) {
+            cpk.getMainBundle()
+        } else {
+            cpkFileCache.openBundle(cpk, cpk.metadata.mainBundle, cpk::getMainBundle)
         }
     }
 
@@ -0,0 +1,143 @@
+package net.corda.sandbox.internal
+
+import net.corda.libs.packaging.Cpk
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import java.io.ByteArrayInputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.time.Instant
+
+class CpkFileCacheTests {
+    @TempDir
+    lateinit var tempDir: Path
+
+    private val bundleBytes = byteArrayOf(1, 2, 3)
+    private var verifications = 0
+    private var extractions = 0
+
+    private fun createCpk(path: Path? = Files.write(tempDir.resolve("test.cpk"), byteArrayOf(0))): Cpk {
+        val metadata = mockCpkMeta()
+        return mock {
+            on { this.path } doReturn path
+            on { this.metadata } doReturn metadata
+        }
+    }
+
+    private fun CpkFileCache.verify(cpk: Cpk) = verify(cpk) { verifications++ }
+
+    private fun CpkFileCache.openBundle(cpk: Cpk, entryName: String = "lib/library.jar") =
+        openBundle(cpk, entryName) { extractions++; ByteArrayInputStream(bundleBytes) }.use { it.readBytes() }
+
+    @Test
+    fun `an unchanged CPK file is only verified once`() {
+        val cache = CpkFileCache(null)
+        val cpk = createCpk()
+
+        cache.verify(cpk)
+        cache.verify(cpk)
+
+        assertEquals(1, verifications)
+    }
+
+    @Test
+    fun `a modified CPK file is verified again`() {
+        val cache = CpkFileCache(null)
+        val cpk = createCpk()
+
+        cache.verify(cpk)
+        Files.write(cpk.path!!, byteArrayOf(0, 1))
+        cache.verify(cpk)
+
+        assertEquals(2, verifications)
+    }
+
+    @Test
+    fun `a CPK file that fails verification is verified again`() {
+        val cache = CpkFileCache(null)
+        val cpk = createCpk()
+
+        assertThrows<IllegalStateException> { cache.verify(cpk) { throw IllegalStateException("Bad checksum") } }
+        cache.verify(cpk)
+
+        assertEquals(1, verifications)
+    }
+
+    @Test
+    fun `a CPK without a file is always verified`() {
+        val cache = CpkFileCache(null)
+        val cpk = createCpk(path = null)
+
+        cache.verify(cpk)
+        cache.verify(cpk)
+
+        assertEquals(2, verifications)
+    }
+
+    @Test
+    fun `a bundle is only extracted once`() {
+        val cache = CpkFileCache(tempDir.resolve("bundles"))
+        val cpk = createCpk()
+
+        assertArrayEquals(bundleBytes, cache.openBundle(cpk))
+        assertArrayEquals(bundleBytes, cache.openBundle(cpk))
+
+        assertEquals(1, extractions)
+    }
+
+    @Test
+    fun `a modified extracted bundle is extracted again`() {
+        val bundleDirectory = tempDir.resolve("bundles")
+        val cache = CpkFileCache(bundleDirectory)
+        val cpk = createCpk()
+
+        cache.openBundle(cpk)
+        val extracted = bundleDirectory.resolve(cpk.metadata.fileChecksum.toHexString()).resolve("lib/library.jar")
+        Files.write(extracted, byteArrayOf(9))
+        Files.setLastModifiedTime(extracted, FileTime.from(Instant.EPOCH))
+
+        assertArrayEquals(bundleBytes, cache.openBundle(cpk))
+        assertEquals(2, extractions)
+    }
+
+    @Test
+    fun `bundles are not extracted outside of the bundle directory`() {
+        val bundleDirectory = tempDir.resolve("bundles")
+        val cache = CpkFileCache(bundleDirectory)
+        val cpk = createCpk()
+
+        cache.openBundle(cpk, "../../escaped.jar")
+        cache.openBundle(cpk, "../../escaped.jar")
+
+        assertEquals(2, extractions)
+        assertFalse(Files.exists(tempDir.resolve("escaped.jar")))
+    }
+
+    @Test
+    fun `bundles are not extracted without a bundle directory`() {
+        val cache = CpkFileCache(null)
+        val cpk = createCpk()
+
+        cache.openBundle(cpk)
+        cache.openBundle(cpk)
+
+        assertEquals(2, extractions)
+    }
+
+    @Test
+    fun `bundles extracted by a previous run are deleted`() {
+        val bundleDirectory = Files.createDirectories(tempDir.resolve("bundles"))
+        val leftOver = Files.write(Files.createDirectories(bundleDirectory.resolve("old")).resolve("old.jar"), bundleBytes)
+
+        CpkFileCache(bundleDirectory)
+
+        assertFalse(Files.exists(leftOver))
+    }
+}
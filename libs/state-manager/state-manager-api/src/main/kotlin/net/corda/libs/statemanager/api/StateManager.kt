@@ -125,6 +125,24 @@ interface StateManager : Lifecycle {
      */
     fun findByMetadataMatchingAll(filters: Collection<MetadataFilter>): Map<String, State>
 
+    /**
+     * Retrieve, in ascending order of [State.key], at most [limit] states with a key greater than [afterKey] that
+     * exclusively match all specified [filters]. Passing the key of the last state retrieved as [afterKey] retrieves
+     * the next page of matching states, so that all of them can be read without ever holding all of them in memory.
+     * Only states that have been successfully committed and distributed within the underlying persistent storage
+     * are returned.
+     *
+     * @param filters Filter parameters to use when searching for states.
+     * @param afterKey Key after which to start retrieving states, or `null` to start from the first matching state.
+     * @param limit Maximum number of states to retrieve.
+     * @return states matching the specified filters, ordered by key.
+     */
+    fun findByMetadataMatchingAll(filters: Collection<MetadataFilter>, afterKey: String?, limit: Int): List<State> =
+        findByMetadataMatchingAll(filters).values
+            .filter { afterKey == null || it.key > afterKey }
+            .sortedBy { it.key }
+            .take(limit)
+
     /**
      * Retrieve all states matching any of the [filters]. Only states that have been successfully committed
      * and distributed within the underlying persistent storage are returned.
@@ -184,6 +202,56 @@ interface StateManager : Lifecycle {
         metadataFilters: Collection<MetadataFilter>
     ): Map<String, State>
 
+    /**
+     * Retrieve the keys of all states, updated for the last time between [IntervalFilter.start] (inclusive) and
+     * [IntervalFilter.finish] (inclusive), for which all the specified [metadataFilters] exclusively match.
+     * This is the same as [findUpdatedBetweenWithMetadataMatchingAll], without reading the states themselves.
+     *
+     * @param intervalFilter Time filter to use when searching for states.
+     * @param metadataFilters Filter parameters to use when searching for states.
+     * @return keys of the states matching the specified filters.
+     */
+    fun findKeysUpdatedBetweenWithMetadataMatchingAll(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>
+    ): Set<String> = findUpdatedBetweenWithMetadataMatchingAll(intervalFilter, metadataFilters).keys
+
+    /**
+     * Retrieve the keys of all states, updated for the last time between [IntervalFilter.start] (inclusive) and
+     * [IntervalFilter.finish] (inclusive), for which any of the specified [metadataFilters] match.
+     * This is the same as [findUpdatedBetweenWithMetadataMatchingAny], without reading the states themselves.
+     *
+     * @param intervalFilter Time filter to use when searching for states.
+     * @param metadataFilters Filter parameters to use when searching for states.
+     * @return keys of the states matching the specified filters.
+     */
+    fun findKeysUpdatedBetweenWithMetadataMatchingAny(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>
+    ): Set<String> = findUpdatedBetweenWithMetadataMatchingAny(intervalFilter, metadataFilters).keys
+
+    /**
+     * Delete at most [limit] states, updated for the last time between [IntervalFilter.start] (inclusive) and
+     * [IntervalFilter.finish] (inclusive), for which any of the specified [metadataFilters] match.
+     *
+     * The filters are evaluated as the states are deleted, so a state which no longer matches them because it has
+     * been modified by another thread or process is not deleted. To delete all matching states, call this again
+     * until fewer than [limit] keys are returned.
+     *
+     * @param intervalFilter Time filter to use when searching for states.
+     * @param metadataFilters Filter parameters to use when searching for states.
+     * @param limit Maximum number of states to delete.
+     * @return keys of the states deleted.
+     */
+    fun deleteUpdatedBetweenWithMetadataMatchingAny(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>,
+        limit: Int
+    ): Set<String> {
+        val states = findUpdatedBetweenWithMetadataMatchingAny(intervalFilter, metadataFilters).values.take(limit)
+        return states.mapTo(mutableSetOf()) { it.key } - delete(states).keys
+    }
+
     /**
      * Create a new operation group.
      *
@@ -1024,6 +1024,45 @@ class StateManagerIntegrationTest {
         verifyHistogramSnapshotValues(MetricsRecorder.OperationType.FIND, 4)
     }
 
+    @Test
+    @DisplayName(value = "can delete a limited number of states matching any metadata filter and last updated time")
+    fun canDeleteALimitedNumberOfStatesMatchingAnyMetadataFilterAndLastUpdatedTime() {
+        val count = 10
+        val keyIndexRange = 1..count
+        persistStateEntities(
+            (keyIndexRange),
+            { _, _ -> State.VERSION_INITIAL_VALUE },
+            { i, _ -> "state_$i" },
+            { i, _ -> """{ "number": $i, "boolean": ${i % 2 == 0} }""" }
+        )
+        val (_, finishTime) = getIntervalBetweenEntities(
+            buildStateKey(keyIndexRange.first),
+            buildStateKey(keyIndexRange.last)
+        )
+        val interval = IntervalFilter(Instant.EPOCH, finishTime)
+        val filters = listOf(
+            MetadataFilter("boolean", Operation.Equals, true),
+            MetadataFilter("number", Operation.Equals, 1),
+        )
+        val matchingKeys = keyIndexRange.filter { it % 2 == 0 || it == 1 }.map { buildStateKey(it) }
+
+        assertThat(stateManager.findKeysUpdatedBetweenWithMetadataMatchingAny(interval, filters))
+            .containsExactlyInAnyOrderElementsOf(matchingKeys)
+
+        val firstBatch = stateManager.deleteUpdatedBetweenWithMetadataMatchingAny(interval, filters, 4)
+        val secondBatch = stateManager.deleteUpdatedBetweenWithMetadataMatchingAny(interval, filters, 4)
+        val thirdBatch = stateManager.deleteUpdatedBetweenWithMetadataMatchingAny(interval, filters, 4)
+
+        assertThat(firstBatch).hasSize(4)
+        assertThat(secondBatch).hasSize(2)
+        assertThat(thirdBatch).isEmpty()
+        assertThat(firstBatch + secondBatch).containsExactlyInAnyOrderElementsOf(matchingKeys)
+        assertThat(stateManager.get(keyIndexRange.map { buildStateKey(it) }).keys)
+            .containsExactlyInAnyOrderElementsOf(keyIndexRange.map { buildStateKey(it) } - matchingKeys.toSet())
+
+        verifyHistogramSnapshotValues(MetricsRecorder.OperationType.DELETE, 3)
+    }
+
     private fun withTimeZone(timeZone: TimeZone, block: () -> Unit) {
         val defaultTimeZone = TimeZone.getDefault()
         try {
@@ -186,6 +186,20 @@ class StateManagerImpl(
         }
     }
 
+    override fun findByMetadataMatchingAll(
+        filters: Collection<MetadataFilter>,
+        afterKey: String?,
+        limit: Int
+    ): List<State> {
+        if (filters.isEmpty()) return emptyList()
+
+        return metricsRecorder.recordProcessingTime(FIND) {
+            dataSource.connection.use { connection ->
+                stateRepository.filterByAll(connection, filters, afterKey, limit)
+            }
+        }
+    }
+
     override fun findByMetadataMatchingAny(filters: Collection<MetadataFilter>): Map<String, State> {
         if (filters.isEmpty()) return emptyMap()
 
@@ -232,6 +246,55 @@ class StateManagerImpl(
         }
     }
 
+    override fun findKeysUpdatedBetweenWithMetadataMatchingAll(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>
+    ): Set<String> {
+        return metricsRecorder.recordProcessingTime(FIND) {
+            dataSource.connection.use { connection ->
+                stateRepository.filterKeysByUpdatedBetweenWithMetadataMatchingAll(
+                    connection,
+                    intervalFilter,
+                    metadataFilters
+                )
+            }.toSet()
+        }
+    }
+
+    override fun findKeysUpdatedBetweenWithMetadataMatchingAny(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>
+    ): Set<String> {
+        return metricsRecorder.recordProcessingTime(FIND) {
+            dataSource.connection.use { connection ->
+                stateRepository.filterKeysByUpdatedBetweenWithMetadataMatchingAny(
+                    connection,
+                    intervalFilter,
+                    metadataFilters
+                )
+            }.toSet()
+        }
+    }
+
+    override fun deleteUpdatedBetweenWithMetadataMatchingAny(
+        intervalFilter: IntervalFilter,
+        metadataFilters: Collection<MetadataFilter>,
+        limit: Int
+    ): Set<String> {
+        if (metadataFilters.isEmpty() || limit <= 0) return emptySet()
+
+        return metricsRecorder.recordProcessingTime(DELETE) {
+            dataSource.connection.transaction { connection ->
+                stateRepository.deleteByUpdatedBetweenWithMetadataMatchingAny(
+                    connection,
+                    intervalFilter,
+                    metadataFilters,
+                    limit
+                )
+            }.toSet()
+        }
+    }
+
     override val isRunning: Boolean
         get() = lifecycleCoordinator.isRunning
 
@@ -30,3 +30,13 @@ fun ResultSet.resultSetAsStateCollection(
 
     return result
 }
+
+fun ResultSet.resultSetAsKeyCollection(): Collection<String> {
+    val result = mutableListOf<String>()
+
+    while (next()) {
+        result.add(getString(KEY_COLUMN))
+    }
+
+    return result
+}
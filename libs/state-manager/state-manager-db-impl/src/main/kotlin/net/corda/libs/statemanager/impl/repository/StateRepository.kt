@@ -85,6 +85,24 @@ interface StateRepository {
      */
     fun filterByAll(connection: Connection, filters: Collection<MetadataFilter>): Collection<State>
 
+    /**
+     * Retrieve, ordered by key, at most [limit] states with a key greater than [afterKey] that exclusively match all
+     * specified [filters] (comparisons are applied against the stored keys and values within the [State.metadata]).
+     * Transaction should be controlled by the caller.
+     *
+     * @param connection The JDBC connection used to interact with the database.
+     * @param filters List of filter to use when searching for entities.
+     * @param afterKey Key after which to start retrieving states, or `null` to start from the first state.
+     * @param limit Maximum number of states to retrieve.
+     * @return List of states found, ordered by key.
+     */
+    fun filterByAll(
+        connection: Connection,
+        filters: Collection<MetadataFilter>,
+        afterKey: String?,
+        limit: Int
+    ): List<State>
+
     /**
      * Retrieve states matching any of the specified [filters] (comparisons are applied against the stored keys and
      * values within the [State.metadata]).
@@ -129,4 +147,57 @@ interface StateRepository {
         interval: IntervalFilter,
         filters: Collection<MetadataFilter>
     ): Collection<State>
+
+    /**
+     * Retrieve the keys of states that were lastly updated within [interval] (compared against [State.modifiedTime])
+     * and exclusively matching all specified [filters] (comparisons are applied against the stored keys and values
+     * within the [State.metadata]).
+     * Transaction should be controlled by the caller.
+     *
+     * @param connection The JDBC connection used to interact with the database.
+     * @param interval Lower and upper bound to use when filtering by time.
+     * @param filters List of filter to use when searching for entities.
+     * @return Collection of keys found.
+     */
+    fun filterKeysByUpdatedBetweenWithMetadataMatchingAll(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>
+    ): Collection<String>
+
+    /**
+     * Retrieve the keys of states that were lastly updated within [interval] (compared against [State.modifiedTime])
+     * and matching any of the specified [filters] (comparisons are applied against the stored keys and values within
+     * the [State.metadata]).
+     * Transaction should be controlled by the caller.
+     *
+     * @param connection The JDBC connection used to interact with the database.
+     * @param interval Lower and upper bound to use when filtering by time.
+     * @param filters List of filter to use when searching for entities.
+     * @return Collection of keys found.
+     */
+    fun filterKeysByUpdatedBetweenWithMetadataMatchingAny(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>
+    ): Collection<String>
+
+    /**
+     * Delete at most [limit] states that were lastly updated within [interval] (compared against
+     * [State.modifiedTime]) and matching any of the specified [filters] (comparisons are applied against the stored
+     * keys and values within the [State.metadata]).
+     * Transaction should be controlled by the caller.
+     *
+     * @param connection The JDBC connection used to interact with the database.
+     * @param interval Lower and upper bound to use when filtering by time.
+     * @param filters List of filter to use when searching for entities.
+     * @param limit Maximum number of states to delete.
+     * @return Collection of keys for states deleted.
+     */
+    fun deleteByUpdatedBetweenWithMetadataMatchingAny(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>,
+        limit: Int
+    ): Collection<String>
 }
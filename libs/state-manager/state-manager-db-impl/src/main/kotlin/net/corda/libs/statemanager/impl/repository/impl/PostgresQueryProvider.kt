@@ -44,6 +44,13 @@ class PostgresQueryProvider : AbstractQueryProvider() {
             WHERE (${metadataKeyFilters(filters).joinToString(" AND ")})
         """.trimIndent()
 
+    override fun findStatesByMetadataMatchingAll(filters: Collection<MetadataFilter>, afterKey: Boolean) =
+        """
+            ${findStatesByMetadataMatchingAll(filters)}${if (afterKey) " AND s.$KEY_COLUMN > ?" else ""}
+            ORDER BY s.$KEY_COLUMN
+            LIMIT ?
+        """.trimIndent()
+
     override fun findStatesByMetadataMatchingAny(filters: Collection<MetadataFilter>) =
         """
             SELECT s.$KEY_COLUMN, s.$VALUE_COLUMN, s.$METADATA_COLUMN, s.$VERSION_COLUMN, s.$MODIFIED_TIME_COLUMN 
@@ -63,11 +70,40 @@ class PostgresQueryProvider : AbstractQueryProvider() {
         """.trimIndent()
     }
 
+    override fun findKeysUpdatedBetweenWithMetadataMatchingAll(filters: Collection<MetadataFilter>): String {
+        return """
+            SELECT s.$KEY_COLUMN FROM $STATE_MANAGER_TABLE s
+            WHERE (${metadataKeyFilters(filters).joinToString(" AND ")}) AND (${updatedBetweenFilter()})
+        """.trimIndent()
+    }
+
+    override fun findKeysUpdatedBetweenWithMetadataMatchingAny(filters: Collection<MetadataFilter>): String {
+        return """
+            SELECT s.$KEY_COLUMN FROM $STATE_MANAGER_TABLE s
+            WHERE (${metadataKeyFilters(filters).joinToString(" OR ")}) AND (${updatedBetweenFilter()})
+        """.trimIndent()
+    }
+
+    // Postgres has no DELETE ... LIMIT, so the states to delete are picked by a sub-query. Rows being deleted by a
+    // concurrent sweep are skipped rather than waited for, and the filters are re-checked against rows that have
+    // been updated since the sub-query started.
+    override fun deleteStatesUpdatedBetweenWithMetadataMatchingAny(filters: Collection<MetadataFilter>): String {
+        return """
+            DELETE FROM $STATE_MANAGER_TABLE
+            WHERE $KEY_COLUMN IN (
+                ${findKeysUpdatedBetweenWithMetadataMatchingAny(filters)}
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING $KEY_COLUMN
+        """.trimIndent()
+    }
+
     fun metadataKeyFilters(filters: Collection<MetadataFilter>) =
         filters.map { "(${metadataKeyFilter(it)})" }
 
     fun metadataKeyFilter(filter: MetadataFilter) =
-        "(s.$METADATA_COLUMN->>'${filter.key}')::${filter.value.toNativeType()} ${filter.operation.toNativeOperator()} '${filter.value}'"
+        "(s.$METADATA_COLUMN->>'${filter.key}')::${filter.value.toNativeType()} ${filter.operation.toNativeOperator()} '${filter.value.toString().replace("'", "''")}'"
 
     private fun Any.toNativeType() = when (this) {
         is String -> "text"
@@ -25,9 +25,17 @@ interface QueryProvider {
 
     fun findStatesByMetadataMatchingAll(filters: Collection<MetadataFilter>): String
 
+    fun findStatesByMetadataMatchingAll(filters: Collection<MetadataFilter>, afterKey: Boolean): String
+
     fun findStatesByMetadataMatchingAny(filters: Collection<MetadataFilter>): String
 
     fun findStatesUpdatedBetweenWithMetadataMatchingAll(filters: Collection<MetadataFilter>): String
 
     fun findStatesUpdatedBetweenWithMetadataMatchingAny(filters: Collection<MetadataFilter>): String
+
+    fun findKeysUpdatedBetweenWithMetadataMatchingAll(filters: Collection<MetadataFilter>): String
+
+    fun findKeysUpdatedBetweenWithMetadataMatchingAny(filters: Collection<MetadataFilter>): String
+
+    fun deleteStatesUpdatedBetweenWithMetadataMatchingAny(filters: Collection<MetadataFilter>): String
 }
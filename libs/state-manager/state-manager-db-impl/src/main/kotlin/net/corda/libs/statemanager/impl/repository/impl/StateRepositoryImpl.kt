@@ -6,6 +6,7 @@ import net.corda.libs.statemanager.api.IntervalFilter
 import net.corda.libs.statemanager.api.MetadataFilter
 import net.corda.libs.statemanager.api.State
 import net.corda.libs.statemanager.impl.compression.CompressionService
+import net.corda.libs.statemanager.impl.model.v1.resultSetAsKeyCollection
 import net.corda.libs.statemanager.impl.model.v1.resultSetAsStateCollection
 import net.corda.libs.statemanager.impl.repository.StateRepository
 import java.sql.Connection
@@ -123,6 +124,18 @@ class StateRepositoryImpl(
             it.executeQuery().resultSetAsStateCollection(objectMapper, compressionService)
         }
 
+    override fun filterByAll(
+        connection: Connection,
+        filters: Collection<MetadataFilter>,
+        afterKey: String?,
+        limit: Int
+    ) = connection.prepareStatement(queryProvider.findStatesByMetadataMatchingAll(filters, afterKey != null)).use {
+        val indices = generateSequence(1) { it + 1 }.iterator()
+        afterKey?.let { key -> it.setString(indices.next(), key) }
+        it.setInt(indices.next(), limit)
+        it.executeQuery().resultSetAsStateCollection(objectMapper, compressionService).toList()
+    }
+
     override fun filterByAny(connection: Connection, filters: Collection<MetadataFilter>) =
         connection.prepareStatement(queryProvider.findStatesByMetadataMatchingAny(filters)).use {
             it.executeQuery().resultSetAsStateCollection(objectMapper, compressionService)
@@ -147,4 +160,36 @@ class StateRepositoryImpl(
         it.setTimestamp(2, interval.finish)
         it.executeQuery().resultSetAsStateCollection(objectMapper, compressionService)
     }
+
+    override fun filterKeysByUpdatedBetweenWithMetadataMatchingAll(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>
+    ) = connection.prepareStatement(queryProvider.findKeysUpdatedBetweenWithMetadataMatchingAll(filters)).use {
+        it.setTimestamp(1, interval.start)
+        it.setTimestamp(2, interval.finish)
+        it.executeQuery().resultSetAsKeyCollection()
+    }
+
+    override fun filterKeysByUpdatedBetweenWithMetadataMatchingAny(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>
+    ) = connection.prepareStatement(queryProvider.findKeysUpdatedBetweenWithMetadataMatchingAny(filters)).use {
+        it.setTimestamp(1, interval.start)
+        it.setTimestamp(2, interval.finish)
+        it.executeQuery().resultSetAsKeyCollection()
+    }
+
+    override fun deleteByUpdatedBetweenWithMetadataMatchingAny(
+        connection: Connection,
+        interval: IntervalFilter,
+        filters: Collection<MetadataFilter>,
+        limit: Int
+    ) = connection.prepareStatement(queryProvider.deleteStatesUpdatedBetweenWithMetadataMatchingAny(filters)).use {
+        it.setTimestamp(1, interval.start)
+        it.setTimestamp(2, interval.finish)
+        it.setInt(3, limit)
+        it.executeQuery().resultSetAsKeyCollection()
+    }
 }
@@ -1,5 +1,6 @@
 package net.corda.libs.statemanager.impl.repository.impl
 
+import net.corda.db.schema.DbSchema.STATE_MANAGER_TABLE
 import net.corda.libs.statemanager.api.MetadataFilter
 import net.corda.libs.statemanager.api.Operation
 import org.assertj.core.api.Assertions.assertThat
@@ -73,4 +74,42 @@ class PostgresQueryProviderTest {
             "((s.metadata->>'key3')::boolean <> 'true')",
         )
     }
+
+    @Test
+    fun metadataKeyFilterEscapesQuotesInValues() {
+        val sqlQuery = queryProvider.metadataKeyFilter(MetadataFilter("key1", Operation.Equals, "it's"))
+
+        assertThat(sqlQuery).isEqualToNormalizingWhitespace("(s.metadata->>'key1')::text = 'it''s'")
+    }
+
+    @Test
+    fun findStatesByMetadataMatchingAllPageIsOrderedByKeyAndLimited() {
+        val filters = listOf(MetadataFilter("key1", Operation.Equals, "text"))
+
+        assertThat(queryProvider.findStatesByMetadataMatchingAll(filters, afterKey = false))
+            .isEqualToNormalizingWhitespace("${queryProvider.findStatesByMetadataMatchingAll(filters)} ORDER BY s.key LIMIT ?")
+        assertThat(queryProvider.findStatesByMetadataMatchingAll(filters, afterKey = true))
+            .isEqualToNormalizingWhitespace(
+                "${queryProvider.findStatesByMetadataMatchingAll(filters)} AND s.key > ? ORDER BY s.key LIMIT ?"
+            )
+    }
+
+    @Test
+    fun deleteStatesUpdatedBetweenWithMetadataMatchingAnyDeletesALimitedNumberOfKeysMatchingTheFilters() {
+        val filters = listOf(
+            MetadataFilter("key1", Operation.Equals, "text"),
+            MetadataFilter("key1", Operation.Equals, "other"),
+        )
+
+        assertThat(queryProvider.findKeysUpdatedBetweenWithMetadataMatchingAny(filters)).isEqualToNormalizingWhitespace(
+            "SELECT s.key FROM $STATE_MANAGER_TABLE s " +
+                "WHERE (((s.metadata->>'key1')::text = 'text') OR ((s.metadata->>'key1')::text = 'other')) " +
+                "AND (s.modified_time BETWEEN ? AND ?)"
+        )
+        assertThat(queryProvider.deleteStatesUpdatedBetweenWithMetadataMatchingAny(filters)).isEqualToNormalizingWhitespace(
+            "DELETE FROM $STATE_MANAGER_TABLE WHERE key IN ( " +
+                "${queryProvider.findKeysUpdatedBetweenWithMetadataMatchingAny(filters)} LIMIT ? FOR UPDATE SKIP LOCKED " +
+                ") RETURNING key"
+        )
+    }
 }
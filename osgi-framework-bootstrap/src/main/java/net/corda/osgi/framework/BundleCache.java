@@ -0,0 +1,159 @@
+package net.corda.osgi.framework;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link BundleCache} keeps the OSGi framework's bundle cache in a directory which outlives the JVM, so that a worker
+ * restarting with the same bundles does not need to extract every bundle from the bootable JAR again.
+ * <p/>
+ * The cache is only reused if it was populated from the same sources: the bootable JAR and the directories
+ * of extra bundles. These are summarised by a fingerprint of the paths, sizes and modification times of their
+ * {@code .jar} files, which is written to the cache directory once every bundle has been activated, and removed
+ * again while the framework is being set up, so that a worker which fails part way through starting up does
+ * not leave a cache behind that looks valid.
+ * <p/>
+ * Only one worker at a time can use the cache directory, see {@link #lock}.
+ */
+final class BundleCache implements AutoCloseable {
+    /**
+     * System property naming the directory to keep the bundle cache in.
+     * If not set, each start uses a new temporary directory.
+     */
+    static final String CACHE_DIRECTORY_PROPERTY = "net.corda.osgi.cache.directory";
+
+    private static final String FINGERPRINT_FILE = "bundles.fingerprint";
+
+    private static final String LOCK_FILE = "bundles.lock";
+
+    private static final String JAR_EXTENSION = ".jar";
+
+    private final Path directory;
+
+    private final String fingerprint;
+
+    private FileChannel lockChannel;
+
+    /**
+     * @param directory where the OSGi framework keeps its bundle cache.
+     * @param sources   the bootable JAR and the directories bundles are installed from.
+     * @throws IOException if the {@code sources} can't be read.
+     */
+    BundleCache(Path directory, List<Path> sources) throws IOException {
+        this.directory = directory;
+        this.fingerprint = fingerprintOf(sources);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Lock the bundle cache against other workers sharing the same directory, until {@link #close} is called or
+     * this process exits.
+     *
+     * @return {@code true} if the bundle cache was locked, or {@code false} if another worker is using it.
+     * @throws IOException if the cache directory can't be written to.
+     */
+    boolean lock() throws IOException {
+        Files.createDirectories(directory);
+        final FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already locked by this process.
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            return false;
+        }
+        lockChannel = channel;
+        return true;
+    }
+
+    /**
+     * Return {@code true} if the bundle cache was populated from the same sources, and can be used without cleaning it.
+     * The cache is marked as invalid until {@link #commit} is called.
+     *
+     * @return {@code true} if the bundle cache can be reused.
+     * @throws IOException if the cache directory can't be written to.
+     */
+    boolean checkout() throws IOException {
+        Files.createDirectories(directory);
+        final Path fingerprintFile = directory.resolve(FINGERPRINT_FILE);
+        final boolean valid = Files.isRegularFile(fingerprintFile)
+                && fingerprint.equals(Files.readString(fingerprintFile, StandardCharsets.UTF_8));
+        Files.deleteIfExists(fingerprintFile);
+        return valid;
+    }
+
+    /**
+     * Mark the bundle cache as populated from the current sources, once every bundle has been installed and activated.
+     *
+     * @throws IOException if the cache directory can't be written to.
+     */
+    void commit() throws IOException {
+        Files.writeString(directory.resolve(FINGERPRINT_FILE), fingerprint, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Release the lock on the bundle cache, if it is held.
+     *
+     * @throws IOException if the lock can't be released.
+     */
+    @Override
+    public void close() throws IOException {
+        if (lockChannel != null) {
+            lockChannel.close();
+            lockChannel = null;
+        }
+    }
+
+    private static String fingerprintOf(List<Path> sources) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+        for (Path source : sources) {
+            if (Files.isDirectory(source)) {
+                final List<Path> jars;
+                try (Stream<Path> stream = Files.walk(source, 1)) {
+                    jars = stream.filter(Files::isRegularFile)
+                            .filter(p -> p.toString().endsWith(JAR_EXTENSION))
+                            .sorted()
+                            .toList();
+                }
+                for (Path jar : jars) {
+                    update(digest, jar);
+                }
+            } else if (Files.isRegularFile(source)) {
+                update(digest, source);
+            } else {
+                digest.update(("absent:" + source.toAbsolutePath() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        final String entry = file.toAbsolutePath() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis() + '\n';
+        digest.update(entry.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,11 +4,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.security.URIParameter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -69,6 +73,12 @@ final class OSGiFrameworkMain {
      */
     static final String APPLICATION_BUNDLES = "application_bundles";
 
+    /**
+     * System property which, if {@code true}, stops the OSGi framework as soon as the bundles are activated instead of
+     * starting the application. Used to record the classes loaded at start-up, e.g. into an AppCDS archive.
+     */
+    static final String EXIT_AFTER_ACTIVATION_PROPERTY = "net.corda.osgi.exit.after.activation";
+
     /**
      * The main entry point for the bootable JAR built with the `corda.common-app` plugin.
      * <p/>
@@ -78,7 +88,8 @@ final class OSGiFrameworkMain {
      *      <li>Start Felix OSGi framework</li>
      *      <li>Install OSGi framework services.</li></ol>
      * <li><b>Load bundles in bootstrapper</b><ol>
-     *      <li>Install OSGi bundles in the OSGi framework,</li>
+     *      <li>Install OSGi bundles in the OSGi framework, reusing the bundle cache left by a previous start with the
+     *      same bundles if {@link BundleCache#CACHE_DIRECTORY_PROPERTY} is set,</li>
      *      <li>Activate OSGi bundles.</li></ol>
      * <li><b>Call application entry-point</b<ol>
      *      <li>Call the {@link net.corda.osgi.api.Application#startup} method of active application bundles, if any,
@@ -129,10 +140,24 @@ final class OSGiFrameworkMain {
 
         final Logger logger = LoggerFactory.getLogger(OSGiFrameworkMain.class);
         try {
-            final Path frameworkStorageDir = Files.createTempDirectory(FRAMEWORK_STORAGE_PREFIX);
+            final Path driverDirectory = getDbDriverDirectory(args);
+            final Path addonDirectory = getAddonDirectory(args);
+
+            final BundleCache bundleCache = getBundleCache(List.of(driverDirectory, addonDirectory), logger);
+            final Path frameworkStorageDir;
+            final boolean cleanStorage;
+            if (bundleCache == null) {
+                frameworkStorageDir = Files.createTempDirectory(FRAMEWORK_STORAGE_PREFIX);
+                cleanStorage = true;
+            } else {
+                frameworkStorageDir = bundleCache.getDirectory();
+                cleanStorage = !bundleCache.checkout();
+                logger.info("OSGi bundle cache at {} {}.", frameworkStorageDir, cleanStorage ? "is out of date, cleaning it" : "reused");
+            }
             OSGiFrameworkWrap osgiFrameworkWrap = new OSGiFrameworkWrap(
                     getFrameworkFrom(
                             frameworkStorageDir,
+                            cleanStorage,
                             OSGiFrameworkMain.class.getClassLoader(),
                             logger
                     )
@@ -144,23 +169,32 @@ final class OSGiFrameworkMain {
                     }
                 }, "shutdown"));
 
-                final Path driverDirectory = getDbDriverDirectory(args);
-                final Path addonDirectory = getAddonDirectory(args);
-
                 osgiFrameworkWrap
                         .start()
                         .installFromDirectory(driverDirectory)
                         .installFromDirectory(addonDirectory)
                         .install(APPLICATION_BUNDLES)
-                        .activate()
-                        .startApplication(args)
-                        .waitForStop();
+                        .activate();
+                if (bundleCache != null) {
+                    bundleCache.commit();
+                }
+                if (Boolean.getBoolean(EXIT_AFTER_ACTIVATION_PROPERTY)) {
+                    logger.info("OSGi bundles activated, stopping without starting the application.");
+                    osgiFrameworkWrap.stop();
+                } else {
+                    osgiFrameworkWrap
+                            .startApplication(args)
+                            .waitForStop();
+                }
             } finally {
                 // If osgiFrameworkWrap stopped because SIGINT/CTRL+C,
                 // this avoids to call stop twice and log warning.
                 if (isBundleStoppable(osgiFrameworkWrap.getState())) {
                     osgiFrameworkWrap.stop();
                 }
+                if (bundleCache != null) {
+                    bundleCache.close();
+                }
             }
         } catch (Exception e) {
             logger.error("Error: " + e.getMessage(), e);
@@ -172,6 +206,35 @@ final class OSGiFrameworkMain {
         }
     }
 
+    /**
+     * Return the locked {@link BundleCache} to keep the OSGi bundle cache in across restarts, or {@code null} if
+     * {@link BundleCache#CACHE_DIRECTORY_PROPERTY} is not set, the bundles are not loaded from a bootable JAR, or
+     * another worker is using the cache directory.
+     *
+     * @param bundleDirectories the directories extra bundles are installed from.
+     */
+    private static BundleCache getBundleCache(List<Path> bundleDirectories, Logger logger) throws IOException, URISyntaxException {
+        final String cacheDirectory = System.getProperty(BundleCache.CACHE_DIRECTORY_PROPERTY);
+        if (cacheDirectory == null || cacheDirectory.isBlank()) {
+            return null;
+        }
+        final CodeSource codeSource = OSGiFrameworkMain.class.getProtectionDomain().getCodeSource();
+        final Path bootableJar = codeSource == null ? null : Paths.get(codeSource.getLocation().toURI());
+        if (bootableJar == null || !Files.isRegularFile(bootableJar)) {
+            logger.warn("OSGi bundle cache at {} not used, as bundles are not loaded from a bootable JAR.", cacheDirectory);
+            return null;
+        }
+        final List<Path> sources = new ArrayList<>();
+        sources.add(bootableJar);
+        sources.addAll(bundleDirectories);
+        final BundleCache bundleCache = new BundleCache(Paths.get(cacheDirectory), sources);
+        if (!bundleCache.lock()) {
+            logger.warn("OSGi bundle cache at {} not used, as another worker is using it.", cacheDirectory);
+            return null;
+        }
+        return bundleCache;
+    }
+
     /**
      * Get the db driver path up front, rather than in the {@link net.corda.osgi.api.Application}
      * <p/>
@@ -106,6 +106,28 @@ class OSGiFrameworkUtils {
             Path frameworkStorageDir,
             ClassLoader classLoader,
             Logger logger
+    ) throws ClassNotFoundException, IOException, SecurityException {
+        return getFrameworkFrom(frameworkStorageDir, true, classLoader, logger);
+    }
+
+    /**
+     * Return a new configured {@link Framework} as {@link #getFrameworkFrom(Path, ClassLoader, Logger)} does, except
+     * that the bundles' cache in {@code frameworkStorageDir} is only cleaned when the framework is first initialised
+     * if {@code cleanStorage} is {@code true}. Otherwise, the framework reuses the bundles it finds in the cache.
+     *
+     * @param frameworkStorageDir Path to the directory the {@link Framework} uses as bundles' cache.
+     * @param cleanStorage        Whether to clean the bundles' cache.
+     * @param classLoader         Classloader to use as a starting point to locate service providers for the OSGI FrameworkFactory class
+     * @param logger              A logger instance which this method will use
+     * @return A new configured {@link Framework} loaded from the classpath.
+     * @throws ClassNotFoundException If no {@link FrameworkFactory} is in the classpath.
+     * @throws SecurityException      If a {@link SecurityManager} is installed and the caller hasn't {@link RuntimePermission}.
+     */
+    static Framework getFrameworkFrom(
+            Path frameworkStorageDir,
+            boolean cleanStorage,
+            ClassLoader classLoader,
+            Logger logger
     ) throws ClassNotFoundException, IOException, SecurityException {
         Optional<FrameworkFactory> optFactory = ServiceLoader.load(FrameworkFactory.class, classLoader).findFirst();
         if (optFactory.isEmpty()) {
@@ -114,7 +136,9 @@ class OSGiFrameworkUtils {
         final FrameworkFactory frameworkFactory = optFactory.get();
         final Map<String, String> configurationMap = new LinkedHashMap<>();
         configurationMap.put(Constants.FRAMEWORK_STORAGE, frameworkStorageDir.toString());
-        configurationMap.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+        if (cleanStorage) {
+            configurationMap.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+        }
         configurationMap.put(Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA, getFrameworkPropertyFrom(SYSTEM_PACKAGES_EXTRA));
         configurationMap.putAll(toStringMap(loadOSGiProperties(FRAMEWORK_PROPERTIES_RESOURCE)));
         configurationMap.putAll(toStringMap(System.getProperties()));
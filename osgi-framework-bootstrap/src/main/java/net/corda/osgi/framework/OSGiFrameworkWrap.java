@@ -151,7 +151,9 @@ class OSGiFrameworkWrap implements AutoCloseable {
                         bundleStateMap.get(bundle.getState())
                 );
             } else {
-                bundle.start(Bundle.START_ACTIVATION_POLICY);
+                // Started transiently, so that a framework reusing the bundle cache does not start the bundle itself
+                // before it is activated here, in order.
+                bundle.start(Bundle.START_TRANSIENT | Bundle.START_ACTIVATION_POLICY);
             }
         }
         return this;
@@ -0,0 +1,86 @@
+package net.corda.osgi.framework;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BundleCacheTest {
+    private Path cacheDirectory;
+    private Path bootableJar;
+    private Path driverDirectory;
+
+    @BeforeEach
+    void setup(@TempDir Path tempDir) throws Exception {
+        cacheDirectory = tempDir.resolve("cache");
+        bootableJar = Files.writeString(tempDir.resolve("corda-worker.jar"), "worker");
+        driverDirectory = Files.createDirectory(tempDir.resolve("drivers"));
+        Files.writeString(driverDirectory.resolve("driver.jar"), "driver");
+    }
+
+    private BundleCache bundleCache() throws Exception {
+        return new BundleCache(cacheDirectory, List.of(bootableJar, driverDirectory));
+    }
+
+    @Test
+    void cacheIsReusedOnlyAfterItWasCommittedForTheSameBundles() throws Exception {
+        final BundleCache firstStart = bundleCache();
+        assertFalse(firstStart.checkout());
+        firstStart.commit();
+
+        assertTrue(bundleCache().checkout());
+    }
+
+    @Test
+    void cacheIsNotReusedIfTheLastStartDidNotCommitIt() throws Exception {
+        final BundleCache firstStart = bundleCache();
+        firstStart.checkout();
+        firstStart.commit();
+
+        assertTrue(bundleCache().checkout());
+        assertFalse(bundleCache().checkout());
+    }
+
+    @Test
+    void cacheIsNotReusedIfABundleChanged() throws Exception {
+        final BundleCache firstStart = bundleCache();
+        firstStart.checkout();
+        firstStart.commit();
+
+        final Path driver = driverDirectory.resolve("driver.jar");
+        Files.writeString(driver, "upgraded driver");
+        Files.setLastModifiedTime(driver, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertFalse(bundleCache().checkout());
+    }
+
+    @Test
+    void cacheIsNotReusedIfABundleWasAdded() throws Exception {
+        final BundleCache firstStart = bundleCache();
+        firstStart.checkout();
+        firstStart.commit();
+
+        Files.writeString(driverDirectory.resolve("another-driver.jar"), "driver");
+
+        assertFalse(bundleCache().checkout());
+    }
+
+    @Test
+    void cacheCanOnlyBeLockedByOneWorkerAtATime() throws Exception {
+        try (BundleCache firstWorker = bundleCache(); BundleCache secondWorker = bundleCache()) {
+            assertTrue(firstWorker.lock());
+            assertFalse(secondWorker.lock());
+
+            firstWorker.close();
+            assertTrue(secondWorker.lock());
+        }
+    }
+}
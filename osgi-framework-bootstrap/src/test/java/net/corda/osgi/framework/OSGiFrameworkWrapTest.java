@@ -3,6 +3,7 @@ package net.corda.osgi.framework;
 import static net.corda.osgi.framework.OSGiFrameworkUtils.getFrameworkFrom;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleEvent;
+import org.osgi.framework.Constants;
 import org.osgi.framework.FrameworkEvent;
 import org.osgi.framework.launch.Framework;
 import org.slf4j.Logger;
@@ -22,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -116,6 +119,38 @@ final class OSGiFrameworkWrapTest {
         }
     }
 
+    @Test
+    void activateReusingTheBundleCacheOfAPreviousStart() throws Exception {
+        try (OSGiFrameworkWrap frameworkWrap = new OSGiFrameworkWrap(getFramework())) {
+            frameworkWrap.start();
+            frameworkWrap.install(OSGiFrameworkMain.APPLICATION_BUNDLES);
+            frameworkWrap.activate();
+            frameworkWrap.stop();
+            assertEquals(FrameworkEvent.STOPPED, frameworkWrap.waitForStop().getType());
+        }
+
+        final Framework framework = getFrameworkFrom(frameworkStorageDir, false, this.getClass().getClassLoader(), logger);
+        try (OSGiFrameworkWrap frameworkWrap = new OSGiFrameworkWrap(framework)) {
+            frameworkWrap.start();
+            final List<Bundle> cachedBundles = Arrays.stream(framework.getBundleContext().getBundles())
+                    .filter(bundle -> bundle.getBundleId() != Constants.SYSTEM_BUNDLE_ID)
+                    .toList();
+            assertThat(cachedBundles).isNotEmpty();
+            // Bundles must only be started by activate(), in order, and not by the framework as it starts.
+            for (Bundle bundle : cachedBundles) {
+                assertNotEquals(Bundle.ACTIVE, bundle.getState());
+            }
+
+            frameworkWrap.install(OSGiFrameworkMain.APPLICATION_BUNDLES);
+            frameworkWrap.activate();
+            for (Bundle bundle : framework.getBundleContext().getBundles()) {
+                if (!OSGiFrameworkUtils.isFragmentBundle(bundle)) {
+                    assertEquals(Bundle.ACTIVE, bundle.getState());
+                }
+            }
+        }
+    }
+
     @Test
     void install() throws Exception {
         final Framework framework = getFramework();
@@ -194,6 +194,22 @@ class MemberInfoReconciler(
             )
         }
 
+        override fun putAll(records: Map<String, PersistentMemberInfo>) {
+            records.values.forEach { recordValue ->
+                logger.info("Reconciling record for: ${parseName(recordValue)} in " +
+                        "${recordValue.viewOwningMember}'s member list.")
+            }
+            coordinator.getManagedResource<Publisher>(PUBLISHER_RESOURCE_NAME)?.publish(
+                records.map { (recordKey, recordValue) -> Record(topic = MEMBER_LIST_TOPIC, key = recordKey, value = recordValue) }
+            )
+        }
+
+        override fun removeAll(recordKeys: Collection<String>) {
+            coordinator.getManagedResource<Publisher>(PUBLISHER_RESOURCE_NAME)?.publish(
+                recordKeys.map { Record(topic = MEMBER_LIST_TOPIC, key = it, value = null) }
+            )
+        }
+
         private fun parseName(memberInfo: PersistentMemberInfo): String? {
             return try {
                 // we can have old schema version (5.0) of persistent information in case of platform upgrade
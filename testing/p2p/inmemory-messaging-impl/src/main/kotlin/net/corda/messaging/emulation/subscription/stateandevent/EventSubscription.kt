@@ -39,7 +39,9 @@ internal class EventSubscription<K : Any, S : Any, E : Any>(
                 val response = subscription.processor.onNext(
                     State(state, metadata = null),
                     event
-                )
+                ).let {
+                    it.copy(updatedState = subscription.processor.onBatchComplete(event.key, it.updatedState))
+                }
                 subscription.setValue(event.key, response.updatedState?.value, eventMetaData.partition)
                 subscription.topicService.addRecords(
                     listOf(
@@ -35,6 +35,11 @@ class SandboxGroupContextComponentImpl @Activate constructor(
             ?: throw IllegalStateException("Cannot initialize sandbox cache")).resizeCache(type, capacity)
     }
 
+    override fun capacity(type: SandboxGroupType): Long {
+        return (sandboxGroupContextService as? CacheControl
+            ?: throw IllegalStateException("Cannot get sandbox cache capacity")).capacity(type)
+    }
+
     override fun remove(virtualNodeContext: VirtualNodeContext): CompletableFuture<*>? {
         return (sandboxGroupContextService as? CacheControl
             ?: throw IllegalStateException("Cannot remove sandbox from cache")).remove(virtualNodeContext)